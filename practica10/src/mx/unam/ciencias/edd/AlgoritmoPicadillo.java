@@ -9,5 +9,14 @@ public enum AlgoritmoPicadillo {
     /** Algoritmo de GLib para cadenas. */
     GLIB_STRING,
     /** Algoritmo de XOR para cadenas. */
-    XOR_STRING;
+    XOR_STRING,
+    /** Algoritmo MurmurHash3 (x86, 32 bits) para cadenas. */
+    MURMUR3_STRING,
+    /** Algoritmo xxHash de 32 bits para cadenas. */
+    XXHASH32_STRING,
+    /** Algoritmo xxHash de 64 bits para cadenas. */
+    XXHASH64_STRING,
+    /** Algoritmo SipHash-1-3 para cadenas; con llave secreta resiste
+     *  ataques de colisiones. */
+    SIPHASH_STRING;
 }
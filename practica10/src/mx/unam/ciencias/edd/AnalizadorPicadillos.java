@@ -0,0 +1,490 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.SplittableRandom;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.IntFunction;
+
+/**
+ * <p>Clase para analizar la calidad de un {@link Picadillo}. El analizador
+ * calcula el picadillo de cada llave de un corpus y reporta:</p>
+ *
+ * <ul>
+ * <li>La prueba de chi cuadrada de la distribución de las llaves en tablas
+ *     de 2<sup>b</sup> cubetas, para cada b en un rango.</li>
+ * <li>Las colisiones y la colisión máxima en esas mismas tablas; son los
+ *     valores que regresarían {@link Diccionario#colisiones} y {@link
+ *     Diccionario#colisionMaxima} para un diccionario con ese tamaño de
+ *     arreglo.</li>
+ * <li>El sesgo de cada bit del picadillo: la fracción de llaves con ese bit
+ *     prendido, que idealmente es 1/2.</li>
+ * </ul>
+ *
+ * <p>El corpus puede ser generado, con una función que regresa la llave
+ * <i>i</i>, o leído de un {@link Iterator} (por ejemplo, las líneas de un
+ * archivo). En los dos casos el trabajo se reparte entre tantos hilos como
+ * procesadores haya, cada uno con sus propios contadores, así que el
+ * analizador procesa cientos de millones de llaves sin guardarlas en memoria.
+ * Cada hilo sólo guarda un histograma para la tabla más grande; los de las
+ * tablas más chicas se obtienen doblándolo.</p>
+ *
+ * <p>Además, {@link #avalancha} calcula la matriz de avalancha de un
+ * picadillo de arreglos de bytes: la probabilidad de que cada bit de salida
+ * cambie al cambiar cada bit de entrada, que idealmente es 1/2.</p>
+ */
+public class AnalizadorPicadillos<T> {
+
+    /**
+     * Clase para los resultados de un análisis.
+     */
+    public static class Resultado {
+
+        /* Bits mínimos y máximos de las tablas. */
+        private int bitsMinimos, bitsMaximos;
+        /* Número de llaves analizadas. */
+        private long elementos;
+        /* Chi cuadrada, colisiones y colisión máxima por bits. */
+        private double[] chiCuadrada;
+        private long[] colisiones;
+        private long[] colisionMaxima;
+        /* Cuántas llaves tienen prendido cada bit del picadillo. */
+        private long[] bits;
+
+        /* Construye el resultado a partir del histograma de la tabla más
+         * grande y de los contadores de bits. */
+        private Resultado(int bitsMinimos, int bitsMaximos, long elementos,
+                          long[] histograma, long[] bits) {
+            this.bitsMinimos = bitsMinimos;
+            this.bitsMaximos = bitsMaximos;
+            this.elementos = elementos;
+            this.bits = bits;
+            chiCuadrada = new double[bitsMaximos + 1];
+            colisiones = new long[bitsMaximos + 1];
+            colisionMaxima = new long[bitsMaximos + 1];
+            for (int b = bitsMaximos; b >= bitsMinimos; b--) {
+                int m = 1 << b;
+                double esperado = (double)elementos / m;
+                long ocupadas = 0, maxima = 0;
+                double chi = 0;
+                for (int i = 0; i < m; i++) {
+                    long c = histograma[i];
+                    if (c > 0)
+                        ocupadas++;
+                    if (c > maxima)
+                        maxima = c;
+                    chi += (c - esperado) * (c - esperado);
+                }
+                chiCuadrada[b] = elementos == 0 ? 0 : chi / esperado;
+                colisiones[b] = elementos - ocupadas;
+                colisionMaxima[b] = Math.max(0, maxima - 1);
+                /* Doblamos el histograma a la mitad para la siguiente tabla. */
+                for (int i = 0; i < m / 2; i++)
+                    histograma[i] += histograma[i + m / 2];
+            }
+        }
+
+        /* Revisa que los bits estén en el rango analizado. */
+        private void revisaBits(int b) {
+            if (b < bitsMinimos || b > bitsMaximos)
+                throw new IllegalArgumentException();
+        }
+
+        /**
+         * Regresa el número de llaves analizadas.
+         * @return el número de llaves analizadas.
+         */
+        public long getElementos() {
+            return elementos;
+        }
+
+        /**
+         * Regresa la chi cuadrada de la distribución de las llaves en una
+         * tabla de 2<sup>b</sup> cubetas. Con un picadillo uniforme su valor
+         * esperado es 2<sup>b</sup> - 1.
+         * @param b el logaritmo base 2 del tamaño de la tabla.
+         * @return la chi cuadrada de la distribución.
+         * @throws IllegalArgumentException si b no está en el rango analizado.
+         */
+        public double chiCuadrada(int b) {
+            revisaBits(b);
+            return chiCuadrada[b];
+        }
+
+        /**
+         * Regresa cuántas desviaciones estándar se aleja la chi cuadrada de
+         * una tabla de 2<sup>b</sup> cubetas de su valor esperado. Valores
+         * mayores a 3 en valor absoluto indican un picadillo no uniforme.
+         * @param b el logaritmo base 2 del tamaño de la tabla.
+         * @return la desviación normalizada de la chi cuadrada.
+         * @throws IllegalArgumentException si b no está en el rango analizado.
+         */
+        public double desviacion(int b) {
+            revisaBits(b);
+            double libertad = (1 << b) - 1;
+            return (chiCuadrada[b] - libertad) / Math.sqrt(2 * libertad);
+        }
+
+        /**
+         * Regresa cuántas colisiones hay en una tabla de 2<sup>b</sup>
+         * cubetas; es decir, cuántas llaves no son las primeras en su
+         * cubeta.
+         * @param b el logaritmo base 2 del tamaño de la tabla.
+         * @return las colisiones en la tabla.
+         * @throws IllegalArgumentException si b no está en el rango analizado.
+         */
+        public long colisiones(int b) {
+            revisaBits(b);
+            return colisiones[b];
+        }
+
+        /**
+         * Regresa la colisión máxima en una tabla de 2<sup>b</sup> cubetas;
+         * es decir, el número de llaves en la cubeta más llena menos uno.
+         * @param b el logaritmo base 2 del tamaño de la tabla.
+         * @return la colisión máxima en la tabla.
+         * @throws IllegalArgumentException si b no está en el rango analizado.
+         */
+        public long colisionMaxima(int b) {
+            revisaBits(b);
+            return colisionMaxima[b];
+        }
+
+        /**
+         * Regresa la fracción de las llaves cuyo picadillo tiene prendido el
+         * bit recibido.
+         * @param bit el bit, entre 0 y 31.
+         * @return la fracción de llaves con el bit prendido.
+         * @throws IllegalArgumentException si el bit no está entre 0 y 31.
+         */
+        public double sesgo(int bit) {
+            if (bit < 0 || bit > 31)
+                throw new IllegalArgumentException();
+            return elementos == 0 ? 0 : (double)bits[bit] / elementos;
+        }
+
+        /**
+         * Regresa una tabla con los resultados del análisis.
+         * @return una tabla con los resultados del análisis.
+         */
+        @Override public String toString() {
+            StringBuilder sb = new StringBuilder();
+            sb.append(String.format("%d llaves\n", elementos));
+            sb.append(" bits  chi cuadrada  desviación  colisiones  máxima\n");
+            for (int b = bitsMinimos; b <= bitsMaximos; b++)
+                sb.append(String.format("%5d %13.1f %11.2f %11d %7d\n", b,
+                                        chiCuadrada[b], desviacion(b),
+                                        colisiones[b], colisionMaxima[b]));
+            sb.append("sesgo por bit:");
+            for (int bit = 0; bit < 32; bit++)
+                sb.append(String.format("%s%.3f", bit % 8 == 0 ? "\n" : " ",
+                                        sesgo(bit)));
+            sb.append("\n");
+            return sb.toString();
+        }
+    }
+
+    /* Contadores de un hilo. */
+    private class Acumulador {
+
+        /* El histograma de la tabla más grande. */
+        public long[] histograma = new long[1 << bitsMaximos];
+        /* Cuántas llaves tienen prendido cada bit. */
+        public long[] bits = new long[32];
+        /* Número de llaves. */
+        public long elementos;
+
+        /* Cuenta el picadillo de una llave. */
+        public void cuenta(T llave) {
+            int h = picadillo.picadillo(llave);
+            histograma[h & mascara]++;
+            for (int b = h; b != 0; b &= b - 1)
+                bits[Integer.numberOfTrailingZeros(b)]++;
+            elementos++;
+        }
+    }
+
+    /* Bits mínimos y máximos de las tablas por omisión; 2^6 es el tamaño
+     * mínimo de un diccionario. */
+    private static final int BITS_MINIMOS = 6;
+    private static final int BITS_MAXIMOS = 20;
+    /* Número de llaves de cada bloque que se reparte a los hilos. */
+    private static final int BLOQUE = 1 << 14;
+
+    /* El picadillo. */
+    private Picadillo<T> picadillo;
+    /* Bits mínimos y máximos de las tablas. */
+    private int bitsMinimos, bitsMaximos;
+    /* Máscara de la tabla más grande. */
+    private int mascara;
+    /* Número de hilos. */
+    private int hilos;
+
+    /**
+     * Construye un analizador para el picadillo recibido, con tablas de
+     * 2<sup>6</sup> a 2<sup>20</sup> cubetas.
+     * @param picadillo el picadillo a analizar.
+     */
+    public AnalizadorPicadillos(Picadillo<T> picadillo) {
+        this(picadillo, BITS_MINIMOS, BITS_MAXIMOS);
+    }
+
+    /**
+     * Construye un analizador para el picadillo recibido, con tablas de
+     * 2<sup>bitsMinimos</sup> a 2<sup>bitsMaximos</sup> cubetas. Cada hilo
+     * del análisis guarda un histograma de 2<sup>bitsMaximos</sup> contadores
+     * de 8 bytes: 8 MiB con 20 bits y 128 MiB con 24.
+     * @param picadillo el picadillo a analizar.
+     * @param bitsMinimos el logaritmo base 2 de la tabla más chica.
+     * @param bitsMaximos el logaritmo base 2 de la tabla más grande.
+     * @throws IllegalArgumentException si los bits no cumplen 1 &le;
+     *         bitsMinimos &le; bitsMaximos &le; 24; con más bits los
+     *         histogramas de los hilos no cabrían en memoria.
+     */
+    public AnalizadorPicadillos(Picadillo<T> picadillo, int bitsMinimos,
+                                int bitsMaximos) {
+        if (bitsMinimos < 1 || bitsMinimos > bitsMaximos || bitsMaximos > 24)
+            throw new IllegalArgumentException();
+        this.picadillo = picadillo;
+        this.bitsMinimos = bitsMinimos;
+        this.bitsMaximos = bitsMaximos;
+        this.mascara = (1 << bitsMaximos) - 1;
+        this.hilos = Math.max(1, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Analiza un corpus generado: las llaves son <code>corpus.apply(i)</code>
+     * para <i>i</i> de 0 a <i>n</i> - 1. La función debe poder llamarse
+     * desde varios hilos a la vez.
+     * @param n el número de llaves del corpus.
+     * @param corpus la función que genera la llave <i>i</i>.
+     * @return el resultado del análisis.
+     * @throws IllegalArgumentException si n es negativo.
+     */
+    public Resultado analiza(int n, IntFunction<T> corpus) {
+        if (n < 0)
+            throw new IllegalArgumentException();
+        @SuppressWarnings("unchecked") Acumulador[] acumuladores =
+            (Acumulador[])new AnalizadorPicadillos.Acumulador[hilos];
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Thread[] t = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            Acumulador acumulador = new Acumulador();
+            acumuladores[h] = acumulador;
+            int ini = (int)((long)n * h / hilos);
+            int fin = (int)((long)n * (h + 1) / hilos);
+            t[h] = new Thread(() -> {
+                try {
+                    for (int i = ini; i < fin; i++)
+                        acumulador.cuenta(corpus.apply(i));
+                } catch (RuntimeException re) {
+                    error.compareAndSet(null, re);
+                }
+            });
+        }
+        corre(t);
+        if (error.get() != null)
+            throw error.get();
+        return junta(acumuladores);
+    }
+
+    /**
+     * Analiza un corpus leído de un iterador. El hilo que llama lee el
+     * iterador en bloques y los reparte a los hilos que calculan los
+     * picadillos.
+     * @param corpus el iterador con las llaves del corpus.
+     * @return el resultado del análisis.
+     */
+    public Resultado analiza(Iterator<T> corpus) {
+        @SuppressWarnings("unchecked") Acumulador[] acumuladores =
+            (Acumulador[])new AnalizadorPicadillos.Acumulador[hilos];
+        BlockingQueue<Object[]> cola = new ArrayBlockingQueue<Object[]>(2 * hilos);
+        Object[] fin = new Object[0];
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Thread[] t = new Thread[hilos];
+        for (int h = 0; h < hilos; h++) {
+            Acumulador acumulador = new Acumulador();
+            acumuladores[h] = acumulador;
+            t[h] = new Thread(() -> {
+                try {
+                    Object[] bloque;
+                    while ((bloque = cola.take()) != fin) {
+                        /* Si hubo un error seguimos sacando bloques, para que
+                         * el hilo que lee el corpus no se bloquee. */
+                        if (error.get() != null)
+                            continue;
+                        try {
+                            for (Object llave : bloque) {
+                                @SuppressWarnings("unchecked") T l = (T)llave;
+                                acumulador.cuenta(l);
+                            }
+                        } catch (RuntimeException re) {
+                            error.compareAndSet(null, re);
+                        }
+                    }
+                } catch (InterruptedException ie) {
+                    Thread.currentThread().interrupt();
+                }
+            });
+            t[h].setDaemon(true);
+            t[h].start();
+        }
+        /* Si el iterador falla, interrumpimos a los hilos en lugar de
+         * mandarles el fin, y de todos modos esperamos a que terminen. */
+        boolean completo = false;
+        try {
+            while (corpus.hasNext()) {
+                Object[] bloque = new Object[BLOQUE];
+                int n = 0;
+                while (n < BLOQUE && corpus.hasNext())
+                    bloque[n++] = corpus.next();
+                if (n < BLOQUE) {
+                    Object[] b = new Object[n];
+                    System.arraycopy(bloque, 0, b, 0, n);
+                    bloque = b;
+                }
+                cola.put(bloque);
+            }
+            for (int h = 0; h < hilos; h++)
+                cola.put(fin);
+            completo = true;
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ie);
+        } finally {
+            if (!completo)
+                for (Thread hilo : t)
+                    hilo.interrupt();
+            if (espera(t) && completo)
+                throw new IllegalStateException(new InterruptedException());
+        }
+        if (error.get() != null)
+            throw error.get();
+        return junta(acumuladores);
+    }
+
+    /* Echa a andar los hilos y espera a que terminen. */
+    private static void corre(Thread[] t) {
+        for (Thread hilo : t) {
+            hilo.setDaemon(true);
+            hilo.start();
+        }
+        if (espera(t))
+            throw new IllegalStateException(new InterruptedException());
+    }
+
+    /* Espera a que terminen los hilos. Si interrumpen al hilo que llama,
+     * interrumpe a los hilos, los sigue esperando y regresa true con la
+     * interrupción restaurada. */
+    private static boolean espera(Thread[] t) {
+        boolean interrumpido = false;
+        for (Thread hilo : t) {
+            while (true) {
+                try {
+                    hilo.join();
+                    break;
+                } catch (InterruptedException ie) {
+                    if (!interrumpido)
+                        for (Thread h : t)
+                            h.interrupt();
+                    interrumpido = true;
+                }
+            }
+        }
+        if (interrumpido)
+            Thread.currentThread().interrupt();
+        return interrumpido;
+    }
+
+    /* Junta los contadores de todos los hilos en un resultado. */
+    private Resultado junta(Acumulador[] acumuladores) {
+        long[] histograma = acumuladores[0].histograma;
+        long[] bits = acumuladores[0].bits;
+        long elementos = acumuladores[0].elementos;
+        for (int h = 1; h < acumuladores.length; h++) {
+            for (int i = 0; i < histograma.length; i++)
+                histograma[i] += acumuladores[h].histograma[i];
+            for (int b = 0; b < 32; b++)
+                bits[b] += acumuladores[h].bits[b];
+            elementos += acumuladores[h].elementos;
+        }
+        return new Resultado(bitsMinimos, bitsMaximos, elementos, histograma, bits);
+    }
+
+    /**
+     * Calcula la matriz de avalancha de un picadillo de arreglos de bytes,
+     * con llaves aleatorias de la longitud recibida. La entrada [i][j] de la
+     * matriz es la fracción de las muestras en las que el bit j del
+     * picadillo cambió al cambiar el bit i de la llave; idealmente todas son
+     * 1/2. Las muestras se reparten entre los procesadores; si el picadillo
+     * lanza una excepción en alguno, se relanza la primera.
+     * @param picadillo el picadillo a analizar.
+     * @param longitud la longitud en bytes de las llaves.
+     * @param muestras el número de llaves aleatorias.
+     * @return la matriz de avalancha, de 8&middot;longitud por 32.
+     * @throws IllegalArgumentException si la longitud o las muestras no son
+     *         positivas.
+     */
+    public static double[][] avalancha(Picadillo<byte[]> picadillo, int longitud,
+                                       int muestras) {
+        if (longitud < 1 || muestras < 1)
+            throw new IllegalArgumentException();
+        int hilos = Math.max(1, Runtime.getRuntime().availableProcessors());
+        long[][][] cuentas = new long[hilos][longitud * 8][32];
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Thread[] t = new Thread[hilos];
+        SplittableRandom semillas = new SplittableRandom();
+        for (int h = 0; h < hilos; h++) {
+            long[][] cuenta = cuentas[h];
+            SplittableRandom random = semillas.split();
+            int porHilo = (int)((long)muestras * (h + 1) / hilos) -
+                          (int)((long)muestras * h / hilos);
+            t[h] = new Thread(() -> {
+                try {
+                    byte[] llave = new byte[longitud];
+                    for (int m = 0; m < porHilo; m++) {
+                        for (int i = 0; i < longitud; i++)
+                            llave[i] = (byte)random.nextInt(256);
+                        int original = picadillo.picadillo(llave);
+                        for (int i = 0; i < longitud * 8; i++) {
+                            llave[i >>> 3] ^= 1 << (i & 7);
+                            int cambio = original ^ picadillo.picadillo(llave);
+                            llave[i >>> 3] ^= 1 << (i & 7);
+                            for (int b = cambio; b != 0; b &= b - 1)
+                                cuenta[i][Integer.numberOfTrailingZeros(b)]++;
+                        }
+                    }
+                } catch (RuntimeException re) {
+                    error.compareAndSet(null, re);
+                }
+            });
+        }
+        corre(t);
+        if (error.get() != null)
+            throw error.get();
+        double[][] matriz = new double[longitud * 8][32];
+        for (int i = 0; i < longitud * 8; i++)
+            for (int j = 0; j < 32; j++) {
+                long c = 0;
+                for (int h = 0; h < hilos; h++)
+                    c += cuentas[h][i][j];
+                matriz[i][j] = (double)c / muestras;
+            }
+        return matriz;
+    }
+
+    /**
+     * Regresa la peor entrada de una matriz de avalancha: la que más se aleja
+     * de 1/2, como distancia a 1/2.
+     * @param matriz la matriz de avalancha.
+     * @return la mayor distancia a 1/2 de las entradas de la matriz.
+     */
+    public static double peorAvalancha(double[][] matriz) {
+        double peor = 0;
+        for (double[] renglon : matriz)
+            for (double p : renglon)
+                peor = Math.max(peor, Math.abs(p - 0.5));
+        return peor;
+    }
+}
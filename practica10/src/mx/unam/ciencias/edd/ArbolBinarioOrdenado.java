@@ -1,6 +1,9 @@
 package mx.unam.ciencias.edd;
 
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.function.Consumer;
 
 /**
  * <p>Clase para árboles binarios ordenados. Los árboles son genéricos, pero
@@ -62,6 +65,99 @@ public class ArbolBinarioOrdenado<T extends Comparable<T>> extends ArbolBinario<
         }
     }
 
+    /* Clase privada para divisores de árboles binarios ordenados. Cada
+     * divisor recorre en orden los vértices desde uno hasta otro, subiendo
+     * por los padres en lugar de usar una pila, y se parte en la raíz de un
+     * subárbol de su intervalo. */
+    private class Divisor implements Spliterator<T> {
+
+        /* El siguiente vértice, y el primero que ya no recorremos; null si
+         * recorremos hasta el final. */
+        private Vertice actual, limite;
+        /* Cómo quedó el divisor respecto a la raíz del subárbol donde se
+         * partió: 0 si no se ha partido, 1 si empieza en ella, -1 si
+         * termina en ella. */
+        private int lado;
+        /* Número estimado de elementos. */
+        private long estimado;
+        /* Si ya recorrimos algún elemento. */
+        private boolean iniciado;
+
+        /* Construye un divisor para todo el árbol. */
+        public Divisor() {
+            actual = raiz;
+            if (actual != null)
+                while (actual.izquierdo != null)
+                    actual = actual.izquierdo;
+            estimado = elementos;
+        }
+
+        /* Construye un divisor para los vértices en [actual, limite). */
+        private Divisor(Vertice actual, Vertice limite, long estimado) {
+            this.actual = actual;
+            this.limite = limite;
+            this.lado = -1;
+            this.estimado = estimado;
+        }
+
+        /* Regresa el vértice que sigue en orden. */
+        private Vertice sucesor(Vertice v) {
+            if (v.derecho != null) {
+                v = v.derecho;
+                while (v.izquierdo != null)
+                    v = v.izquierdo;
+                return v;
+            }
+            while (v.padre != null && v.padre.derecho == v)
+                v = v.padre;
+            return v.padre;
+        }
+
+        /* Recorre el siguiente elemento, si hay. */
+        @Override public boolean tryAdvance(Consumer<? super T> accion) {
+            if (actual == null || actual == limite)
+                return false;
+            iniciado = true;
+            T e = actual.elemento;
+            actual = sucesor(actual);
+            accion.accept(e);
+            return true;
+        }
+
+        /* Regresa los vértices antes de la raíz de un subárbol del
+         * intervalo, y se queda con los demás. Sólo se parte si no ha
+         * recorrido nada. */
+        @Override public Spliterator<T> trySplit() {
+            if (iniciado || actual == null || actual == limite)
+                return null;
+            Vertice pivote = lado == 0 ? raiz :
+                lado > 0 ? actual.derecho : limite.izquierdo;
+            if (pivote == null || pivote == actual || pivote == limite)
+                return null;
+            Divisor prefijo = new Divisor(actual, pivote, estimado >>>= 1);
+            actual = pivote;
+            lado = 1;
+            return prefijo;
+        }
+
+        /* Regresa el número estimado de elementos; es exacto si el divisor
+         * no se ha partido. */
+        @Override public long estimateSize() {
+            return estimado;
+        }
+
+        /* Las características del divisor. */
+        @Override public int characteristics() {
+            return (lado == 0 ? Spliterator.SIZED : 0) | Spliterator.ORDERED |
+                Spliterator.SORTED | Spliterator.NONNULL;
+        }
+
+        /* Los elementos están en su orden natural. */
+        @Override public Comparator<? super T> getComparator() {
+            return null;
+        }
+    }
+
     /**
      * Constructor sin parámetros. Para no perder el constructor sin parámetros
      * de {@link ArbolBinario}.
@@ -219,6 +315,16 @@ public class ArbolBinarioOrdenado<T extends Comparable<T>> extends ArbolBinario<
         return new Iterador();
     }
 
+    /**
+     * Regresa un divisor para recorrer el árbol en orden. El divisor se parte
+     * en las raíces de los subárboles, y avanza sin usar memoria adicional.
+     *
+     * @return un divisor para recorrer el árbol en orden.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return new Divisor();
+    }
+
     /**
      * Gira el árbol a la derecha sobre el vértice recibido. Si el vértice no
      * tiene hijo izquierdo, el método no hace nada.
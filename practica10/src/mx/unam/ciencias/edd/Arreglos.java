@@ -1,10 +1,57 @@
 package mx.unam.ciencias.edd;
 
+import java.util.concurrent.RecursiveAction;
+
 /**
  * Clase para manipular arreglos genéricos de elementos comparables.
  */
 public class Arreglos {
 
+    /* Tarea que ordena un intervalo de un arreglo con QuickSort: en cada
+     * partición manda el lado más chico a otra tarea y sigue con el más
+     * grande, así que las tareas anidadas son a lo más O(log n). */
+    private static class QuickSort<T extends Comparable<T>>
+        extends RecursiveAction {
+
+        /* El arreglo que ordenamos. */
+        private T[] a;
+        /* El intervalo que ordenamos. */
+        private int ini, fin;
+
+        /* Construye una tarea para el intervalo [ini, fin]. */
+        public QuickSort(T[] a, int ini, int fin) {
+            this.a = a;
+            this.ini = ini;
+            this.fin = fin;
+        }
+
+        /* Parte el intervalo como la versión secuencial hasta que lo que
+         * queda es chico, y eso lo ordena secuencialmente. */
+        @Override protected void compute() {
+            Lista<QuickSort<T>> tareas = new Lista<QuickSort<T>>();
+            int ini = this.ini, fin = this.fin;
+            while (fin - ini >= MINIMO_PARALELO) {
+                int i = particiona(a, ini, fin);
+                QuickSort<T> tarea;
+                if (i - ini < fin - i) {
+                    tarea = new QuickSort<T>(a, ini, i - 1);
+                    ini = i + 1;
+                } else {
+                    tarea = new QuickSort<T>(a, i + 1, fin);
+                    fin = i - 1;
+                }
+                tarea.fork();
+                tareas.agrega(tarea);
+            }
+            quickSort(a, ini, fin);
+            for (QuickSort<T> tarea : tareas)
+                tarea.join();
+        }
+    }
+
+    /* Intervalos más chicos que esto se ordenan secuencialmente. */
+    private static final int MINIMO_PARALELO = 1 << 13;
+
     /**
      * Ordena el arreglo recibido usando QickSort.
      * @param <T> tipo del que puede ser el arreglo.
@@ -14,9 +61,50 @@ public class Arreglos {
         quickSort(a, 0, a.length-1);
     }
 
+    /**
+     * Ordena el arreglo recibido usando QuickSort, repartiendo el trabajo
+     * entre los hilos del {@link java.util.concurrent.ForkJoinPool} del hilo
+     * que lo llama, o del {@link
+     * java.util.concurrent.ForkJoinPool#commonPool} si no está en uno. Cada
+     * partición es la misma que en {@link #quickSort}, así que el arreglo
+     * queda exactamente igual que con la versión secuencial.
+     * @param <T> tipo del que puede ser el arreglo.
+     * @param a un arreglo cuyos elementos son comparables.
+     */
+    public static <T extends Comparable<T>> void quickSortParalelo(T[] a) {
+        new QuickSort<T>(a, 0, a.length - 1).invoke();
+    }
+
+    /* Hace recursión sobre el lado más chico de cada partición y sigue
+     * iterando sobre el más grande, así que la pila es O(log n). */
     private static <T extends Comparable<T>> void quickSort(T[] a, int ini, int fin) {
-        if(fin <= ini) return;
-        //Recordando que el pivote, puede ser una posicion al azar, se toma el pivote al inicio.
+        while (ini < fin) {
+            int i = particiona(a, ini, fin);
+            if (i - ini < fin - i) {
+                quickSort(a, ini, i-1);
+                ini = i+1;
+            } else {
+                quickSort(a, i+1, fin);
+                fin = i-1;
+            }
+        }
+    }
+
+    /* Parte el intervalo [ini, fin] alrededor del pivote, y regresa la
+     * posición final del pivote. El pivote es la mediana del primero, el de
+     * en medio y el último, para que un arreglo ya ordenado (o al revés) se
+     * parta por la mitad. */
+    private static <T extends Comparable<T>> int particiona(T[] a, int ini, int fin) {
+        if (fin - ini >= 2) {
+            int m = ini + (fin - ini) / 2;
+            if (a[m].compareTo(a[ini]) < 0)
+                intercambia(a, m, ini);
+            if (a[fin].compareTo(a[ini]) < 0)
+                intercambia(a, fin, ini);
+            if (a[fin].compareTo(a[m]) < 0)
+                intercambia(a, fin, m);
+            intercambia(a, ini, m);
+        }
         int i = ini + 1; 
         int j = fin;
         while (i < j)
@@ -29,8 +117,7 @@ public class Arreglos {
         if(a[i].compareTo(a[ini]) > 0)
             i--;
         intercambia(a, i, ini);
-        quickSort(a, ini, i-1);
-        quickSort(a, i+1, fin);
+        return i;
     }
 
     private static <T extends Comparable<T>> void intercambia(T[] a, int i, int j){
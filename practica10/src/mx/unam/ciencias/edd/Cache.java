@@ -0,0 +1,541 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.function.Function;
+import java.util.function.ToIntBiFunction;
+
+/**
+ * <p>Clase para cachés de tamaño acotado. Un caché asocia llaves con valores
+ * como un {@link Diccionario}, pero nunca guarda más de cierto peso total:
+ * cuando una entrada nueva lo rebasa, el caché desaloja otras entradas. Por
+ * omisión cada entrada pesa 1, así que el peso máximo es el número máximo de
+ * entradas.</p>
+ *
+ * <p>El caché busca sus entradas en un {@link Diccionario}, y además las
+ * encadena en listas doblemente ligadas ordenadas por su último uso, cuyos
+ * nodos son las mismas entradas del diccionario; así usar una entrada o
+ * desalojarla toma tiempo <i>O</i>(1) sin crear objetos.</p>
+ *
+ * <p>Con la política {@link PoliticaCache#LRU} el caché desaloja siempre la
+ * entrada usada hace más tiempo. Con {@link PoliticaCache#TINY_LFU} las
+ * entradas nuevas llegan a una ventana LRU con el 1% del peso; las que salen
+ * de la ventana sólo entran a la región principal si un bosquejo de
+ * frecuencias estima que se han pedido más veces que la entrada que
+ * desalojarían. La región principal está partida en una región de prueba y
+ * una protegida con el 80% de su peso, a la que pasan las entradas que se
+ * vuelven a usar. Así un recorrido de muchas llaves que se usan una sola vez
+ * no saca del caché a las que se usan seguido.</p>
+ *
+ * <p>El caché cuenta sus aciertos, fallos y desalojos. Sólo {@link #get} y
+ * {@link #calcula} cuentan como accesos; {@link #contiene} no cambia el orden
+ * de las entradas ni los contadores.</p>
+ */
+public class Cache<K, V> {
+
+    /* La ventana; con LRU, todas las entradas están aquí. */
+    private static final int VENTANA = 0;
+    /* La región de prueba. */
+    private static final int PRUEBA = 1;
+    /* La región protegida. */
+    private static final int PROTEGIDA = 2;
+
+    /* Clase Nodo privada para las entradas del caché. Cada nodo está a la
+     * vez en el diccionario y en la lista de su región. */
+    private class Nodo {
+        /* La llave. */
+        public K llave;
+        /* El valor. */
+        public V valor;
+        /* El picadillo de la llave. */
+        public int picadillo;
+        /* El peso de la entrada. */
+        public int peso;
+        /* La región del caché donde está la entrada. */
+        public int region;
+        /* El nodo usado antes que éste. */
+        public Nodo anterior;
+        /* El nodo usado después que éste. */
+        public Nodo siguiente;
+
+        /* Construye un nuevo nodo. */
+        public Nodo(K llave, V valor, int picadillo, int peso) {
+            this.llave = llave;
+            this.valor = valor;
+            this.picadillo = picadillo;
+            this.peso = peso;
+        }
+    }
+
+    /* Clase para las listas de acceso. La cabeza es la entrada usada hace
+     * más tiempo, y el rabo la usada más recientemente. */
+    private class ListaAcceso {
+        /* La cabeza de la lista. */
+        public Nodo cabeza;
+        /* El rabo de la lista. */
+        public Nodo rabo;
+        /* El peso de las entradas de la lista. */
+        public long peso;
+
+        /* Agrega un nodo al final de la lista. */
+        public void agregaFinal(Nodo n) {
+            n.anterior = rabo;
+            n.siguiente = null;
+            if (rabo == null)
+                cabeza = n;
+            else
+                rabo.siguiente = n;
+            rabo = n;
+            peso += n.peso;
+        }
+
+        /* Elimina un nodo de la lista. */
+        public void elimina(Nodo n) {
+            if (n.anterior == null)
+                cabeza = n.siguiente;
+            else
+                n.anterior.siguiente = n.siguiente;
+            if (n.siguiente == null)
+                rabo = n.anterior;
+            else
+                n.siguiente.anterior = n.anterior;
+            n.anterior = n.siguiente = null;
+            peso -= n.peso;
+        }
+
+        /* Mueve un nodo de la lista al final. */
+        public void mueveAlFinal(Nodo n) {
+            if (n == rabo)
+                return;
+            elimina(n);
+            agregaFinal(n);
+        }
+    }
+
+    /* Clase para el bosquejo de frecuencias (count-min) de TinyLFU. Cada
+     * llave tiene cuatro contadores de 4 bits, dieciséis por long, y su
+     * frecuencia es el menor de ellos. Cuando registra diez veces tantas
+     * muestras como su capacidad, divide todos los contadores entre dos para
+     * que las frecuencias viejas pierdan peso. */
+    private static class Bosquejo {
+
+        /* Semillas para los cuatro contadores de cada llave. */
+        private static final long[] SEMILLAS = {
+            0xc3a5c85c97cb3127L, 0xb492b66fbe98f273L,
+            0x9ae16a3b2f90404fL, 0xcbf29ce484222325L
+        };
+
+        /* Los contadores. */
+        private long[] tabla;
+        /* Máscara para el índice de los contadores. */
+        private int mascara;
+        /* Las muestras registradas desde la última división. */
+        private int muestras;
+        /* Las muestras a partir de las cuales se dividen los contadores. */
+        private int maximoMuestras;
+
+        /* Construye un bosquejo para la capacidad dada. */
+        public Bosquejo(long capacidad) {
+            int n = (int)Math.min(Math.max(capacidad, 16), 1 << 20);
+            tabla = new long[Integer.highestOneBit(n - 1) << 1];
+            mascara = tabla.length * 16 - 1;
+            maximoMuestras = 10 * n;
+        }
+
+        /* Regresa el índice del i-ésimo contador del picadillo. */
+        private int contador(int h, int i) {
+            long x = (h + SEMILLAS[i]) * SEMILLAS[i];
+            x ^= x >>> 32;
+            return (int)x & mascara;
+        }
+
+        /* Regresa el valor de un contador. */
+        private int lee(int c) {
+            return (int)(tabla[c >>> 4] >>> ((c & 15) << 2)) & 15;
+        }
+
+        /* Regresa la frecuencia estimada del picadillo. */
+        public int frecuencia(int h) {
+            int f = 15;
+            for (int i = 0; i < 4; i++)
+                f = Math.min(f, lee(contador(h, i)));
+            return f;
+        }
+
+        /* Registra un acceso al picadillo. */
+        public void incrementa(int h) {
+            boolean cambio = false;
+            for (int i = 0; i < 4; i++) {
+                int c = contador(h, i);
+                if (lee(c) < 15) {
+                    tabla[c >>> 4] += 1L << ((c & 15) << 2);
+                    cambio = true;
+                }
+            }
+            if (cambio && ++muestras >= maximoMuestras)
+                divide();
+        }
+
+        /* Divide todos los contadores entre dos. */
+        private void divide() {
+            for (int i = 0; i < tabla.length; i++)
+                tabla[i] = (tabla[i] >>> 1) & 0x7777777777777777L;
+            muestras >>>= 1;
+        }
+    }
+
+    /* Las entradas, por llave. */
+    private Diccionario<K, Nodo> entradas;
+    /* El picadillo de las llaves. */
+    private Picadillo<K> picadillo;
+    /* El peso de cada entrada. */
+    private ToIntBiFunction<? super K, ? super V> pesador;
+    /* El peso máximo. */
+    private long pesoMaximo;
+    /* El peso máximo de la ventana. */
+    private long pesoVentana;
+    /* El peso máximo de la región protegida. */
+    private long pesoProtegida;
+    /* Las listas de cada región. */
+    private ListaAcceso[] regiones;
+    /* El bosquejo de frecuencias; null con LRU. */
+    private Bosquejo bosquejo;
+    /* El peso de todas las entradas. */
+    private long peso;
+    /* Los contadores de aciertos, fallos y desalojos. */
+    private long aciertos, fallos, desalojos;
+
+    /**
+     * Construye un caché LRU con un número máximo de entradas.
+     * @param maximo el número máximo de entradas.
+     * @throws IllegalArgumentException si el máximo no es positivo.
+     */
+    public Cache(int maximo) {
+        this(maximo, PoliticaCache.LRU);
+    }
+
+    /**
+     * Construye un caché con un número máximo de entradas y una política de
+     * desalojo.
+     * @param maximo el número máximo de entradas.
+     * @param politica la política de desalojo.
+     * @throws IllegalArgumentException si el máximo no es positivo o la
+     *         política es <code>null</code>.
+     */
+    public Cache(int maximo, PoliticaCache politica) {
+        this(maximo, politica, (K llave, V valor) -> 1);
+    }
+
+    /**
+     * Construye un caché con un peso máximo, una política de desalojo y una
+     * función que da el peso de cada entrada.
+     * @param pesoMaximo el peso máximo de todas las entradas.
+     * @param politica la política de desalojo.
+     * @param pesador la función que da el peso de una entrada.
+     * @throws IllegalArgumentException si el peso máximo no es positivo, o
+     *         la política o el pesador son <code>null</code>.
+     */
+    public Cache(long pesoMaximo, PoliticaCache politica,
+                 ToIntBiFunction<? super K, ? super V> pesador) {
+        this(pesoMaximo, politica, pesador, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un caché con un peso máximo, una política de desalojo, una
+     * función que da el peso de cada entrada y un picadillo para las llaves.
+     * @param pesoMaximo el peso máximo de todas las entradas.
+     * @param politica la política de desalojo.
+     * @param pesador la función que da el peso de una entrada.
+     * @param picadillo el picadillo a utilizar.
+     * @throws IllegalArgumentException si el peso máximo no es positivo, o
+     *         la política, el pesador o el picadillo son <code>null</code>.
+     */
+    public Cache(long pesoMaximo, PoliticaCache politica,
+                 ToIntBiFunction<? super K, ? super V> pesador,
+                 Picadillo<K> picadillo) {
+        if (pesoMaximo < 1 || politica == null || pesador == null ||
+            picadillo == null)
+            throw new IllegalArgumentException();
+        this.pesoMaximo = pesoMaximo;
+        this.pesador = pesador;
+        this.picadillo = picadillo;
+        if (politica == PoliticaCache.LRU) {
+            pesoVentana = pesoMaximo;
+        } else {
+            pesoVentana = Math.max(1, pesoMaximo / 100);
+            pesoProtegida = (pesoMaximo - pesoVentana) * 4 / 5;
+            bosquejo = new Bosquejo(pesoMaximo);
+        }
+        limpia();
+    }
+
+    /**
+     * Agrega un valor al caché con la llave proporcionada, reemplazando el
+     * valor anterior de la llave si lo había. Si el caché rebasa su peso
+     * máximo, desaloja entradas hasta volver a caber; una entrada más pesada
+     * que el peso máximo del caché no se guarda.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos, o si
+     *         el peso de la entrada es negativo.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int h = picadillo.picadillo(llave);
+        Nodo n = entradas.buscaValor(llave, h);
+        if (bosquejo != null)
+            bosquejo.incrementa(h);
+        guarda(llave, valor, h, n);
+    }
+
+    /**
+     * Regresa el valor del caché asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el caché.
+     */
+    public V get(K llave) {
+        Nodo n = accede(llave, picadillo.picadillo(llave));
+        if (n == null)
+            throw new NoSuchElementException();
+        return n.valor;
+    }
+
+    /**
+     * Regresa el valor del caché asociado a la llave proporcionada; si no
+     * está, lo calcula con la función, lo agrega al caché y lo regresa.
+     * @param llave la llave para buscar el valor.
+     * @param funcion la función para calcular el valor si no está.
+     * @return el valor correspondiente a la llave.
+     * @throws IllegalArgumentException si la llave es nula, o si la función
+     *         regresa <code>null</code>.
+     */
+    public V calcula(K llave, Function<? super K, ? extends V> funcion) {
+        if (llave == null)
+            throw new IllegalArgumentException();
+        int h = picadillo.picadillo(llave);
+        Nodo n = accede(llave, h);
+        if (n != null)
+            return n.valor;
+        V valor = funcion.apply(llave);
+        guarda(llave, valor, h, entradas.buscaValor(llave, h));
+        return valor;
+    }
+
+    /* Busca la entrada de la llave, registra el acceso y la marca como
+     * usada; regresa null si la llave no está. */
+    private Nodo accede(K llave, int h) {
+        Nodo n = entradas.buscaValor(llave, h);
+        if (bosquejo != null)
+            bosquejo.incrementa(h);
+        if (n == null) {
+            fallos++;
+            return null;
+        }
+        aciertos++;
+        usa(n);
+        return n;
+    }
+
+    /* Guarda el valor en la entrada n, o en una entrada nueva si n es null,
+     * y desaloja lo necesario. */
+    private void guarda(K llave, V valor, int h, Nodo n) {
+        if (valor == null)
+            throw new IllegalArgumentException();
+        int p = pesador.applyAsInt(llave, valor);
+        if (p < 0)
+            throw new IllegalArgumentException();
+        if (n != null) {
+            ListaAcceso lista = regiones[n.region];
+            lista.elimina(n);
+            peso += p - n.peso;
+            n.valor = valor;
+            n.peso = p;
+            lista.agregaFinal(n);
+            usa(n);
+        } else if (p > pesoMaximo) {
+            desalojos++;
+            return;
+        } else {
+            n = new Nodo(llave, valor, h, p);
+            entradas.agrega(llave, n);
+            regiones[VENTANA].agregaFinal(n);
+            peso += p;
+        }
+        desaloja();
+    }
+
+    /* Marca la entrada como usada recientemente; una entrada de la región
+     * de prueba pasa a la protegida. */
+    private void usa(Nodo n) {
+        if (n.region != PRUEBA) {
+            regiones[n.region].mueveAlFinal(n);
+            return;
+        }
+        ListaAcceso protegida = regiones[PROTEGIDA];
+        regiones[PRUEBA].elimina(n);
+        n.region = PROTEGIDA;
+        protegida.agregaFinal(n);
+        while (protegida.peso > pesoProtegida) {
+            Nodo m = protegida.cabeza;
+            protegida.elimina(m);
+            m.region = PRUEBA;
+            regiones[PRUEBA].agregaFinal(m);
+        }
+    }
+
+    /* Desaloja entradas hasta que el caché quepa en su peso máximo. */
+    private void desaloja() {
+        ListaAcceso ventana = regiones[VENTANA];
+        while (bosquejo != null && ventana.peso > pesoVentana) {
+            Nodo candidato = ventana.cabeza;
+            ventana.elimina(candidato);
+            admite(candidato);
+        }
+        while (peso > pesoMaximo) {
+            ListaAcceso lista = regiones[PRUEBA];
+            if (lista.cabeza == null)
+                lista = regiones[PROTEGIDA];
+            if (lista.cabeza == null)
+                lista = ventana;
+            Nodo victima = lista.cabeza;
+            lista.elimina(victima);
+            desalojaEntrada(victima);
+        }
+    }
+
+    /* Decide si un candidato que sale de la ventana entra a la región de
+     * prueba: mientras el caché no quepa, el candidato tiene que ser más
+     * frecuente que la entrada usada hace más tiempo en la región principal
+     * para desalojarla. */
+    private void admite(Nodo candidato) {
+        int frecuencia = bosquejo.frecuencia(candidato.picadillo);
+        while (peso > pesoMaximo) {
+            ListaAcceso lista = regiones[PRUEBA];
+            if (lista.cabeza == null)
+                lista = regiones[PROTEGIDA];
+            Nodo victima = lista.cabeza;
+            if (victima == null ||
+                frecuencia <= bosquejo.frecuencia(victima.picadillo)) {
+                desalojaEntrada(candidato);
+                return;
+            }
+            lista.elimina(victima);
+            desalojaEntrada(victima);
+        }
+        candidato.region = PRUEBA;
+        regiones[PRUEBA].agregaFinal(candidato);
+    }
+
+    /* Desaloja una entrada que ya no está en ninguna lista. */
+    private void desalojaEntrada(Nodo n) {
+        entradas.elimina(n.llave);
+        peso -= n.peso;
+        desalojos++;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el caché, sin contarlo como un
+     * acceso.
+     * @param llave la llave que queremos ver si está en el caché.
+     * @return <tt>true</tt> si la llave está en el caché,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return entradas.buscaValor(llave, picadillo.picadillo(llave)) != null;
+    }
+
+    /**
+     * Elimina la entrada del caché asociada a la llave proporcionada. No
+     * cuenta como desalojo.
+     * @param llave la llave de la entrada a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en el caché.
+     */
+    public void elimina(K llave) {
+        Nodo n = entradas.buscaValor(llave, picadillo.picadillo(llave));
+        if (n == null)
+            throw new NoSuchElementException();
+        regiones[n.region].elimina(n);
+        entradas.elimina(llave);
+        peso -= n.peso;
+    }
+
+    /**
+     * Elimina todas las entradas del caché. Los contadores y las frecuencias
+     * registradas se conservan.
+     */
+    @SuppressWarnings("unchecked") public void limpia() {
+        entradas = new Diccionario<K, Nodo>(picadillo);
+        regiones = (ListaAcceso[])new Cache.ListaAcceso[3];
+        for (int i = 0; i < regiones.length; i++)
+            regiones[i] = new ListaAcceso();
+        peso = 0;
+    }
+
+    /**
+     * Regresa el número de entradas en el caché.
+     * @return el número de entradas en el caché.
+     */
+    public int getElementos() {
+        return entradas.getElementos();
+    }
+
+    /**
+     * Nos dice si el caché es vacío.
+     * @return <code>true</code> si el caché es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    public boolean esVacio() {
+        return entradas.esVacio();
+    }
+
+    /**
+     * Regresa el peso de las entradas en el caché.
+     * @return el peso de las entradas en el caché.
+     */
+    public long getPeso() {
+        return peso;
+    }
+
+    /**
+     * Regresa el peso máximo del caché.
+     * @return el peso máximo del caché.
+     */
+    public long getPesoMaximo() {
+        return pesoMaximo;
+    }
+
+    /**
+     * Regresa el número de accesos que encontraron su llave en el caché.
+     * @return el número de aciertos.
+     */
+    public long getAciertos() {
+        return aciertos;
+    }
+
+    /**
+     * Regresa el número de accesos que no encontraron su llave en el caché.
+     * @return el número de fallos.
+     */
+    public long getFallos() {
+        return fallos;
+    }
+
+    /**
+     * Regresa el número de entradas desalojadas o rechazadas por falta de
+     * espacio.
+     * @return el número de desalojos.
+     */
+    public long getDesalojos() {
+        return desalojos;
+    }
+
+    /**
+     * Regresa la fracción de los accesos que fueron aciertos.
+     * @return la tasa de aciertos, o 0 si no ha habido accesos.
+     */
+    public double tasaAciertos() {
+        long accesos = aciertos + fallos;
+        return accesos == 0 ? 0.0 : (double)aciertos / accesos;
+    }
+}
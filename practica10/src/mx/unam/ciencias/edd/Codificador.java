@@ -0,0 +1,105 @@
+package mx.unam.ciencias.edd;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * <p>Interfaz genérica para convertir objetos en bytes y de regreso. La usa
+ * {@link DiccionarioMapeado} para guardar llaves y valores en disco.</p>
+ *
+ * <p>Dos objetos iguales deben codificarse en los mismos bytes, porque el
+ * diccionario mapeado compara llaves comparando sus bytes.</p>
+ */
+public interface Codificador<T> {
+
+    /**
+     * Codifica un objeto en bytes.
+     * @param objeto el objeto a codificar.
+     * @return los bytes del objeto.
+     */
+    public byte[] codifica(T objeto);
+
+    /**
+     * Decodifica un objeto de un pedazo de un buffer. El método sólo debe
+     * usar lecturas absolutas, sin cambiar la posición del buffer. El buffer
+     * usa el orden de bytes <em>big-endian</em>.
+     * @param buffer el buffer con los bytes.
+     * @param inicio el índice del primer byte del objeto.
+     * @param longitud el número de bytes del objeto.
+     * @return el objeto decodificado.
+     */
+    public T decodifica(ByteBuffer buffer, int inicio, int longitud);
+
+    /**
+     * Regresa un codificador de cadenas en UTF-8.
+     * @return un codificador de cadenas.
+     */
+    public static Codificador<String> cadenas() {
+        return new Codificador<String>() {
+            @Override public byte[] codifica(String s) {
+                return s.getBytes(StandardCharsets.UTF_8);
+            }
+            @Override public String decodifica(ByteBuffer buffer, int inicio,
+                                               int longitud) {
+                return new String(Codificador.bytes().decodifica(buffer, inicio,
+                                                                 longitud),
+                                  StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Regresa un codificador de enteros en 4 bytes.
+     * @return un codificador de enteros.
+     */
+    public static Codificador<Integer> enteros() {
+        return new Codificador<Integer>() {
+            @Override public byte[] codifica(Integer n) {
+                return ByteBuffer.allocate(4).putInt(n).array();
+            }
+            @Override public Integer decodifica(ByteBuffer buffer, int inicio,
+                                                int longitud) {
+                if (longitud != 4)
+                    throw new IllegalArgumentException();
+                return buffer.getInt(inicio);
+            }
+        };
+    }
+
+    /**
+     * Regresa un codificador de enteros largos en 8 bytes.
+     * @return un codificador de enteros largos.
+     */
+    public static Codificador<Long> largos() {
+        return new Codificador<Long>() {
+            @Override public byte[] codifica(Long n) {
+                return ByteBuffer.allocate(8).putLong(n).array();
+            }
+            @Override public Long decodifica(ByteBuffer buffer, int inicio,
+                                             int longitud) {
+                if (longitud != 8)
+                    throw new IllegalArgumentException();
+                return buffer.getLong(inicio);
+            }
+        };
+    }
+
+    /**
+     * Regresa un codificador para arreglos de bytes, que los guarda tal
+     * cual.
+     * @return un codificador de arreglos de bytes.
+     */
+    public static Codificador<byte[]> bytes() {
+        return new Codificador<byte[]>() {
+            @Override public byte[] codifica(byte[] b) {
+                return b;
+            }
+            @Override public byte[] decodifica(ByteBuffer buffer, int inicio,
+                                               int longitud) {
+                byte[] b = new byte[longitud];
+                buffer.get(inicio, b);
+                return b;
+            }
+        };
+    }
+}
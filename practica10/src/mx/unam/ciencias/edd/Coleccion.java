@@ -1,5 +1,10 @@
 package mx.unam.ciencias.edd;
 
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
 /**
  * <p>Interface para colecciones, con operaciones para agregar y eliminar
  * elementos, y consultar si un elemento está contenido, así como para obtener
@@ -9,6 +14,12 @@ package mx.unam.ciencias.edd;
  * <p>Las colecciones no aceptan a <code>null</code> como elemento; el
  * comportamiento de las clases que implementen esta interfaz no está definido
  * si <code>null</code> es pasado como parámetro a ninguno de sus métodos.</p>
+ *
+ * <p>Las colecciones se pueden recorrer con flujos ({@link Stream}). Por
+ * omisión el divisor ({@link Spliterator}) de una colección se construye a
+ * partir de su iterador; las colecciones que pueden partir su estructura en
+ * pedazos lo sobreescriben, para que los flujos paralelos repartan el trabajo
+ * entre varios hilos.</p>
  */
 public interface Coleccion<T> extends Iterable<T> {
 
@@ -47,4 +58,30 @@ public interface Coleccion<T> extends Iterable<T> {
      * @return el número de elementos en la colección.
      */
     public int getElementos();
+
+    /**
+     * Regresa un divisor para recorrer la colección. Por omisión se construye
+     * a partir del iterador, y sabe cuántos elementos tiene la colección.
+     * @return un divisor para recorrer la colección.
+     */
+    @Override public default Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), getElementos(), 0);
+    }
+
+    /**
+     * Regresa un flujo secuencial con los elementos de la colección.
+     * @return un flujo secuencial con los elementos de la colección.
+     */
+    public default Stream<T> stream() {
+        return StreamSupport.stream(spliterator(), false);
+    }
+
+    /**
+     * Regresa un flujo paralelo con los elementos de la colección. La
+     * colección no debe modificarse mientras se recorre el flujo.
+     * @return un flujo paralelo con los elementos de la colección.
+     */
+    public default Stream<T> parallelStream() {
+        return StreamSupport.stream(spliterator(), true);
+    }
 }
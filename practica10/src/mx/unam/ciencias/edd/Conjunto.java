@@ -1,14 +1,94 @@
 package mx.unam.ciencias.edd;
 
+import java.util.Arrays;
 import java.util.Iterator;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.function.Predicate;
 
 /**
- * Clase para conjuntos de elementos. Todos sus métodos tienen complejidad en
- * tiempo <em>O</em>(1) (amortizado), excepto por {@link union} y {@link
- * interseccion}, que son <em>O</em>(<em>n</em>).
+ * <p>Clase para conjuntos de elementos. Todos sus métodos tienen complejidad
+ * en tiempo <em>O</em>(1) (amortizado), excepto por las operaciones entre
+ * conjuntos ({@link #union}, {@link #interseccion}, {@link #diferencia},
+ * {@link #diferenciaSimetrica} y {@link #esSubconjunto}), que son
+ * <em>O</em>(<em>n</em>).</p>
+ *
+ * <p>Las operaciones entre conjuntos no modifican a sus operandos, y con
+ * conjuntos grandes reparten el trabajo entre los hilos del {@link
+ * ForkJoinPool#commonPool}; mientras se ejecutan, ningún otro hilo debe
+ * modificar a los operandos.</p>
  */
 public class Conjunto<T> implements Coleccion<T> {
 
+    /* Tarea que recorre un intervalo de las cubetas del diccionario de un
+     * conjunto. Si tiene partes, cada hoja guarda en su parte los elementos
+     * que cumplen el predicado; si no, las tareas se detienen en cuanto un
+     * elemento no lo cumple. */
+    private static class Recorrido<T> extends RecursiveAction {
+
+        /* El diccionario que recorremos. */
+        private Diccionario<T, T> diccionario;
+        /* El predicado de los elementos. */
+        private Predicate<T> predicado;
+        /* Las partes de las hojas; null si sólo buscamos un elemento que no
+         * cumpla el predicado. */
+        private Lista<T>[] partes;
+        /* Se enciende cuando un elemento no cumple el predicado. */
+        private AtomicBoolean detenido;
+        /* El intervalo de cubetas. */
+        private int ini, fin;
+
+        /* Construye una tarea para las cubetas en [ini, fin). */
+        public Recorrido(Diccionario<T, T> diccionario, Predicate<T> predicado,
+                         Lista<T>[] partes, AtomicBoolean detenido,
+                         int ini, int fin) {
+            this.diccionario = diccionario;
+            this.predicado = predicado;
+            this.partes = partes;
+            this.detenido = detenido;
+            this.ini = ini;
+            this.fin = fin;
+        }
+
+        /* Divide el intervalo en fronteras de CUBETAS_POR_TAREA, o lo
+         * recorre si ya es de ese tamaño. */
+        @Override protected void compute() {
+            if (detenido.get())
+                return;
+            if (fin - ini > CUBETAS_POR_TAREA) {
+                int mitad = ini + (fin - ini) / (2 * CUBETAS_POR_TAREA) *
+                    CUBETAS_POR_TAREA;
+                invokeAll(new Recorrido<T>(diccionario, predicado, partes,
+                                           detenido, ini, mitad),
+                          new Recorrido<T>(diccionario, predicado, partes,
+                                           detenido, mitad, fin));
+                return;
+            }
+            if (partes == null) {
+                if (!diccionario.recorreLlaves(ini, fin, e -> !detenido.get() &&
+                                               predicado.test(e)))
+                    detenido.set(true);
+                return;
+            }
+            Lista<T> parte = new Lista<T>();
+            diccionario.recorreLlaves(ini, fin, e -> {
+                    if (predicado.test(e))
+                        parte.agregaFinal(e);
+                    return true;
+                });
+            partes[ini / CUBETAS_POR_TAREA] = parte;
+        }
+    }
+
+    /* A partir de cuántos elementos las operaciones entre conjuntos se
+     * reparten entre varios hilos. */
+    private static final int UMBRAL_PARALELO = 1 << 16;
+    /* Cuántas cubetas recorre cada tarea. */
+    private static final int CUBETAS_POR_TAREA = 1 << 12;
+
     /* El conjunto de elementos. */
     private Diccionario<T, T> conjunto;
 
@@ -92,27 +172,149 @@ public class Conjunto<T> implements Coleccion<T> {
     }
 
     /**
-     * Regresa la intersección del conjunto y el conjunto recibido.
+     * Regresa la intersección del conjunto y el conjunto recibido. Recorre
+     * el más chico de los dos.
      * @param conjunto el conjunto que queremos intersectar con éste.
      * @return la intersección del conjunto y el conjunto recibido.
      */
     public Conjunto<T> interseccion(Conjunto<T> conjunto) {
+        prepara(conjunto);
+        Conjunto<T> menor = menor(this, conjunto);
+        Conjunto<T> mayor = menor == this ? conjunto : this;
         Conjunto<T> c = new Conjunto<>();
-        this.forEach(e -> {
-            if(conjunto.contiene(e))
-                c.agrega(e);
-        });
+        c.agregaFiltrados(menor, e -> mayor.contiene(e));
         return c;
     }
 
     /**
-     * Regresa la unión del conjunto y el conjunto recibido.
+     * Regresa la unión del conjunto y el conjunto recibido. Copia el más
+     * grande de los dos y le agrega los elementos del más chico que no
+     * tiene.
      * @param conjunto el conjunto que queremos unir con éste.
      * @return la unión del conjunto y el conjunto recibido.
      */
     public Conjunto<T> union(Conjunto<T> conjunto) {
-        this.forEach(e -> conjunto.agrega(e));
-        return conjunto;
+        prepara(conjunto);
+        Conjunto<T> menor = menor(this, conjunto);
+        Conjunto<T> mayor = menor == this ? conjunto : this;
+        Conjunto<T> c = new Conjunto<>();
+        c.agregaFiltrados(mayor, e -> true);
+        c.agregaFiltrados(menor, e -> !mayor.contiene(e));
+        return c;
+    }
+
+    /**
+     * Regresa la diferencia del conjunto y el conjunto recibido: los
+     * elementos de éste que no están en el recibido.
+     * @param conjunto el conjunto que queremos restar a éste.
+     * @return la diferencia del conjunto y el conjunto recibido.
+     */
+    public Conjunto<T> diferencia(Conjunto<T> conjunto) {
+        prepara(conjunto);
+        Conjunto<T> c = new Conjunto<>();
+        c.agregaFiltrados(this, e -> !conjunto.contiene(e));
+        return c;
+    }
+
+    /**
+     * Regresa la diferencia simétrica del conjunto y el conjunto recibido:
+     * los elementos que están en uno de los dos, pero no en ambos.
+     * @param conjunto el conjunto con el que queremos la diferencia
+     *        simétrica.
+     * @return la diferencia simétrica del conjunto y el conjunto recibido.
+     */
+    public Conjunto<T> diferenciaSimetrica(Conjunto<T> conjunto) {
+        prepara(conjunto);
+        Conjunto<T> c = new Conjunto<>();
+        c.agregaFiltrados(this, e -> !conjunto.contiene(e));
+        c.agregaFiltrados(conjunto, e -> !contiene(e));
+        return c;
+    }
+
+    /**
+     * Nos dice si el conjunto es subconjunto del conjunto recibido.
+     * @param conjunto el conjunto que queremos saber si contiene a éste.
+     * @return <code>true</code> si todos los elementos del conjunto están en
+     *         el conjunto recibido, <code>false</code> en otro caso.
+     */
+    public boolean esSubconjunto(Conjunto<T> conjunto) {
+        if (getElementos() > conjunto.getElementos())
+            return false;
+        prepara(conjunto);
+        if (getElementos() < UMBRAL_PARALELO) {
+            for (T e : this)
+                if (!conjunto.contiene(e))
+                    return false;
+            return true;
+        }
+        AtomicBoolean detenido = new AtomicBoolean();
+        ForkJoinPool.commonPool().invoke(
+            new Recorrido<T>(this.conjunto, e -> conjunto.contiene(e), null,
+                             detenido, 0, this.conjunto.preparaRecorrido()));
+        return !detenido.get();
+    }
+
+    /* Deja listos a este conjunto y al recibido para leerse desde varios
+     * hilos. */
+    private void prepara(Conjunto<T> conjunto) {
+        this.conjunto.preparaRecorrido();
+        conjunto.conjunto.preparaRecorrido();
+    }
+
+    /* Regresa el más chico de dos conjuntos. */
+    private static <T> Conjunto<T> menor(Conjunto<T> a, Conjunto<T> b) {
+        return a.getElementos() <= b.getElementos() ? a : b;
+    }
+
+    /* Agrega a este conjunto los elementos del origen que cumplen el
+     * predicado. Con un origen grande los elementos se filtran en paralelo
+     * y se agregan todos de una vez. */
+    private void agregaFiltrados(Conjunto<T> origen, Predicate<T> predicado) {
+        int cubetas = origen.conjunto.preparaRecorrido();
+        if (origen.getElementos() < UMBRAL_PARALELO ||
+            cubetas <= CUBETAS_POR_TAREA) {
+            for (T e : origen)
+                if (predicado.test(e))
+                    agrega(e);
+            return;
+        }
+        @SuppressWarnings("unchecked") Lista<T>[] partes =
+            new Lista[cubetas / CUBETAS_POR_TAREA];
+        ForkJoinPool.commonPool().invoke(
+            new Recorrido<T>(origen.conjunto, predicado, partes,
+                             new AtomicBoolean(), 0, cubetas));
+        int n = 0;
+        for (Lista<T> parte : partes)
+            n += parte.getLongitud();
+        Object[] elementos = new Object[n];
+        int i = 0;
+        for (Lista<T> parte : partes)
+            for (T e : parte)
+                elementos[i++] = e;
+        @SuppressWarnings("unchecked") List<T> lista =
+            (List<T>)Arrays.asList(elementos);
+        conjunto.agregaTodos(lista, lista);
+    }
+
+    /**
+     * Pone un filtro de membresía frente al conjunto, para que preguntar por
+     * elementos que no están sea casi siempre <em>O</em>(1) sin recorrer
+     * cubetas. Ver {@link Diccionario#usaFiltro}.
+     * @param tipo el tipo del filtro.
+     * @param falsosPositivos la probabilidad de que el filtro deje pasar un
+     *        elemento que no está.
+     * @throws IllegalArgumentException si el tipo es <code>null</code> o la
+     *         probabilidad no está entre 0 y 1.
+     */
+    public void usaFiltro(TipoFiltro tipo, double falsosPositivos) {
+        conjunto.usaFiltro(tipo, falsosPositivos);
+    }
+
+    /**
+     * Quita el filtro de membresía del conjunto, si tenía uno.
+     */
+    public void quitaFiltro() {
+        conjunto.quitaFiltro();
     }
 
     /**
@@ -122,4 +324,13 @@ public class Conjunto<T> implements Coleccion<T> {
     @Override public Iterator<T> iterator() {
         return conjunto.iterator();
     }
+
+    /**
+     * Regresa un divisor para recorrer el conjunto, que se parte por
+     * intervalos de las cubetas del diccionario.
+     * @return un divisor para recorrer el conjunto.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return conjunto.vistaLlaves().spliterator();
+    }
 }
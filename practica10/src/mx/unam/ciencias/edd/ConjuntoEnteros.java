@@ -0,0 +1,844 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+
+/**
+ * <p>Clase para conjuntos de enteros comprimidos, al estilo de los mapas de
+ * bits Roaring. Los enteros se agrupan por sus 16 bits altos, y los 16 bits
+ * bajos de cada grupo se guardan en un contenedor de uno de tres tipos:</p>
+ *
+ * <ul>
+ *   <li>un arreglo ordenado de <code>char</code>, si el grupo tiene a lo
+ *       más 4096 elementos;</li>
+ *   <li>un mapa de 2<sup>16</sup> bits, si tiene más;</li>
+ *   <li>una lista de rachas de enteros consecutivos, si después de llamar
+ *       {@link #optimiza} ocupa menos que los otros dos.</li>
+ * </ul>
+ *
+ * <p>Con identificadores densos o agrupados, el conjunto ocupa entre dos
+ * bytes y un bit por elemento, en lugar de los objetos {@link Integer},
+ * entradas y nodos de un {@link Conjunto}. La unión y la intersección
+ * trabajan contenedor por contenedor, y entre mapas de bits son ciclos sobre
+ * arreglos de <code>long</code>. El conjunto se recorre en orden
+ * ascendente.</p>
+ */
+public class ConjuntoEnteros implements Coleccion<Integer> {
+
+    /* Clase abstracta para los contenedores de los 16 bits bajos de los
+     * enteros de un grupo. */
+    private static abstract class Contenedor {
+
+        /* Regresa el número de elementos del contenedor. */
+        abstract int cardinalidad();
+
+        /* Nos dice si el contenedor tiene al valor. */
+        abstract boolean contiene(int x);
+
+        /* Agrega el valor; regresa el contenedor resultante, que puede ser
+         * de otro tipo. */
+        abstract Contenedor agrega(int x);
+
+        /* Elimina el valor; regresa el contenedor resultante, que puede ser
+         * de otro tipo. */
+        abstract Contenedor elimina(int x);
+
+        /* Regresa un iterador de los valores en orden. */
+        abstract PrimitiveIterator.OfInt iterador();
+
+        /* Regresa una copia del contenedor. */
+        abstract Contenedor copia();
+
+        /* Regresa los bytes que ocupan los datos del contenedor. */
+        abstract int bytes();
+
+        /* Regresa el número de rachas de valores consecutivos. */
+        abstract int rachas();
+
+        /* Regresa el contenedor sin rachas: de arreglo o de mapa. */
+        Contenedor sinRachas() {
+            return this;
+        }
+
+        /* Regresa el contenedor que ocupa menos, de los tres tipos. */
+        Contenedor optimiza() {
+            int n = cardinalidad();
+            int sinRachas = n <= MAXIMO_ARREGLO ? 2 * n : 8 * PALABRAS;
+            if (4 * rachas() < sinRachas)
+                return this instanceof Rachas ? this : new Rachas(this);
+            return sinRachas();
+        }
+    }
+
+    /* Contenedor de un arreglo ordenado. */
+    private static class Arreglo extends Contenedor {
+
+        /* Los valores. */
+        private char[] valores;
+        /* El número de valores. */
+        private int n;
+
+        /* Construye un contenedor con los primeros n valores del arreglo,
+         * que deben estar ordenados. */
+        public Arreglo(char[] valores, int n) {
+            this.valores = valores;
+            this.n = n;
+        }
+
+        @Override int cardinalidad() {
+            return n;
+        }
+
+        @Override boolean contiene(int x) {
+            return Arrays.binarySearch(valores, 0, n, (char)x) >= 0;
+        }
+
+        @Override Contenedor agrega(int x) {
+            int i = Arrays.binarySearch(valores, 0, n, (char)x);
+            if (i >= 0)
+                return this;
+            if (n == MAXIMO_ARREGLO)
+                return aMapa().agrega(x);
+            i = -i - 1;
+            if (n == valores.length)
+                valores = Arrays.copyOf(valores,
+                                        Math.min(MAXIMO_ARREGLO,
+                                                 Math.max(4, 2 * n)));
+            System.arraycopy(valores, i, valores, i + 1, n - i);
+            valores[i] = (char)x;
+            n++;
+            return this;
+        }
+
+        @Override Contenedor elimina(int x) {
+            int i = Arrays.binarySearch(valores, 0, n, (char)x);
+            if (i < 0)
+                return this;
+            System.arraycopy(valores, i + 1, valores, i, n - i - 1);
+            n--;
+            return this;
+        }
+
+        @Override PrimitiveIterator.OfInt iterador() {
+            return new PrimitiveIterator.OfInt() {
+                private int i;
+                @Override public boolean hasNext() {
+                    return i < n;
+                }
+                @Override public int nextInt() {
+                    if (i >= n)
+                        throw new NoSuchElementException();
+                    return valores[i++];
+                }
+            };
+        }
+
+        @Override Contenedor copia() {
+            return new Arreglo(Arrays.copyOf(valores, n), n);
+        }
+
+        @Override int bytes() {
+            return 2 * n;
+        }
+
+        @Override int rachas() {
+            int r = 0;
+            for (int i = 0; i < n; i++)
+                if (i == 0 || valores[i] != valores[i - 1] + 1)
+                    r++;
+            return r;
+        }
+
+        /* Regresa un contenedor de mapa con los mismos valores. */
+        public Mapa aMapa() {
+            Mapa m = new Mapa();
+            for (int i = 0; i < n; i++)
+                m.palabras[valores[i] >>> 6] |= 1L << valores[i];
+            m.n = n;
+            return m;
+        }
+    }
+
+    /* Contenedor de un mapa de bits. */
+    private static class Mapa extends Contenedor {
+
+        /* Los bits. */
+        private long[] palabras;
+        /* El número de bits encendidos. */
+        private int n;
+
+        /* Construye un contenedor de mapa vacío. */
+        public Mapa() {
+            palabras = new long[PALABRAS];
+        }
+
+        @Override int cardinalidad() {
+            return n;
+        }
+
+        @Override boolean contiene(int x) {
+            return (palabras[x >>> 6] & (1L << x)) != 0;
+        }
+
+        @Override Contenedor agrega(int x) {
+            long w = palabras[x >>> 6];
+            if ((w & (1L << x)) == 0) {
+                palabras[x >>> 6] = w | (1L << x);
+                n++;
+            }
+            return this;
+        }
+
+        @Override Contenedor elimina(int x) {
+            long w = palabras[x >>> 6];
+            if ((w & (1L << x)) == 0)
+                return this;
+            palabras[x >>> 6] = w & ~(1L << x);
+            n--;
+            return n <= MAXIMO_ARREGLO ? aArreglo() : this;
+        }
+
+        @Override PrimitiveIterator.OfInt iterador() {
+            return new PrimitiveIterator.OfInt() {
+                private int i = -1;
+                private long w;
+                {
+                    avanza();
+                }
+                private void avanza() {
+                    while (w == 0 && ++i < PALABRAS)
+                        w = palabras[i];
+                }
+                @Override public boolean hasNext() {
+                    return i < PALABRAS;
+                }
+                @Override public int nextInt() {
+                    if (i >= PALABRAS)
+                        throw new NoSuchElementException();
+                    int x = (i << 6) + Long.numberOfTrailingZeros(w);
+                    w &= w - 1;
+                    avanza();
+                    return x;
+                }
+            };
+        }
+
+        @Override Contenedor copia() {
+            Mapa m = new Mapa();
+            System.arraycopy(palabras, 0, m.palabras, 0, PALABRAS);
+            m.n = n;
+            return m;
+        }
+
+        @Override int bytes() {
+            return 8 * PALABRAS;
+        }
+
+        /* Una racha empieza en cada bit encendido cuyo bit anterior está
+         * apagado. */
+        @Override int rachas() {
+            int r = 0;
+            long anterior = 0;
+            for (long w : palabras) {
+                r += Long.bitCount(w & ~((w << 1) | (anterior >>> 63)));
+                anterior = w;
+            }
+            return r;
+        }
+
+        /* Enciende los bits en [ini, fin]. */
+        public void enciende(int ini, int fin) {
+            int p = ini >>> 6, q = fin >>> 6;
+            long primera = -1L << ini, ultima = -1L >>> (63 - (fin & 63));
+            if (p == q) {
+                palabras[p] |= primera & ultima;
+                return;
+            }
+            palabras[p] |= primera;
+            for (int i = p + 1; i < q; i++)
+                palabras[i] = -1L;
+            palabras[q] |= ultima;
+        }
+
+        /* Recalcula el número de bits encendidos. */
+        public void cuenta() {
+            n = 0;
+            for (long w : palabras)
+                n += Long.bitCount(w);
+        }
+
+        /* Regresa un contenedor de arreglo con los mismos valores. */
+        public Arreglo aArreglo() {
+            char[] valores = new char[n];
+            int k = 0;
+            for (int i = 0; i < PALABRAS; i++) {
+                long w = palabras[i];
+                while (w != 0) {
+                    valores[k++] = (char)((i << 6) + Long.numberOfTrailingZeros(w));
+                    w &= w - 1;
+                }
+            }
+            return new Arreglo(valores, n);
+        }
+    }
+
+    /* Contenedor de rachas de valores consecutivos. Es sólo de lectura: para
+     * modificarlo se convierte primero en uno de arreglo o de mapa. */
+    private static class Rachas extends Contenedor {
+
+        /* Las rachas; en 2i el inicio de la i-ésima y en 2i + 1 su longitud
+         * menos uno. */
+        private char[] datos;
+        /* El número de rachas. */
+        private int r;
+        /* El número de valores. */
+        private int n;
+
+        /* Construye un contenedor de rachas con los valores de otro. */
+        public Rachas(Contenedor c) {
+            r = c.rachas();
+            n = c.cardinalidad();
+            datos = new char[2 * r];
+            int k = -1, anterior = -2;
+            PrimitiveIterator.OfInt it = c.iterador();
+            while (it.hasNext()) {
+                int x = it.nextInt();
+                if (x == anterior + 1) {
+                    datos[2 * k + 1]++;
+                } else {
+                    k++;
+                    datos[2 * k] = (char)x;
+                }
+                anterior = x;
+            }
+        }
+
+        @Override int cardinalidad() {
+            return n;
+        }
+
+        @Override boolean contiene(int x) {
+            int ini = 0, fin = r - 1;
+            while (ini <= fin) {
+                int m = (ini + fin) >>> 1;
+                int inicio = datos[2 * m];
+                if (x < inicio)
+                    fin = m - 1;
+                else if (x > inicio + datos[2 * m + 1])
+                    ini = m + 1;
+                else
+                    return true;
+            }
+            return false;
+        }
+
+        @Override Contenedor agrega(int x) {
+            return contiene(x) ? this : sinRachas().agrega(x);
+        }
+
+        @Override Contenedor elimina(int x) {
+            return contiene(x) ? sinRachas().elimina(x) : this;
+        }
+
+        @Override PrimitiveIterator.OfInt iterador() {
+            return new PrimitiveIterator.OfInt() {
+                private int i, x = r > 0 ? datos[0] : 0;
+                @Override public boolean hasNext() {
+                    return i < r;
+                }
+                @Override public int nextInt() {
+                    if (i >= r)
+                        throw new NoSuchElementException();
+                    int y = x;
+                    if (x == datos[2 * i] + datos[2 * i + 1] && ++i < r)
+                        x = datos[2 * i];
+                    else
+                        x++;
+                    return y;
+                }
+            };
+        }
+
+        @Override Contenedor copia() {
+            return this;
+        }
+
+        @Override int bytes() {
+            return 4 * r;
+        }
+
+        @Override int rachas() {
+            return r;
+        }
+
+        @Override Contenedor sinRachas() {
+            if (n <= MAXIMO_ARREGLO) {
+                char[] valores = new char[n];
+                int k = 0;
+                for (int i = 0; i < r; i++)
+                    for (int j = 0; j <= datos[2 * i + 1]; j++)
+                        valores[k++] = (char)(datos[2 * i] + j);
+                return new Arreglo(valores, n);
+            }
+            Mapa m = new Mapa();
+            for (int i = 0; i < r; i++)
+                m.enciende(datos[2 * i], datos[2 * i] + datos[2 * i + 1]);
+            m.n = n;
+            return m;
+        }
+    }
+
+    /* Iterador de los elementos del conjunto. */
+    private class Iterador implements PrimitiveIterator.OfInt {
+
+        /* El índice del contenedor actual. */
+        private int indice;
+        /* El iterador del contenedor actual. */
+        private PrimitiveIterator.OfInt iterador;
+
+        /* Construye un iterador en el primer contenedor. */
+        public Iterador() {
+            indice = -1;
+            siguienteContenedor();
+        }
+
+        /* Mueve el iterador al siguiente contenedor. */
+        private void siguienteContenedor() {
+            iterador = ++indice < tam ? contenedores[indice].iterador() : null;
+        }
+
+        @Override public boolean hasNext() {
+            return iterador != null;
+        }
+
+        @Override public int nextInt() {
+            if (iterador == null)
+                throw new NoSuchElementException();
+            int x = entero(llaves[indice], iterador.nextInt());
+            if (!iterador.hasNext())
+                siguienteContenedor();
+            return x;
+        }
+    }
+
+    /* Máximo número de elementos de un contenedor de arreglo. */
+    private static final int MAXIMO_ARREGLO = 4096;
+    /* Número de longs en un contenedor de mapa. */
+    private static final int PALABRAS = 1 << 10;
+
+    /* Los 16 bits altos de cada grupo, en orden. */
+    private char[] llaves;
+    /* El contenedor de cada grupo. */
+    private Contenedor[] contenedores;
+    /* El número de grupos. */
+    private int tam;
+    /* El número de elementos. */
+    private long elementos;
+
+    /**
+     * Construye un conjunto de enteros vacío.
+     */
+    public ConjuntoEnteros() {
+        llaves = new char[4];
+        contenedores = new Contenedor[4];
+    }
+
+    /* Regresa los 16 bits altos de un entero, volteando el bit de signo para
+     * que los grupos queden en orden. */
+    private static int alto(int x) {
+        return (x ^ Integer.MIN_VALUE) >>> 16;
+    }
+
+    /* Regresa el entero con los bits altos y bajos recibidos. */
+    private static int entero(int alto, int bajo) {
+        return ((alto << 16) | bajo) ^ Integer.MIN_VALUE;
+    }
+
+    /* Regresa el índice del grupo, o -(inserción) - 1 si no está. */
+    private int busca(int alto) {
+        return Arrays.binarySearch(llaves, 0, tam, (char)alto);
+    }
+
+    /* Agrega un grupo al final; las llaves deben llegar en orden. */
+    private void agregaGrupo(int alto, Contenedor c) {
+        inserta(tam, alto, c);
+    }
+
+    /* Inserta un grupo en la posición i. */
+    private void inserta(int i, int alto, Contenedor c) {
+        if (tam == llaves.length) {
+            llaves = Arrays.copyOf(llaves, 2 * tam);
+            contenedores = Arrays.copyOf(contenedores, 2 * tam);
+        }
+        System.arraycopy(llaves, i, llaves, i + 1, tam - i);
+        System.arraycopy(contenedores, i, contenedores, i + 1, tam - i);
+        llaves[i] = (char)alto;
+        contenedores[i] = c;
+        tam++;
+        elementos += c.cardinalidad();
+    }
+
+    /**
+     * Agrega un entero al conjunto.
+     * @param x el entero a agregar.
+     */
+    public void agrega(int x) {
+        int i = busca(alto(x));
+        if (i < 0) {
+            inserta(-i - 1, alto(x), new Arreglo(new char[] { (char)x }, 1));
+            return;
+        }
+        Contenedor c = contenedores[i];
+        int n = c.cardinalidad();
+        contenedores[i] = c = c.agrega(x & 0xffff);
+        elementos += c.cardinalidad() - n;
+    }
+
+    /**
+     * Agrega un elemento al conjunto.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si el elemento es <code>null</code>.
+     */
+    @Override public void agrega(Integer elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        agrega(elemento.intValue());
+    }
+
+    /**
+     * Nos dice si un entero está en el conjunto.
+     * @param x el entero a buscar.
+     * @return <code>true</code> si el entero está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean contiene(int x) {
+        int i = busca(alto(x));
+        return i >= 0 && contenedores[i].contiene(x & 0xffff);
+    }
+
+    /**
+     * Nos dice si un elemento está en el conjunto.
+     * @param elemento el elemento a buscar.
+     * @return <code>true</code> si el elemento está en el conjunto,
+     *         <code>false</code> en otro caso.
+     */
+    @Override public boolean contiene(Integer elemento) {
+        return elemento != null && contiene(elemento.intValue());
+    }
+
+    /**
+     * Elimina un entero del conjunto, si está.
+     * @param x el entero a eliminar.
+     */
+    public void elimina(int x) {
+        int i = busca(alto(x));
+        if (i < 0)
+            return;
+        Contenedor c = contenedores[i];
+        int n = c.cardinalidad();
+        contenedores[i] = c = c.elimina(x & 0xffff);
+        elementos += c.cardinalidad() - n;
+        if (c.cardinalidad() > 0)
+            return;
+        System.arraycopy(llaves, i + 1, llaves, i, tam - i - 1);
+        System.arraycopy(contenedores, i + 1, contenedores, i, tam - i - 1);
+        contenedores[--tam] = null;
+    }
+
+    /**
+     * Elimina un elemento del conjunto, si está.
+     * @param elemento el elemento a eliminar.
+     */
+    @Override public void elimina(Integer elemento) {
+        if (elemento != null)
+            elimina(elemento.intValue());
+    }
+
+    /**
+     * Nos dice si el conjunto es vacío.
+     * @return <code>true</code> si el conjunto es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    @Override public boolean esVacio() {
+        return tam == 0;
+    }
+
+    /**
+     * Regresa el número de elementos en el conjunto, o {@link
+     * Integer#MAX_VALUE} si tiene más.
+     * @return el número de elementos en el conjunto.
+     */
+    @Override public int getElementos() {
+        return (int)Math.min(elementos, Integer.MAX_VALUE);
+    }
+
+    /**
+     * Regresa el número de elementos en el conjunto, que puede ser hasta
+     * 2<sup>32</sup>.
+     * @return el número de elementos en el conjunto.
+     */
+    public long getCardinalidad() {
+        return elementos;
+    }
+
+    /**
+     * Regresa cuántos bytes ocupan los datos del conjunto: los contenedores
+     * y las llaves de los grupos.
+     * @return los bytes que ocupan los datos del conjunto.
+     */
+    public long getBytes() {
+        long bytes = 2L * tam;
+        for (int i = 0; i < tam; i++)
+            bytes += contenedores[i].bytes();
+        return bytes;
+    }
+
+    /**
+     * Convierte cada contenedor al tipo que ocupa menos, incluyendo rachas
+     * de enteros consecutivos. Conviene llamarlo después de construir un
+     * conjunto que ya no va a cambiar mucho.
+     */
+    public void optimiza() {
+        for (int i = 0; i < tam; i++)
+            contenedores[i] = contenedores[i].optimiza();
+    }
+
+    /**
+     * Regresa la unión del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos unir con éste.
+     * @return la unión del conjunto y el conjunto recibido.
+     */
+    public ConjuntoEnteros union(ConjuntoEnteros conjunto) {
+        ConjuntoEnteros c = new ConjuntoEnteros();
+        int i = 0, j = 0;
+        while (i < tam || j < conjunto.tam) {
+            if (j == conjunto.tam ||
+                (i < tam && llaves[i] < conjunto.llaves[j])) {
+                c.agregaGrupo(llaves[i], contenedores[i].copia());
+                i++;
+            } else if (i == tam || conjunto.llaves[j] < llaves[i]) {
+                c.agregaGrupo(conjunto.llaves[j],
+                              conjunto.contenedores[j].copia());
+                j++;
+            } else {
+                c.agregaGrupo(llaves[i], union(contenedores[i],
+                                               conjunto.contenedores[j]));
+                i++;
+                j++;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Regresa la intersección del conjunto y el conjunto recibido.
+     * @param conjunto el conjunto que queremos intersectar con éste.
+     * @return la intersección del conjunto y el conjunto recibido.
+     */
+    public ConjuntoEnteros interseccion(ConjuntoEnteros conjunto) {
+        ConjuntoEnteros c = new ConjuntoEnteros();
+        int i = 0, j = 0;
+        while (i < tam && j < conjunto.tam) {
+            if (llaves[i] < conjunto.llaves[j]) {
+                i++;
+            } else if (conjunto.llaves[j] < llaves[i]) {
+                j++;
+            } else {
+                Contenedor k = interseccion(contenedores[i],
+                                            conjunto.contenedores[j]);
+                if (k.cardinalidad() > 0)
+                    c.agregaGrupo(llaves[i], k);
+                i++;
+                j++;
+            }
+        }
+        return c;
+    }
+
+    /**
+     * Regresa la diferencia del conjunto y el conjunto recibido: los
+     * elementos de éste que no están en el recibido.
+     * @param conjunto el conjunto que queremos restar a éste.
+     * @return la diferencia del conjunto y el conjunto recibido.
+     */
+    public ConjuntoEnteros diferencia(ConjuntoEnteros conjunto) {
+        ConjuntoEnteros c = new ConjuntoEnteros();
+        int j = 0;
+        for (int i = 0; i < tam; i++) {
+            while (j < conjunto.tam && conjunto.llaves[j] < llaves[i])
+                j++;
+            Contenedor k = j < conjunto.tam && conjunto.llaves[j] == llaves[i] ?
+                diferencia(contenedores[i], conjunto.contenedores[j]) :
+                contenedores[i].copia();
+            if (k.cardinalidad() > 0)
+                c.agregaGrupo(llaves[i], k);
+        }
+        return c;
+    }
+
+    /* Regresa la unión de dos contenedores. */
+    private static Contenedor union(Contenedor a, Contenedor b) {
+        a = a.sinRachas();
+        b = b.sinRachas();
+        if (a instanceof Arreglo && b instanceof Arreglo) {
+            Arreglo x = (Arreglo)a, y = (Arreglo)b;
+            if (x.n + y.n <= MAXIMO_ARREGLO) {
+                char[] v = new char[x.n + y.n];
+                int i = 0, j = 0, k = 0;
+                while (i < x.n && j < y.n) {
+                    char p = x.valores[i], q = y.valores[j];
+                    v[k++] = p <= q ? p : q;
+                    if (p <= q)
+                        i++;
+                    if (q <= p)
+                        j++;
+                }
+                while (i < x.n)
+                    v[k++] = x.valores[i++];
+                while (j < y.n)
+                    v[k++] = y.valores[j++];
+                return new Arreglo(v, k);
+            }
+        }
+        if (!(a instanceof Mapa)) {
+            Contenedor t = a;
+            a = b;
+            b = t;
+        }
+        Mapa m = a instanceof Mapa ? (Mapa)a.copia() : ((Arreglo)a).aMapa();
+        if (b instanceof Mapa) {
+            long[] p = m.palabras, q = ((Mapa)b).palabras;
+            for (int i = 0; i < PALABRAS; i++)
+                p[i] |= q[i];
+            m.cuenta();
+        } else {
+            Arreglo y = (Arreglo)b;
+            for (int i = 0; i < y.n; i++)
+                m.agrega(y.valores[i]);
+        }
+        return m.n <= MAXIMO_ARREGLO ? m.aArreglo() : m;
+    }
+
+    /* Regresa la intersección de dos contenedores. */
+    private static Contenedor interseccion(Contenedor a, Contenedor b) {
+        a = a.sinRachas();
+        b = b.sinRachas();
+        if (a instanceof Mapa && b instanceof Mapa) {
+            Mapa m = new Mapa();
+            long[] p = ((Mapa)a).palabras, q = ((Mapa)b).palabras;
+            for (int i = 0; i < PALABRAS; i++)
+                m.palabras[i] = p[i] & q[i];
+            m.cuenta();
+            return m.n <= MAXIMO_ARREGLO ? m.aArreglo() : m;
+        }
+        if (!(a instanceof Arreglo)) {
+            Contenedor t = a;
+            a = b;
+            b = t;
+        }
+        Arreglo x = (Arreglo)a;
+        char[] v = new char[x.n];
+        int k = 0;
+        if (b instanceof Mapa) {
+            for (int i = 0; i < x.n; i++)
+                if (b.contiene(x.valores[i]))
+                    v[k++] = x.valores[i];
+        } else {
+            Arreglo y = (Arreglo)b;
+            int i = 0, j = 0;
+            while (i < x.n && j < y.n) {
+                if (x.valores[i] < y.valores[j]) {
+                    i++;
+                } else if (y.valores[j] < x.valores[i]) {
+                    j++;
+                } else {
+                    v[k++] = x.valores[i];
+                    i++;
+                    j++;
+                }
+            }
+        }
+        return new Arreglo(v, k);
+    }
+
+    /* Regresa la diferencia de dos contenedores. */
+    private static Contenedor diferencia(Contenedor a, Contenedor b) {
+        a = a.sinRachas();
+        b = b.sinRachas();
+        if (a instanceof Arreglo) {
+            Arreglo x = (Arreglo)a;
+            char[] v = new char[x.n];
+            int k = 0;
+            for (int i = 0; i < x.n; i++)
+                if (!b.contiene(x.valores[i]))
+                    v[k++] = x.valores[i];
+            return new Arreglo(v, k);
+        }
+        Mapa m = (Mapa)a.copia();
+        if (b instanceof Mapa) {
+            long[] p = m.palabras, q = ((Mapa)b).palabras;
+            for (int i = 0; i < PALABRAS; i++)
+                p[i] &= ~q[i];
+        } else {
+            Arreglo y = (Arreglo)b;
+            for (int i = 0; i < y.n; i++)
+                m.palabras[y.valores[i] >>> 6] &= ~(1L << y.valores[i]);
+        }
+        m.cuenta();
+        return m.n <= MAXIMO_ARREGLO ? m.aArreglo() : m;
+    }
+
+    /**
+     * Nos dice si el conjunto es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al conjunto.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         ConjuntoEnteros y tiene los mismos elementos.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof ConjuntoEnteros))
+            return false;
+        ConjuntoEnteros c = (ConjuntoEnteros)o;
+        if (elementos != c.elementos || tam != c.tam)
+            return false;
+        PrimitiveIterator.OfInt i = iteradorEnteros();
+        PrimitiveIterator.OfInt j = c.iteradorEnteros();
+        while (i.hasNext())
+            if (i.nextInt() != j.nextInt())
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para recorrer el conjunto en orden ascendente.
+     * @return un iterador para recorrer el conjunto en orden ascendente.
+     */
+    @Override public Iterator<Integer> iterator() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa un iterador de enteros primitivos para recorrer el conjunto en
+     * orden ascendente, sin envolverlos en objetos {@link Integer}.
+     * @return un iterador para recorrer el conjunto en orden ascendente.
+     */
+    public PrimitiveIterator.OfInt iteradorEnteros() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa un divisor de enteros primitivos para recorrer el conjunto en
+     * orden ascendente.
+     * @return un divisor para recorrer el conjunto en orden ascendente.
+     */
+    @Override public Spliterator.OfInt spliterator() {
+        return Spliterators.spliterator(iteradorEnteros(), getCardinalidad(),
+                                        Spliterator.ORDERED |
+                                        Spliterator.SORTED |
+                                        Spliterator.DISTINCT |
+                                        Spliterator.NONNULL);
+    }
+}
@@ -1,63 +1,277 @@
 package mx.unam.ciencias.edd;
 
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Predicate;
 
 /**
- * Clase para diccionarios (<em>hash tables</em>). Un diccionario generaliza el
- * concepto de arreglo, permitiendo (en general, dependiendo de qué tan bueno
+ * <p>Clase para diccionarios (<em>hash tables</em>). Un diccionario generaliza
+ * el concepto de arreglo, permitiendo (en general, dependiendo de qué tan bueno
  * sea su método para generar picadillos) agregar, eliminar, y buscar valores en
- * tiempo <i>O</i>(1) (amortizado) en cada uno de estos casos.
+ * tiempo <i>O</i>(1) (amortizado) en cada uno de estos casos.</p>
+ *
+ * <p>Opcionalmente el diccionario puede crecer de forma incremental: en lugar
+ * de mover todas sus entradas al nuevo arreglo en una sola operación, mantiene
+ * vivos el arreglo anterior y el nuevo, y cada llamada a {@link #agrega},
+ * {@link #get}, {@link #contiene} o {@link #elimina} mueve un número acotado
+ * de cubetas hasta terminar. Así ninguna operación individual paga el costo
+ * completo de crecer el diccionario.</p>
+ *
+ * <p>El tamaño del arreglo siempre es una potencia de 2, la más chica con la
+ * que la carga del diccionario queda por debajo de su carga máxima; por
+ * omisión {@link #MAXIMA_CARGA}. Cuando la carga cae a menos de una cuarta
+ * parte de la máxima, el arreglo se reduce a la mitad (de forma incremental
+ * si el diccionario crece así), y {@link #compacta} lo reduce de una vez al
+ * tamaño justo para sus elementos.</p>
+ *
+ * <p>Cada posición del arreglo es una cubeta que normalmente guarda sus
+ * entradas en una lista. Si una cubeta llega a tener más de {@link
+ * #UMBRAL_ARBOL} entradas y todas sus llaves son {@link Comparable} de la
+ * misma clase, la cubeta se convierte en un {@link ArbolRojinegro} ordenado
+ * por picadillo y luego por llave, y regresa a ser una lista cuando le quedan
+ * {@link #UMBRAL_LISTA} entradas o menos. Así, aun con un picadillo malo o
+ * llaves escogidas a propósito para colisionar, buscar en una cubeta toma
+ * tiempo <i>O</i>(log <i>n</i>). El método <code>compareTo</code> de las
+ * llaves debe ser consistente con <code>equals</code>.</p>
+ *
+ * <p>Para cargar muchas parejas de una vez, {@link #desde} y {@link
+ * #agregaTodos} calculan los picadillos en paralelo, ajustan el arreglo una
+ * sola vez al tamaño final, y reparten las entradas en sus cubetas en una
+ * sola pasada, sin revisar la carga ni crecer el arreglo en cada
+ * elemento.</p>
  */
 public class Diccionario<K, V> implements Iterable<V> {
 
-    /** Máxima carga permitida por el diccionario. */
+    /** Máxima carga permitida por omisión en el diccionario. */
     public static final double MAXIMA_CARGA = 0.72;
+    /** Número de entradas a partir del cual una cubeta se vuelve árbol. */
+    public static final int UMBRAL_ARBOL = 8;
+    /** Número de entradas con el cual una cubeta árbol regresa a lista. */
+    public static final int UMBRAL_LISTA = 6;
 
-    /* Clase para las entradas del diccionario. */
-    private class Entrada {
+    /* Clase para las entradas del diccionario. Sólo se comparan entradas
+     * dentro de una cubeta árbol, donde todas las llaves son comparables de
+     * la misma clase. */
+    private class Entrada implements Comparable<Entrada> {
 
         /* La llave. */
         public K llave;
         /* El valor. */
         public V valor;
+        /* El picadillo completo de la llave, para no recalcularlo. */
+        public int picadillo;
 
         /* Construye una nueva entrada. */
-        public Entrada(K llave, V valor) {
+        public Entrada(K llave, V valor, int picadillo) {
             this.llave = llave;
             this.valor = valor;
+            this.picadillo = picadillo;
+        }
+
+        /* Compara primero por picadillo y luego por llave. */
+        @Override public int compareTo(Entrada e) {
+            return compara(llave, picadillo, e);
         }
     }
 
-    /* Clase privada para iteradores de diccionarios. */
-    private class Iterador implements Iterator<V> {
+    /* Clase privada para las cubetas del diccionario. Una cubeta guarda sus
+     * entradas en una lista o, si tiene muchas y sus llaves son comparables,
+     * en un árbol rojinegro. */
+    private class Cubeta implements Iterable<Entrada> {
+
+        /* Las entradas, si la cubeta es lista. */
+        private Lista<Entrada> lista;
+        /* Las entradas, si la cubeta es árbol. */
+        private ArbolRojinegro<Entrada> arbol;
+        /* La clase de las llaves, si la cubeta es árbol. */
+        private Class<?> clase;
+
+        /* Construye una cubeta vacía. */
+        public Cubeta() {
+            lista = new Lista<Entrada>();
+        }
+
+        /* Agrega una entrada, cuya llave no está en la cubeta. Si la llave
+         * empata con otra del árbol sin ser igual, la cubeta regresa a
+         * lista. */
+        public void agrega(Entrada e) {
+            if (arbol != null) {
+                if (e.llave.getClass() == clase && !empata(arbol, e)) {
+                    arbol.agrega(e);
+                    return;
+                }
+                convierteEnLista();
+            }
+            lista.agrega(e);
+            if (lista.getElementos() > UMBRAL_ARBOL)
+                convierteEnArbol();
+        }
+
+        /* Elimina una entrada de la cubeta. */
+        public void elimina(Entrada e) {
+            if (arbol == null) {
+                lista.elimina(e);
+                return;
+            }
+            arbol.elimina(e);
+            if (arbol.getElementos() <= UMBRAL_LISTA)
+                convierteEnLista();
+        }
+
+        /* Busca la entrada con la llave; sólo comparamos con equals las
+         * llaves cuyo picadillo completo coincide con h. */
+        public Entrada busca(K llave, int h) {
+            if (arbol == null) {
+                for (Entrada e : lista)
+                    if (e.picadillo == h && e.llave.equals(llave))
+                        return e;
+                return null;
+            }
+            if (llave.getClass() != clase || arbol.esVacio())
+                return null;
+            return busca(arbol.raiz(), llave, h);
+        }
+
+        /* Busca la entrada con la llave en el subárbol. Si la llave empata
+         * con la de un vértice sin ser igual, busca en ambos lados. */
+        private Entrada busca(VerticeArbolBinario<Entrada> v, K llave, int h) {
+            while (true) {
+                int c = compara(llave, h, v.get());
+                if (c == 0) {
+                    if (v.get().llave.equals(llave))
+                        return v.get();
+                    if (v.hayIzquierdo()) {
+                        Entrada e = busca(v.getIzquierdo(), llave, h);
+                        if (e != null)
+                            return e;
+                    }
+                }
+                if (c < 0 && v.hayIzquierdo())
+                    v = v.getIzquierdo();
+                else if (c >= 0 && v.hayDerecho())
+                    v = v.getDerecho();
+                else
+                    return null;
+            }
+        }
+
+        /* Nos dice si la entrada empata con alguna del árbol, cuyas
+         * entradas nunca empatan entre sí. Si empata con alguna, el
+         * recorrido desde la raíz llega a ella. */
+        private boolean empata(ArbolRojinegro<Entrada> arbol, Entrada e) {
+            if (arbol.esVacio())
+                return false;
+            VerticeArbolBinario<Entrada> v = arbol.raiz();
+            while (true) {
+                int c = e.compareTo(v.get());
+                if (c == 0)
+                    return true;
+                if (c < 0 && v.hayIzquierdo())
+                    v = v.getIzquierdo();
+                else if (c > 0 && v.hayDerecho())
+                    v = v.getDerecho();
+                else
+                    return false;
+            }
+        }
+
+        /* Regresa el número de entradas en la cubeta. */
+        public int getElementos() {
+            return arbol == null ? lista.getElementos() : arbol.getElementos();
+        }
+
+        /* Nos dice si la cubeta es vacía. */
+        public boolean esVacia() {
+            return arbol == null ? lista.esVacio() : arbol.esVacio();
+        }
+
+        /* Convierte la lista en árbol, si todas las llaves son de la misma
+         * clase, comparables con su misma clase, y ningún par de entradas
+         * empata sin ser igual; así el árbol nunca confunde dos entradas
+         * al buscar o eliminar. */
+        private void convierteEnArbol() {
+            Class<?> c = lista.getPrimero().llave.getClass();
+            if (!esComparableConsigo(c))
+                return;
+            for (Entrada e : lista)
+                if (e.llave.getClass() != c)
+                    return;
+            ArbolRojinegro<Entrada> a = new ArbolRojinegro<Entrada>();
+            for (Entrada e : lista) {
+                if (empata(a, e))
+                    return;
+                a.agrega(e);
+            }
+            clase = c;
+            arbol = a;
+            lista = null;
+        }
+
+        /* Convierte el árbol en lista. */
+        private void convierteEnLista() {
+            lista = new Lista<Entrada>();
+            for (Entrada e : arbol)
+                lista.agrega(e);
+            arbol = null;
+            clase = null;
+        }
+
+        /* Regresa un iterador para las entradas de la cubeta. */
+        @Override public Iterator<Entrada> iterator() {
+            return arbol == null ? lista.iterator() : arbol.iterator();
+        }
+    }
 
-        /* En qué lista estamos. */
+    /* Clase privada para recorrer las entradas del diccionario. Recorre el
+     * arreglo en su lugar, sin copiar las entradas. */
+    private class IteradorEntradas {
+
+        /* El arreglo que recorremos. */
+        private Cubeta[] arreglo;
+        /* En qué cubeta estamos. */
         private int indice;
         /* Iterador auxiliar. */
         private Iterator<Diccionario<K, V>.Entrada> iterador;
 
-        /* Construye un nuevo iterador, auxiliándose de las listas del
-         * diccionario. */
-        public Iterador() {
-            Lista<Entrada> l = new Lista<>();
-
-            for (int i = 0; i < entradas.length; i++)
-                if (entradas[i] != null)
-                    for (Entrada e : entradas[i])
-                        l.agrega(e);
+        /* Construye un nuevo iterador, colocándolo en la primera cubeta no
+         * vacía del diccionario. */
+        public IteradorEntradas() {
+            terminaMigracion();
+            arreglo = entradas;
+            indice = -1;
+            siguienteCubeta();
+        }
 
-            this.iterador = l.iterator();
+        /* Mueve el iterador auxiliar a la siguiente cubeta no vacía. */
+        private void siguienteCubeta() {
+            iterador = null;
+            while (++indice < arreglo.length) {
+                if (arreglo[indice] != null && !arreglo[indice].esVacia()) {
+                    iterador = arreglo[indice].iterator();
+                    return;
+                }
+            }
         }
 
-        /* Nos dice si hay un siguiente elemento. */
+        /* Nos dice si hay una siguiente entrada. */
         public boolean hasNext() {
-            return iterador.hasNext();
+            return iterador != null;
         }
 
-        /* Regresa el siguiente elemento. */
-        public V next() {
-            return iterador.next().valor;
+        /* Regresa la siguiente entrada. */
+        public Entrada siguienteEntrada() {
+            if (iterador == null)
+                throw new NoSuchElementException();
+            Entrada e = iterador.next();
+            if (!iterador.hasNext())
+                siguienteCubeta();
+            return e;
         }
 
         /* No lo implementamos: siempre lanza una excepción. */
@@ -66,24 +280,234 @@ public class Diccionario<K, V> implements Iterable<V> {
         }
     }
 
+    /* Clase privada para iteradores de las llaves del diccionario. */
+    private class IteradorLlaves extends IteradorEntradas implements Iterator<K> {
+
+        /* Regresa la siguiente llave. */
+        @Override public K next() {
+            return siguienteEntrada().llave;
+        }
+    }
+
+    /* Clase privada para iteradores de diccionarios. */
+    private class Iterador extends IteradorEntradas implements Iterator<V> {
+
+        /* Regresa el siguiente valor. */
+        @Override public V next() {
+            return siguienteEntrada().valor;
+        }
+    }
+
+    /* Clase privada para divisores del diccionario. Cada divisor recorre un
+     * intervalo de cubetas, regresando algo de cada entrada, y se parte a la
+     * mitad de su intervalo. */
+    private class Divisor<E> implements Spliterator<E> {
+
+        /* El arreglo que recorremos. */
+        private Cubeta[] arreglo;
+        /* La siguiente cubeta y el fin del intervalo. */
+        private int indice, fin;
+        /* Iterador de la cubeta actual; null si hay que pasar a la
+         * siguiente. */
+        private Iterator<Entrada> iterador;
+        /* Lo que regresamos de cada entrada. */
+        private Function<Entrada, E> extrae;
+        /* Número estimado de elementos. */
+        private long estimado;
+        /* Las características del divisor. */
+        private int caracteristicas;
+
+        /* Construye un divisor para todo el diccionario. */
+        public Divisor(Function<Entrada, E> extrae, int caracteristicas) {
+            terminaMigracion();
+            this.arreglo = entradas;
+            this.fin = entradas.length;
+            this.extrae = extrae;
+            this.estimado = elementos;
+            this.caracteristicas = caracteristicas | Spliterator.SIZED;
+        }
+
+        /* Construye un divisor para la primera mitad de otro. */
+        private Divisor(Divisor<E> divisor, int fin) {
+            this.arreglo = divisor.arreglo;
+            this.indice = divisor.indice;
+            this.fin = fin;
+            this.iterador = divisor.iterador;
+            this.extrae = divisor.extrae;
+            this.estimado = divisor.estimado;
+            this.caracteristicas = divisor.caracteristicas;
+        }
+
+        /* Recorre la siguiente entrada, si hay. */
+        @Override public boolean tryAdvance(Consumer<? super E> accion) {
+            while (iterador == null || !iterador.hasNext()) {
+                if (indice >= fin)
+                    return false;
+                Cubeta c = arreglo[indice++];
+                iterador = c == null ? null : c.iterator();
+            }
+            accion.accept(extrae.apply(iterador.next()));
+            return true;
+        }
+
+        /* Regresa la primera mitad del intervalo, con lo que falta de la
+         * cubeta actual, y se queda con la segunda. */
+        @Override public Spliterator<E> trySplit() {
+            int mitad = (indice + fin) >>> 1;
+            if (mitad <= indice)
+                return null;
+            caracteristicas &= ~Spliterator.SIZED;
+            estimado >>>= 1;
+            Divisor<E> prefijo = new Divisor<E>(this, mitad);
+            indice = mitad;
+            iterador = null;
+            return prefijo;
+        }
+
+        /* Regresa el número estimado de elementos; es exacto si el divisor
+         * no se ha partido. */
+        @Override public long estimateSize() {
+            return estimado;
+        }
+
+        /* Las características del divisor. */
+        @Override public int characteristics() {
+            return caracteristicas;
+        }
+    }
+
+    /* Clase privada para la vista de las llaves del diccionario. */
+    private class VistaLlaves implements Coleccion<K> {
+
+        /* No se pueden agregar llaves sin valor. */
+        @Override public void agrega(K llave) {
+            throw new UnsupportedOperationException();
+        }
+
+        /* Elimina la llave, y su valor, del diccionario. */
+        @Override public void elimina(K llave) {
+            if (Diccionario.this.contiene(llave))
+                Diccionario.this.elimina(llave);
+        }
+
+        /* Nos dice si la llave está en el diccionario. */
+        @Override public boolean contiene(K llave) {
+            return Diccionario.this.contiene(llave);
+        }
+
+        /* Nos dice si el diccionario es vacío. */
+        @Override public boolean esVacio() {
+            return Diccionario.this.esVacio();
+        }
+
+        /* Regresa el número de llaves en el diccionario. */
+        @Override public int getElementos() {
+            return elementos;
+        }
+
+        /* Regresa un iterador para las llaves del diccionario. */
+        @Override public Iterator<K> iterator() {
+            return new IteradorLlaves();
+        }
+
+        /* Regresa un divisor para las llaves del diccionario. */
+        @Override public Spliterator<K> spliterator() {
+            return new Divisor<K>(e -> e.llave, Spliterator.DISTINCT |
+                                  Spliterator.NONNULL);
+        }
+    }
+
+    /* Clase privada para la vista de los valores del diccionario. */
+    private class VistaValores implements Coleccion<V> {
+
+        /* No se pueden agregar valores sin llave. */
+        @Override public void agrega(V valor) {
+            throw new UnsupportedOperationException();
+        }
+
+        /* No se pueden eliminar valores sin llave. */
+        @Override public void elimina(V valor) {
+            throw new UnsupportedOperationException();
+        }
+
+        /* Nos dice si el valor está en el diccionario; tiempo O(n). */
+        @Override public boolean contiene(V valor) {
+            for (V v : Diccionario.this)
+                if (v.equals(valor))
+                    return true;
+            return false;
+        }
+
+        /* Nos dice si el diccionario es vacío. */
+        @Override public boolean esVacio() {
+            return Diccionario.this.esVacio();
+        }
+
+        /* Regresa el número de valores en el diccionario. */
+        @Override public int getElementos() {
+            return elementos;
+        }
+
+        /* Regresa un iterador para los valores del diccionario. */
+        @Override public Iterator<V> iterator() {
+            return new Iterador();
+        }
+
+        /* Regresa un divisor para los valores del diccionario. */
+        @Override public Spliterator<V> spliterator() {
+            return Diccionario.this.spliterator();
+        }
+    }
+
     /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
     private static final int MIN_N = 64;
+    /* Cuántas cubetas del arreglo anterior movemos en cada operación cuando
+     * el diccionario crece de forma incremental. Tiene que ser al menos 2 para
+     * que la migración termine antes de que el nuevo arreglo se llene. Al
+     * reducirse movemos el doble, porque el arreglo anterior es más grande y
+     * tiene menos operaciones antes de volver a crecer. */
+    private static final int CUBETAS_POR_OPERACION = 4;
+    /* A partir de cuántas llaves las cargas masivas calculan los picadillos
+     * en paralelo. */
+    private static final int UMBRAL_PARALELO = 1 << 16;
 
     /* Máscara para no usar módulo. */
     private int mascara;
+    /* Máxima carga permitida por el diccionario. */
+    private double cargaMaxima;
     /* Picadillo. */
     private Picadillo<K> picadillo;
     /* Nuestro diccionario. */
-    private Lista<Entrada>[] entradas;
+    private Cubeta[] entradas;
     /* Número de valores*/
     private int elementos;
+    /* Si el diccionario crece de forma incremental. */
+    private boolean incremental;
+    /* El arreglo anterior mientras se migra; null si no hay migración. */
+    private Cubeta[] anteriores;
+    /* Máscara del arreglo anterior. */
+    private int mascaraAnterior;
+    /* Las cubetas del arreglo anterior con índice menor a éste ya se
+     * migraron. */
+    private int migradas;
+    /* Filtro frente a las búsquedas; null si no hay. */
+    private Filtro<K> filtro;
+    /* El tipo del filtro. */
+    private TipoFiltro tipoFiltro;
+    /* La probabilidad de falsos positivos del filtro. */
+    private double falsosPositivos;
+    /* Para cuántos elementos se dimensionó el filtro. */
+    private int capacidadFiltro;
+    /* Cuántas llaves se eliminaron desde que se construyó el filtro, si no
+     * permite eliminar. */
+    private int eliminadasFiltro;
 
     /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
        Java implementa sus genéricos; de otra forma obtenemos advertencias del
        compilador. */
-    @SuppressWarnings("unchecked") private Lista<Entrada>[] nuevoArreglo(int n) {
-        Lista[] arreglo = new Lista[n];
-        return (Lista<Entrada>[])arreglo;
+    @SuppressWarnings("unchecked") private Cubeta[] nuevoArreglo(int n) {
+        Diccionario.Cubeta[] arreglo = new Diccionario.Cubeta[n];
+        return (Cubeta[])arreglo;
     }
 
     /**
@@ -97,7 +521,8 @@ public class Diccionario<K, V> implements Iterable<V> {
     /**
      * Construye un diccionario con un tamaño inicial definido por el usuario, y
      * un picadillo predeterminado.
-     * @param tam el tamaño a utilizar.
+     * @param tam el número de elementos que se espera tener; el diccionario
+     *        podrá guardarlos sin crecer.
      */
     public Diccionario(int tam) {
         this(tam, (K o) -> o.hashCode());
@@ -115,21 +540,58 @@ public class Diccionario<K, V> implements Iterable<V> {
     /**
      * Construye un diccionario con un tamaño inicial, y un método de picadillo
      * definidos por el usuario.
-     * @param tam el tamaño del diccionario.
+     * @param tam el número de elementos que se espera tener; el diccionario
+     *        podrá guardarlos sin crecer.
      * @param picadillo el picadillo a utilizar.
      */
     public Diccionario(int tam, Picadillo<K> picadillo) {
+        this(tam, picadillo, false);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, un método de picadillo,
+     * y una forma de crecer definidos por el usuario.
+     * @param tam el número de elementos que se espera tener; el diccionario
+     *        podrá guardarlos sin crecer.
+     * @param picadillo el picadillo a utilizar.
+     * @param incremental si es <code>true</code>, al crecer el diccionario sus
+     *        entradas se mueven al nuevo arreglo poco a poco en cada
+     *        operación, en lugar de todas a la vez.
+     */
+    public Diccionario(int tam, Picadillo<K> picadillo, boolean incremental) {
+        this(tam, picadillo, MAXIMA_CARGA, incremental);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, un método de picadillo,
+     * una carga máxima y una forma de crecer definidos por el usuario.
+     * @param tam el número de elementos que se espera tener; el diccionario
+     *        podrá guardarlos sin crecer.
+     * @param picadillo el picadillo a utilizar.
+     * @param cargaMaxima la carga a partir de la cual el diccionario crece.
+     * @param incremental si es <code>true</code>, al crecer el diccionario sus
+     *        entradas se mueven al nuevo arreglo poco a poco en cada
+     *        operación, en lugar de todas a la vez.
+     * @throws IllegalArgumentException si la carga máxima no es positiva.
+     */
+    public Diccionario(int tam, Picadillo<K> picadillo, double cargaMaxima,
+                       boolean incremental) {
+        if (!(cargaMaxima > 0.0))
+            throw new IllegalArgumentException();
         this.picadillo = picadillo;
-        this.mascara = tam < MIN_N ? mascara(MIN_N) : mascara(tam);
+        this.cargaMaxima = cargaMaxima;
+        this.incremental = incremental;
+        this.mascara = mascara(tam);
         this.entradas = nuevoArreglo(mascara + 1);
     }
 
+    /* Regresa la máscara del arreglo más chico (con al menos MIN_N cubetas)
+     * donde caben n elementos sin llegar a la carga máxima. */
     private int mascara(int n) {
-        int m = 1;
-        while (m <= n)
-            m = (m << 1) | 1;
-        m = (m << 1) | 1;
-        return m;
+        int m = MIN_N;
+        while (m < (1 << 30) && n >= m * cargaMaxima)
+            m <<= 1;
+        return m - 1;
     }
 
     /**
@@ -144,44 +606,180 @@ public class Diccionario<K, V> implements Iterable<V> {
         if (llave == null || valor == null)
             throw new IllegalArgumentException();
 
-        int indice = calculaIndice(llave);
-        Lista<Entrada> l = obtenerLista(indice);
-        Entrada e = buscaEntradaConLlave(l, llave);
+        migra();
+        int h = picadillo.picadillo(llave);
+        int indice = h & mascara;
+        Cubeta c = obtenerCubeta(indice);
+        Entrada e = c.busca(llave, h);
+        if (e == null)
+            e = buscaEntradaAnterior(llave, h);
         if (e == null) {
-            e = new Entrada(llave, valor);
-            entradas[indice].agrega(e);
+            e = new Entrada(llave, valor, h);
+            c.agrega(e);
             elementos++;
+            if (filtro != null)
+                agregaAlFiltro(h);
         } else {
             e.valor = valor;
         }
-        if (carga() >= MAXIMA_CARGA)
+        if (carga() >= cargaMaxima)
             duplicaArreglo();
     }
 
-    private int calculaIndice(K llave) {
-        return picadillo.picadillo(llave) & mascara;
-    }
-
-    private Lista<Entrada> obtenerLista(int i) {
+    private Cubeta obtenerCubeta(int i) {
         if (entradas[i] == null)
-            entradas[i] = new Lista<>();
+            entradas[i] = new Cubeta();
         return entradas[i];
     }
 
-    private Entrada buscaEntradaConLlave(Lista<Entrada> l, K llave) {
-        for (Entrada e : l)
-            if (e.llave.equals(llave))
-                return e;
+    /* Compara una llave con su picadillo contra una entrada: primero por
+     * picadillo, y luego por llave. Sólo se usa dentro de cubetas árbol. */
+    @SuppressWarnings("unchecked")
+    private int compara(K llave, int h, Entrada e) {
+        if (h != e.picadillo)
+            return h < e.picadillo ? -1 : 1;
+        return ((Comparable<Object>)llave).compareTo(e.llave);
+    }
+
+    /* Nos dice si la clase implementa directamente Comparable de sí misma,
+     * como pide HashMap antes de volver árbol una cubeta. */
+    private static boolean esComparableConsigo(Class<?> c) {
+        if (c == String.class)
+            return true;
+        for (Type t : c.getGenericInterfaces()) {
+            if (!(t instanceof ParameterizedType))
+                continue;
+            ParameterizedType p = (ParameterizedType)t;
+            Type[] argumentos = p.getActualTypeArguments();
+            if (p.getRawType() == Comparable.class &&
+                argumentos.length == 1 && argumentos[0] == c)
+                return true;
+        }
+        return false;
+    }
+
+    /* Busca la llave en el arreglo anterior, si hay una migración en curso. */
+    private Entrada buscaEntradaAnterior(K llave, int h) {
+        if (anteriores == null)
+            return null;
+        Cubeta c = anteriores[h & mascaraAnterior];
+        return c == null ? null : c.busca(llave, h);
+    }
+
+    /* Busca la entrada con la llave en cualquiera de los dos arreglos;
+     * regresa null si la llave no está. */
+    private Entrada buscaEntrada(K llave, int h) {
+        Cubeta c = entradas[h & mascara];
+        Entrada e = c == null ? null : c.busca(llave, h);
+        return e != null ? e : buscaEntradaAnterior(llave, h);
+    }
+
+    /* Busca la cubeta que contiene la llave, en cualquiera de los dos
+     * arreglos; regresa null si la llave no está. */
+    private Cubeta buscaCubetaConLlave(K llave, int h) {
+        Cubeta c = entradas[h & mascara];
+        if (c != null && c.busca(llave, h) != null)
+            return c;
+        if (anteriores == null)
+            return null;
+        c = anteriores[h & mascaraAnterior];
+        if (c != null && c.busca(llave, h) != null)
+            return c;
         return null;
     }
 
+    /* Mueve un número acotado de cubetas del arreglo anterior al actual. */
+    private void migra() {
+        if (anteriores == null)
+            return;
+        int paso = anteriores.length > entradas.length ?
+            2 * CUBETAS_POR_OPERACION : CUBETAS_POR_OPERACION;
+        int fin = Math.min(migradas + paso, anteriores.length);
+        for (; migradas < fin; migradas++)
+            mueveCubeta(anteriores, migradas);
+        if (migradas == anteriores.length)
+            anteriores = null;
+    }
+
+    /* Mueve todas las entradas de una cubeta al arreglo actual. */
+    private void mueveCubeta(Cubeta[] arreglo, int i) {
+        if (arreglo[i] == null)
+            return;
+        for (Entrada e : arreglo[i]) {
+            int indice = e.picadillo & mascara;
+            entradas[indice] = nuevaEntrada(entradas[indice], e);
+        }
+        arreglo[i] = null;
+    }
+
+    /* Termina la migración en curso, si la hay. Lo usan las operaciones que de
+     * todas formas recorren el diccionario completo. */
+    private void terminaMigracion() {
+        while (anteriores != null)
+            migra();
+    }
+
+    /* Termina la migración en curso y regresa el número de cubetas. Después,
+     * y mientras nadie lo modifique, varios hilos pueden leer el diccionario
+     * y recorrer intervalos de sus cubetas a la vez. Lo usa Conjunto para
+     * sus operaciones en paralelo. */
+    int preparaRecorrido() {
+        terminaMigracion();
+        return entradas.length;
+    }
+
+    /* Aplica la acción a las llaves de las cubetas en [ini, fin), hasta que
+     * la acción regrese false; en ese caso regresa false. */
+    boolean recorreLlaves(int ini, int fin, Predicate<? super K> accion) {
+        for (int i = ini; i < fin; i++)
+            if (entradas[i] != null)
+                for (Entrada e : entradas[i])
+                    if (!accion.test(e.llave))
+                        return false;
+        return true;
+    }
+
     private void duplicaArreglo() {
-        mascara = mascara(entradas.length * 2);
-        Lista<Entrada>[] nuevaEntrada = nuevoArreglo(mascara + 1);
+        if (incremental) {
+            /* Si la migración anterior no ha terminado, la terminamos antes
+             * de empezar otra. */
+            terminaMigracion();
+            empiezaMigracion((mascara << 1) | 1);
+            return;
+        }
+        redimensiona((mascara << 1) | 1);
+    }
+
+    /* Reduce el arreglo a la mitad. De forma incremental no terminamos la
+     * migración en curso: la reducción espera a que termine, y luego migra
+     * las cubetas igual que al crecer. */
+    private void reduceArreglo() {
+        if (!incremental) {
+            redimensiona(mascara >>> 1);
+            return;
+        }
+        if (anteriores == null)
+            empiezaMigracion(mascara >>> 1);
+    }
+
+    /* Empieza a migrar el arreglo actual a uno nuevo con la máscara
+     * recibida. */
+    private void empiezaMigracion(int nuevaMascara) {
+        anteriores = entradas;
+        mascaraAnterior = mascara;
+        migradas = 0;
+        mascara = nuevaMascara;
+        entradas = nuevoArreglo(mascara + 1);
+    }
+
+    /* Mueve todas las entradas a un arreglo nuevo con la máscara recibida. */
+    private void redimensiona(int nuevaMascara) {
+        mascara = nuevaMascara;
+        Cubeta[] nuevaEntrada = nuevoArreglo(mascara + 1);
         for (int i = 0; i < entradas.length; i++) {
             if (entradas[i] != null) {
                 for (Entrada e : entradas[i]) {
-                    int indice = calculaIndice(e.llave);
+                    int indice = e.picadillo & mascara;
                     nuevaEntrada[indice] = nuevaEntrada(nuevaEntrada[indice], e);
                 }
             }
@@ -189,14 +787,14 @@ public class Diccionario<K, V> implements Iterable<V> {
         entradas = nuevaEntrada;
     }
 
-    private Lista<Entrada> nuevaEntrada(Lista<Entrada> le, Entrada e) {
-        Lista<Entrada> l;
-        if (le == null)
-            l = new Lista<Entrada>();
+    private Cubeta nuevaEntrada(Cubeta ce, Entrada e) {
+        Cubeta c;
+        if (ce == null)
+            c = new Cubeta();
         else
-            l = le;
-        l.agrega(e);
-        return l;
+            c = ce;
+        c.agrega(e);
+        return c;
     }
 
     /**
@@ -206,14 +804,25 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @throws NoSuchElementException si la llave no está en el diccionario.
      */
     public V get(K llave) {
-        int i = calculaIndice(llave);
-        if (entradas[i] == null)
+        migra();
+        int h = picadillo.picadillo(llave);
+        if (filtro != null && !filtro.puedeContenerPicadillo(h))
             throw new NoSuchElementException();
-        for (Entrada e : entradas[i]) {
-            if (e.llave.equals(llave))
-                return e.valor;
-        }
-        throw new NoSuchElementException();
+        Entrada e = buscaEntrada(llave, h);
+        if (e == null)
+            throw new NoSuchElementException();
+        return e.valor;
+    }
+
+    /* Regresa el valor asociado a la llave, cuyo picadillo es h, o null si la
+     * llave no está. Lo usa Cache para calcular el picadillo una sola vez y
+     * no lanzar una excepción en cada fallo. */
+    V buscaValor(K llave, int h) {
+        migra();
+        if (filtro != null && !filtro.puedeContenerPicadillo(h))
+            return null;
+        Entrada e = buscaEntrada(llave, h);
+        return e == null ? null : e.valor;
     }
 
     /**
@@ -223,14 +832,11 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         <tt>false</tt> en otro caso.
      */
     public boolean contiene(K llave) {
-        int i = calculaIndice(llave);
-        if (entradas[i] == null)
+        migra();
+        int h = picadillo.picadillo(llave);
+        if (filtro != null && !filtro.puedeContenerPicadillo(h))
             return false;
-        for (Entrada e : entradas[i]) {
-            if (e.llave.equals(llave))
-                return true;
-        }
-        return false;
+        return buscaEntrada(llave, h) != null;
     }
 
     /**
@@ -240,12 +846,263 @@ public class Diccionario<K, V> implements Iterable<V> {
      *         el diccionario.
      */
     public void elimina(K llave) {
-        int i = calculaIndice(llave);
-        if (entradas[i] == null)
+        migra();
+        int h = picadillo.picadillo(llave);
+        Cubeta c = buscaCubetaConLlave(llave, h);
+        if (c == null)
             throw new NoSuchElementException();
-        Entrada e = buscaEntradaConLlave(entradas[i], llave);
-        entradas[i].elimina(e);
+        c.elimina(c.busca(llave, h));
         elementos--;
+        if (filtro != null)
+            eliminaDelFiltro(h);
+        if (mascara >= MIN_N && carga() < cargaMaxima / 4)
+            reduceArreglo();
+    }
+
+    /**
+     * Reduce el arreglo del diccionario al tamaño más chico en el que caben
+     * sus elementos sin llegar a la carga máxima. Es útil después de eliminar
+     * muchos elementos.
+     */
+    public void compacta() {
+        terminaMigracion();
+        int nuevaMascara = mascara(elementos);
+        if (nuevaMascara < mascara)
+            redimensiona(nuevaMascara);
+    }
+
+    /**
+     * Pone un filtro de membresía frente al diccionario, para que las
+     * búsquedas de llaves que no están ({@link #contiene} y {@link #get})
+     * casi nunca tengan que recorrer una cubeta. El filtro usa los
+     * picadillos que el diccionario ya calcula, se agranda cuando el
+     * diccionario crece, y un filtro de Bloom se reconstruye después de
+     * muchas eliminaciones. Cada reconstrucción recorre todas las llaves,
+     * pero ocurre cuando el número de elementos se duplica, así que su
+     * costo amortizado es constante; no termina una migración incremental
+     * en curso. Si el diccionario ya tenía un filtro, lo reemplaza.
+     * @param tipo el tipo del filtro.
+     * @param falsosPositivos la probabilidad de que el filtro deje pasar una
+     *        llave que no está.
+     * @throws IllegalArgumentException si el tipo es <code>null</code> o la
+     *         probabilidad no está entre 0 y 1.
+     */
+    public void usaFiltro(TipoFiltro tipo, double falsosPositivos) {
+        if (tipo == null || !(falsosPositivos > 0.0 && falsosPositivos < 1.0))
+            throw new IllegalArgumentException();
+        tipoFiltro = tipo;
+        this.falsosPositivos = falsosPositivos;
+        reconstruyeFiltro();
+    }
+
+    /**
+     * Quita el filtro de membresía del diccionario, si tenía uno.
+     */
+    public void quitaFiltro() {
+        filtro = null;
+    }
+
+    /* Construye un filtro nuevo, con espacio para el doble de los elementos
+     * del diccionario, y le agrega todas las llaves. Un filtro cuckoo no
+     * puede guardar más de ocho llaves con el mismo picadillo; si eso pasa,
+     * usamos un filtro de Bloom hasta la siguiente reconstrucción. Cuesta
+     * O(n), pero como la capacidad se duplica, ocurre después de O(n)
+     * operaciones y el costo amortizado es constante. */
+    private void reconstruyeFiltro() {
+        capacidadFiltro = (int)Math.min(2L * elementos + MIN_N,
+                                        Integer.MAX_VALUE);
+        eliminadasFiltro = 0;
+        if (tipoFiltro == TipoFiltro.CUCKOO) {
+            filtro = new FiltroCuckoo<K>(capacidadFiltro, falsosPositivos,
+                                         picadillo);
+            if (llenaFiltro())
+                return;
+        }
+        filtro = new FiltroBloom<K>(capacidadFiltro, falsosPositivos,
+                                    picadillo);
+        llenaFiltro();
+    }
+
+    /* Agrega al filtro todas las llaves; regresa false si no cupieron.
+     * Recorre los dos arreglos en lugar de terminar la migración en curso,
+     * para que la operación que reconstruye el filtro no pague además el
+     * resto de la migración. */
+    private boolean llenaFiltro() {
+        return llenaFiltro(entradas) &&
+            (anteriores == null || llenaFiltro(anteriores));
+    }
+
+    /* Agrega al filtro las llaves de un arreglo; regresa false si no
+     * cupieron. */
+    private boolean llenaFiltro(Cubeta[] arreglo) {
+        for (Cubeta c : arreglo)
+            if (c != null)
+                for (Entrada e : c)
+                    if (!filtro.agregaPicadillo(e.picadillo))
+                        return false;
+        return true;
+    }
+
+    /* Agrega al filtro una llave nueva, que ya está en el diccionario. */
+    private void agregaAlFiltro(int h) {
+        if (elementos > capacidadFiltro || !filtro.agregaPicadillo(h))
+            reconstruyeFiltro();
+    }
+
+    /* Saca del filtro una llave que ya no está en el diccionario. */
+    private void eliminaDelFiltro(int h) {
+        if (filtro.esEliminable())
+            filtro.eliminaPicadillo(h);
+        else if (++eliminadasFiltro > capacidadFiltro / 2)
+            reconstruyeFiltro();
+    }
+
+    /**
+     * Construye un diccionario con un picadillo predeterminado y las parejas
+     * de llaves y valores recibidas: la i-ésima llave se asocia al i-ésimo
+     * valor. Si una llave se repite, se queda con el último de sus valores.
+     * @param <K> el tipo de las llaves.
+     * @param <V> el tipo de los valores.
+     * @param llaves las llaves.
+     * @param valores los valores.
+     * @return un diccionario con las parejas recibidas.
+     * @throws IllegalArgumentException si hay llaves o valores nulos, o si
+     *         no hay el mismo número de llaves que de valores.
+     */
+    public static <K, V> Diccionario<K, V> desde(Iterable<K> llaves,
+                                                 Iterable<V> valores) {
+        return desde(llaves, valores, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con el picadillo y las parejas de llaves y
+     * valores recibidas: la i-ésima llave se asocia al i-ésimo valor. Si una
+     * llave se repite, se queda con el último de sus valores.
+     * @param <K> el tipo de las llaves.
+     * @param <V> el tipo de los valores.
+     * @param llaves las llaves.
+     * @param valores los valores.
+     * @param picadillo el picadillo a utilizar; con muchas llaves se llama
+     *        desde varios hilos a la vez.
+     * @return un diccionario con las parejas recibidas.
+     * @throws IllegalArgumentException si hay llaves o valores nulos, o si
+     *         no hay el mismo número de llaves que de valores.
+     */
+    public static <K, V> Diccionario<K, V> desde(Iterable<K> llaves,
+                                                 Iterable<V> valores,
+                                                 Picadillo<K> picadillo) {
+        Diccionario<K, V> diccionario = new Diccionario<K, V>(picadillo);
+        diccionario.agregaTodos(llaves, valores);
+        return diccionario;
+    }
+
+    /**
+     * Agrega al diccionario las parejas de llaves y valores recibidas: la
+     * i-ésima llave se asocia al i-ésimo valor. El resultado es el mismo que
+     * llamar {@link #agrega} con cada pareja en orden, pero el arreglo se
+     * ajusta una sola vez y, con muchas llaves, los picadillos se calculan en
+     * paralelo, por lo que el picadillo debe poder llamarse desde varios
+     * hilos a la vez. Si alguna llave o valor es nulo, el diccionario no se
+     * modifica.
+     * @param llaves las llaves.
+     * @param valores los valores.
+     * @throws IllegalArgumentException si hay llaves o valores nulos, o si
+     *         no hay el mismo número de llaves que de valores.
+     */
+    public void agregaTodos(Iterable<K> llaves, Iterable<V> valores) {
+        Object[] ll = aArreglo(llaves);
+        Object[] vs = aArreglo(valores);
+        if (ll.length != vs.length)
+            throw new IllegalArgumentException();
+        int n = ll.length;
+        int[] picadillos = calculaPicadillos(ll);
+        terminaMigracion();
+        int nuevaMascara = mascara((int)Math.min((long)elementos + n,
+                                                 Integer.MAX_VALUE));
+        if (nuevaMascara > mascara)
+            redimensiona(nuevaMascara);
+        for (int i = 0; i < n; i++) {
+            @SuppressWarnings("unchecked") K llave = (K)ll[i];
+            @SuppressWarnings("unchecked") V valor = (V)vs[i];
+            int h = picadillos[i];
+            Cubeta c = obtenerCubeta(h & mascara);
+            Entrada e = c.busca(llave, h);
+            if (e == null) {
+                c.agrega(new Entrada(llave, valor, h));
+                elementos++;
+            } else {
+                e.valor = valor;
+            }
+        }
+        if (filtro != null)
+            reconstruyeFiltro();
+    }
+
+    /* Copia los elementos a un arreglo; lanza IllegalArgumentException si
+     * alguno es nulo. */
+    private static Object[] aArreglo(Iterable<?> elementos) {
+        Object[] a = new Object[elementos instanceof Coleccion ?
+                                ((Coleccion<?>)elementos).getElementos() : 16];
+        int n = 0;
+        for (Object e : elementos) {
+            if (e == null)
+                throw new IllegalArgumentException();
+            if (n == a.length) {
+                Object[] b = new Object[Math.max(16, a.length * 2)];
+                System.arraycopy(a, 0, b, 0, n);
+                a = b;
+            }
+            a[n++] = e;
+        }
+        if (n == a.length)
+            return a;
+        Object[] b = new Object[n];
+        System.arraycopy(a, 0, b, 0, n);
+        return b;
+    }
+
+    /* Calcula los picadillos de las llaves, repartiéndolas entre los
+     * procesadores si son muchas. */
+    private int[] calculaPicadillos(Object[] llaves) {
+        int[] picadillos = new int[llaves.length];
+        int hilos = Runtime.getRuntime().availableProcessors();
+        if (llaves.length < UMBRAL_PARALELO || hilos < 2) {
+            calculaPicadillos(llaves, picadillos, 0, llaves.length);
+            return picadillos;
+        }
+        AtomicReference<RuntimeException> error = new AtomicReference<>();
+        Thread[] t = new Thread[hilos];
+        for (int i = 0; i < hilos; i++) {
+            int ini = (int)((long)llaves.length * i / hilos);
+            int fin = (int)((long)llaves.length * (i + 1) / hilos);
+            t[i] = new Thread(() -> {
+                try {
+                    calculaPicadillos(llaves, picadillos, ini, fin);
+                } catch (RuntimeException re) {
+                    error.compareAndSet(null, re);
+                }
+            });
+            t[i].start();
+        }
+        try {
+            for (Thread hilo : t)
+                hilo.join();
+        } catch (InterruptedException ie) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ie);
+        }
+        if (error.get() != null)
+            throw error.get();
+        return picadillos;
+    }
+
+    /* Calcula los picadillos de las llaves en [ini, fin). */
+    private void calculaPicadillos(Object[] llaves, int[] picadillos,
+                                   int ini, int fin) {
+        for (int i = ini; i < fin; i++) {
+            @SuppressWarnings("unchecked") K llave = (K)llaves[i];
+            picadillos[i] = picadillo.picadillo(llave);
+        }
     }
 
     /**
@@ -255,13 +1112,8 @@ public class Diccionario<K, V> implements Iterable<V> {
      */
     public Lista<K> llaves() {
         Lista<K> ll = new Lista<>();
-        for (int i = 0; i < entradas.length; i++) {
-            if (entradas[i] != null) {
-                for (Entrada e : entradas[i]) {
-                    ll.agrega(e.llave);
-                }
-            }
-        }
+        for (K llave : vistaLlaves())
+            ll.agrega(llave);
         return ll;
     }
 
@@ -272,21 +1124,39 @@ public class Diccionario<K, V> implements Iterable<V> {
      */
     public Lista<V> valores() {
         Lista<V> lv = new Lista<>();
-        for (int i = 0; i < entradas.length; i++) {
-            if (entradas[i] != null) {
-                for (Entrada e : entradas[i]) {
-                    lv.agrega(e.valor);
-                }
-            }
-        }
+        for (V valor : this)
+            lv.agrega(valor);
         return lv;
     }
 
+    /**
+     * Regresa una vista de las llaves del diccionario. La vista no copia las
+     * llaves: recorrerla recorre el diccionario en su lugar, y refleja los
+     * cambios que se le hagan. Eliminar una llave de la vista la elimina del
+     * diccionario; agregar llaves a la vista no está permitido.
+     * @return una vista de las llaves del diccionario.
+     */
+    public Coleccion<K> vistaLlaves() {
+        return new VistaLlaves();
+    }
+
+    /**
+     * Regresa una vista de los valores del diccionario. La vista no copia los
+     * valores: recorrerla recorre el diccionario en su lugar, y refleja los
+     * cambios que se le hagan. La vista no permite agregar ni eliminar
+     * valores.
+     * @return una vista de los valores del diccionario.
+     */
+    public Coleccion<V> vistaValores() {
+        return new VistaValores();
+    }
+
     /**
      * Nos dice cuántas colisiones hay en el diccionario.
      * @return cuántas colisiones hay en el diccionario.
      */
     public int colisiones() {
+        terminaMigracion();
         int colisiones = 0;
         for (int i = 0; i < entradas.length; i++) {
             if (entradas[i] != null) {
@@ -302,6 +1172,7 @@ public class Diccionario<K, V> implements Iterable<V> {
      * @return el máximo número de colisiones para una misma llave.
      */
     public int colisionMaxima() {
+        terminaMigracion();
         int colision = 0;
         int colisionMaxima = 0;
         for (int i = 0; i < entradas.length; i++) {
@@ -314,6 +1185,17 @@ public class Diccionario<K, V> implements Iterable<V> {
         return colisionMaxima;
     }
 
+    /**
+     * Nos dice cuántas cubetas del arreglo anterior faltan por mover al
+     * actual, si el diccionario está creciendo o reduciéndose de forma
+     * incremental.
+     * @return cuántas cubetas faltan por migrar; 0 si no hay una migración
+     *         en curso.
+     */
+    public int cubetasPorMigrar() {
+        return anteriores == null ? 0 : anteriores.length - migradas;
+    }
+
     /**
      * Nos dice la carga del diccionario.
      * @return la carga del diccionario.
@@ -353,10 +1235,12 @@ public class Diccionario<K, V> implements Iterable<V> {
         @SuppressWarnings("unchecked") Diccionario<K, V> d = (Diccionario<K, V>)o;
         if (getElementos() != d.getElementos())
             return false;
-        for (K k : llaves())
-            if (!d.contiene(k) && !d.get(k).equals(get(k))) {
+        IteradorEntradas iterador = new IteradorEntradas();
+        while (iterador.hasNext()) {
+            Entrada e = iterador.siguienteEntrada();
+            if (!d.contiene(e.llave) || !d.get(e.llave).equals(e.valor))
                 return false;
-            }
+        }
         return true;
     }
 
@@ -368,4 +1252,14 @@ public class Diccionario<K, V> implements Iterable<V> {
     @Override public Iterator<V> iterator() {
         return new Iterador();
     }
+
+    /**
+     * Regresa un divisor para recorrer los valores del diccionario, que se
+     * parte por intervalos de cubetas. Mientras se recorre, el diccionario no
+     * debe modificarse.
+     * @return un divisor para recorrer los valores del diccionario.
+     */
+    @Override public Spliterator<V> spliterator() {
+        return new Divisor<V>(e -> e.valor, 0);
+    }
 }
\ No newline at end of file
@@ -0,0 +1,362 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios con direccionamiento abierto. Ofrece las mismas
+ * operaciones que {@link Diccionario}, pero en lugar de guardar una lista por
+ * cada índice del arreglo, guarda las llaves y los valores directamente en dos
+ * arreglos paralelos, y resuelve las colisiones con sondeo lineal.</p>
+ *
+ * <p>Al no crear entradas, listas ni nodos, el diccionario usa mucha menos
+ * memoria por elemento, y buscar una llave recorre posiciones contiguas del
+ * arreglo en lugar de seguir referencias.</p>
+ *
+ * <p>Las eliminaciones se hacen recorriendo hacia atrás las llaves que siguen
+ * en la misma cadena de sondeo, por lo que el diccionario nunca deja
+ * lápidas.</p>
+ */
+public class DiccionarioAbierto<K, V> implements Iterable<V> {
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Clase privada para iteradores de diccionarios. */
+    private class Iterador implements Iterator<V> {
+
+        /* La siguiente posición ocupada del arreglo. */
+        private int indice;
+
+        /* Construye un nuevo iterador, colocándolo en la primera posición
+         * ocupada. */
+        public Iterador() {
+            indice = -1;
+            avanza();
+        }
+
+        /* Mueve el índice a la siguiente posición ocupada. */
+        private void avanza() {
+            do {
+                indice++;
+            } while (indice < llaves.length && llaves[indice] == null);
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return indice < llaves.length;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            if (!hasNext())
+                throw new NoSuchElementException();
+            V v = valores[indice];
+            avanza();
+            return v;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
+    private static final int MIN_N = 64;
+
+    /* Máscara para no usar módulo. */
+    private int mascara;
+    /* Picadillo. */
+    private Picadillo<K> picadillo;
+    /* Las llaves; null indica una posición libre. */
+    private K[] llaves;
+    /* Los valores, en la misma posición que su llave. */
+    private V[] valores;
+    /* Número de valores. */
+    private int elementos;
+
+    /* Truco para crear arreglos genéricos. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private static <T> T[] nuevoArreglo(int n) {
+        return (T[])(new Object[n]);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial y picadillo
+     * predeterminados.
+     */
+    public DiccionarioAbierto() {
+        this(MIN_N, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario, y
+     * un picadillo predeterminado.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioAbierto(int tam) {
+        this(tam, (K o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado, y un
+     * picadillo definido por el usuario.
+     * @param picadillo el picadillo a utilizar.
+     */
+    public DiccionarioAbierto(Picadillo<K> picadillo) {
+        this(MIN_N, picadillo);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, y un método de picadillo
+     * definidos por el usuario.
+     * @param tam el tamaño del diccionario.
+     * @param picadillo el picadillo a utilizar.
+     */
+    public DiccionarioAbierto(int tam, Picadillo<K> picadillo) {
+        this.picadillo = picadillo;
+        int n = MIN_N;
+        while (n < (1 << 30) && n * MAXIMA_CARGA <= tam)
+            n <<= 1;
+        mascara = n - 1;
+        llaves = nuevoArreglo(n);
+        valores = nuevoArreglo(n);
+    }
+
+    /* Calcula la posición inicial de una llave. Mezclamos el picadillo con
+     * el finalizador de MurmurHash3 (fmix32): con sondeo lineal, picadillos
+     * que sólo difieren en algunos bits forman racimos largos. */
+    private int calculaIndice(K llave) {
+        int h = picadillo.picadillo(llave);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mascara;
+    }
+
+    /* Regresa la posición de la llave, o -1 si no está. */
+    private int buscaIndice(K llave) {
+        int i = calculaIndice(llave);
+        while (llaves[i] != null) {
+            if (llaves[i].equals(llave))
+                return i;
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+
+        int i = calculaIndice(llave);
+        while (llaves[i] != null) {
+            if (llaves[i].equals(llave)) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        llaves[i] = llave;
+        valores[i] = valor;
+        elementos++;
+        if (carga() >= MAXIMA_CARGA)
+            duplicaArreglo();
+    }
+
+    private void duplicaArreglo() {
+        K[] llavesViejas = llaves;
+        V[] valoresViejos = valores;
+        mascara = (llavesViejas.length << 1) - 1;
+        llaves = nuevoArreglo(mascara + 1);
+        valores = nuevoArreglo(mascara + 1);
+        for (int j = 0; j < llavesViejas.length; j++) {
+            if (llavesViejas[j] == null)
+                continue;
+            int i = calculaIndice(llavesViejas[j]);
+            while (llaves[i] != null)
+                i = (i + 1) & mascara;
+            llaves[i] = llavesViejas[j];
+            valores[i] = valoresViejos[j];
+        }
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        int i = buscaIndice(llave);
+        if (i == -1)
+            throw new NoSuchElementException();
+        return valores[i];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return buscaIndice(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        int i = buscaIndice(llave);
+        if (i == -1)
+            throw new NoSuchElementException();
+        /* Recorremos hacia atrás las llaves de la cadena que ya no podrían
+         * encontrarse si dejamos el hueco en i. */
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (llaves[j] == null)
+                break;
+            int k = calculaIndice(llaves[j]);
+            if (((j - k) & mascara) >= ((j - i) & mascara)) {
+                llaves[i] = llaves[j];
+                valores[i] = valores[j];
+                i = j;
+            }
+        }
+        llaves[i] = null;
+        valores[i] = null;
+        elementos--;
+    }
+
+    /**
+     * Regresa una lista con todas las llaves con valores asociados en el
+     * diccionario. La lista no tiene ningún tipo de orden.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<K> llaves() {
+        Lista<K> ll = new Lista<>();
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null)
+                ll.agrega(llaves[i]);
+        return ll;
+    }
+
+    /**
+     * Regresa una lista con todos los valores en el diccionario. La lista no
+     * tiene ningún tipo de orden.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> lv = new Lista<>();
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null)
+                lv.agrega(valores[i]);
+        return lv;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario. En direccionamiento
+     * abierto, una llave colisionó si no quedó en su posición inicial.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int colisiones = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (llaves[i] != null && calculaIndice(llaves[i]) != i)
+                colisiones++;
+        return colisiones;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario; es decir, la distancia más grande entre la posición
+     * inicial de una llave y la posición donde quedó.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        int colisionMaxima = 0;
+        for (int i = 0; i < llaves.length; i++) {
+            if (llaves[i] == null)
+                continue;
+            int distancia = (i - calculaIndice(llaves[i])) & mascara;
+            if (distancia > colisionMaxima)
+                colisionMaxima = distancia;
+        }
+        return colisionMaxima;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return (elementos + 0.0) / llaves.length;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioAbierto, y tiene las mismas llaves asociadas a los
+     *         mismos valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioAbierto))
+            return false;
+        @SuppressWarnings("unchecked") DiccionarioAbierto<K, V> d =
+            (DiccionarioAbierto<K, V>)o;
+        if (elementos != d.elementos)
+            return false;
+        for (int i = 0; i < llaves.length; i++) {
+            if (llaves[i] == null)
+                continue;
+            int j = d.buscaIndice(llaves[i]);
+            if (j == -1 || !d.valores[j].equals(valores[i]))
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new Iterador();
+    }
+}
@@ -0,0 +1,405 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * <p>Clase para diccionarios que pueden usarse desde varios hilos a la vez.
+ * Ofrece las mismas operaciones básicas que {@link Diccionario}.</p>
+ *
+ * <p>El diccionario está partido en segmentos independientes, cada uno con su
+ * propio arreglo de listas y su propio candado. Las llaves se reparten entre
+ * los segmentos según su picadillo, así que {@link #agrega} y {@link #elimina}
+ * sólo bloquean el segmento de la llave, y cada segmento crece por su cuenta
+ * sin detener a los demás.</p>
+ *
+ * <p>Las búsquedas ({@link #get} y {@link #contiene}) nunca bloquean: las
+ * listas de cada segmento están formadas por nodos cuya llave y siguiente no
+ * cambian nunca, así que un hilo que lee siempre ve una lista consistente.
+ * Eliminar un nodo copia los nodos que lo preceden en lugar de modificarlos,
+ * y crecer un segmento construye un arreglo nuevo que se publica al
+ * final.</p>
+ *
+ * <p>Los iteradores, {@link #llaves} y {@link #valores} reflejan el estado del
+ * diccionario en algún momento durante su recorrido; nunca lanzan excepciones
+ * por modificaciones concurrentes.</p>
+ */
+public class DiccionarioConcurrente<K, V> implements Iterable<V> {
+
+    /** Máxima carga permitida por cada segmento del diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Clase para los nodos de las listas. Sólo el valor puede cambiar. */
+    private static final class Nodo<K, V> {
+
+        /* La llave. */
+        public final K llave;
+        /* El picadillo de la llave. */
+        public final int picadillo;
+        /* El siguiente nodo en la lista. */
+        public final Nodo<K, V> siguiente;
+        /* El valor. */
+        public volatile V valor;
+
+        /* Construye un nuevo nodo. */
+        public Nodo(K llave, int picadillo, V valor, Nodo<K, V> siguiente) {
+            this.llave = llave;
+            this.picadillo = picadillo;
+            this.valor = valor;
+            this.siguiente = siguiente;
+        }
+    }
+
+    /* Clase para los segmentos. El candado del segmento sólo lo toman las
+     * operaciones que lo modifican. */
+    private static final class Segmento<K, V> extends ReentrantLock {
+
+        /* El arreglo de listas del segmento. */
+        public volatile AtomicReferenceArray<Nodo<K, V>> tabla;
+        /* Número de elementos en el segmento. */
+        public volatile int elementos;
+
+        /* Construye un segmento con n listas. */
+        public Segmento(int n) {
+            tabla = new AtomicReferenceArray<>(n);
+        }
+
+        /* Busca el nodo con la llave sin bloquear. */
+        public Nodo<K, V> busca(K llave, int h) {
+            AtomicReferenceArray<Nodo<K, V>> t = tabla;
+            Nodo<K, V> n = t.get(h & (t.length() - 1));
+            while (n != null) {
+                if (n.picadillo == h && n.llave.equals(llave))
+                    return n;
+                n = n.siguiente;
+            }
+            return null;
+        }
+
+        /* Agrega o reemplaza el valor de la llave. */
+        public void agrega(K llave, int h, V valor) {
+            lock();
+            try {
+                Nodo<K, V> n = busca(llave, h);
+                if (n != null) {
+                    n.valor = valor;
+                    return;
+                }
+                AtomicReferenceArray<Nodo<K, V>> t = tabla;
+                int i = h & (t.length() - 1);
+                t.set(i, new Nodo<>(llave, h, valor, t.get(i)));
+                elementos++;
+                if (elementos >= t.length() * MAXIMA_CARGA)
+                    duplicaArreglo();
+            } finally {
+                unlock();
+            }
+        }
+
+        /* Elimina la llave; regresa false si no estaba. */
+        public boolean elimina(K llave, int h) {
+            lock();
+            try {
+                AtomicReferenceArray<Nodo<K, V>> t = tabla;
+                int i = h & (t.length() - 1);
+                Nodo<K, V> cabeza = t.get(i);
+                Nodo<K, V> n = cabeza;
+                while (n != null && !(n.picadillo == h && n.llave.equals(llave)))
+                    n = n.siguiente;
+                if (n == null)
+                    return false;
+                /* Copiamos los nodos anteriores al eliminado, para que los
+                 * lectores que estén a la mitad de la lista no se pierdan. */
+                Nodo<K, V> nueva = n.siguiente;
+                for (Nodo<K, V> m = cabeza; m != n; m = m.siguiente)
+                    nueva = new Nodo<>(m.llave, m.picadillo, m.valor, nueva);
+                t.set(i, nueva);
+                elementos--;
+                return true;
+            } finally {
+                unlock();
+            }
+        }
+
+        /* Duplica el arreglo del segmento. Se llama con el candado tomado. */
+        private void duplicaArreglo() {
+            AtomicReferenceArray<Nodo<K, V>> t = tabla;
+            AtomicReferenceArray<Nodo<K, V>> nueva =
+                new AtomicReferenceArray<>(t.length() * 2);
+            int mascara = nueva.length() - 1;
+            for (int i = 0; i < t.length(); i++) {
+                for (Nodo<K, V> n = t.get(i); n != null; n = n.siguiente) {
+                    int j = n.picadillo & mascara;
+                    nueva.set(j, new Nodo<>(n.llave, n.picadillo, n.valor,
+                                            nueva.get(j)));
+                }
+            }
+            tabla = nueva;
+        }
+    }
+
+    /* Clase privada para iteradores de diccionarios. */
+    private class Iterador implements Iterator<V> {
+
+        /* En qué segmento estamos. */
+        private int segmento;
+        /* En qué lista del segmento estamos. */
+        private int indice;
+        /* El arreglo del segmento actual. */
+        private AtomicReferenceArray<Nodo<K, V>> tabla;
+        /* El siguiente nodo a regresar. */
+        private Nodo<K, V> siguiente;
+
+        /* Construye un nuevo iterador, colocándolo en el primer nodo. */
+        public Iterador() {
+            segmento = -1;
+            avanza();
+        }
+
+        /* Mueve el iterador al siguiente nodo del diccionario. */
+        private void avanza() {
+            if (siguiente != null)
+                siguiente = siguiente.siguiente;
+            while (siguiente == null) {
+                if (tabla == null || ++indice >= tabla.length()) {
+                    if (++segmento >= segmentos.length)
+                        return;
+                    tabla = segmentos[segmento].tabla;
+                    indice = 0;
+                }
+                siguiente = tabla.get(indice);
+            }
+        }
+
+        /* Nos dice si hay un siguiente elemento. */
+        @Override public boolean hasNext() {
+            return siguiente != null;
+        }
+
+        /* Regresa el siguiente elemento. */
+        @Override public V next() {
+            if (siguiente == null)
+                throw new NoSuchElementException();
+            V v = siguiente.valor;
+            avanza();
+            return v;
+        }
+
+        /* No lo implementamos: siempre lanza una excepción. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Número predeterminado de segmentos. */
+    private static final int SEGMENTOS = 16;
+    /* Tamaño mínimo de cada segmento. */
+    private static final int MIN_N = 4;
+
+    /* Picadillo. */
+    private Picadillo<K> picadillo;
+    /* Los segmentos. */
+    private Segmento<K, V>[] segmentos;
+    /* Cuánto recorrer el picadillo para obtener el índice del segmento. */
+    private int desplazamiento;
+
+    /* Truco para crear un arreglo genérico. Es necesario hacerlo así por cómo
+       Java implementa sus genéricos; de otra forma obtenemos advertencias del
+       compilador. */
+    @SuppressWarnings("unchecked") private Segmento<K, V>[] nuevoArreglo(int n) {
+        Segmento[] arreglo = new Segmento[n];
+        return (Segmento<K, V>[])arreglo;
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, picadillo y número de
+     * segmentos predeterminados.
+     */
+    public DiccionarioConcurrente() {
+        this(64, (K o) -> o.hashCode(), SEGMENTOS);
+    }
+
+    /**
+     * Construye un diccionario con un picadillo definido por el usuario.
+     * @param picadillo el picadillo a utilizar.
+     */
+    public DiccionarioConcurrente(Picadillo<K> picadillo) {
+        this(64, picadillo, SEGMENTOS);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, un picadillo, y un
+     * número de segmentos definidos por el usuario.
+     * @param tam el tamaño del diccionario.
+     * @param picadillo el picadillo a utilizar.
+     * @param segmentos el número tentativo de segmentos; se redondea a la
+     *        siguiente potencia de 2. Es el número de hilos que pueden
+     *        modificar el diccionario al mismo tiempo.
+     * @throws IllegalArgumentException si el número de segmentos no es
+     *         positivo.
+     */
+    public DiccionarioConcurrente(int tam, Picadillo<K> picadillo,
+                                  int segmentos) {
+        if (segmentos < 1)
+            throw new IllegalArgumentException();
+        this.picadillo = picadillo;
+        int s = 1, bits = 0;
+        while (s < segmentos) {
+            s <<= 1;
+            bits++;
+        }
+        desplazamiento = 32 - bits;
+        /* El total de listas no pasa de 2^30; lo calculamos en long para
+         * que n * s no se desborde. */
+        int n = MIN_N;
+        while (2L * n * s <= 1L << 30 && (long)n * s * MAXIMA_CARGA <= tam)
+            n <<= 1;
+        this.segmentos = nuevoArreglo(s);
+        for (int i = 0; i < s; i++)
+            this.segmentos[i] = new Segmento<>(n);
+    }
+
+    /* Mezcla los bits del picadillo: los bits altos eligen el segmento y los
+     * bajos la lista, así que todos tienen que depender de la llave. */
+    private int picadillo(K llave) {
+        int h = picadillo.picadillo(llave);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /* Regresa el segmento correspondiente al picadillo. */
+    private Segmento<K, V> segmento(int h) {
+        return desplazamiento == 32 ? segmentos[0] : segmentos[h >>> desplazamiento];
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int h = picadillo(llave);
+        segmento(h).agrega(llave, h, valor);
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * Nunca bloquea.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        int h = picadillo(llave);
+        Nodo<K, V> n = segmento(h).busca(llave, h);
+        if (n == null)
+            throw new NoSuchElementException();
+        return n.valor;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario. Nunca bloquea.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        int h = picadillo(llave);
+        return segmento(h).busca(llave, h) != null;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(K llave) {
+        int h = picadillo(llave);
+        if (!segmento(h).elimina(llave, h))
+            throw new NoSuchElementException();
+    }
+
+    /**
+     * Regresa una lista con todas las llaves con valores asociados en el
+     * diccionario. La lista no tiene ningún tipo de orden.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<K> llaves() {
+        Lista<K> ll = new Lista<>();
+        for (Segmento<K, V> s : segmentos) {
+            AtomicReferenceArray<Nodo<K, V>> t = s.tabla;
+            for (int i = 0; i < t.length(); i++)
+                for (Nodo<K, V> n = t.get(i); n != null; n = n.siguiente)
+                    ll.agrega(n.llave);
+        }
+        return ll;
+    }
+
+    /**
+     * Regresa una lista con todos los valores en el diccionario. La lista no
+     * tiene ningún tipo de orden.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> lv = new Lista<>();
+        for (V v : this)
+            lv.agrega(v);
+        return lv;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        int listas = 0;
+        for (Segmento<K, V> s : segmentos)
+            listas += s.tabla.length();
+        return (getElementos() + 0.0) / listas;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario. Si otros hilos están
+     * modificando el diccionario, el número es aproximado.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        int elementos = 0;
+        for (Segmento<K, V> s : segmentos)
+            elementos += s.elementos;
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        for (Segmento<K, V> s : segmentos)
+            if (s.elementos != 0)
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario. El
+     * diccionario se itera sin ningún orden específico.
+     * @return un iterador para iterar el diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new Iterador();
+    }
+}
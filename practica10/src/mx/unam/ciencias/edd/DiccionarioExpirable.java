@@ -0,0 +1,451 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Clase para diccionarios cuyas entradas expiran. Cada entrada tiene un
+ * tiempo de vida a partir de la última vez que se agregó; una vez vencida, el
+ * diccionario se comporta como si la llave no estuviera.</p>
+ *
+ * <p>Las entradas se guardan en un {@link Diccionario}, y sus vencimientos se
+ * ordenan en una rueda de temporizadores jerárquica: cinco niveles de 64
+ * ranuras, donde cada ranura del primer nivel abarca unos 1.05 milisegundos
+ * y cada ranura de un nivel abarca las 64 del nivel anterior. Una entrada se
+ * agenda en el nivel más bajo que alcanza su vencimiento, y cuando el tiempo
+ * llega a su ranura baja al nivel siguiente, así que cada entrada se mueve a
+ * lo más cinco veces y agendarla o vencerla toma tiempo <i>O</i>(1)
+ * amortizado. Con {@link EstructuraExpiracion#MONTICULO} los vencimientos se
+ * ordenan en un {@link MonticuloMinimo}, a costo <i>O</i>(log <i>n</i>).</p>
+ *
+ * <p>Las entradas vencidas se eliminan de forma perezosa: {@link #get},
+ * {@link #contiene} y {@link #elimina} eliminan la entrada que buscan si ya
+ * venció, y {@link #agrega} avanza la rueda hasta el tiempo actual,
+ * eliminando las entradas que vencieron desde la última escritura. Por eso
+ * {@link #getElementos} puede contar entradas vencidas que todavía no se
+ * eliminan; {@link #expira} las elimina todas.</p>
+ */
+public class DiccionarioExpirable<K, V> {
+
+    /* Número de niveles de la rueda. */
+    private static final int NIVELES = 5;
+    /* Bits de las ranuras de cada nivel. */
+    private static final int BITS_RANURAS = 6;
+    /* Número de ranuras de cada nivel. */
+    private static final int RANURAS = 1 << BITS_RANURAS;
+    /* Bits del tiempo (en nanosegundos) que abarca una ranura del primer
+     * nivel. */
+    private static final int BITS_TICK = 20;
+    /* Máximo tiempo de vida en nanosegundos; con él las restas de tiempos
+     * nunca se desbordan. */
+    private static final long MAXIMO_TTL = Long.MAX_VALUE >> 1;
+
+    /* Clase privada para las entradas. Cada entrada está en el diccionario
+     * y en la ranura de la rueda o el lugar del montículo que le toca. */
+    private class Entrada implements ComparableIndexable<Entrada> {
+        /* La llave. */
+        public K llave;
+        /* El valor. */
+        public V valor;
+        /* El tiempo en que vence la entrada. */
+        public long vence;
+        /* La entrada anterior en la ranura. */
+        public Entrada anterior;
+        /* La entrada siguiente en la ranura. */
+        public Entrada siguiente;
+        /* El índice en el montículo. */
+        public int indice;
+
+        /* Construye una nueva entrada. */
+        public Entrada(K llave, V valor) {
+            this.llave = llave;
+            this.valor = valor;
+            indice = -1;
+        }
+
+        /* Compara los vencimientos de dos entradas. */
+        @Override public int compareTo(Entrada e) {
+            return Long.signum(vence - e.vence);
+        }
+
+        /* Regresa el índice en el montículo. */
+        @Override public int getIndice() {
+            return indice;
+        }
+
+        /* Define el índice en el montículo. */
+        @Override public void setIndice(int indice) {
+            this.indice = indice;
+        }
+    }
+
+    /* Clase abstracta para las estructuras que ordenan los vencimientos. */
+    private abstract class Temporizador {
+        /* Agenda el vencimiento de una entrada. */
+        public abstract void agenda(Entrada e);
+        /* Cancela el vencimiento de una entrada. */
+        public abstract void cancela(Entrada e);
+        /* Elimina las entradas que vencieron hasta el tiempo dado; puede
+         * dejar algunas que vencieron hace muy poco. */
+        public abstract void avanza(long ahora);
+        /* Elimina todas las entradas que vencieron hasta el tiempo dado. */
+        public abstract void expira(long ahora);
+    }
+
+    /* Clase privada para la rueda de temporizadores jerárquica. Cada ranura
+     * es una lista doblemente ligada circular con un centinela. */
+    private class Rueda extends Temporizador {
+
+        /* Los centinelas de las ranuras. */
+        private Entrada[][] ranuras;
+        /* El tiempo hasta el que ha avanzado la rueda. */
+        private long tiempo;
+
+        /* Construye una rueda vacía en el tiempo dado. */
+        @SuppressWarnings("unchecked") public Rueda(long ahora) {
+            tiempo = ahora;
+            ranuras = (Entrada[][])new DiccionarioExpirable.Entrada[NIVELES][RANURAS];
+            for (Entrada[] nivel : ranuras) {
+                for (int i = 0; i < RANURAS; i++) {
+                    Entrada centinela = new Entrada(null, null);
+                    centinela.anterior = centinela.siguiente = centinela;
+                    nivel[i] = centinela;
+                }
+            }
+        }
+
+        /* Regresa cuántos bits del tiempo abarca una ranura del nivel. */
+        private int desplazamiento(int nivel) {
+            return BITS_TICK + BITS_RANURAS * nivel;
+        }
+
+        /* Agenda la entrada en el nivel más bajo que alcanza su
+         * vencimiento. */
+        @Override public void agenda(Entrada e) {
+            long retraso = e.vence - tiempo;
+            int nivel = 0;
+            while (nivel < NIVELES - 1 &&
+                   retraso >= 1L << desplazamiento(nivel + 1))
+                nivel++;
+            int i = (int)(e.vence >> desplazamiento(nivel)) & (RANURAS - 1);
+            Entrada centinela = ranuras[nivel][i];
+            e.siguiente = centinela;
+            e.anterior = centinela.anterior;
+            centinela.anterior.siguiente = e;
+            centinela.anterior = e;
+        }
+
+        /* Saca la entrada de su ranura. */
+        @Override public void cancela(Entrada e) {
+            if (e.anterior == null)
+                return;
+            e.anterior.siguiente = e.siguiente;
+            e.siguiente.anterior = e.anterior;
+            e.anterior = e.siguiente = null;
+        }
+
+        /* Avanza la rueda. En el primer nivel procesa las ranuras que el
+         * tiempo ya dejó atrás; en los demás, las ranuras a las que el
+         * tiempo acaba de llegar, bajando sus entradas de nivel. */
+        @Override public void avanza(long ahora) {
+            long anterior = tiempo;
+            if (ahora - anterior <= 0)
+                return;
+            tiempo = ahora;
+            for (int nivel = 0; nivel < NIVELES; nivel++) {
+                long ticks = anterior >> desplazamiento(nivel);
+                long delta = (ahora >> desplazamiento(nivel)) - ticks;
+                if (delta <= 0)
+                    break;
+                if (nivel > 0)
+                    ticks++;
+                for (long j = 0; j < Math.min(delta, RANURAS); j++)
+                    procesa(nivel, (int)(ticks + j) & (RANURAS - 1));
+            }
+        }
+
+        /* Avanza la rueda y procesa además la ranura actual del primer
+         * nivel. */
+        @Override public void expira(long ahora) {
+            avanza(ahora);
+            procesa(0, (int)(tiempo >> BITS_TICK) & (RANURAS - 1));
+        }
+
+        /* Vence las entradas de la ranura que ya vencieron, y vuelve a
+         * agendar las demás. */
+        private void procesa(int nivel, int i) {
+            Entrada centinela = ranuras[nivel][i];
+            Entrada e = centinela.siguiente;
+            centinela.anterior = centinela.siguiente = centinela;
+            while (e != centinela) {
+                Entrada siguiente = e.siguiente;
+                e.anterior = e.siguiente = null;
+                if (e.vence - tiempo <= 0)
+                    vence(e);
+                else
+                    agenda(e);
+                e = siguiente;
+            }
+        }
+    }
+
+    /* Clase privada para ordenar los vencimientos en un montículo
+     * mínimo. */
+    private class Monticulo extends Temporizador {
+
+        /* El montículo. */
+        private MonticuloMinimo<Entrada> monticulo;
+
+        /* Construye un montículo vacío. */
+        public Monticulo() {
+            monticulo = new MonticuloMinimo<Entrada>();
+        }
+
+        /* Agrega la entrada al montículo. */
+        @Override public void agenda(Entrada e) {
+            monticulo.agrega(e);
+        }
+
+        /* Saca la entrada del montículo. */
+        @Override public void cancela(Entrada e) {
+            if (e.getIndice() >= 0)
+                monticulo.elimina(e);
+        }
+
+        /* Vence las entradas del montículo hasta encontrar una que no ha
+         * vencido. */
+        @Override public void avanza(long ahora) {
+            while (!monticulo.esVacio() && monticulo.get(0).vence - ahora <= 0)
+                vence(monticulo.elimina());
+        }
+
+        /* En el montículo avanzar ya vence todas las entradas. */
+        @Override public void expira(long ahora) {
+            avanza(ahora);
+        }
+    }
+
+    /* Las entradas, por llave. */
+    private Diccionario<K, Entrada> entradas;
+    /* El picadillo de las llaves. */
+    private Picadillo<K> picadillo;
+    /* Los vencimientos. */
+    private Temporizador temporizador;
+    /* El reloj, en nanosegundos. */
+    private LongSupplier reloj;
+    /* El tiempo de vida por omisión, en nanosegundos. */
+    private long ttl;
+    /* El número de entradas eliminadas por vencer. */
+    private long expiradas;
+
+    /**
+     * Construye un diccionario expirable con un tiempo de vida por omisión,
+     * que ordena sus vencimientos en una rueda de temporizadores.
+     * @param ttl el tiempo de vida por omisión de las entradas.
+     * @param unidad la unidad del tiempo de vida.
+     * @throws IllegalArgumentException si el tiempo de vida no es positivo o
+     *         la unidad es <code>null</code>.
+     */
+    public DiccionarioExpirable(long ttl, TimeUnit unidad) {
+        this(ttl, unidad, EstructuraExpiracion.RUEDA);
+    }
+
+    /**
+     * Construye un diccionario expirable con un tiempo de vida por omisión y
+     * una estructura para ordenar los vencimientos.
+     * @param ttl el tiempo de vida por omisión de las entradas.
+     * @param unidad la unidad del tiempo de vida.
+     * @param estructura la estructura para ordenar los vencimientos.
+     * @throws IllegalArgumentException si el tiempo de vida no es positivo, o
+     *         la unidad o la estructura son <code>null</code>.
+     */
+    public DiccionarioExpirable(long ttl, TimeUnit unidad,
+                                EstructuraExpiracion estructura) {
+        this(ttl, unidad, estructura, System::nanoTime);
+    }
+
+    /**
+     * Construye un diccionario expirable con un tiempo de vida por omisión,
+     * una estructura para ordenar los vencimientos y un reloj.
+     * @param ttl el tiempo de vida por omisión de las entradas.
+     * @param unidad la unidad del tiempo de vida.
+     * @param estructura la estructura para ordenar los vencimientos.
+     * @param reloj el reloj, que regresa el tiempo actual en nanosegundos
+     *        como {@link System#nanoTime}.
+     * @throws IllegalArgumentException si el tiempo de vida no es positivo, o
+     *         la unidad, la estructura o el reloj son <code>null</code>.
+     */
+    public DiccionarioExpirable(long ttl, TimeUnit unidad,
+                                EstructuraExpiracion estructura,
+                                LongSupplier reloj) {
+        if (estructura == null || reloj == null)
+            throw new IllegalArgumentException();
+        this.ttl = nanos(ttl, unidad);
+        this.reloj = reloj;
+        picadillo = (K o) -> o.hashCode();
+        entradas = new Diccionario<K, Entrada>(picadillo);
+        if (estructura == EstructuraExpiracion.RUEDA)
+            temporizador = new Rueda(reloj.getAsLong());
+        else
+            temporizador = new Monticulo();
+    }
+
+    /* Convierte un tiempo de vida a nanosegundos. */
+    private static long nanos(long ttl, TimeUnit unidad) {
+        if (ttl <= 0 || unidad == null)
+            throw new IllegalArgumentException();
+        return Math.max(1, Math.min(unidad.toNanos(ttl), MAXIMO_TTL));
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario con el tiempo de vida por omisión.
+     * Si la llave ya estaba, reemplaza su valor y su tiempo de vida vuelve a
+     * empezar.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(K llave, V valor) {
+        agrega(llave, valor, ttl);
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario con un tiempo de vida propio. Si
+     * la llave ya estaba, reemplaza su valor y su tiempo de vida.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @param ttl el tiempo de vida de la entrada.
+     * @param unidad la unidad del tiempo de vida.
+     * @throws IllegalArgumentException si la llave o el valor son nulos, si
+     *         el tiempo de vida no es positivo o la unidad es
+     *         <code>null</code>.
+     */
+    public void agrega(K llave, V valor, long ttl, TimeUnit unidad) {
+        agrega(llave, valor, nanos(ttl, unidad));
+    }
+
+    /* Agrega el valor con un tiempo de vida en nanosegundos. */
+    private void agrega(K llave, V valor, long nanos) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        long ahora = reloj.getAsLong();
+        temporizador.avanza(ahora);
+        int h = picadillo.picadillo(llave);
+        Entrada e = entradas.buscaValor(llave, h);
+        if (e == null) {
+            e = new Entrada(llave, valor);
+            entradas.agrega(llave, e);
+        } else {
+            temporizador.cancela(e);
+            e.valor = valor;
+        }
+        e.vence = ahora + nanos;
+        temporizador.agenda(e);
+    }
+
+    /* Regresa la entrada de la llave, o null si no está; si la entrada ya
+     * venció, la elimina y regresa null. */
+    private Entrada busca(K llave) {
+        Entrada e = entradas.buscaValor(llave, picadillo.picadillo(llave));
+        if (e == null || e.vence - reloj.getAsLong() > 0)
+            return e;
+        temporizador.cancela(e);
+        vence(e);
+        return null;
+    }
+
+    /* Elimina una entrada vencida que ya no está en el temporizador. */
+    private void vence(Entrada e) {
+        entradas.elimina(e.llave);
+        expiradas++;
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario o
+     *         su entrada ya venció.
+     */
+    public V get(K llave) {
+        Entrada e = busca(llave);
+        if (e == null)
+            throw new NoSuchElementException();
+        return e.valor;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario y no ha vencido.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario y no ha
+     *         vencido, <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return busca(llave) != null;
+    }
+
+    /**
+     * Regresa cuánto tiempo de vida le queda a la entrada de una llave.
+     * @param llave la llave de la entrada.
+     * @param unidad la unidad en que queremos el tiempo.
+     * @return el tiempo de vida restante de la entrada.
+     * @throws NoSuchElementException si la llave no está en el diccionario o
+     *         su entrada ya venció.
+     */
+    public long getTiempoRestante(K llave, TimeUnit unidad) {
+        Entrada e = busca(llave);
+        if (e == null)
+            throw new NoSuchElementException();
+        return unidad.convert(e.vence - reloj.getAsLong(), TimeUnit.NANOSECONDS);
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en el
+     *         diccionario o su entrada ya venció.
+     */
+    public void elimina(K llave) {
+        Entrada e = busca(llave);
+        if (e == null)
+            throw new NoSuchElementException();
+        temporizador.cancela(e);
+        entradas.elimina(llave);
+    }
+
+    /**
+     * Elimina todas las entradas vencidas del diccionario.
+     */
+    public void expira() {
+        temporizador.expira(reloj.getAsLong());
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario, incluyendo las que ya
+     * vencieron pero todavía no se eliminan. Después de {@link #expira}, es
+     * el número de entradas vigentes.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return entradas.getElementos();
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío, contando las entradas vencidas
+     * que todavía no se eliminan.
+     * @return <code>true</code> si el diccionario es vacío,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean esVacio() {
+        return entradas.esVacio();
+    }
+
+    /**
+     * Regresa el número de entradas que se han eliminado por vencer.
+     * @return el número de entradas expiradas.
+     */
+    public long getExpiradas() {
+        return expiradas;
+    }
+}
@@ -0,0 +1,306 @@
+package mx.unam.ciencias.edd;
+
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios de enteros a enteros. Ofrece las mismas
+ * operaciones que {@link Diccionario}, pero guarda las llaves y los valores en
+ * arreglos de <code>int</code>, por lo que no crea ningún objeto por entrada
+ * ni envuelve las llaves o los valores en objetos {@link Integer}.</p>
+ *
+ * <p>Las colisiones se resuelven con sondeo lineal, como en {@link
+ * DiccionarioAbierto}, y el picadillo de las llaves se puede definir con una
+ * instancia de {@link PicadilloInt}.</p>
+ */
+public class DiccionarioInt {
+
+    /** Máxima carga permitida por el diccionario. */
+    public static final double MAXIMA_CARGA = 0.72;
+
+    /* Tamaño mínimo; decidido arbitrariamente a 2^6. */
+    private static final int MIN_N = 64;
+
+    /* Máscara para no usar módulo. */
+    private int mascara;
+    /* Picadillo. */
+    private PicadilloInt picadillo;
+    /* Las llaves. */
+    private int[] llaves;
+    /* Los valores, en la misma posición que su llave. */
+    private int[] valores;
+    /* Qué posiciones de los arreglos están ocupadas. */
+    private boolean[] ocupadas;
+    /* Número de valores. */
+    private int elementos;
+
+    /**
+     * Construye un diccionario con un tamaño inicial y picadillo
+     * predeterminados.
+     */
+    public DiccionarioInt() {
+        this(MIN_N, (int n) -> n);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial definido por el usuario, y
+     * un picadillo predeterminado.
+     * @param tam el tamaño a utilizar.
+     */
+    public DiccionarioInt(int tam) {
+        this(tam, (int n) -> n);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial predeterminado, y un
+     * picadillo definido por el usuario.
+     * @param picadillo el picadillo a utilizar.
+     */
+    public DiccionarioInt(PicadilloInt picadillo) {
+        this(MIN_N, picadillo);
+    }
+
+    /**
+     * Construye un diccionario con un tamaño inicial, y un método de picadillo
+     * definidos por el usuario.
+     * @param tam el tamaño del diccionario.
+     * @param picadillo el picadillo a utilizar.
+     */
+    public DiccionarioInt(int tam, PicadilloInt picadillo) {
+        this.picadillo = picadillo;
+        int n = MIN_N;
+        while (n < (1 << 30) && n * MAXIMA_CARGA <= tam)
+            n <<= 1;
+        mascara = n - 1;
+        llaves = new int[n];
+        valores = new int[n];
+        ocupadas = new boolean[n];
+    }
+
+    /* Calcula la posición inicial de una llave. Mezclamos el picadillo con
+     * el finalizador de MurmurHash3 (fmix32): con sondeo lineal, picadillos
+     * que sólo difieren en algunos bits forman racimos largos. */
+    private int calculaIndice(int llave) {
+        int h = picadillo.picadillo(llave);
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h & mascara;
+    }
+
+    /* Regresa la posición de la llave, o -1 si no está. */
+    private int buscaIndice(int llave) {
+        int i = calculaIndice(llave);
+        while (ocupadas[i]) {
+            if (llaves[i] == llave)
+                return i;
+            i = (i + 1) & mascara;
+        }
+        return -1;
+    }
+
+    /**
+     * Agrega un nuevo valor al diccionario, usando la llave proporcionada. Si
+     * la llave ya había sido utilizada antes para agregar un valor, el
+     * diccionario reemplaza ese valor con el recibido aquí.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     */
+    public void agrega(int llave, int valor) {
+        int i = calculaIndice(llave);
+        while (ocupadas[i]) {
+            if (llaves[i] == llave) {
+                valores[i] = valor;
+                return;
+            }
+            i = (i + 1) & mascara;
+        }
+        llaves[i] = llave;
+        valores[i] = valor;
+        ocupadas[i] = true;
+        elementos++;
+        if (carga() >= MAXIMA_CARGA)
+            duplicaArreglo();
+    }
+
+    private void duplicaArreglo() {
+        int[] llavesViejas = llaves;
+        int[] valoresViejos = valores;
+        boolean[] ocupadasViejas = ocupadas;
+        mascara = (llavesViejas.length << 1) - 1;
+        llaves = new int[mascara + 1];
+        valores = new int[mascara + 1];
+        ocupadas = new boolean[mascara + 1];
+        for (int j = 0; j < llavesViejas.length; j++) {
+            if (!ocupadasViejas[j])
+                continue;
+            int i = calculaIndice(llavesViejas[j]);
+            while (ocupadas[i])
+                i = (i + 1) & mascara;
+            llaves[i] = llavesViejas[j];
+            valores[i] = valoresViejos[j];
+            ocupadas[i] = true;
+        }
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public int get(int llave) {
+        int i = buscaIndice(llave);
+        if (i == -1)
+            throw new NoSuchElementException();
+        return valores[i];
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(int llave) {
+        return buscaIndice(llave) != -1;
+    }
+
+    /**
+     * Elimina el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en
+     *         el diccionario.
+     */
+    public void elimina(int llave) {
+        int i = buscaIndice(llave);
+        if (i == -1)
+            throw new NoSuchElementException();
+        /* Recorremos hacia atrás las llaves de la cadena que ya no podrían
+         * encontrarse si dejamos el hueco en i. */
+        int j = i;
+        while (true) {
+            j = (j + 1) & mascara;
+            if (!ocupadas[j])
+                break;
+            int k = calculaIndice(llaves[j]);
+            if (((j - k) & mascara) >= ((j - i) & mascara)) {
+                llaves[i] = llaves[j];
+                valores[i] = valores[j];
+                i = j;
+            }
+        }
+        ocupadas[i] = false;
+        elementos--;
+    }
+
+    /**
+     * Regresa un arreglo con todas las llaves con valores asociados en el
+     * diccionario. El arreglo no tiene ningún tipo de orden.
+     * @return un arreglo con todas las llaves.
+     */
+    public int[] llaves() {
+        int[] ll = new int[elementos];
+        int c = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (ocupadas[i])
+                ll[c++] = llaves[i];
+        return ll;
+    }
+
+    /**
+     * Regresa un arreglo con todos los valores en el diccionario. El arreglo
+     * no tiene ningún tipo de orden, pero el valor en cada posición
+     * corresponde a la llave en la misma posición del arreglo que regresa
+     * {@link #llaves}.
+     * @return un arreglo con todos los valores.
+     */
+    public int[] valores() {
+        int[] lv = new int[elementos];
+        int c = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (ocupadas[i])
+                lv[c++] = valores[i];
+        return lv;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el diccionario; es decir, cuántas
+     * llaves no quedaron en su posición inicial.
+     * @return cuántas colisiones hay en el diccionario.
+     */
+    public int colisiones() {
+        int colisiones = 0;
+        for (int i = 0; i < llaves.length; i++)
+            if (ocupadas[i] && calculaIndice(llaves[i]) != i)
+                colisiones++;
+        return colisiones;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma llave que tenemos
+     * en el diccionario; es decir, la distancia más grande entre la posición
+     * inicial de una llave y la posición donde quedó.
+     * @return el máximo número de colisiones para una misma llave.
+     */
+    public int colisionMaxima() {
+        int colisionMaxima = 0;
+        for (int i = 0; i < llaves.length; i++) {
+            if (!ocupadas[i])
+                continue;
+            int distancia = (i - calculaIndice(llaves[i])) & mascara;
+            if (distancia > colisionMaxima)
+                colisionMaxima = distancia;
+        }
+        return colisionMaxima;
+    }
+
+    /**
+     * Nos dice la carga del diccionario.
+     * @return la carga del diccionario.
+     */
+    public double carga() {
+        return (elementos + 0.0) / llaves.length;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío, <code>false</code>
+     *         en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Nos dice si el diccionario es igual al objeto recibido.
+     * @param o el objeto que queremos saber si es igual al diccionario.
+     * @return <code>true</code> si el objeto recibido es instancia de
+     *         DiccionarioInt, y tiene las mismas llaves asociadas a los mismos
+     *         valores.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof DiccionarioInt))
+            return false;
+        DiccionarioInt d = (DiccionarioInt)o;
+        if (elementos != d.elementos)
+            return false;
+        for (int i = 0; i < llaves.length; i++) {
+            if (!ocupadas[i])
+                continue;
+            int j = d.buscaIndice(llaves[i]);
+            if (j == -1 || d.valores[j] != valores[i])
+                return false;
+        }
+        return true;
+    }
+}
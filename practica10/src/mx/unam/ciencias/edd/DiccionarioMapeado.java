@@ -0,0 +1,422 @@
+package mx.unam.ciencias.edd;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para diccionarios de sólo lectura guardados en disco. Con {@link
+ * #guarda} escribimos una instantánea de un {@link Diccionario} en un archivo,
+ * y con {@link #abre} la mapeamos a memoria: el diccionario se puede usar en
+ * cuanto el archivo está mapeado, sin volver a calcular picadillos ni a
+ * agregar entradas, y el sistema operativo lee del disco sólo las páginas
+ * que las búsquedas tocan.</p>
+ *
+ * <p>El archivo guarda las llaves y valores codificados en bytes con un
+ * {@link Codificador}, ordenados por cubeta. Su formato, con enteros en
+ * orden <em>big-endian</em>, es:</p>
+ *
+ * <ol>
+ *   <li>Un encabezado de cinco enteros: el número mágico {@link #MAGIA}, la
+ *       versión {@link #VERSION}, el ordinal del {@link AlgoritmoPicadillo}
+ *       con el que se calcularon los picadillos de los bytes de las llaves,
+ *       el número de entradas, y el número de cubetas (una potencia de
+ *       2).</li>
+ *   <li>Un entero por cubeta, más uno al final, con el desplazamiento de la
+ *       primera entrada de cada cubeta desde el inicio de las entradas.</li>
+ *   <li>Las entradas: cada una es el picadillo de la llave, la longitud de
+ *       la llave, la longitud del valor, los bytes de la llave y los bytes
+ *       del valor.</li>
+ * </ol>
+ *
+ * <p>Como el archivo se mapea en un solo buffer, no puede medir más de 2 GB.
+ * Los diccionarios mapeados sólo hacen lecturas absolutas en el buffer, así
+ * que varios hilos pueden usar el mismo diccionario a la vez.</p>
+ */
+public class DiccionarioMapeado<K, V> implements Iterable<V> {
+
+    /** Número mágico al inicio de los archivos. */
+    public static final int MAGIA = 0x44494331;
+    /** Versión del formato de los archivos. */
+    public static final int VERSION = 1;
+
+    /* Bytes del encabezado. */
+    private static final int ENCABEZADO = 20;
+    /* Bytes del encabezado de cada entrada. */
+    private static final int ENCABEZADO_ENTRADA = 12;
+    /* Bytes del buffer para escribir el archivo. */
+    private static final int TAM_BUFFER = 1 << 16;
+
+    /* Clase privada para iterar las entradas en el orden del archivo. */
+    private abstract class Iterador<T> implements Iterator<T> {
+
+        /* La posición de la siguiente entrada. */
+        private int posicion;
+
+        /* Construye un iterador al inicio de las entradas. */
+        public Iterador() {
+            posicion = base;
+        }
+
+        /* Nos dice si hay una siguiente entrada. */
+        @Override public boolean hasNext() {
+            return posicion < fin;
+        }
+
+        /* Regresa el objeto de la siguiente entrada. */
+        @Override public T next() {
+            if (posicion >= fin)
+                throw new NoSuchElementException();
+            int p = posicion;
+            posicion += ENCABEZADO_ENTRADA + buffer.getInt(p + 4) +
+                buffer.getInt(p + 8);
+            return objeto(p);
+        }
+
+        /* Decodifica el objeto de la entrada en la posición. */
+        protected abstract T objeto(int p);
+    }
+
+    /* El archivo mapeado. */
+    private ByteBuffer buffer;
+    /* El codificador de las llaves. */
+    private Codificador<K> codificadorLlaves;
+    /* El codificador de los valores. */
+    private Codificador<V> codificadorValores;
+    /* El algoritmo de los picadillos. */
+    private AlgoritmoPicadillo algoritmo;
+    /* El picadillo de los bytes de las llaves. */
+    private Picadillo<byte[]> picadillo;
+    /* El número de entradas. */
+    private int elementos;
+    /* Máscara para el índice de las cubetas. */
+    private int mascara;
+    /* Posición de la primera entrada. */
+    private int base;
+    /* Posición donde terminan las entradas. */
+    private int fin;
+
+    /* Construye un diccionario sobre un buffer ya validado. */
+    private DiccionarioMapeado(ByteBuffer buffer, Codificador<K> llaves,
+                               Codificador<V> valores) {
+        this.buffer = buffer;
+        codificadorLlaves = llaves;
+        codificadorValores = valores;
+        algoritmo = AlgoritmoPicadillo.values()[buffer.getInt(8)];
+        picadillo = FabricaPicadillos.getInstanciaBytes(algoritmo);
+        elementos = buffer.getInt(12);
+        int cubetas = buffer.getInt(16);
+        mascara = cubetas - 1;
+        base = ENCABEZADO + 4 * (cubetas + 1);
+        fin = buffer.limit();
+    }
+
+    /**
+     * Escribe una instantánea de un diccionario en un archivo, calculando
+     * los picadillos de las llaves con {@link
+     * AlgoritmoPicadillo#XXHASH64_STRING}. Si el archivo existe, se
+     * reemplaza.
+     * @param diccionario el diccionario a guardar.
+     * @param archivo el archivo donde se guarda.
+     * @param llaves el codificador de las llaves.
+     * @param valores el codificador de los valores.
+     * @throws IOException si ocurre un error al escribir el archivo.
+     * @throws IllegalArgumentException si el archivo mediría más de 2 GB.
+     */
+    public static <K, V> void guarda(Diccionario<K, V> diccionario, Path archivo,
+                                     Codificador<K> llaves,
+                                     Codificador<V> valores)
+        throws IOException {
+        guarda(diccionario, archivo, llaves, valores,
+               AlgoritmoPicadillo.XXHASH64_STRING);
+    }
+
+    /**
+     * Escribe una instantánea de un diccionario en un archivo, calculando
+     * los picadillos de las llaves con el algoritmo dado. Si el archivo
+     * existe, se reemplaza.
+     * @param diccionario el diccionario a guardar.
+     * @param archivo el archivo donde se guarda.
+     * @param llaves el codificador de las llaves.
+     * @param valores el codificador de los valores.
+     * @param algoritmo el algoritmo para los picadillos de las llaves.
+     * @throws IOException si ocurre un error al escribir el archivo.
+     * @throws IllegalArgumentException si el archivo mediría más de 2 GB.
+     */
+    public static <K, V> void guarda(Diccionario<K, V> diccionario, Path archivo,
+                                     Codificador<K> llaves,
+                                     Codificador<V> valores,
+                                     AlgoritmoPicadillo algoritmo)
+        throws IOException {
+        int n = diccionario.getElementos();
+        byte[][] bytesLlaves = new byte[n][];
+        byte[][] bytesValores = new byte[n][];
+        /* Las vistas de llaves y valores recorren el diccionario en el mismo
+         * orden. */
+        Iterator<K> il = diccionario.vistaLlaves().iterator();
+        Iterator<V> iv = diccionario.iterator();
+        for (int i = 0; i < n; i++) {
+            bytesLlaves[i] = llaves.codifica(il.next());
+            bytesValores[i] = valores.codifica(iv.next());
+        }
+        int[] picadillos = new int[n];
+        FabricaPicadillos.getInstanciaBytes(algoritmo)
+            .picadillos(bytesLlaves, picadillos);
+
+        int cubetas = 1;
+        while (cubetas < (1 << 30) && n >= cubetas * Diccionario.MAXIMA_CARGA)
+            cubetas <<= 1;
+        int mascara = cubetas - 1;
+        long[] desplazamientos = new long[cubetas + 1];
+        int[] cuenta = new int[cubetas + 1];
+        for (int i = 0; i < n; i++) {
+            int c = picadillos[i] & mascara;
+            desplazamientos[c + 1] += ENCABEZADO_ENTRADA + bytesLlaves[i].length +
+                bytesValores[i].length;
+            cuenta[c + 1]++;
+        }
+        for (int c = 0; c < cubetas; c++) {
+            desplazamientos[c + 1] += desplazamientos[c];
+            cuenta[c + 1] += cuenta[c];
+        }
+        if (ENCABEZADO + 4L * (cubetas + 1) + desplazamientos[cubetas] >
+            Integer.MAX_VALUE)
+            throw new IllegalArgumentException();
+        /* Ordenamos las entradas por cubeta con un conteo. */
+        int[] orden = new int[n];
+        for (int i = 0; i < n; i++)
+            orden[cuenta[picadillos[i] & mascara]++] = i;
+
+        try (FileChannel canal = FileChannel.open(archivo,
+                                                  StandardOpenOption.CREATE,
+                                                  StandardOpenOption.WRITE,
+                                                  StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer b = ByteBuffer.allocateDirect(TAM_BUFFER);
+            b.putInt(MAGIA).putInt(VERSION).putInt(algoritmo.ordinal())
+                .putInt(n).putInt(cubetas);
+            for (long d : desplazamientos) {
+                escribeSiLleno(canal, b, 4);
+                b.putInt((int)d);
+            }
+            for (int i : orden) {
+                escribeSiLleno(canal, b, ENCABEZADO_ENTRADA);
+                b.putInt(picadillos[i]).putInt(bytesLlaves[i].length)
+                    .putInt(bytesValores[i].length);
+                pon(canal, b, bytesLlaves[i]);
+                pon(canal, b, bytesValores[i]);
+            }
+            escribe(canal, b);
+        }
+    }
+
+    /* Pone los bytes en el buffer, escribiéndolo en el canal cada vez que se
+     * llena. */
+    private static void pon(FileChannel canal, ByteBuffer b, byte[] bytes)
+        throws IOException {
+        int i = 0;
+        while (i < bytes.length) {
+            escribeSiLleno(canal, b, 1);
+            int k = Math.min(b.remaining(), bytes.length - i);
+            b.put(bytes, i, k);
+            i += k;
+        }
+    }
+
+    /* Escribe el buffer en el canal si le quedan menos de n bytes. */
+    private static void escribeSiLleno(FileChannel canal, ByteBuffer b, int n)
+        throws IOException {
+        if (b.remaining() < n)
+            escribe(canal, b);
+    }
+
+    /* Escribe todo el contenido del buffer en el canal y lo vacía. */
+    private static void escribe(FileChannel canal, ByteBuffer b)
+        throws IOException {
+        b.flip();
+        while (b.hasRemaining())
+            canal.write(b);
+        b.clear();
+    }
+
+    /**
+     * Mapea a memoria una instantánea escrita con {@link #guarda}. El
+     * archivo no se lee completo: sólo se valida su encabezado.
+     * @param archivo el archivo con la instantánea.
+     * @param llaves el codificador de las llaves.
+     * @param valores el codificador de los valores.
+     * @return un diccionario de sólo lectura con las entradas del archivo.
+     * @throws IOException si ocurre un error al leer el archivo, o si el
+     *         archivo no es una instantánea válida.
+     */
+    public static <K, V> DiccionarioMapeado<K, V> abre(Path archivo,
+                                                       Codificador<K> llaves,
+                                                       Codificador<V> valores)
+        throws IOException {
+        try (FileChannel canal = FileChannel.open(archivo,
+                                                  StandardOpenOption.READ)) {
+            long tam = canal.size();
+            if (tam < ENCABEZADO || tam > Integer.MAX_VALUE)
+                throw new IOException("Archivo de tamaño inválido.");
+            MappedByteBuffer buffer =
+                canal.map(FileChannel.MapMode.READ_ONLY, 0, tam);
+            if (buffer.getInt(0) != MAGIA || buffer.getInt(4) != VERSION)
+                throw new IOException("El archivo no es una instantánea.");
+            int algoritmo = buffer.getInt(8);
+            int elementos = buffer.getInt(12);
+            int cubetas = buffer.getInt(16);
+            if (algoritmo < 0 || algoritmo >= AlgoritmoPicadillo.values().length ||
+                elementos < 0 || cubetas <= 0 || Integer.bitCount(cubetas) != 1 ||
+                ENCABEZADO + 4L * (cubetas + 1) > tam)
+                throw new IOException("Encabezado inválido.");
+            long base = ENCABEZADO + 4L * (cubetas + 1);
+            if (buffer.getInt(ENCABEZADO) != 0 ||
+                base + buffer.getInt(ENCABEZADO + 4 * cubetas) != tam)
+                throw new IOException("Archivo truncado.");
+            return new DiccionarioMapeado<K, V>(buffer, llaves, valores);
+        }
+    }
+
+    /* Regresa la posición de la entrada con la llave, o -1 si no está. */
+    private int busca(K llave) {
+        byte[] k = codificadorLlaves.codifica(llave);
+        int h = picadillo.picadillo(k);
+        int c = h & mascara;
+        int p = base + buffer.getInt(ENCABEZADO + 4 * c);
+        int f = base + buffer.getInt(ENCABEZADO + 4 * (c + 1));
+        while (p < f) {
+            int longitudLlave = buffer.getInt(p + 4);
+            if (buffer.getInt(p) == h && longitudLlave == k.length &&
+                iguales(p + ENCABEZADO_ENTRADA, k))
+                return p;
+            p += ENCABEZADO_ENTRADA + longitudLlave + buffer.getInt(p + 8);
+        }
+        return -1;
+    }
+
+    /* Nos dice si los bytes en la posición son los del arreglo. */
+    private boolean iguales(int p, byte[] k) {
+        for (int i = 0; i < k.length; i++)
+            if (buffer.get(p + i) != k[i])
+                return false;
+        return true;
+    }
+
+    /* Decodifica la llave de la entrada en la posición. */
+    private K llave(int p) {
+        return codificadorLlaves.decodifica(buffer, p + ENCABEZADO_ENTRADA,
+                                            buffer.getInt(p + 4));
+    }
+
+    /* Decodifica el valor de la entrada en la posición. */
+    private V valor(int p) {
+        int longitudLlave = buffer.getInt(p + 4);
+        return codificadorValores.decodifica(buffer,
+                                             p + ENCABEZADO_ENTRADA + longitudLlave,
+                                             buffer.getInt(p + 8));
+    }
+
+    /**
+     * Regresa el valor del diccionario asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el diccionario.
+     */
+    public V get(K llave) {
+        int p = busca(llave);
+        if (p < 0)
+            throw new NoSuchElementException();
+        return valor(p);
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el diccionario.
+     * @param llave la llave que queremos ver si está en el diccionario.
+     * @return <tt>true</tt> si la llave está en el diccionario,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(K llave) {
+        return busca(llave) >= 0;
+    }
+
+    /**
+     * Regresa una lista con todas las llaves del diccionario, en el orden
+     * del archivo.
+     * @return una lista con todas las llaves.
+     */
+    public Lista<K> llaves() {
+        Lista<K> lista = new Lista<K>();
+        Iterator<K> iterador = new Iterador<K>() {
+                @Override protected K objeto(int p) {
+                    return llave(p);
+                }
+            };
+        while (iterador.hasNext())
+            lista.agregaFinal(iterador.next());
+        return lista;
+    }
+
+    /**
+     * Regresa una lista con todos los valores del diccionario, en el orden
+     * del archivo.
+     * @return una lista con todos los valores.
+     */
+    public Lista<V> valores() {
+        Lista<V> lista = new Lista<V>();
+        for (V valor : this)
+            lista.agregaFinal(valor);
+        return lista;
+    }
+
+    /**
+     * Copia las entradas a un nuevo {@link Diccionario}, que sí se puede
+     * modificar.
+     * @return un diccionario con las mismas entradas.
+     */
+    public Diccionario<K, V> aDiccionario() {
+        return Diccionario.desde(llaves(), valores());
+    }
+
+    /**
+     * Regresa el algoritmo con el que se calcularon los picadillos de las
+     * llaves.
+     * @return el algoritmo de los picadillos.
+     */
+    public AlgoritmoPicadillo getAlgoritmo() {
+        return algoritmo;
+    }
+
+    /**
+     * Regresa el número de entradas en el diccionario.
+     * @return el número de entradas en el diccionario.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el diccionario es vacío.
+     * @return <code>true</code> si el diccionario es vacío,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa un iterador para iterar los valores del diccionario, en el
+     * orden del archivo.
+     * @return un iterador para iterar los valores del diccionario.
+     */
+    @Override public Iterator<V> iterator() {
+        return new Iterador<V>() {
+            @Override protected V objeto(int p) {
+                return valor(p);
+            }
+        };
+    }
+}
@@ -0,0 +1,14 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para las estructuras con las que un {@link
+ * DiccionarioExpirable} ordena los vencimientos de sus entradas.
+ */
+public enum EstructuraExpiracion {
+    /** Rueda de temporizadores jerárquica; agendar y vencer una entrada
+     *  toma tiempo <i>O</i>(1) amortizado. */
+    RUEDA,
+    /** Montículo mínimo ordenado por vencimiento; agendar y vencer una
+     *  entrada toma tiempo <i>O</i>(log <i>n</i>). */
+    MONTICULO;
+}
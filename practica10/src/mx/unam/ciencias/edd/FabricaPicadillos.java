@@ -1,10 +1,83 @@
 package mx.unam.ciencias.edd;
 
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.security.SecureRandom;
+
 /**
- * Clase para fabricar picadillos.
+ * <p>Clase para fabricar picadillos.</p>
+ *
+ * <p>Los algoritmos trabajan sobre los bytes de la cadena en UTF-8, pero sin
+ * crear ningún arreglo: las cadenas se codifican al vuelo carácter por
+ * carácter con {@link String#charAt}. El resultado es el mismo que aplicar el
+ * algoritmo a <code>getBytes()</code> cuando la codificación de la plataforma
+ * es UTF-8, y para cadenas ASCII es el mismo con cualquier codificación
+ * compatible con ASCII. Los mismos algoritmos pueden aplicarse directamente a
+ * un pedazo de un arreglo de bytes, también sin crear objetos.</p>
+ *
+ * <p>Además de los tres algoritmos clásicos, la fábrica ofrece MurmurHash3,
+ * xxHash de 32 y 64 bits, y SipHash-1-3. Estos cuatro leen la entrada por
+ * palabras, así que las cadenas se codifican primero en un arreglo de trabajo
+ * de cada hilo, que se reutiliza entre llamadas. Aceptan una semilla (una
+ * llave de 128 bits en el caso de SipHash) y {@link #getInstanciaAleatoria}
+ * regresa instancias con una semilla aleatoria, para que un atacante no pueda
+ * escoger llaves que colisionen en un {@link Diccionario}.</p>
+ *
+ * <p>Para datos binarios grandes, {@link #getInstanciaBytes} y {@link
+ * #getInstanciaBuffer} regresan picadillos de arreglos de bytes y de {@link
+ * ByteBuffer}. Los algoritmos por palabras leen 4 u 8 bytes por acceso, y
+ * xxHash de 64 bits avanza 32 bytes por iteración en cuatro carriles
+ * independientes, lo que lo hace el más rápido para entradas grandes.</p>
  */
 public class FabricaPicadillos {
 
+    /* Interfaz para los picadillos de un pedazo de un arreglo de bytes. */
+    @FunctionalInterface
+    private interface PicadilloPedazo {
+        public int picadillo(byte[] k, int inicio, int longitud);
+    }
+
+    /* Longitud máxima del arreglo de trabajo que guardamos en cada hilo. */
+    private static final int MAXIMO_TRABAJO = 1 << 16;
+
+    /* Arreglo de trabajo de cada hilo, para codificar cadenas en UTF-8. */
+    private static final ThreadLocal<byte[]> trabajo =
+        ThreadLocal.withInitial(() -> new byte[64]);
+
+    /* Vistas de arreglos de bytes como enteros en orden little-endian; leen
+     * una palabra completa por acceso en lugar de armarla byte por byte. */
+    private static final VarHandle ENTERO =
+        MethodHandles.byteArrayViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle LARGO =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_ENTERO =
+        MethodHandles.byteBufferViewVarHandle(int[].class, ByteOrder.LITTLE_ENDIAN);
+    private static final VarHandle BUFFER_LARGO =
+        MethodHandles.byteBufferViewVarHandle(long[].class, ByteOrder.LITTLE_ENDIAN);
+
+    /* Generador para las semillas aleatorias. */
+    private static final SecureRandom aleatorio = new SecureRandom();
+
+    /* Constantes de MurmurHash3. */
+    private static final int MURMUR_C1 = 0xcc9e2d51;
+    private static final int MURMUR_C2 = 0x1b873593;
+
+    /* Primos de xxHash de 32 bits. */
+    private static final int XX32_P1 = 0x9e3779b1;
+    private static final int XX32_P2 = 0x85ebca77;
+    private static final int XX32_P3 = 0xc2b2ae3d;
+    private static final int XX32_P4 = 0x27d4eb2f;
+    private static final int XX32_P5 = 0x165667b1;
+
+    /* Primos de xxHash de 64 bits. */
+    private static final long XX64_P1 = 0x9e3779b185ebca87L;
+    private static final long XX64_P2 = 0xc2b2ae3d27d4eb4fL;
+    private static final long XX64_P3 = 0x165667b19e3779f9L;
+    private static final long XX64_P4 = 0x85ebca77c2b2ae63L;
+    private static final long XX64_P5 = 0x27d4eb2f165667c5L;
+
     /**
      * Regresa una instancia de {@link Picadillo} para cadenas.
      * @param algoritmo el algoritmo de picadillo que se desea.
@@ -13,92 +86,787 @@ public class FabricaPicadillos {
      *         reconocido.
      */
     public static Picadillo<String> getInstancia(AlgoritmoPicadillo algoritmo) {
-        if (algoritmo == AlgoritmoPicadillo.BJ_STRING) {
-            return (str) -> {
-                byte[] k = str.getBytes();
-                int n = k.length;
-                int a,b,c,l;
-                l = n;
-                a = b = 0x9e3779b9;
-                c = 0xffffffff;
-                int i = 0;
-                while (l >= 12){
-                    a += (k[i]   + (k[i+1] << 8) + (k[i+2]  << 16) + (k[i+3]  << 24));
-                    b += (k[i+4] + (k[i+5] << 8) + (k[i+6]  << 16) + (k[i+7]  << 24));
-                    c += (k[i+8] + (k[i+9] << 8) + (k[i+10] << 16) + (k[i+11] << 24));
-
-                    a -= b; a -= c; a ^= (c >>> 13);
-                    b -= c; b -= a; b ^= (a <<  8);
-                    c -= a; c -= b; c ^= (b >>> 13);
-                    a -= b; a -= c; a ^= (c >>> 12);
-                    b -= c; b -= a; b ^= (a <<  16);
-                    c -= a; c -= b; c ^= (b >>> 5);
-                    a -= b; a -= c; a ^= (c >>> 3);
-                    b -= c; b -= a; b ^= (a <<  10);
-                    c -= a; c -= b; c ^= (b >>> 15);
-                    
-                    i += 12;
-                    l -=12;
+        if (algoritmo == AlgoritmoPicadillo.BJ_STRING)
+            return (str) -> picadilloBJ(str);
+        else if (algoritmo == AlgoritmoPicadillo.GLIB_STRING)
+            return (str) -> picadilloGLib(str);
+        else if (algoritmo == AlgoritmoPicadillo.XOR_STRING)
+            return (str) -> picadilloXOR(str);
+        return instancia(algoritmo, 0L, 0L);
+    }
+
+    /**
+     * Regresa una instancia de {@link Picadillo} para cadenas, con la semilla
+     * recibida. Sólo los algoritmos MurmurHash3, xxHash y SipHash aceptan
+     * semilla; para SipHash la semilla se extiende a una llave de 128 bits.
+     * @param algoritmo el algoritmo de picadillo que se desea.
+     * @param semilla la semilla del picadillo.
+     * @return una instancia de {@link Picadillo} para cadenas.
+     * @throws IllegalArgumentException si el algoritmo no acepta semilla.
+     */
+    public static Picadillo<String> getInstancia(AlgoritmoPicadillo algoritmo,
+                                                 long semilla) {
+        return instancia(algoritmo, semilla, mezcla64(semilla));
+    }
+
+    /**
+     * Regresa una instancia de {@link Picadillo} para cadenas, con una
+     * semilla aleatoria distinta para cada instancia.
+     * @param algoritmo el algoritmo de picadillo que se desea.
+     * @return una instancia de {@link Picadillo} para cadenas.
+     * @throws IllegalArgumentException si el algoritmo no acepta semilla.
+     */
+    public static Picadillo<String> getInstanciaAleatoria(AlgoritmoPicadillo algoritmo) {
+        return instancia(algoritmo, aleatorio.nextLong(), aleatorio.nextLong());
+    }
+
+    /**
+     * Regresa una instancia de {@link Picadillo64} para cadenas, con la
+     * semilla recibida. Sólo los algoritmos xxHash de 64 bits y SipHash
+     * producen picadillos de 64 bits.
+     * @param algoritmo el algoritmo de picadillo que se desea.
+     * @param semilla la semilla del picadillo.
+     * @return una instancia de {@link Picadillo64} para cadenas.
+     * @throws IllegalArgumentException si el algoritmo no produce picadillos
+     *         de 64 bits.
+     */
+    public static Picadillo64<String> getInstancia64(AlgoritmoPicadillo algoritmo,
+                                                     long semilla) {
+        if (algoritmo == AlgoritmoPicadillo.XXHASH64_STRING)
+            return (str) -> picadilloXXHash64(str, semilla);
+        long llave1 = mezcla64(semilla);
+        if (algoritmo == AlgoritmoPicadillo.SIPHASH_STRING)
+            return (str) -> picadilloSipHash(str, semilla, llave1);
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Regresa una instancia de {@link Picadillo} para arreglos de bytes. El
+     * picadillo de un arreglo es el mismo que el de una cadena cuyos bytes en
+     * UTF-8 son los del arreglo.
+     * @param algoritmo el algoritmo de picadillo que se desea.
+     * @return una instancia de {@link Picadillo} para arreglos de bytes.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     */
+    public static Picadillo<byte[]> getInstanciaBytes(AlgoritmoPicadillo algoritmo) {
+        PicadilloPedazo p = pedazo(algoritmo);
+        return (k) -> p.picadillo(k, 0, k.length);
+    }
+
+    /**
+     * Regresa una instancia de {@link Picadillo} para {@link ByteBuffer}. El
+     * picadillo se calcula sobre los bytes entre la posición y el límite del
+     * buffer, sin modificarlos, y no depende del orden de bytes del buffer.
+     * Los buffers directos se leen en su lugar con xxHash de 64 bits; con los
+     * demás algoritmos se copian primero a un arreglo de trabajo.
+     * @param algoritmo el algoritmo de picadillo que se desea.
+     * @return una instancia de {@link Picadillo} para {@link ByteBuffer}.
+     * @throws IllegalArgumentException si recibe un identificador no
+     *         reconocido.
+     */
+    public static Picadillo<ByteBuffer> getInstanciaBuffer(AlgoritmoPicadillo algoritmo) {
+        PicadilloPedazo p = pedazo(algoritmo);
+        boolean xx64 = algoritmo == AlgoritmoPicadillo.XXHASH64_STRING;
+        return (b) -> {
+            int inicio = b.position();
+            int longitud = b.remaining();
+            if (b.hasArray())
+                return p.picadillo(b.array(), b.arrayOffset() + inicio, longitud);
+            if (xx64)
+                return dobla(picadilloXXHash64(b, inicio, longitud, 0));
+            byte[] k = arregloDeTrabajo(longitud);
+            for (int i = 0; i < longitud; i++)
+                k[i] = b.get(inicio + i);
+            return p.picadillo(k, 0, longitud);
+        };
+    }
+
+    /* Regresa el picadillo de pedazos de arreglos de un algoritmo, con
+     * semilla 0. */
+    private static PicadilloPedazo pedazo(AlgoritmoPicadillo algoritmo) {
+        if (algoritmo == AlgoritmoPicadillo.BJ_STRING)
+            return (k, i, n) -> picadilloBJ(k, i, n);
+        else if (algoritmo == AlgoritmoPicadillo.GLIB_STRING)
+            return (k, i, n) -> picadilloGLib(k, i, n);
+        else if (algoritmo == AlgoritmoPicadillo.XOR_STRING)
+            return (k, i, n) -> picadilloXOR(k, i, n);
+        else if (algoritmo == AlgoritmoPicadillo.MURMUR3_STRING)
+            return (k, i, n) -> picadilloMurmur3(k, i, n, 0);
+        else if (algoritmo == AlgoritmoPicadillo.XXHASH32_STRING)
+            return (k, i, n) -> picadilloXXHash32(k, i, n, 0);
+        else if (algoritmo == AlgoritmoPicadillo.XXHASH64_STRING)
+            return (k, i, n) -> dobla(picadilloXXHash64(k, i, n, 0));
+        else if (algoritmo == AlgoritmoPicadillo.SIPHASH_STRING)
+            return (k, i, n) -> dobla(picadilloSipHash(k, i, n, 0, 0));
+        throw new IllegalArgumentException();
+    }
+
+    /* Regresa la instancia de un algoritmo con semilla; SipHash usa las dos
+     * semillas como llave. Los picadillos de 64 bits se doblan a 32. */
+    private static Picadillo<String> instancia(AlgoritmoPicadillo algoritmo,
+                                               long s0, long s1) {
+        if (algoritmo == AlgoritmoPicadillo.MURMUR3_STRING)
+            return (str) -> picadilloMurmur3(str, (int)s0);
+        else if (algoritmo == AlgoritmoPicadillo.XXHASH32_STRING)
+            return (str) -> picadilloXXHash32(str, (int)s0);
+        else if (algoritmo == AlgoritmoPicadillo.XXHASH64_STRING)
+            return (str) -> dobla(picadilloXXHash64(str, s0));
+        else if (algoritmo == AlgoritmoPicadillo.SIPHASH_STRING)
+            return (str) -> dobla(picadilloSipHash(str, s0, s1));
+        throw new IllegalArgumentException();
+    }
+
+    /**
+     * Calcula la huella digital de Bob Jenkins de una cadena, sobre sus bytes
+     * en UTF-8.
+     * @param str la cadena.
+     * @return la huella digital de la cadena.
+     */
+    public static int picadilloBJ(String str) {
+        int a, b, c;
+        a = b = 0x9e3779b9;
+        c = 0xffffffff;
+        int n = 0;
+        int j = 0;
+        /* Bytes de UTF-8 del carácter actual que faltan por procesar, el
+         * siguiente en el byte menos significativo. */
+        int pendientes = 0, p = 0;
+        boolean ultimo = false;
+        while (!ultimo) {
+            /* Juntamos hasta 12 bytes en x, y, z. */
+            int x = 0, y = 0, z = 0, l = 0;
+            while (l < 12) {
+                if (p == 0) {
+                    if (j == str.length())
+                        break;
+                    int cp = puntoDeCodigo(str, j);
+                    j += Character.charCount(cp);
+                    pendientes = utf8(cp);
+                    p = longitudUtf8(cp);
                 }
+                int k = (byte)pendientes;
+                pendientes >>>= 8;
+                p--;
+                if (l < 4)
+                    x += k << (l << 3);
+                else if (l < 8)
+                    y += k << ((l - 4) << 3);
+                else
+                    z += k << ((l - 8) << 3);
+                l++;
+            }
+            n += l;
+            if (l < 12) {
+                /* El último bloque: el byte bajo de c es para la longitud. */
+                ultimo = true;
                 c += n;
-                switch (l) {
-                    case 11: c += (k[i+10] << 24);
-                    case 10: c += (k[i+9]  << 16);
-                    case  9: c += (k[i+8]  << 8);
-                
-                    case  8: b += (k[i+7]  << 24);
-                    case  7: b += (k[i+6]  << 16);
-                    case  6: b += (k[i+5]  << 8);
-                    case  5: b +=  k[i+4];
-                        
-                    case  4: a += (k[i+3]  << 24);
-                    case  3: a += (k[i+2]  << 16);
-                    case  2: a += (k[i+1]  << 8);
-                    case  1: a += k[i];
-                }
+                z <<= 8;
+            }
+            a += x; b += y; c += z;
 
-                a -= b; a -= c; a ^= (c >>> 13);
-                b -= c; b -= a; b ^= (a <<  8);
-                c -= a; c -= b; c ^= (b >>> 13);
-                a -= b; a -= c; a ^= (c >>> 12);
-                b -= c; b -= a; b ^= (a <<  16);
-                c -= a; c -= b; c ^= (b >>> 5);
-                a -= b; a -= c; a ^= (c >>> 3);
-                b -= c; b -= a; b ^= (a <<  10);
-                c -= a; c -= b; c ^= (b >>> 15);
-                return c;
-            };
-        } else if (algoritmo == AlgoritmoPicadillo.GLIB_STRING) {
-            return (str) -> {
-                byte[] k = str.getBytes();
-                int h = 5381;
-                for (int i = 0; i < k.length; i++) {
-                    byte b = k [i];
-                    h = h * 33 + b;
-                }
-                return h;
-            };
-        } else if (algoritmo == AlgoritmoPicadillo.XOR_STRING) {
-            return (str) -> {
-                byte[] k = str.getBytes();
-                int l = k.length;
-                int r = 0, i = 0;
-                while (l >= 4) {
-                    r ^= (k[i]    << 24)  | (k[i + 1] << 16) |
-                         (k[i + 2] << 8)  | (k[i + 3]);
-                    i += 4;
-                    l -= 4;
-                }
-                int t = 0;
-                switch (l) {
-                    case 3: t |= k[i + 2] << 8;
-                    case 2: t |= k[i + 1] << 16;
-                    case 1: t |= k[i]     << 24;
+            a -= b; a -= c; a ^= (c >>> 13);
+            b -= c; b -= a; b ^= (a <<  8);
+            c -= a; c -= b; c ^= (b >>> 13);
+            a -= b; a -= c; a ^= (c >>> 12);
+            b -= c; b -= a; b ^= (a <<  16);
+            c -= a; c -= b; c ^= (b >>> 5);
+            a -= b; a -= c; a ^= (c >>> 3);
+            b -= c; b -= a; b ^= (a <<  10);
+            c -= a; c -= b; c ^= (b >>> 15);
+        }
+        return c;
+    }
+
+    /**
+     * Calcula la huella digital de Bob Jenkins de un pedazo de un arreglo de
+     * bytes.
+     * @param k el arreglo de bytes.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @return la huella digital del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int picadilloBJ(byte[] k, int inicio, int longitud) {
+        revisaPedazo(k, inicio, longitud);
+        int n = longitud;
+        int a,b,c,l;
+        l = n;
+        a = b = 0x9e3779b9;
+        c = 0xffffffff;
+        int i = inicio;
+        while (l >= 12){
+            a += (k[i]   + (k[i+1] << 8) + (k[i+2]  << 16) + (k[i+3]  << 24));
+            b += (k[i+4] + (k[i+5] << 8) + (k[i+6]  << 16) + (k[i+7]  << 24));
+            c += (k[i+8] + (k[i+9] << 8) + (k[i+10] << 16) + (k[i+11] << 24));
+
+            a -= b; a -= c; a ^= (c >>> 13);
+            b -= c; b -= a; b ^= (a <<  8);
+            c -= a; c -= b; c ^= (b >>> 13);
+            a -= b; a -= c; a ^= (c >>> 12);
+            b -= c; b -= a; b ^= (a <<  16);
+            c -= a; c -= b; c ^= (b >>> 5);
+            a -= b; a -= c; a ^= (c >>> 3);
+            b -= c; b -= a; b ^= (a <<  10);
+            c -= a; c -= b; c ^= (b >>> 15);
+
+            i += 12;
+            l -=12;
+        }
+        c += n;
+        switch (l) {
+            case 11: c += (k[i+10] << 24);
+            case 10: c += (k[i+9]  << 16);
+            case  9: c += (k[i+8]  << 8);
+
+            case  8: b += (k[i+7]  << 24);
+            case  7: b += (k[i+6]  << 16);
+            case  6: b += (k[i+5]  << 8);
+            case  5: b +=  k[i+4];
+
+            case  4: a += (k[i+3]  << 24);
+            case  3: a += (k[i+2]  << 16);
+            case  2: a += (k[i+1]  << 8);
+            case  1: a += k[i];
+        }
+
+        a -= b; a -= c; a ^= (c >>> 13);
+        b -= c; b -= a; b ^= (a <<  8);
+        c -= a; c -= b; c ^= (b >>> 13);
+        a -= b; a -= c; a ^= (c >>> 12);
+        b -= c; b -= a; b ^= (a <<  16);
+        c -= a; c -= b; c ^= (b >>> 5);
+        a -= b; a -= c; a ^= (c >>> 3);
+        b -= c; b -= a; b ^= (a <<  10);
+        c -= a; c -= b; c ^= (b >>> 15);
+        return c;
+    }
+
+    /**
+     * Calcula la huella digital de GLib de una cadena, sobre sus bytes en
+     * UTF-8.
+     * @param str la cadena.
+     * @return la huella digital de la cadena.
+     */
+    public static int picadilloGLib(String str) {
+        int h = 5381;
+        for (int j = 0; j < str.length(); ) {
+            char ch = str.charAt(j);
+            if (ch < 0x80) {
+                h = h * 33 + ch;
+                j++;
+                continue;
+            }
+            int cp = puntoDeCodigo(str, j);
+            j += Character.charCount(cp);
+            int bytes = utf8(cp);
+            for (int l = longitudUtf8(cp); l > 0; l--) {
+                h = h * 33 + (byte)bytes;
+                bytes >>>= 8;
+            }
+        }
+        return h;
+    }
+
+    /**
+     * Calcula la huella digital de GLib de un pedazo de un arreglo de bytes.
+     * @param k el arreglo de bytes.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @return la huella digital del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int picadilloGLib(byte[] k, int inicio, int longitud) {
+        revisaPedazo(k, inicio, longitud);
+        int h = 5381;
+        for (int i = inicio; i < inicio + longitud; i++) {
+            byte b = k [i];
+            h = h * 33 + b;
+        }
+        return h;
+    }
+
+    /**
+     * Calcula la huella digital XOR de una cadena, sobre sus bytes en UTF-8.
+     * @param str la cadena.
+     * @return la huella digital de la cadena.
+     */
+    public static int picadilloXOR(String str) {
+        int r = 0, t = 0, l = 0;
+        for (int j = 0; j < str.length(); ) {
+            int cp = puntoDeCodigo(str, j);
+            j += Character.charCount(cp);
+            int bytes = utf8(cp);
+            for (int m = longitudUtf8(cp); m > 0; m--) {
+                t |= ((byte)bytes) << (24 - (l << 3));
+                bytes >>>= 8;
+                if (++l == 4) {
+                    r ^= t;
+                    t = l = 0;
                 }
-                r ^= t;
-                return r;
-            };
+            }
         }
-        throw new IllegalArgumentException();
+        r ^= t;
+        return r;
+    }
+
+    /**
+     * Calcula la huella digital XOR de un pedazo de un arreglo de bytes.
+     * @param k el arreglo de bytes.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @return la huella digital del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int picadilloXOR(byte[] k, int inicio, int longitud) {
+        revisaPedazo(k, inicio, longitud);
+        int l = longitud;
+        int r = 0, i = inicio;
+        while (l >= 4) {
+            r ^= (k[i]    << 24)  | (k[i + 1] << 16) |
+                 (k[i + 2] << 8)  | (k[i + 3]);
+            i += 4;
+            l -= 4;
+        }
+        int t = 0;
+        switch (l) {
+            case 3: t |= k[i + 2] << 8;
+            case 2: t |= k[i + 1] << 16;
+            case 1: t |= k[i]     << 24;
+        }
+        r ^= t;
+        return r;
+    }
+
+    /**
+     * Calcula el picadillo MurmurHash3 (x86, 32 bits) de una cadena, sobre
+     * sus bytes en UTF-8.
+     * @param str la cadena.
+     * @param semilla la semilla del picadillo.
+     * @return el picadillo de la cadena.
+     */
+    public static int picadilloMurmur3(String str, int semilla) {
+        byte[] k = arregloDeTrabajo(str);
+        return picadilloMurmur3(k, 0, codificaUtf8(str, k), semilla);
+    }
+
+    /**
+     * Calcula el picadillo MurmurHash3 (x86, 32 bits) de un pedazo de un
+     * arreglo de bytes.
+     * @param k el arreglo de bytes.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @param semilla la semilla del picadillo.
+     * @return el picadillo del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int picadilloMurmur3(byte[] k, int inicio, int longitud,
+                                       int semilla) {
+        revisaPedazo(k, inicio, longitud);
+        int h = semilla;
+        int i = inicio;
+        int fin = inicio + (longitud & ~3);
+        for (; i < fin; i += 4) {
+            int b = leeEntero(k, i);
+            b *= MURMUR_C1;
+            b = Integer.rotateLeft(b, 15);
+            b *= MURMUR_C2;
+            h ^= b;
+            h = Integer.rotateLeft(h, 13);
+            h = h * 5 + 0xe6546b64;
+        }
+        int t = 0;
+        switch (longitud & 3) {
+            case 3: t ^= (k[i + 2] & 0xff) << 16;
+            case 2: t ^= (k[i + 1] & 0xff) << 8;
+            case 1: t ^= (k[i] & 0xff);
+                t *= MURMUR_C1;
+                t = Integer.rotateLeft(t, 15);
+                t *= MURMUR_C2;
+                h ^= t;
+        }
+        h ^= longitud;
+        h ^= h >>> 16;
+        h *= 0x85ebca6b;
+        h ^= h >>> 13;
+        h *= 0xc2b2ae35;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Calcula el picadillo xxHash de 32 bits de una cadena, sobre sus bytes
+     * en UTF-8.
+     * @param str la cadena.
+     * @param semilla la semilla del picadillo.
+     * @return el picadillo de la cadena.
+     */
+    public static int picadilloXXHash32(String str, int semilla) {
+        byte[] k = arregloDeTrabajo(str);
+        return picadilloXXHash32(k, 0, codificaUtf8(str, k), semilla);
+    }
+
+    /**
+     * Calcula el picadillo xxHash de 32 bits de un pedazo de un arreglo de
+     * bytes.
+     * @param k el arreglo de bytes.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @param semilla la semilla del picadillo.
+     * @return el picadillo del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static int picadilloXXHash32(byte[] k, int inicio, int longitud,
+                                        int semilla) {
+        revisaPedazo(k, inicio, longitud);
+        int i = inicio;
+        int fin = inicio + longitud;
+        int h;
+        if (longitud >= 16) {
+            int v1 = semilla + XX32_P1 + XX32_P2;
+            int v2 = semilla + XX32_P2;
+            int v3 = semilla;
+            int v4 = semilla - XX32_P1;
+            for (; i <= fin - 16; i += 16) {
+                v1 = Integer.rotateLeft(v1 + leeEntero(k, i) * XX32_P2, 13) * XX32_P1;
+                v2 = Integer.rotateLeft(v2 + leeEntero(k, i + 4) * XX32_P2, 13) * XX32_P1;
+                v3 = Integer.rotateLeft(v3 + leeEntero(k, i + 8) * XX32_P2, 13) * XX32_P1;
+                v4 = Integer.rotateLeft(v4 + leeEntero(k, i + 12) * XX32_P2, 13) * XX32_P1;
+            }
+            h = Integer.rotateLeft(v1, 1) + Integer.rotateLeft(v2, 7) +
+                Integer.rotateLeft(v3, 12) + Integer.rotateLeft(v4, 18);
+        } else {
+            h = semilla + XX32_P5;
+        }
+        h += longitud;
+        for (; i <= fin - 4; i += 4)
+            h = Integer.rotateLeft(h + leeEntero(k, i) * XX32_P3, 17) * XX32_P4;
+        for (; i < fin; i++)
+            h = Integer.rotateLeft(h + (k[i] & 0xff) * XX32_P5, 11) * XX32_P1;
+        h ^= h >>> 15;
+        h *= XX32_P2;
+        h ^= h >>> 13;
+        h *= XX32_P3;
+        h ^= h >>> 16;
+        return h;
+    }
+
+    /**
+     * Calcula el picadillo xxHash de 64 bits de una cadena, sobre sus bytes
+     * en UTF-8.
+     * @param str la cadena.
+     * @param semilla la semilla del picadillo.
+     * @return el picadillo de la cadena.
+     */
+    public static long picadilloXXHash64(String str, long semilla) {
+        byte[] k = arregloDeTrabajo(str);
+        return picadilloXXHash64(k, 0, codificaUtf8(str, k), semilla);
+    }
+
+    /**
+     * Calcula el picadillo xxHash de 64 bits de un pedazo de un arreglo de
+     * bytes.
+     * @param k el arreglo de bytes.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @param semilla la semilla del picadillo.
+     * @return el picadillo del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long picadilloXXHash64(byte[] k, int inicio, int longitud,
+                                         long semilla) {
+        revisaPedazo(k, inicio, longitud);
+        int i = inicio;
+        int fin = inicio + longitud;
+        long h;
+        if (longitud >= 32) {
+            long v1 = semilla + XX64_P1 + XX64_P2;
+            long v2 = semilla + XX64_P2;
+            long v3 = semilla;
+            long v4 = semilla - XX64_P1;
+            for (; i <= fin - 32; i += 32) {
+                v1 = rondaXX64(v1, leeLargo(k, i));
+                v2 = rondaXX64(v2, leeLargo(k, i + 8));
+                v3 = rondaXX64(v3, leeLargo(k, i + 16));
+                v4 = rondaXX64(v4, leeLargo(k, i + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) +
+                Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = (h ^ rondaXX64(0, v1)) * XX64_P1 + XX64_P4;
+            h = (h ^ rondaXX64(0, v2)) * XX64_P1 + XX64_P4;
+            h = (h ^ rondaXX64(0, v3)) * XX64_P1 + XX64_P4;
+            h = (h ^ rondaXX64(0, v4)) * XX64_P1 + XX64_P4;
+        } else {
+            h = semilla + XX64_P5;
+        }
+        h += longitud;
+        for (; i <= fin - 8; i += 8)
+            h = Long.rotateLeft(h ^ rondaXX64(0, leeLargo(k, i)), 27) * XX64_P1 + XX64_P4;
+        if (i <= fin - 4) {
+            h = Long.rotateLeft(h ^ (leeEntero(k, i) & 0xffffffffL) * XX64_P1, 23) *
+                XX64_P2 + XX64_P3;
+            i += 4;
+        }
+        for (; i < fin; i++)
+            h = Long.rotateLeft(h ^ (k[i] & 0xff) * XX64_P5, 11) * XX64_P1;
+        h ^= h >>> 33;
+        h *= XX64_P2;
+        h ^= h >>> 29;
+        h *= XX64_P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /**
+     * Calcula el picadillo xxHash de 64 bits de un pedazo de un {@link
+     * ByteBuffer}, leyéndolo en su lugar. No modifica la posición ni el
+     * límite del buffer, y el resultado no depende de su orden de bytes.
+     * @param k el buffer.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @param semilla la semilla del picadillo.
+     * @return el picadillo del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el buffer.
+     */
+    public static long picadilloXXHash64(ByteBuffer k, int inicio, int longitud,
+                                         long semilla) {
+        if (inicio < 0 || longitud < 0 || inicio > k.limit() - longitud)
+            throw new IndexOutOfBoundsException();
+        if (k.hasArray())
+            return picadilloXXHash64(k.array(), k.arrayOffset() + inicio,
+                                     longitud, semilla);
+        int i = inicio;
+        int fin = inicio + longitud;
+        long h;
+        if (longitud >= 32) {
+            long v1 = semilla + XX64_P1 + XX64_P2;
+            long v2 = semilla + XX64_P2;
+            long v3 = semilla;
+            long v4 = semilla - XX64_P1;
+            for (; i <= fin - 32; i += 32) {
+                v1 = rondaXX64(v1, (long)BUFFER_LARGO.get(k, i));
+                v2 = rondaXX64(v2, (long)BUFFER_LARGO.get(k, i + 8));
+                v3 = rondaXX64(v3, (long)BUFFER_LARGO.get(k, i + 16));
+                v4 = rondaXX64(v4, (long)BUFFER_LARGO.get(k, i + 24));
+            }
+            h = Long.rotateLeft(v1, 1) + Long.rotateLeft(v2, 7) +
+                Long.rotateLeft(v3, 12) + Long.rotateLeft(v4, 18);
+            h = (h ^ rondaXX64(0, v1)) * XX64_P1 + XX64_P4;
+            h = (h ^ rondaXX64(0, v2)) * XX64_P1 + XX64_P4;
+            h = (h ^ rondaXX64(0, v3)) * XX64_P1 + XX64_P4;
+            h = (h ^ rondaXX64(0, v4)) * XX64_P1 + XX64_P4;
+        } else {
+            h = semilla + XX64_P5;
+        }
+        h += longitud;
+        for (; i <= fin - 8; i += 8)
+            h = Long.rotateLeft(h ^ rondaXX64(0, (long)BUFFER_LARGO.get(k, i)), 27) *
+                XX64_P1 + XX64_P4;
+        if (i <= fin - 4) {
+            h = Long.rotateLeft(h ^ ((int)BUFFER_ENTERO.get(k, i) & 0xffffffffL) *
+                                XX64_P1, 23) * XX64_P2 + XX64_P3;
+            i += 4;
+        }
+        for (; i < fin; i++)
+            h = Long.rotateLeft(h ^ (k.get(i) & 0xff) * XX64_P5, 11) * XX64_P1;
+        h ^= h >>> 33;
+        h *= XX64_P2;
+        h ^= h >>> 29;
+        h *= XX64_P3;
+        h ^= h >>> 32;
+        return h;
+    }
+
+    /* Una ronda de xxHash de 64 bits. */
+    private static long rondaXX64(long acumulador, long palabra) {
+        acumulador += palabra * XX64_P2;
+        acumulador = Long.rotateLeft(acumulador, 31);
+        return acumulador * XX64_P1;
+    }
+
+    /**
+     * Calcula el picadillo SipHash-1-3 de una cadena, sobre sus bytes en
+     * UTF-8.
+     * @param str la cadena.
+     * @param llave0 los primeros 64 bits de la llave.
+     * @param llave1 los últimos 64 bits de la llave.
+     * @return el picadillo de la cadena.
+     */
+    public static long picadilloSipHash(String str, long llave0, long llave1) {
+        byte[] k = arregloDeTrabajo(str);
+        return picadilloSipHash(k, 0, codificaUtf8(str, k), llave0, llave1);
+    }
+
+    /**
+     * Calcula el picadillo SipHash-1-3 de un pedazo de un arreglo de bytes.
+     * @param k el arreglo de bytes.
+     * @param inicio el índice del primer byte del pedazo.
+     * @param longitud el número de bytes del pedazo.
+     * @param llave0 los primeros 64 bits de la llave.
+     * @param llave1 los últimos 64 bits de la llave.
+     * @return el picadillo del pedazo.
+     * @throws IndexOutOfBoundsException si el pedazo no está en el arreglo.
+     */
+    public static long picadilloSipHash(byte[] k, int inicio, int longitud,
+                                        long llave0, long llave1) {
+        return sipHash(k, inicio, longitud, llave0, llave1, 1, 3);
+    }
+
+    /* SipHash con c rondas por palabra y d rondas al final. El último bloque
+     * lleva la longitud en su byte más significativo; la finalización se
+     * procesa como un bloque más, de ceros, con d rondas. */
+    static long sipHash(byte[] k, int inicio, int longitud,
+                        long llave0, long llave1, int c, int d) {
+        revisaPedazo(k, inicio, longitud);
+        long v0 = llave0 ^ 0x736f6d6570736575L;
+        long v1 = llave1 ^ 0x646f72616e646f6dL;
+        long v2 = llave0 ^ 0x6c7967656e657261L;
+        long v3 = llave1 ^ 0x7465646279746573L;
+        int i = inicio;
+        int fin = inicio + longitud;
+        boolean ultimo = false, finaliza = false;
+        while (true) {
+            long m;
+            int rondas = c;
+            if (finaliza) {
+                v2 ^= 0xff;
+                m = 0;
+                rondas = d;
+            } else if (i <= fin - 8) {
+                m = leeLargo(k, i);
+                i += 8;
+            } else {
+                m = ((long)longitud) << 56;
+                for (int j = 0; i < fin; i++, j += 8)
+                    m |= (k[i] & 0xffL) << j;
+                ultimo = true;
+            }
+            v3 ^= m;
+            for (int r = 0; r < rondas; r++) {
+                v0 += v1; v1 = Long.rotateLeft(v1, 13); v1 ^= v0;
+                v0 = Long.rotateLeft(v0, 32);
+                v2 += v3; v3 = Long.rotateLeft(v3, 16); v3 ^= v2;
+                v0 += v3; v3 = Long.rotateLeft(v3, 21); v3 ^= v0;
+                v2 += v1; v1 = Long.rotateLeft(v1, 17); v1 ^= v2;
+                v2 = Long.rotateLeft(v2, 32);
+            }
+            v0 ^= m;
+            if (finaliza)
+                break;
+            finaliza = ultimo;
+        }
+        return v0 ^ v1 ^ v2 ^ v3;
+    }
+
+    /* Regresa el arreglo de trabajo del hilo, con espacio para la cadena en
+     * UTF-8. */
+    private static byte[] arregloDeTrabajo(String str) {
+        return arregloDeTrabajo(str.length() * 3);
+    }
+
+    /* Regresa el arreglo de trabajo del hilo, con espacio para n bytes. Para
+     * n muy grande regresa un arreglo nuevo que no se guarda. */
+    private static byte[] arregloDeTrabajo(int n) {
+        if (n > MAXIMO_TRABAJO)
+            return new byte[n];
+        byte[] k = trabajo.get();
+        if (k.length < n) {
+            k = new byte[Math.max(n, k.length << 1)];
+            trabajo.set(k);
+        }
+        return k;
+    }
+
+    /* Codifica la cadena en UTF-8 en el arreglo, que debe tener espacio
+     * suficiente, y regresa el número de bytes escritos. */
+    private static int codificaUtf8(String str, byte[] k) {
+        int n = 0;
+        for (int j = 0; j < str.length(); ) {
+            char ch = str.charAt(j);
+            if (ch < 0x80) {
+                k[n++] = (byte)ch;
+                j++;
+                continue;
+            }
+            int cp = puntoDeCodigo(str, j);
+            j += Character.charCount(cp);
+            int bytes = utf8(cp);
+            for (int l = longitudUtf8(cp); l > 0; l--) {
+                k[n++] = (byte)bytes;
+                bytes >>>= 8;
+            }
+        }
+        return n;
+    }
+
+    /* Lee un entero de 32 bits en orden little-endian. */
+    private static int leeEntero(byte[] k, int i) {
+        return (int)ENTERO.get(k, i);
+    }
+
+    /* Lee un entero de 64 bits en orden little-endian. */
+    private static long leeLargo(byte[] k, int i) {
+        return (long)LARGO.get(k, i);
+    }
+
+    /* Dobla un picadillo de 64 bits a 32. */
+    private static int dobla(long h) {
+        return (int)(h ^ (h >>> 32));
+    }
+
+    /* Mezcla los bits de un entero largo; es el finalizador de SplitMix64. Lo
+     * usamos para extender una semilla de 64 bits a una llave de 128. */
+    private static long mezcla64(long z) {
+        z += 0x9e3779b97f4a7c15L;
+        z = (z ^ (z >>> 30)) * 0xbf58476d1ce4e5b9L;
+        z = (z ^ (z >>> 27)) * 0x94d049bb133111ebL;
+        return z ^ (z >>> 31);
+    }
+
+    /* Regresa el punto de código que empieza en el índice j de la cadena. Un
+     * sustituto sin pareja se codifica como '?', igual que getBytes(). */
+    private static int puntoDeCodigo(String str, int j) {
+        char ch = str.charAt(j);
+        if (!Character.isSurrogate(ch))
+            return ch;
+        if (Character.isHighSurrogate(ch) && j + 1 < str.length() &&
+            Character.isLowSurrogate(str.charAt(j + 1)))
+            return Character.toCodePoint(ch, str.charAt(j + 1));
+        return '?';
+    }
+
+    /* Regresa cuántos bytes ocupa el punto de código en UTF-8. */
+    private static int longitudUtf8(int cp) {
+        if (cp < 0x80)
+            return 1;
+        if (cp < 0x800)
+            return 2;
+        if (cp < 0x10000)
+            return 3;
+        return 4;
+    }
+
+    /* Regresa los bytes en UTF-8 del punto de código empacados en un entero;
+     * el primer byte queda en el byte menos significativo. */
+    private static int utf8(int cp) {
+        if (cp < 0x80)
+            return cp;
+        if (cp < 0x800)
+            return (0xc0 | (cp >>> 6)) |
+                   (0x80 | (cp & 0x3f)) << 8;
+        if (cp < 0x10000)
+            return (0xe0 | (cp >>> 12)) |
+                   (0x80 | ((cp >>> 6) & 0x3f)) << 8 |
+                   (0x80 | (cp & 0x3f)) << 16;
+        return (0xf0 | (cp >>> 18)) |
+               (0x80 | ((cp >>> 12) & 0x3f)) << 8 |
+               (0x80 | ((cp >>> 6) & 0x3f)) << 16 |
+               (0x80 | (cp & 0x3f)) << 24;
+    }
+
+    /* Revisa que el pedazo esté dentro del arreglo. */
+    private static void revisaPedazo(byte[] k, int inicio, int longitud) {
+        if (inicio < 0 || longitud < 0 || inicio > k.length - longitud)
+            throw new IndexOutOfBoundsException();
     }
 }
@@ -0,0 +1,109 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase abstracta para filtros de membresía probabilísticos. Un filtro
+ * representa un conjunto en mucho menos espacio que el conjunto mismo, a
+ * cambio de equivocarse a veces: si {@link #puedeContener} regresa
+ * <code>false</code> el elemento seguro no se agregó, pero si regresa
+ * <code>true</code> puede ser un falso positivo.</p>
+ *
+ * <p>Los filtros usan un {@link Picadillo} de los elementos, que mezclan para
+ * obtener 64 bits; dos elementos con el mismo picadillo son indistinguibles
+ * para el filtro.</p>
+ */
+public abstract class Filtro<T> {
+
+    /* El picadillo de los elementos. */
+    private Picadillo<T> picadillo;
+    /** El número de elementos en el filtro. */
+    protected int elementos;
+
+    /**
+     * Inicializa el filtro con un picadillo.
+     * @param picadillo el picadillo de los elementos.
+     * @throws IllegalArgumentException si el picadillo es <code>null</code>.
+     */
+    protected Filtro(Picadillo<T> picadillo) {
+        if (picadillo == null)
+            throw new IllegalArgumentException();
+        this.picadillo = picadillo;
+    }
+
+    /**
+     * Agrega un elemento al filtro.
+     * @param elemento el elemento a agregar.
+     * @return <code>true</code> si el elemento se agregó,
+     *         <code>false</code> si el filtro está lleno.
+     */
+    public boolean agrega(T elemento) {
+        return agregaPicadillo(picadillo.picadillo(elemento));
+    }
+
+    /**
+     * Nos dice si el elemento puede estar en el filtro.
+     * @param elemento el elemento a buscar.
+     * @return <code>false</code> si el elemento seguro no está en el filtro,
+     *         <code>true</code> si puede estar.
+     */
+    public boolean puedeContener(T elemento) {
+        return puedeContenerPicadillo(picadillo.picadillo(elemento));
+    }
+
+    /**
+     * Elimina un elemento del filtro. Sólo debe eliminarse un elemento que
+     * se agregó antes; de otra forma el filtro puede olvidar a otro elemento
+     * con la misma huella.
+     * @param elemento el elemento a eliminar.
+     * @return <code>true</code> si el elemento estaba en el filtro,
+     *         <code>false</code> en otro caso.
+     * @throws UnsupportedOperationException si el filtro no permite eliminar
+     *         elementos.
+     */
+    public boolean elimina(T elemento) {
+        return eliminaPicadillo(picadillo.picadillo(elemento));
+    }
+
+    /**
+     * Nos dice si el filtro permite eliminar elementos.
+     * @return <code>true</code> si el filtro permite eliminar elementos,
+     *         <code>false</code> en otro caso.
+     */
+    public boolean esEliminable() {
+        return false;
+    }
+
+    /**
+     * Regresa el número de elementos agregados al filtro.
+     * @return el número de elementos en el filtro.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Regresa la probabilidad estimada de un falso positivo con los
+     * elementos que tiene el filtro.
+     * @return la probabilidad estimada de un falso positivo.
+     */
+    public abstract double probabilidadFalsoPositivo();
+
+    /* Agrega un elemento dado su picadillo. */
+    abstract boolean agregaPicadillo(int h);
+
+    /* Nos dice si un elemento con el picadillo puede estar en el filtro. */
+    abstract boolean puedeContenerPicadillo(int h);
+
+    /* Elimina un elemento dado su picadillo. */
+    boolean eliminaPicadillo(int h) {
+        throw new UnsupportedOperationException();
+    }
+
+    /* Mezcla los bits de un valor (SplitMix64), para sacar 64 bits
+     * independientes de un picadillo de 32. */
+    static long mezcla(long x) {
+        x += 0x9e3779b97f4a7c15L;
+        x = (x ^ (x >>> 30)) * 0xbf58476d1ce4e5b9L;
+        x = (x ^ (x >>> 27)) * 0x94d049bb133111ebL;
+        return x ^ (x >>> 31);
+    }
+}
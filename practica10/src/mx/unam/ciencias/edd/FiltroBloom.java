@@ -0,0 +1,179 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para filtros de Bloom por bloques. Un filtro de Bloom es un
+ * arreglo de bits: agregar un elemento enciende <i>k</i> bits escogidos con
+ * su picadillo, y un elemento puede estar en el filtro sólo si sus
+ * <i>k</i> bits están encendidos.</p>
+ *
+ * <p>En este filtro los <i>k</i> bits de cada elemento caen en un mismo
+ * bloque de 512 bits, del tamaño de una línea de caché, así que agregar o
+ * buscar un elemento toca una sola línea de memoria. A cambio, unos bloques
+ * reciben más elementos que otros y la probabilidad de falsos positivos es
+ * mayor que la de un filtro de Bloom clásico del mismo tamaño, así que el
+ * filtro se dimensiona con la probabilidad de los bloques y no con la
+ * fórmula clásica.</p>
+ *
+ * <p>Los filtros de Bloom no permiten eliminar elementos.</p>
+ */
+public class FiltroBloom<T> extends Filtro<T> {
+
+    /* Número de longs en cada bloque. */
+    private static final int LONGS_BLOQUE = 8;
+    /* Número de bits en cada bloque. */
+    private static final int BITS_BLOQUE = 64 * LONGS_BLOQUE;
+    /* Máximo número de bits encendidos por elemento. */
+    private static final int MAXIMO_K = 16;
+    /* Cuántas posiciones de 9 bits salen de cada mezcla de 64 bits. */
+    private static final int BITS_MEZCLA = 7;
+    /* Máximo número de bits por elemento. */
+    private static final double MAXIMO_BITS = 64.0;
+
+    /* Los bits del filtro. */
+    private long[] bits;
+    /* El número de bloques. */
+    private int bloques;
+    /* El número de bits encendidos por elemento. */
+    private int k;
+
+    /**
+     * Construye un filtro de Bloom para un número de elementos y una
+     * probabilidad de falsos positivos, que usa el método
+     * <code>hashCode</code> de los elementos.
+     * @param n el número de elementos que se espera agregar.
+     * @param falsosPositivos la probabilidad de falsos positivos con
+     *        <code>n</code> elementos.
+     * @throws IllegalArgumentException si <code>n</code> no es positivo, o
+     *         la probabilidad no está entre 0 y 1.
+     */
+    public FiltroBloom(int n, double falsosPositivos) {
+        this(n, falsosPositivos, (T o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un filtro de Bloom para un número de elementos y una
+     * probabilidad de falsos positivos, con un picadillo para los elementos.
+     * @param n el número de elementos que se espera agregar.
+     * @param falsosPositivos la probabilidad de falsos positivos con
+     *        <code>n</code> elementos.
+     * @param picadillo el picadillo de los elementos.
+     * @throws IllegalArgumentException si <code>n</code> no es positivo, la
+     *         probabilidad no está entre 0 y 1, el filtro necesitaría más de
+     *         2<sup>31</sup> bloques, o el picadillo es <code>null</code>.
+     */
+    public FiltroBloom(int n, double falsosPositivos, Picadillo<T> picadillo) {
+        super(picadillo);
+        if (n < 1 || !(falsosPositivos > 0.0 && falsosPositivos < 1.0))
+            throw new IllegalArgumentException();
+        /* Empezamos con los bits por elemento de un filtro clásico y los
+         * aumentamos hasta que la probabilidad de los bloques alcance. */
+        double ln2 = Math.log(2);
+        double bitsPorElemento = -Math.log(falsosPositivos) / (ln2 * ln2);
+        k = mejorK(BITS_BLOQUE / bitsPorElemento);
+        while (bitsPorElemento < MAXIMO_BITS &&
+               probabilidad(BITS_BLOQUE / bitsPorElemento, k) > falsosPositivos) {
+            bitsPorElemento *= 1.05;
+            k = mejorK(BITS_BLOQUE / bitsPorElemento);
+        }
+        long b = (long)Math.ceil(n * bitsPorElemento / BITS_BLOQUE);
+        if (b > Integer.MAX_VALUE / LONGS_BLOQUE)
+            throw new IllegalArgumentException();
+        bloques = (int)Math.max(1, b);
+        bits = new long[bloques * LONGS_BLOQUE];
+    }
+
+    /* Regresa la probabilidad de un falso positivo si cada bloque recibe en
+     * promedio lambda elementos. El número de elementos de un bloque sigue
+     * una distribución de Poisson; en un bloque con j elementos la fracción
+     * de bits encendidos tiene media q y varianza v, y la probabilidad de
+     * que k bits estén encendidos es aproximadamente q^k (1 + k(k-1)v/2q²).
+     * En un bloque de sólo 512 bits la varianza no es despreciable. */
+    private static double probabilidad(double lambda, int k) {
+        double p = 0.0;
+        double poisson = Math.exp(-lambda);
+        int maximo = (int)(lambda + 12 * Math.sqrt(lambda) + 12);
+        for (int j = 1; j <= maximo; j++) {
+            poisson *= lambda / j;
+            double t = (double)k * j / BITS_BLOQUE;
+            double e = Math.exp(-t);
+            double q = 1.0 - e;
+            double v = e * (1.0 - (1.0 + t) * e) / BITS_BLOQUE;
+            p += poisson * Math.pow(q, k) * (1.0 + k * (k - 1) * v / (2 * q * q));
+        }
+        return p;
+    }
+
+    /* Regresa el número de bits por elemento con menos falsos positivos si
+     * cada bloque recibe en promedio lambda elementos. */
+    private static int mejorK(double lambda) {
+        int mejor = 1;
+        for (int k = 2; k <= MAXIMO_K; k++)
+            if (probabilidad(lambda, k) < probabilidad(lambda, mejor))
+                mejor = k;
+        return mejor;
+    }
+
+    /* Regresa el primer long del bloque del picadillo mezclado. */
+    private int bloque(long x) {
+        return (int)(((x >>> 32) * bloques) >>> 32) * LONGS_BLOQUE;
+    }
+
+    /* Enciende los k bits del picadillo; cada posición en el bloque son 9
+     * bits de una mezcla distinta del picadillo. */
+    @Override boolean agregaPicadillo(int h) {
+        long x = mezcla(h);
+        int b = bloque(x);
+        long y = 0;
+        for (int i = 0; i < k; i++) {
+            if (i % BITS_MEZCLA == 0)
+                y = mezcla(x + i);
+            int bit = (int)y & (BITS_BLOQUE - 1);
+            y >>>= 9;
+            bits[b + (bit >>> 6)] |= 1L << bit;
+        }
+        elementos++;
+        return true;
+    }
+
+    /* Nos dice si los k bits del picadillo están encendidos. */
+    @Override boolean puedeContenerPicadillo(int h) {
+        long x = mezcla(h);
+        int b = bloque(x);
+        long y = 0;
+        for (int i = 0; i < k; i++) {
+            if (i % BITS_MEZCLA == 0)
+                y = mezcla(x + i);
+            int bit = (int)y & (BITS_BLOQUE - 1);
+            y >>>= 9;
+            if ((bits[b + (bit >>> 6)] & (1L << bit)) == 0)
+                return false;
+        }
+        return true;
+    }
+
+    /**
+     * Regresa la probabilidad estimada de un falso positivo con los
+     * elementos que tiene el filtro, tomando en cuenta que unos bloques
+     * reciben más elementos que otros.
+     * @return la probabilidad estimada de un falso positivo.
+     */
+    @Override public double probabilidadFalsoPositivo() {
+        return probabilidad((double)elementos / bloques, k);
+    }
+
+    /**
+     * Regresa el número de bits del filtro.
+     * @return el número de bits del filtro.
+     */
+    public long getBits() {
+        return (long)bloques * BITS_BLOQUE;
+    }
+
+    /**
+     * Regresa cuántos bits enciende cada elemento.
+     * @return cuántos bits enciende cada elemento.
+     */
+    public int getK() {
+        return k;
+    }
+}
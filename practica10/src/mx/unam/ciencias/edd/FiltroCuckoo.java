@@ -0,0 +1,220 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * <p>Clase para filtros cuckoo. Un filtro cuckoo guarda una huella corta de
+ * cada elemento en una de dos cubetas de cuatro ranuras; la segunda cubeta se
+ * calcula a partir de la primera y de la huella, así que una huella se puede
+ * mover entre sus dos cubetas sin conocer el elemento. Si las dos cubetas de
+ * un elemento nuevo están llenas, el filtro desaloja una huella de una de
+ * ellas y la mueve a su otra cubeta, repitiendo hasta encontrar lugar.</p>
+ *
+ * <p>A diferencia de {@link FiltroBloom}, un filtro cuckoo permite eliminar
+ * elementos. Las huellas miden entre 4 y 16 bits, según la probabilidad de
+ * falsos positivos pedida, y el filtro puede llenarse hasta un 95% de sus
+ * ranuras. Cuando se llena, {@link #agrega} regresa <code>false</code>.</p>
+ */
+public class FiltroCuckoo<T> extends Filtro<T> {
+
+    /* Ranuras por cubeta. */
+    private static final int RANURAS = 4;
+    /* Máxima ocupación para la que se dimensiona el filtro. */
+    private static final double MAXIMA_OCUPACION = 0.95;
+    /* Cuántas huellas se desalojan antes de declarar el filtro lleno. */
+    private static final int MAXIMO_DESALOJOS = 500;
+
+    /* Las ranuras; 0 es una ranura vacía. */
+    private short[] tabla;
+    /* Máscara para el índice de las cubetas. */
+    private int mascara;
+    /* Bits de cada huella. */
+    private int bitsHuella;
+    /* La huella que no cupo después de los desalojos; 0 si no hay. */
+    private int victima;
+    /* La cubeta de la víctima. */
+    private int cubetaVictima;
+    /* Estado del generador para escoger qué huella desalojar. */
+    private int estado;
+
+    /**
+     * Construye un filtro cuckoo para un número de elementos y una
+     * probabilidad de falsos positivos, que usa el método
+     * <code>hashCode</code> de los elementos.
+     * @param n el número de elementos que se espera agregar.
+     * @param falsosPositivos la probabilidad de falsos positivos con
+     *        <code>n</code> elementos.
+     * @throws IllegalArgumentException si <code>n</code> no es positivo, o
+     *         la probabilidad no está entre 0 y 1.
+     */
+    public FiltroCuckoo(int n, double falsosPositivos) {
+        this(n, falsosPositivos, (T o) -> o.hashCode());
+    }
+
+    /**
+     * Construye un filtro cuckoo para un número de elementos y una
+     * probabilidad de falsos positivos, con un picadillo para los elementos.
+     * @param n el número de elementos que se espera agregar.
+     * @param falsosPositivos la probabilidad de falsos positivos con
+     *        <code>n</code> elementos.
+     * @param picadillo el picadillo de los elementos.
+     * @throws IllegalArgumentException si <code>n</code> no es positivo, la
+     *         probabilidad no está entre 0 y 1, el filtro necesitaría más de
+     *         2<sup>29</sup> cubetas, o el picadillo es <code>null</code>.
+     */
+    public FiltroCuckoo(int n, double falsosPositivos, Picadillo<T> picadillo) {
+        super(picadillo);
+        if (n < 1 || !(falsosPositivos > 0.0 && falsosPositivos < 1.0))
+            throw new IllegalArgumentException();
+        double bits = Math.log(2 * RANURAS / falsosPositivos) / Math.log(2);
+        bitsHuella = (int)Math.max(4, Math.min(16, Math.ceil(bits)));
+        long cubetas = 1;
+        while (cubetas * RANURAS * MAXIMA_OCUPACION < n)
+            cubetas <<= 1;
+        if (cubetas > 1 << 29)
+            throw new IllegalArgumentException();
+        mascara = (int)cubetas - 1;
+        tabla = new short[(int)cubetas * RANURAS];
+        estado = 0x2545f491;
+    }
+
+    /* Regresa la huella del picadillo mezclado; nunca es 0. */
+    private int huella(long x) {
+        int f = (int)(x >>> (64 - bitsHuella));
+        return f == 0 ? 1 : f;
+    }
+
+    /* Regresa la otra cubeta de una huella. */
+    private int alterna(int cubeta, int huella) {
+        return (cubeta ^ (int)mezcla(huella)) & mascara;
+    }
+
+    /* Pone la huella en una ranura vacía de la cubeta, si la hay. */
+    private boolean pon(int cubeta, int huella) {
+        int base = cubeta * RANURAS;
+        for (int i = base; i < base + RANURAS; i++) {
+            if (tabla[i] == 0) {
+                tabla[i] = (short)huella;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Nos dice si la huella está en la cubeta. */
+    private boolean esta(int cubeta, int huella) {
+        int base = cubeta * RANURAS;
+        for (int i = base; i < base + RANURAS; i++)
+            if ((tabla[i] & 0xffff) == huella)
+                return true;
+        return false;
+    }
+
+    /* Quita una copia de la huella de la cubeta, si está. */
+    private boolean quita(int cubeta, int huella) {
+        int base = cubeta * RANURAS;
+        for (int i = base; i < base + RANURAS; i++) {
+            if ((tabla[i] & 0xffff) == huella) {
+                tabla[i] = 0;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /* Regresa el siguiente número del generador (xorshift). */
+    private int aleatorio() {
+        estado ^= estado << 13;
+        estado ^= estado >>> 17;
+        estado ^= estado << 5;
+        return estado;
+    }
+
+    /* Pone la huella del picadillo en alguna de sus cubetas, desalojando
+     * otras huellas si hace falta. */
+    @Override boolean agregaPicadillo(int h) {
+        if (victima != 0)
+            return false;
+        long x = mezcla(h);
+        int f = huella(x);
+        int c1 = (int)x & mascara;
+        int c2 = alterna(c1, f);
+        elementos++;
+        if (pon(c1, f) || pon(c2, f))
+            return true;
+        int c = (aleatorio() & 1) == 0 ? c1 : c2;
+        for (int n = 0; n < MAXIMO_DESALOJOS; n++) {
+            int i = c * RANURAS + (aleatorio() & (RANURAS - 1));
+            int otra = tabla[i] & 0xffff;
+            tabla[i] = (short)f;
+            f = otra;
+            c = alterna(c, f);
+            if (pon(c, f))
+                return true;
+        }
+        /* La última huella desalojada se queda aparte; el filtro está
+         * lleno, pero no pierde ningún elemento. */
+        victima = f;
+        cubetaVictima = c;
+        return true;
+    }
+
+    /* Nos dice si la huella del picadillo está en alguna de sus
+     * cubetas. */
+    @Override boolean puedeContenerPicadillo(int h) {
+        long x = mezcla(h);
+        int f = huella(x);
+        int c1 = (int)x & mascara;
+        int c2 = alterna(c1, f);
+        return esta(c1, f) || esta(c2, f) ||
+            (victima == f && (cubetaVictima == c1 || cubetaVictima == c2));
+    }
+
+    /* Quita una copia de la huella del picadillo. */
+    @Override boolean eliminaPicadillo(int h) {
+        long x = mezcla(h);
+        int f = huella(x);
+        int c1 = (int)x & mascara;
+        int c2 = alterna(c1, f);
+        if (victima == f && (cubetaVictima == c1 || cubetaVictima == c2)) {
+            victima = 0;
+        } else if (quita(c1, f) || quita(c2, f)) {
+            /* Con el espacio libre, la víctima puede volver a la tabla. */
+            if (victima != 0 &&
+                (pon(cubetaVictima, victima) ||
+                 pon(alterna(cubetaVictima, victima), victima)))
+                victima = 0;
+        } else {
+            return false;
+        }
+        elementos--;
+        return true;
+    }
+
+    /**
+     * Nos dice si el filtro permite eliminar elementos; siempre es
+     * <code>true</code>.
+     * @return <code>true</code>.
+     */
+    @Override public boolean esEliminable() {
+        return true;
+    }
+
+    /**
+     * Regresa la probabilidad estimada de un falso positivo con los
+     * elementos que tiene el filtro: la de que alguna de las huellas en las
+     * dos cubetas de un elemento coincida con la suya.
+     * @return la probabilidad estimada de un falso positivo.
+     */
+    @Override public double probabilidadFalsoPositivo() {
+        double ocupacion = (double)elementos / tabla.length;
+        double coincide = 1.0 / ((1 << bitsHuella) - 1);
+        return 1.0 - Math.pow(1.0 - coincide, 2 * RANURAS * ocupacion);
+    }
+
+    /**
+     * Regresa cuántos bits mide cada huella.
+     * @return cuántos bits mide cada huella.
+     */
+    public int getBitsHuella() {
+        return bitsHuella;
+    }
+}
@@ -2,6 +2,7 @@ package mx.unam.ciencias.edd;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
 
 /**
  * Clase para gráficas. Una gráfica es un conjunto de vértices y aristas, tales
@@ -405,6 +406,15 @@ public class Grafica<T> implements Coleccion<T> {
         return new Iterador();
     }
 
+    /**
+     * Regresa un divisor para recorrer los elementos de la gráfica, que se
+     * parte por intervalos de las cubetas del diccionario de vértices.
+     * @return un divisor para recorrer los elementos de la gráfica.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return vertices.vistaLlaves().spliterator();
+    }
+
     /**
      * Calcula una trayectoria de distancia mínima entre dos vértices.
      * @param origen el vértice de origen.
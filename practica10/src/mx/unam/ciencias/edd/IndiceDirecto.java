@@ -0,0 +1,471 @@
+package mx.unam.ciencias.edd;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.NoSuchElementException;
+
+/**
+ * <p>Clase para índices de picadillo con llaves y valores de bytes guardados
+ * fuera del montón (<em>off-heap</em>), en buffers directos. El recolector de
+ * basura sólo ve unos cuantos objetos {@link ByteBuffer}, sin importar
+ * cuántas entradas tenga el índice, así que un índice con cientos de millones
+ * de llaves no alarga sus pausas.</p>
+ *
+ * <p>El índice tiene dos partes. Las llaves y valores se escriben uno tras
+ * otro en una arena de trozos de 16 MB; cada registro es la longitud de la
+ * llave, la longitud del valor, la llave y el valor. La tabla es un arreglo
+ * de ranuras de 16 bytes, repartido en páginas, con direccionamiento abierto
+ * <em>Robin Hood</em>: cada ranura guarda la dirección de su registro, el
+ * picadillo de la llave y su longitud, así que casi todas las comparaciones
+ * se resuelven sin leer la arena. Robin Hood mantiene las llaves de una
+ * misma cubeta juntas, y al eliminar recorre las siguientes hacia atrás en
+ * lugar de dejar marcas.</p>
+ *
+ * <p>Reemplazar un valor por otro de la misma longitud lo sobreescribe; en
+ * otro caso el registro viejo queda como basura en la arena. Cuando la basura
+ * ocupa más de la mitad de la arena, el índice la compacta.</p>
+ *
+ * <p>Los picadillos se calculan sobre los bytes de las llaves con un
+ * algoritmo de {@link FabricaPicadillos}. {@link #colisiones}, {@link
+ * #colisionMaxima} y {@link #carga} se definen igual que en {@link
+ * Diccionario}, tomando como cubeta de cada llave la ranura donde empieza a
+ * buscarse.</p>
+ */
+public class IndiceDirecto {
+
+    /** Máxima carga permitida en el índice. */
+    public static final double MAXIMA_CARGA = 0.8;
+
+    /* Bytes de cada ranura: dirección (8), picadillo (4) y longitud de la
+     * llave (4). */
+    private static final int BYTES_RANURA = 16;
+    /* Bits del número de ranuras en cada página de la tabla. */
+    private static final int BITS_PAGINA = 20;
+    /* Bits del tamaño de los trozos de la arena. */
+    private static final int BITS_TROZO = 24;
+    /* Tamaño mínimo de la tabla. */
+    private static final int MIN_N = 64;
+    /* Tamaño máximo de la tabla. */
+    private static final int MAX_N = 1 << 30;
+    /* Para leer ocho bytes de las llaves a la vez. */
+    private static final VarHandle LARGO =
+        MethodHandles.byteArrayViewVarHandle(long[].class, ByteOrder.BIG_ENDIAN);
+
+    /* El algoritmo de los picadillos. */
+    private AlgoritmoPicadillo algoritmo;
+    /* El picadillo de las llaves. */
+    private Picadillo<byte[]> picadillo;
+    /* Las páginas de la tabla. */
+    private ByteBuffer[] paginas;
+    /* Máscara para el índice de las ranuras. */
+    private int mascara;
+    /* El número de entradas. */
+    private int elementos;
+    /* Los trozos de la arena. */
+    private ByteBuffer[] trozos;
+    /* El número de trozos en uso. */
+    private int numTrozos;
+    /* Bytes ocupados en la arena, contando la basura. */
+    private long ocupados;
+    /* Bytes de basura en la arena. */
+    private long basura;
+
+    /**
+     * Construye un índice vacío que calcula los picadillos con {@link
+     * AlgoritmoPicadillo#XXHASH64_STRING}.
+     */
+    public IndiceDirecto() {
+        this(MIN_N, AlgoritmoPicadillo.XXHASH64_STRING);
+    }
+
+    /**
+     * Construye un índice vacío con espacio para un número de entradas, y un
+     * algoritmo para los picadillos.
+     * @param tam el número de entradas que se espera tener; el índice podrá
+     *        guardarlas sin crecer su tabla.
+     * @param algoritmo el algoritmo para los picadillos de las llaves.
+     * @throws IllegalArgumentException si el algoritmo es <code>null</code>.
+     */
+    public IndiceDirecto(int tam, AlgoritmoPicadillo algoritmo) {
+        if (algoritmo == null)
+            throw new IllegalArgumentException();
+        this.algoritmo = algoritmo;
+        picadillo = FabricaPicadillos.getInstanciaBytes(algoritmo);
+        int n = MIN_N;
+        while (n < MAX_N && tam >= n * MAXIMA_CARGA)
+            n <<= 1;
+        creaTabla(n);
+        trozos = new ByteBuffer[4];
+    }
+
+    /* Crea una tabla vacía de n ranuras. */
+    private void creaTabla(int n) {
+        mascara = n - 1;
+        int porPagina = 1 << BITS_PAGINA;
+        paginas = new ByteBuffer[Math.max(1, n / porPagina)];
+        for (int i = 0; i < paginas.length; i++)
+            paginas[i] = ByteBuffer.allocateDirect(Math.min(n, porPagina) *
+                                                   BYTES_RANURA);
+    }
+
+    /* Regresa la página de la ranura. */
+    private ByteBuffer pagina(int i) {
+        return paginas[i >>> BITS_PAGINA];
+    }
+
+    /* Regresa el desplazamiento de la ranura en su página. */
+    private static int desplazamiento(int i) {
+        return (i & ((1 << BITS_PAGINA) - 1)) * BYTES_RANURA;
+    }
+
+    /* Regresa la dirección más uno del registro de la ranura; 0 si la
+     * ranura está vacía. */
+    private long direccion(int i) {
+        return pagina(i).getLong(desplazamiento(i));
+    }
+
+    /* Regresa el picadillo de la ranura. */
+    private int picadilloRanura(int i) {
+        return pagina(i).getInt(desplazamiento(i) + 8);
+    }
+
+    /* Regresa la longitud de la llave de la ranura. */
+    private int longitudRanura(int i) {
+        return pagina(i).getInt(desplazamiento(i) + 12);
+    }
+
+    /* Escribe una ranura. */
+    private void escribeRanura(int i, long direccion, int h, int longitud) {
+        ByteBuffer p = pagina(i);
+        int d = desplazamiento(i);
+        p.putLong(d, direccion);
+        p.putInt(d + 8, h);
+        p.putInt(d + 12, longitud);
+    }
+
+    /* Regresa qué tan lejos está la ranura de la cubeta de su llave. */
+    private int distancia(int i, int h) {
+        return (i - (h & mascara)) & mascara;
+    }
+
+    /* Regresa el trozo del registro en la dirección (más uno). */
+    private ByteBuffer trozo(long direccion) {
+        return trozos[(int)((direccion - 1) >>> 32)];
+    }
+
+    /* Regresa la posición en su trozo del registro en la dirección (más
+     * uno). */
+    private static int posicion(long direccion) {
+        return (int)(direccion - 1);
+    }
+
+    /* Nos dice si la llave del registro en la dirección es la dada. */
+    private boolean iguales(long direccion, byte[] llave) {
+        ByteBuffer t = trozo(direccion);
+        int p = posicion(direccion) + 8;
+        int i = 0;
+        for (; i + 8 <= llave.length; i += 8)
+            if (t.getLong(p + i) != (long)LARGO.get(llave, i))
+                return false;
+        for (; i < llave.length; i++)
+            if (t.get(p + i) != llave[i])
+                return false;
+        return true;
+    }
+
+    /* Regresa la ranura de la llave, o -1 si no está. */
+    private int busca(byte[] llave, int h) {
+        int i = h & mascara;
+        for (int d = 0; ; d++, i = (i + 1) & mascara) {
+            long direccion = direccion(i);
+            if (direccion == 0)
+                return -1;
+            int hi = picadilloRanura(i);
+            if (distancia(i, hi) < d)
+                return -1;
+            if (hi == h && longitudRanura(i) == llave.length &&
+                iguales(direccion, llave))
+                return i;
+        }
+    }
+
+    /* Inserta una ranura nueva, desplazando a las que están más cerca de su
+     * cubeta. */
+    private void inserta(long direccion, int h, int longitud) {
+        int i = h & mascara;
+        for (int d = 0; ; d++, i = (i + 1) & mascara) {
+            long otra = direccion(i);
+            if (otra == 0) {
+                escribeRanura(i, direccion, h, longitud);
+                return;
+            }
+            int ho = picadilloRanura(i);
+            int dOtra = distancia(i, ho);
+            if (dOtra < d) {
+                int lo = longitudRanura(i);
+                escribeRanura(i, direccion, h, longitud);
+                direccion = otra;
+                h = ho;
+                longitud = lo;
+                d = dOtra;
+            }
+        }
+    }
+
+    /* Vacía una ranura recorriendo hacia atrás las que la siguen. */
+    private void borra(int i) {
+        int j = (i + 1) & mascara;
+        long direccion;
+        while ((direccion = direccion(j)) != 0 &&
+               distancia(j, picadilloRanura(j)) > 0) {
+            escribeRanura(i, direccion, picadilloRanura(j), longitudRanura(j));
+            i = j;
+            j = (j + 1) & mascara;
+        }
+        escribeRanura(i, 0, 0, 0);
+    }
+
+    /* Escribe un registro en la arena y regresa su dirección más uno. */
+    private long escribeRegistro(byte[] llave, byte[] valor) {
+        int tam = 8 + llave.length + valor.length;
+        ByteBuffer t = numTrozos == 0 ? null : trozos[numTrozos - 1];
+        if (t == null || t.capacity() - t.position() < tam) {
+            if (numTrozos == trozos.length) {
+                ByteBuffer[] nuevos = new ByteBuffer[trozos.length * 2];
+                System.arraycopy(trozos, 0, nuevos, 0, numTrozos);
+                trozos = nuevos;
+            }
+            t = ByteBuffer.allocateDirect(Math.max(1 << BITS_TROZO, tam));
+            trozos[numTrozos++] = t;
+        }
+        int p = t.position();
+        t.putInt(llave.length).putInt(valor.length).put(llave).put(valor);
+        ocupados += tam;
+        return ((long)(numTrozos - 1) << 32 | p) + 1;
+    }
+
+    /**
+     * Agrega un valor al índice con la llave proporcionada. Si la llave ya
+     * estaba, reemplaza su valor. El índice copia los bytes de la llave y el
+     * valor.
+     * @param llave la llave para agregar el valor.
+     * @param valor el valor a agregar.
+     * @throws IllegalArgumentException si la llave o el valor son nulos.
+     */
+    public void agrega(byte[] llave, byte[] valor) {
+        if (llave == null || valor == null)
+            throw new IllegalArgumentException();
+        int h = picadillo.picadillo(llave);
+        int i = busca(llave, h);
+        if (i >= 0) {
+            long direccion = direccion(i);
+            ByteBuffer t = trozo(direccion);
+            int p = posicion(direccion);
+            int longitudValor = t.getInt(p + 4);
+            if (longitudValor == valor.length) {
+                t.put(p + 8 + llave.length, valor);
+                return;
+            }
+            basura += 8 + llave.length + longitudValor;
+            escribeRanura(i, escribeRegistro(llave, valor), h, llave.length);
+            compactaSiHaceFalta();
+            return;
+        }
+        if (elementos + 1 >= (mascara + 1) * MAXIMA_CARGA && mascara + 1 < MAX_N)
+            crece();
+        inserta(escribeRegistro(llave, valor), h, llave.length);
+        elementos++;
+    }
+
+    /* Duplica el tamaño de la tabla, reinsertando las ranuras; los
+     * registros de la arena no se mueven. */
+    private void crece() {
+        ByteBuffer[] viejas = paginas;
+        int n = mascara + 1;
+        creaTabla(n * 2);
+        for (int i = 0; i < n; i++) {
+            ByteBuffer p = viejas[i >>> BITS_PAGINA];
+            int d = desplazamiento(i);
+            long direccion = p.getLong(d);
+            if (direccion != 0)
+                inserta(direccion, p.getInt(d + 8), p.getInt(d + 12));
+        }
+    }
+
+    /**
+     * Regresa una copia del valor asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor.
+     * @return el valor correspondiente a la llave.
+     * @throws NoSuchElementException si la llave no está en el índice.
+     */
+    public byte[] get(byte[] llave) {
+        int i = busca(llave, picadillo.picadillo(llave));
+        if (i < 0)
+            throw new NoSuchElementException();
+        long direccion = direccion(i);
+        ByteBuffer t = trozo(direccion);
+        int p = posicion(direccion);
+        byte[] valor = new byte[t.getInt(p + 4)];
+        t.get(p + 8 + llave.length, valor);
+        return valor;
+    }
+
+    /**
+     * Nos dice si una llave se encuentra en el índice.
+     * @param llave la llave que queremos ver si está en el índice.
+     * @return <tt>true</tt> si la llave está en el índice,
+     *         <tt>false</tt> en otro caso.
+     */
+    public boolean contiene(byte[] llave) {
+        return busca(llave, picadillo.picadillo(llave)) >= 0;
+    }
+
+    /**
+     * Elimina el valor asociado a la llave proporcionada.
+     * @param llave la llave para buscar el valor a eliminar.
+     * @throws NoSuchElementException si la llave no se encuentra en el
+     *         índice.
+     */
+    public void elimina(byte[] llave) {
+        int i = busca(llave, picadillo.picadillo(llave));
+        if (i < 0)
+            throw new NoSuchElementException();
+        long direccion = direccion(i);
+        basura += 8 + llave.length + trozo(direccion).getInt(posicion(direccion) + 4);
+        borra(i);
+        elementos--;
+        compactaSiHaceFalta();
+    }
+
+    /* Compacta la arena si la mitad es basura. */
+    private void compactaSiHaceFalta() {
+        if (basura > ocupados / 2 && basura >= 1 << BITS_TROZO)
+            compacta();
+    }
+
+    /**
+     * Copia los registros vivos a una arena nueva, liberando el espacio de
+     * los valores reemplazados y las entradas eliminadas.
+     */
+    public void compacta() {
+        ByteBuffer[] viejos = trozos;
+        trozos = new ByteBuffer[4];
+        numTrozos = 0;
+        ocupados = basura = 0;
+        for (int i = 0; i <= mascara; i++) {
+            long direccion = direccion(i);
+            if (direccion == 0)
+                continue;
+            ByteBuffer t = viejos[(int)((direccion - 1) >>> 32)];
+            int p = posicion(direccion);
+            byte[] llave = new byte[t.getInt(p)];
+            byte[] valor = new byte[t.getInt(p + 4)];
+            t.get(p + 8, llave);
+            t.get(p + 8 + llave.length, valor);
+            escribeRanura(i, escribeRegistro(llave, valor), picadilloRanura(i),
+                          llave.length);
+        }
+    }
+
+    /**
+     * Elimina todas las entradas del índice y libera su memoria.
+     */
+    public void limpia() {
+        creaTabla(MIN_N);
+        trozos = new ByteBuffer[4];
+        numTrozos = 0;
+        elementos = 0;
+        ocupados = basura = 0;
+    }
+
+    /**
+     * Nos dice cuántas colisiones hay en el índice: cuántas llaves comparten
+     * cubeta con otra llave que llegó antes.
+     * @return cuántas colisiones hay en el índice.
+     */
+    public int colisiones() {
+        int colisiones = 0;
+        for (int i = 0; i <= mascara; i++)
+            if (direccion(i) != 0 && mismaCubetaQueAnterior(i))
+                colisiones++;
+        return colisiones;
+    }
+
+    /**
+     * Nos dice el máximo número de colisiones para una misma cubeta.
+     * @return el máximo número de colisiones para una misma cubeta.
+     */
+    public int colisionMaxima() {
+        if (elementos == 0)
+            return 0;
+        /* Empezamos en una ranura vacía para no partir una cubeta. */
+        int inicio = 0;
+        while (direccion(inicio) != 0)
+            inicio++;
+        int maxima = 0, actual = 0;
+        for (int k = 1; k <= mascara + 1; k++) {
+            int i = (inicio + k) & mascara;
+            if (direccion(i) == 0)
+                continue;
+            actual = mismaCubetaQueAnterior(i) ? actual + 1 : 0;
+            maxima = Math.max(maxima, actual);
+        }
+        return maxima;
+    }
+
+    /* Nos dice si la llave de la ranura ocupada tiene la misma cubeta que
+     * la de la ranura anterior. Robin Hood mantiene juntas las llaves de una
+     * misma cubeta. */
+    private boolean mismaCubetaQueAnterior(int i) {
+        int j = (i - 1) & mascara;
+        return direccion(j) != 0 &&
+            ((picadilloRanura(i) ^ picadilloRanura(j)) & mascara) == 0;
+    }
+
+    /**
+     * Nos dice la carga del índice.
+     * @return la carga del índice.
+     */
+    public double carga() {
+        return (double)elementos / (mascara + 1);
+    }
+
+    /**
+     * Regresa el número de entradas en el índice.
+     * @return el número de entradas en el índice.
+     */
+    public int getElementos() {
+        return elementos;
+    }
+
+    /**
+     * Nos dice si el índice es vacío.
+     * @return <code>true</code> si el índice es vacío, <code>false</code> en
+     *         otro caso.
+     */
+    public boolean esVacio() {
+        return elementos == 0;
+    }
+
+    /**
+     * Regresa los bytes que ocupa el índice fuera del montón: la tabla más
+     * los trozos de la arena.
+     * @return los bytes que ocupa el índice fuera del montón.
+     */
+    public long getBytesDirectos() {
+        long bytes = (long)(mascara + 1) * BYTES_RANURA;
+        for (int i = 0; i < numTrozos; i++)
+            bytes += trozos[i].capacity();
+        return bytes;
+    }
+
+    /**
+     * Regresa el algoritmo con el que se calculan los picadillos.
+     * @return el algoritmo de los picadillos.
+     */
+    public AlgoritmoPicadillo getAlgoritmo() {
+        return algoritmo;
+    }
+}
@@ -1,7 +1,13 @@
 package mx.unam.ciencias.edd;
 
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.RecursiveTask;
 
 /**
  * <p>Clase genérica para listas doblemente ligadas.</p>
@@ -82,6 +88,48 @@ public class Lista<T> implements Coleccion<T> {
         }
     }
 
+    /* Tarea que ordena un intervalo de los pedazos en que se partió la
+     * lista, y regresa el primer nodo de la cadena ordenada. */
+    private class Ordenamiento extends RecursiveTask<Nodo> {
+
+        /* Los pedazos de la lista. */
+        private Nodo[] pedazos;
+        /* El comparador de los elementos. */
+        private Comparator<? super T> comparador;
+        /* El intervalo de pedazos. */
+        private int ini, fin;
+
+        /* Construye una tarea para los pedazos en [ini, fin). */
+        public Ordenamiento(Nodo[] pedazos, Comparator<? super T> comparador,
+                            int ini, int fin) {
+            this.pedazos = pedazos;
+            this.comparador = comparador;
+            this.ini = ini;
+            this.fin = fin;
+        }
+
+        /* Ordena el pedazo, o las dos mitades del intervalo en paralelo y
+         * luego las mezcla. */
+        @Override protected Nodo compute() {
+            if (fin - ini == 1)
+                return ordenaCadena(pedazos[ini], comparador);
+            int mitad = (ini + fin) >>> 1;
+            Ordenamiento izquierda =
+                new Ordenamiento(pedazos, comparador, ini, mitad);
+            izquierda.fork();
+            Nodo derecha =
+                new Ordenamiento(pedazos, comparador, mitad, fin).compute();
+            return mezclaRachas(izquierda.join(), derecha, comparador);
+        }
+    }
+
+    /* A partir de cuántos elementos se ordena en paralelo. */
+    private static final int UMBRAL_PARALELO = 1 << 16;
+    /* Longitud mínima de los pedazos que se ordenan en paralelo. */
+    private static final int MINIMO_PEDAZO = 1 << 13;
+    /* En cuántos pedazos por hilo se parte la lista. */
+    private static final int PEDAZOS_POR_HILO = 4;
+
     /* Primer elemento de la lista. */
     private Nodo cabeza;
     /* Último elemento de la lista. */
@@ -182,7 +230,7 @@ public class Lista<T> implements Coleccion<T> {
      * @param elemento el elemento a eliminar.
      */
     public void elimina(T elemento) {
-        Nodo nodo = buscaNodo(cabeza, elemento);
+        Nodo nodo = buscaNodo(elemento);
         if (nodo == null) {
             return;
         } else if (cabeza == rabo) {
@@ -200,12 +248,12 @@ public class Lista<T> implements Coleccion<T> {
         longitud--;
     }
 
-    private Nodo buscaNodo(Nodo a, T elemento) {
-        if (a == null)
-            return null;
-        if (a.elemento.equals(elemento))
-            return a;
-        return buscaNodo(a.siguiente, elemento);
+    /* Regresa el primer nodo con el elemento, o null si no está. */
+    private Nodo buscaNodo(T elemento) {
+        Nodo nodo = cabeza;
+        while (nodo != null && !nodo.elemento.equals(elemento))
+            nodo = nodo.siguiente;
+        return nodo;
     }
 
     /**
@@ -256,7 +304,7 @@ public class Lista<T> implements Coleccion<T> {
      *         <tt>false</tt> en otro caso.
      */
     public boolean contiene(T elemento) {
-        return buscaNodo(cabeza, elemento) != null;
+        return buscaNodo(elemento) != null;
     }
 
     /**
@@ -264,15 +312,10 @@ public class Lista<T> implements Coleccion<T> {
      * @return una nueva lista que es la reversa la que manda llamar el método.
      */
     public Lista<T> reversa() {
-        Lista<T> listAux = new Lista<>();
-        return reversa(listAux, cabeza);
-    }
-
-    private Lista<T> reversa(Lista<T> list, Nodo nodo) {
-        if (nodo == null)
-            return list;
-        list.agregaInicio(nodo.elemento);
-        return reversa(list, nodo.siguiente);
+        Lista<T> reversa = new Lista<>();
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente)
+            reversa.agregaInicio(nodo.elemento);
+        return reversa;
     }
 
     /**
@@ -281,16 +324,10 @@ public class Lista<T> implements Coleccion<T> {
      * @return una copiad de la lista.
      */
     public Lista<T> copia() {
-        Lista<T> listAux = new Lista<>();
-        return copia(listAux, cabeza);
-    }
-
-    /* Método auxiliar recursivo para copia. */
-    private Lista<T> copia(Lista<T> list, Nodo nodo) {
-        if (nodo == null)
-            return list;
-        list.agregaFinal(nodo.elemento);
-        return copia(list, nodo.siguiente);
+        Lista<T> copia = new Lista<>();
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente)
+            copia.agregaFinal(nodo.elemento);
+        return copia;
     }
 
     /**
@@ -334,13 +371,18 @@ public class Lista<T> implements Coleccion<T> {
     public T get(int i) {
         if (i < 0 || i >= getLongitud())
             throw new ExcepcionIndiceInvalido();
-        return get(i, cabeza, 0);
-    }
-
-    private T get(int i, Nodo nodo, int j) {
-        if (i == j)
-            return nodo.elemento;
-        return get(i, nodo.siguiente, j + 1);
+        /* Caminamos desde el extremo más cercano al índice. */
+        Nodo nodo;
+        if (i < longitud / 2) {
+            nodo = cabeza;
+            for (int j = 0; j < i; j++)
+                nodo = nodo.siguiente;
+        } else {
+            nodo = rabo;
+            for (int j = longitud - 1; j > i; j--)
+                nodo = nodo.anterior;
+        }
+        return nodo.elemento;
     }
 
     /**
@@ -350,60 +392,202 @@ public class Lista<T> implements Coleccion<T> {
      *         el elemento no está contenido en la lista.
      */
     public int indiceDe(T elemento) {
-        return indiceDe(0, cabeza, elemento);
+        int i = 0;
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente, i++)
+            if (nodo.elemento.equals(elemento))
+                return i;
+        return -1;
     }
 
-    private int indiceDe(int i, Nodo nodo, T elemento) {
-        if (nodo == null)
-            return -1;
-        if (nodo.elemento.equals(elemento))
-            return i;
-        return indiceDe(i + 1, nodo.siguiente, elemento);
+    /**
+     * Ordena la lista en su lugar, de acuerdo al orden natural de sus
+     * elementos, que tienen que implementar la interfaz {@link Comparable}.
+     * Ver {@link #ordena(Comparator)}.
+     * @throws ClassCastException si los elementos no se pueden comparar
+     *         entre sí.
+     */
+    public void ordena() {
+        ordena(ordenNatural());
     }
 
     /**
-     * Regresa una copia de la lista recibida, pero ordenada. La lista recibida
-     * tiene que contener nada más elementos que implementan la interfaz {@link
-     * Comparable}.
-     * @param <T> tipo del que puede ser la lista.
-     * @param l la lista que se ordenará.
-     * @return una copia de la lista recibida, pero ordenada.
+     * Ordena la lista en su lugar con un comparador. El ordenamiento es
+     * estable, tiene complejidad en tiempo <em>O</em>(<em>n</em> log
+     * <em>r</em>), donde <em>r</em> es el número de rachas ya ordenadas en la
+     * lista, y no crea nodos: sólo vuelve a ligar los que ya tiene la lista.
+     * Si el comparador lanza una excepción, el estado de la lista queda
+     * indefinido.
+     * @param comparador el comparador para ordenar los elementos.
+     * @throws IllegalArgumentException si el comparador es <code>null</code>.
      */
-    public static <T extends Comparable<T>> Lista<T> mergeSort(Lista<T> l) {
-        if (l.cabeza == l.rabo) return l.copia();
-        Lista<T> li = new Lista<>();
-        Lista<T> ld = new Lista<>();
-        int c = 0;
-        for (T el : l) {
-            //Se hace una REFERENCIA a la lista deseada para agregar elementos.
-            Lista<T> ll = (c++ < l.getLongitud() / 2) ? li : ld;
-            ll.agrega(el);
+    public void ordena(Comparator<? super T> comparador) {
+        if (comparador == null)
+            throw new IllegalArgumentException();
+        if (longitud < 2)
+            return;
+        ligaOrdenada(ordenaCadena(cabeza, comparador));
+    }
+
+    /**
+     * Ordena la lista en su lugar, de acuerdo al orden natural de sus
+     * elementos, repartiendo el trabajo entre varios hilos. Ver {@link
+     * #ordenaParalelo(Comparator)}.
+     * @throws ClassCastException si los elementos no se pueden comparar
+     *         entre sí.
+     */
+    public void ordenaParalelo() {
+        ordenaParalelo(ordenNatural());
+    }
+
+    /**
+     * Ordena la lista en su lugar con un comparador, repartiendo el trabajo
+     * entre los hilos del {@link ForkJoinPool} del hilo que lo llama, o del
+     * {@link ForkJoinPool#commonPool} si no está en uno. La lista se parte en
+     * pedazos de longitudes parecidas, cada uno se ordena como en {@link
+     * #ordena(Comparator)}, y los pedazos ordenados se mezclan volviendo a
+     * ligar sus nodos. Como el ordenamiento es estable, la lista queda
+     * exactamente igual que con {@link #ordena(Comparator)}. El comparador
+     * se llama desde varios hilos a la vez.
+     * @param comparador el comparador para ordenar los elementos.
+     * @throws IllegalArgumentException si el comparador es <code>null</code>.
+     */
+    public void ordenaParalelo(Comparator<? super T> comparador) {
+        if (comparador == null)
+            throw new IllegalArgumentException();
+        int hilos = ForkJoinTask.inForkJoinPool() ?
+            ForkJoinTask.getPool().getParallelism() :
+            ForkJoinPool.getCommonPoolParallelism();
+        if (longitud < UMBRAL_PARALELO || hilos < 2) {
+            ordena(comparador);
+            return;
         }
-        return merge(mergeSort(li), mergeSort(ld));
+        int tamano = Math.max(MINIMO_PEDAZO,
+                              longitud / (PEDAZOS_POR_HILO * hilos));
+        @SuppressWarnings("unchecked") Nodo[] pedazos =
+            (Nodo[])new Lista.Nodo[(longitud + tamano - 1) / tamano];
+        Nodo nodo = cabeza;
+        for (int i = 0; i < pedazos.length; i++) {
+            pedazos[i] = nodo;
+            for (int j = 1; j < tamano && nodo.siguiente != null; j++)
+                nodo = nodo.siguiente;
+            Nodo siguiente = nodo.siguiente;
+            nodo.siguiente = null;
+            nodo = siguiente;
+        }
+        ligaOrdenada(new Ordenamiento(pedazos, comparador,
+                                      0, pedazos.length).invoke());
+    }
+
+    /* Regresa un comparador para el orden natural de los elementos. */
+    private Comparator<? super T> ordenNatural() {
+        return (a, b) -> {
+            @SuppressWarnings("unchecked") Comparable<? super T> c =
+                (Comparable<? super T>)a;
+            return c.compareTo(b);
+        };
     }
 
+    /* Ordena una cadena de nodos ligados sólo por su nodo siguiente, y
+     * regresa el primer nodo de la cadena ordenada. */
+    private Nodo ordenaCadena(Nodo resto, Comparator<? super T> comparador) {
+        /* En pendientes[i] hay 2^i rachas mezcladas, o null; las de índice
+         * mayor vienen antes en la lista. */
+        @SuppressWarnings("unchecked") Nodo[] pendientes =
+            (Nodo[])new Lista.Nodo[Integer.SIZE];
+        while (resto != null) {
+            Nodo racha = resto;
+            resto = resto.siguiente;
+            racha.siguiente = null;
+            if (resto != null &&
+                comparador.compare(racha.elemento, resto.elemento) > 0) {
+                /* Una racha estrictamente decreciente se voltea conforme se
+                 * separa. */
+                do {
+                    Nodo siguiente = resto.siguiente;
+                    resto.siguiente = racha;
+                    racha = resto;
+                    resto = siguiente;
+                } while (resto != null &&
+                         comparador.compare(racha.elemento,
+                                            resto.elemento) > 0);
+            } else {
+                Nodo ultimo = racha;
+                while (resto != null &&
+                       comparador.compare(ultimo.elemento,
+                                          resto.elemento) <= 0) {
+                    ultimo.siguiente = resto;
+                    ultimo = resto;
+                    resto = resto.siguiente;
+                }
+                ultimo.siguiente = null;
+            }
+            int i = 0;
+            while (pendientes[i] != null) {
+                racha = mezclaRachas(pendientes[i], racha, comparador);
+                pendientes[i++] = null;
+            }
+            pendientes[i] = racha;
+        }
+        Nodo ordenada = null;
+        for (Nodo racha : pendientes)
+            if (racha != null)
+                ordenada = ordenada == null ? racha :
+                    mezclaRachas(racha, ordenada, comparador);
+        return ordenada;
+    }
 
-    private static <T extends Comparable<T>> Lista<T> merge(Lista<T> ld, Lista<T> li) {
-        Lista<T>.Nodo ni = li.cabeza;
-        Lista<T>.Nodo nd = ld.cabeza;
-        Lista<T> l = new Lista<>();
+    /* Hace de una cadena ordenada de nodos ligados sólo por su nodo
+     * siguiente los nodos de la lista. */
+    private void ligaOrdenada(Nodo ordenada) {
+        cabeza = ordenada;
+        Nodo anterior = null;
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente) {
+            nodo.anterior = anterior;
+            anterior = nodo;
+        }
+        rabo = anterior;
+    }
 
-        while (ni != null && nd != null)
-            if (ni.elemento.compareTo(nd.elemento) < 0) {
-                l.agrega(ni.elemento);
-                ni = ni.siguiente;
+    /* Mezcla dos rachas ordenadas ligadas sólo por su nodo siguiente, y
+     * regresa el primer nodo de la mezcla. Con elementos iguales, los de la
+     * primera racha quedan antes. */
+    private Nodo mezclaRachas(Nodo a, Nodo b,
+                              Comparator<? super T> comparador) {
+        Nodo inicio;
+        if (comparador.compare(b.elemento, a.elemento) < 0) {
+            inicio = b;
+            b = b.siguiente;
+        } else {
+            inicio = a;
+            a = a.siguiente;
+        }
+        Nodo ultimo = inicio;
+        while (a != null && b != null) {
+            if (comparador.compare(b.elemento, a.elemento) < 0) {
+                ultimo.siguiente = b;
+                b = b.siguiente;
             } else {
-                l.agrega(nd.elemento);
-                nd = nd.siguiente;
+                ultimo.siguiente = a;
+                a = a.siguiente;
             }
-        //En el caso de que en una lista ya no haya elementos, se agregan los
-        //restantes de la otra lista la lista principal.
-        Lista<T>.Nodo n = ni != null ? ni : nd;
-        while (n != null) {
-            l.agrega(n.elemento);
-            n = n.siguiente;
+            ultimo = ultimo.siguiente;
         }
-        return l;
+        ultimo.siguiente = a != null ? a : b;
+        return inicio;
+    }
+
+    /**
+     * Regresa una copia de la lista recibida, pero ordenada. La lista recibida
+     * tiene que contener nada más elementos que implementan la interfaz {@link
+     * Comparable}.
+     * @param <T> tipo del que puede ser la lista.
+     * @param l la lista que se ordenará.
+     * @return una copia de la lista recibida, pero ordenada.
+     */
+    public static <T extends Comparable<T>> Lista<T> mergeSort(Lista<T> l) {
+        Lista<T> copia = l.copia();
+        copia.ordena((a, b) -> a.compareTo(b));
+        return copia;
     }
 
     /**
@@ -473,6 +657,17 @@ public class Lista<T> implements Coleccion<T> {
         return new Iterador();
     }
 
+    /**
+     * Regresa un divisor para recorrer la lista en orden. Como la lista no se
+     * puede partir sin recorrerla, el divisor parte copiando bloques de
+     * elementos a arreglos.
+     * @return un divisor para recorrer la lista en orden.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(iterator(), longitud,
+                                        Spliterator.ORDERED);
+    }
+
     /**
      * Regresa un iterador para recorrer la lista en ambas direcciones.
      * @return un iterador para recorrer la lista en ambas direcciones.
@@ -0,0 +1,523 @@
+package mx.unam.ciencias.edd;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * <p>Clase genérica para listas sobre un arreglo circular que crece.</p>
+ *
+ * <p>Las listas de arreglo ofrecen las mismas operaciones que {@link Lista},
+ * pero guardan sus elementos en un solo arreglo en lugar de crear un nodo por
+ * elemento: agregar o eliminar en los extremos es <em>O</em>(1) (amortizado),
+ * obtener el <em>i</em>-ésimo elemento es <em>O</em>(1), y recorrer la lista
+ * lee memoria contigua. Agregar o eliminar en medio de la lista es
+ * <em>O</em>(<em>n</em>).</p>
+ *
+ * <p>Las listas de arreglo implementan la interfaz {@link Iterable}, y por lo
+ * tanto se pueden recorrer usando la estructura de control
+ * <em>for-each</em>. Las listas de arreglo no aceptan a <code>null</code>
+ * como elemento.</p>
+ */
+public class ListaArreglo<T> implements Coleccion<T> {
+
+    /* Clase Iterador privada para iteradores. */
+    private class Iterador implements IteradorLista<T> {
+
+        /* El índice del elemento siguiente. */
+        private int siguiente;
+
+        /* Construye un iterador al inicio de la lista. */
+        public Iterador() {
+            start();
+        }
+
+        /* Nos dice si hay un elemento siguiente. */
+        @Override public boolean hasNext() {
+            return siguiente < longitud;
+        }
+
+        /* Nos da el elemento siguiente. */
+        @Override public T next() {
+            if (siguiente >= longitud)
+                throw new NoSuchElementException();
+            return elemento(siguiente++);
+        }
+
+        /* Nos dice si hay un elemento anterior. */
+        @Override public boolean hasPrevious() {
+            return siguiente > 0;
+        }
+
+        /* Nos da el elemento anterior. */
+        @Override public T previous() {
+            if (siguiente <= 0)
+                throw new NoSuchElementException();
+            return elemento(--siguiente);
+        }
+
+        /* Mueve el iterador al inicio de la lista. */
+        @Override public void start() {
+            siguiente = 0;
+        }
+
+        /* Mueve el iterador al final de la lista. */
+        @Override public void end() {
+            siguiente = longitud;
+        }
+
+        /* No implementamos este método. */
+        @Override public void remove() {
+            throw new UnsupportedOperationException();
+        }
+    }
+
+    /* Clase privada para divisores de listas de arreglo. Cada divisor
+     * recorre un intervalo de índices, y se parte a la mitad. */
+    private class Divisor implements Spliterator<T> {
+
+        /* El siguiente índice y el fin del intervalo. */
+        private int indice, fin;
+
+        /* Construye un divisor para los índices en [indice, fin). */
+        public Divisor(int indice, int fin) {
+            this.indice = indice;
+            this.fin = fin;
+        }
+
+        /* Recorre el siguiente elemento, si hay. */
+        @Override public boolean tryAdvance(Consumer<? super T> accion) {
+            if (indice >= fin)
+                return false;
+            accion.accept(elemento(indice++));
+            return true;
+        }
+
+        /* Recorre los elementos que faltan. */
+        @Override public void forEachRemaining(Consumer<? super T> accion) {
+            while (indice < fin)
+                accion.accept(elemento(indice++));
+        }
+
+        /* Regresa la primera mitad del intervalo, y se queda con la
+         * segunda. */
+        @Override public Spliterator<T> trySplit() {
+            int mitad = (indice + fin) >>> 1;
+            if (mitad <= indice)
+                return null;
+            Divisor prefijo = new Divisor(indice, mitad);
+            indice = mitad;
+            return prefijo;
+        }
+
+        /* Regresa cuántos elementos faltan. */
+        @Override public long estimateSize() {
+            return fin - indice;
+        }
+
+        /* Las características del divisor. */
+        @Override public int characteristics() {
+            return Spliterator.ORDERED | Spliterator.SIZED |
+                Spliterator.SUBSIZED | Spliterator.NONNULL;
+        }
+    }
+
+    /* Capacidad inicial del arreglo. */
+    private static final int CAPACIDAD_INICIAL = 16;
+
+    /* Los elementos; su tamaño siempre es una potencia de 2. */
+    private Object[] elementos;
+    /* Índice en el arreglo del primer elemento. */
+    private int cabeza;
+    /* Número de elementos en la lista. */
+    private int longitud;
+
+    /**
+     * Construye una lista de arreglo vacía.
+     */
+    public ListaArreglo() {
+        this(CAPACIDAD_INICIAL);
+    }
+
+    /**
+     * Construye una lista de arreglo vacía con espacio para un número de
+     * elementos sin tener que crecer.
+     * @param capacidad el número de elementos para los que hay espacio.
+     */
+    public ListaArreglo(int capacidad) {
+        int n = CAPACIDAD_INICIAL;
+        while (n < capacidad && n < (1 << 30))
+            n <<= 1;
+        elementos = new Object[n];
+    }
+
+    /* Regresa el índice en el arreglo del i-ésimo elemento. */
+    private int indice(int i) {
+        return (cabeza + i) & (elementos.length - 1);
+    }
+
+    /* Regresa el i-ésimo elemento, sin revisar el índice. */
+    @SuppressWarnings("unchecked") private T elemento(int i) {
+        return (T)elementos[indice(i)];
+    }
+
+    /* Duplica el arreglo si está lleno, dejando el primer elemento en la
+     * posición 0. */
+    private void asegura() {
+        if (longitud < elementos.length)
+            return;
+        Object[] nuevo = new Object[elementos.length * 2];
+        int n = elementos.length - cabeza;
+        System.arraycopy(elementos, cabeza, nuevo, 0, n);
+        System.arraycopy(elementos, 0, nuevo, n, cabeza);
+        elementos = nuevo;
+        cabeza = 0;
+    }
+
+    /**
+     * Regresa la longitud de la lista. El método es idéntico a {@link
+     * #getElementos}.
+     * @return la longitud de la lista, el número de elementos que contiene.
+     */
+    public int getLongitud() {
+        return longitud;
+    }
+
+    /**
+     * Regresa el número elementos en la lista. El método es idéntico a {@link
+     * #getLongitud}.
+     * @return el número elementos en la lista.
+     */
+    @Override public int getElementos() {
+        return longitud;
+    }
+
+    /**
+     * Nos dice si la lista es vacía.
+     * @return <code>true</code> si la lista es vacía, <code>false</code> en
+     *         otro caso.
+     */
+    @Override public boolean esVacio() {
+        return longitud == 0;
+    }
+
+    /**
+     * Agrega un elemento al final de la lista. El método es idéntico a {@link
+     * #agregaFinal}.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    @Override public void agrega(T elemento) {
+        agregaFinal(elemento);
+    }
+
+    /**
+     * Agrega un elemento al final de la lista.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public void agregaFinal(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        asegura();
+        elementos[indice(longitud++)] = elemento;
+    }
+
+    /**
+     * Agrega un elemento al inicio de la lista.
+     * @param elemento el elemento a agregar.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public void agregaInicio(T elemento) {
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        asegura();
+        cabeza = (cabeza - 1) & (elementos.length - 1);
+        elementos[cabeza] = elemento;
+        longitud++;
+    }
+
+    /**
+     * Elimina la primera aparición de un elemento de la lista. Si el elemento
+     * no está contenido en la lista, el método no la modifica. Los elementos
+     * del lado más corto se recorren una posición.
+     * @param elemento el elemento a eliminar.
+     */
+    @Override public void elimina(T elemento) {
+        int i = indiceDe(elemento);
+        if (i < 0)
+            return;
+        if (i < longitud / 2) {
+            for (int j = i; j > 0; j--)
+                elementos[indice(j)] = elementos[indice(j - 1)];
+            elementos[cabeza] = null;
+            cabeza = indice(1);
+        } else {
+            for (int j = i; j < longitud - 1; j++)
+                elementos[indice(j)] = elementos[indice(j + 1)];
+            elementos[indice(longitud - 1)] = null;
+        }
+        longitud--;
+    }
+
+    /**
+     * Elimina el primer elemento de la lista y lo regresa.
+     * @return el primer elemento de la lista antes de eliminarlo.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaPrimero() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        T e = elemento(0);
+        elementos[cabeza] = null;
+        cabeza = indice(1);
+        longitud--;
+        return e;
+    }
+
+    /**
+     * Elimina el último elemento de la lista y lo regresa.
+     * @return el último elemento de la lista antes de eliminarlo.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T eliminaUltimo() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        T e = elemento(--longitud);
+        elementos[indice(longitud)] = null;
+        return e;
+    }
+
+    /**
+     * Nos dice si un elemento está en la lista.
+     * @param elemento el elemento que queremos saber si está en la lista.
+     * @return <tt>true</tt> si <tt>elemento</tt> está en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    @Override public boolean contiene(T elemento) {
+        return indiceDe(elemento) >= 0;
+    }
+
+    /**
+     * Regresa la reversa de la lista.
+     * @return una nueva lista que es la reversa la que manda llamar el método.
+     */
+    public ListaArreglo<T> reversa() {
+        ListaArreglo<T> reversa = new ListaArreglo<T>(longitud);
+        for (int i = longitud - 1; i >= 0; i--)
+            reversa.elementos[reversa.longitud++] = elemento(i);
+        return reversa;
+    }
+
+    /**
+     * Regresa una copia de la lista. La copia tiene los mismos elementos que la
+     * lista que manda llamar el método, en el mismo orden.
+     * @return una copia de la lista.
+     */
+    public ListaArreglo<T> copia() {
+        ListaArreglo<T> copia = new ListaArreglo<T>(longitud);
+        for (int i = 0; i < longitud; i++)
+            copia.elementos[i] = elemento(i);
+        copia.longitud = longitud;
+        return copia;
+    }
+
+    /**
+     * Limpia la lista de elementos. El llamar este método es equivalente a
+     * eliminar todos los elementos de la lista.
+     */
+    public void limpia() {
+        Arrays.fill(elementos, null);
+        cabeza = longitud = 0;
+    }
+
+    /**
+     * Regresa el primer elemento de la lista.
+     * @return el primer elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getPrimero() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        return elemento(0);
+    }
+
+    /**
+     * Regresa el último elemento de la lista.
+     * @return el último elemento de la lista.
+     * @throws NoSuchElementException si la lista es vacía.
+     */
+    public T getUltimo() {
+        if (longitud == 0)
+            throw new NoSuchElementException();
+        return elemento(longitud - 1);
+    }
+
+    /**
+     * Regresa el <em>i</em>-ésimo elemento de la lista, en tiempo
+     * <em>O</em>(1).
+     * @param i el índice del elemento que queremos.
+     * @return el <em>i</em>-ésimo elemento de la lista.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que cero o mayor o
+     *         igual que el número de elementos en la lista.
+     */
+    public T get(int i) {
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido();
+        return elemento(i);
+    }
+
+    /**
+     * Reemplaza el <em>i</em>-ésimo elemento de la lista, en tiempo
+     * <em>O</em>(1).
+     * @param i el índice del elemento a reemplazar.
+     * @param elemento el nuevo elemento.
+     * @throws ExcepcionIndiceInvalido si <em>i</em> es menor que cero o mayor o
+     *         igual que el número de elementos en la lista.
+     * @throws IllegalArgumentException si <code>elemento</code> es
+     *         <code>null</code>.
+     */
+    public void set(int i, T elemento) {
+        if (i < 0 || i >= longitud)
+            throw new ExcepcionIndiceInvalido();
+        if (elemento == null)
+            throw new IllegalArgumentException();
+        elementos[indice(i)] = elemento;
+    }
+
+    /**
+     * Regresa el índice del elemento recibido en la lista.
+     * @param elemento el elemento del que se busca el índice.
+     * @return el índice del elemento recibido en la lista, o -1 si
+     *         el elemento no está contenido en la lista.
+     */
+    public int indiceDe(T elemento) {
+        for (int i = 0; i < longitud; i++)
+            if (elemento(i).equals(elemento))
+                return i;
+        return -1;
+    }
+
+    /**
+     * Regresa una copia de la lista recibida, pero ordenada. La lista recibida
+     * tiene que contener nada más elementos que implementan la interfaz {@link
+     * Comparable}. El ordenamiento es estable.
+     * @param <T> tipo del que puede ser la lista.
+     * @param l la lista que se ordenará.
+     * @return una copia de la lista recibida, pero ordenada.
+     */
+    public static <T extends Comparable<T>> ListaArreglo<T>
+    mergeSort(ListaArreglo<T> l) {
+        ListaArreglo<T> copia = l.copia();
+        Arrays.sort(copia.elementos, 0, copia.longitud);
+        return copia;
+    }
+
+    /**
+     * Busca un elemento en una lista recorriéndola. La lista recibida tiene
+     * que contener nada más elementos que implementan la interfaz {@link
+     * Comparable}.
+     * @param <T> tipo del que puede ser la lista.
+     * @param l la lista donde se buscará.
+     * @param e el elemento a buscar.
+     * @return <tt>true</tt> si e está contenido en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public static <T extends Comparable<T>> boolean
+    busquedaLineal(ListaArreglo<T> l, T e) {
+        for (int i = 0; i < l.longitud; i++)
+            if (l.elemento(i).compareTo(e) == 0)
+                return true;
+        return false;
+    }
+
+    /**
+     * Busca un elemento en una lista ordenada. La lista recibida tiene que
+     * contener nada más elementos que implementan la interfaz {@link
+     * Comparable}, y se da por hecho que está ordenada; la búsqueda es
+     * binaria.
+     * @param <T> tipo del que puede ser la lista.
+     * @param l la lista donde se buscará.
+     * @param e el elemento a buscar.
+     * @return <tt>true</tt> si e está contenido en la lista,
+     *         <tt>false</tt> en otro caso.
+     */
+    public static <T extends Comparable<T>> boolean
+    busquedaBinaria(ListaArreglo<T> l, T e) {
+        int ini = 0, fin = l.longitud - 1;
+        while (ini <= fin) {
+            int m = (ini + fin) >>> 1;
+            int c = l.elemento(m).compareTo(e);
+            if (c == 0)
+                return true;
+            if (c < 0)
+                ini = m + 1;
+            else
+                fin = m - 1;
+        }
+        return false;
+    }
+
+    /**
+     * Regresa una representación en cadena de la lista.
+     * @return una representación en cadena de la lista.
+     */
+    @Override public String toString() {
+        StringBuilder sb = new StringBuilder("[");
+        for (int i = 0; i < longitud; i++) {
+            if (i > 0)
+                sb.append(", ");
+            sb.append(elemento(i).toString());
+        }
+        return sb.append("]").toString();
+    }
+
+    /**
+     * Nos dice si la lista es igual al objeto recibido.
+     * @param o el objeto con el que hay que comparar.
+     * @return <tt>true</tt> si la lista es igual al objeto recibido;
+     *         <tt>false</tt> en otro caso.
+     */
+    @Override public boolean equals(Object o) {
+        if (!(o instanceof ListaArreglo))
+            return false;
+        @SuppressWarnings("unchecked") ListaArreglo<T> lista =
+            (ListaArreglo<T>)o;
+        if (lista.longitud != longitud)
+            return false;
+        for (int i = 0; i < longitud; i++)
+            if (!elemento(i).equals(lista.elemento(i)))
+                return false;
+        return true;
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista en una dirección.
+     * @return un iterador para recorrer la lista en una dirección.
+     */
+    @Override public Iterator<T> iterator() {
+        return new Iterador();
+    }
+
+    /**
+     * Regresa un divisor para recorrer la lista en orden, que se parte por
+     * intervalos de índices.
+     * @return un divisor para recorrer la lista en orden.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return new Divisor(0, longitud);
+    }
+
+    /**
+     * Regresa un iterador para recorrer la lista en ambas direcciones.
+     * @return un iterador para recorrer la lista en ambas direcciones.
+     */
+    public IteradorLista<T> iteradorLista() {
+        return new Iterador();
+    }
+}
@@ -2,6 +2,8 @@ package mx.unam.ciencias.edd;
 
 import java.util.Iterator;
 import java.util.NoSuchElementException;
+import java.util.Spliterator;
+import java.util.Spliterators;
 
 /**
  * Clase para montículos mínimos (<i>min heaps</i>). Podemos crear un montículo
@@ -257,4 +259,15 @@ public class MonticuloMinimo<T extends ComparableIndexable<T>>
     @Override public Iterator<T> iterator() {
         return new Iterador();
     }
+
+    /**
+     * Regresa un divisor para recorrer el montículo mínimo en orden BFS, que
+     * se parte por intervalos del arreglo.
+     * @return un divisor para recorrer el montículo mínimo.
+     */
+    @Override public Spliterator<T> spliterator() {
+        return Spliterators.spliterator(arbol, 0, siguiente,
+                                        Spliterator.ORDERED |
+                                        Spliterator.NONNULL);
+    }
 }
@@ -12,4 +12,19 @@ public interface Picadillo<T> {
      * @return el picadillo del objeto recibido.
      */
     public int picadillo(T objeto);
+
+    /**
+     * Calcula los picadillos de varios objetos en una sola llamada, y los
+     * guarda en el arreglo recibido en el mismo orden.
+     * @param objetos los objetos de los que queremos el picadillo.
+     * @param picadillos el arreglo donde se guardan los picadillos.
+     * @throws IllegalArgumentException si el arreglo de picadillos es más
+     *         chico que el de objetos.
+     */
+    public default void picadillos(T[] objetos, int[] picadillos) {
+        if (picadillos.length < objetos.length)
+            throw new IllegalArgumentException();
+        for (int i = 0; i < objetos.length; i++)
+            picadillos[i] = picadillo(objetos[i]);
+    }
 }
@@ -0,0 +1,17 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz genérica para picadillos de 64 bits. Es la versión de {@link
+ * Picadillo} para algoritmos que producen naturalmente un picadillo de 64
+ * bits, útil cuando 32 bits no bastan para evitar colisiones.
+ */
+@FunctionalInterface
+public interface Picadillo64<T> {
+
+    /**
+     * Calcula el picadillo de 64 bits del objeto recibido.
+     * @param objeto el objeto del que queremos el picadillo.
+     * @return el picadillo de 64 bits del objeto recibido.
+     */
+    public long picadillo(T objeto);
+}
@@ -0,0 +1,17 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz para picadillos de enteros. Es la versión de {@link Picadillo} para
+ * llaves de tipo <code>int</code>, que evita envolver cada llave en un
+ * {@link Integer}.
+ */
+@FunctionalInterface
+public interface PicadilloInt {
+
+    /**
+     * Calcula el picadillo del entero recibido.
+     * @param entero el entero del que queremos el picadillo.
+     * @return el picadillo del entero recibido.
+     */
+    public int picadillo(int entero);
+}
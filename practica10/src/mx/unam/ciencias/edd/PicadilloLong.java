@@ -0,0 +1,17 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Interfaz para picadillos de enteros largos. Es la versión de {@link
+ * Picadillo} para llaves de tipo <code>long</code>, que evita envolver cada
+ * llave en un {@link Long}.
+ */
+@FunctionalInterface
+public interface PicadilloLong {
+
+    /**
+     * Calcula el picadillo del entero largo recibido.
+     * @param entero el entero largo del que queremos el picadillo.
+     * @return el picadillo del entero largo recibido.
+     */
+    public int picadillo(long entero);
+}
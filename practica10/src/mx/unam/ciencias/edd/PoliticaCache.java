@@ -0,0 +1,12 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para las políticas de desalojo de un {@link Cache}.
+ */
+public enum PoliticaCache {
+    /** Desaloja la entrada usada hace más tiempo. */
+    LRU,
+    /** Admite una entrada nueva sólo si se usa más que la que desalojaría
+     *  (<em>W-TinyLFU</em>). */
+    TINY_LFU;
+}
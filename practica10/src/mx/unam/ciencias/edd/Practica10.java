@@ -1,7 +1,15 @@
 package mx.unam.ciencias.edd;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.text.NumberFormat;
 import java.util.Random;
+import java.util.Spliterators;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.StreamSupport;
 
 /**
  * Práctica 10: Diccionarios.
@@ -14,7 +22,674 @@ public class Practica10 {
         System.exit(1);
     }
 
-    public static void main(String[] args) {
+    /* Interfaz para las operaciones que hace cada hilo en la comparación de
+     * diccionarios concurrentes. */
+    private interface OperacionDiccionario {
+        public void opera(int llave, boolean escribe);
+    }
+
+    /* Regresa cuántos segundos tardan los hilos en hacer N operaciones en
+     * total sobre el diccionario; una de cada diez operaciones escribe. */
+    private static double cronometraHilos(int hilos, int[] arreglo,
+                                          OperacionDiccionario operacion)
+        throws InterruptedException {
+        Thread[] t = new Thread[hilos];
+        int porHilo = arreglo.length / hilos;
+        for (int h = 0; h < hilos; h++) {
+            int ini = h * porHilo;
+            t[h] = new Thread(() -> {
+                for (int i = ini; i < ini + porHilo; i++)
+                    operacion.opera(arreglo[i], i % 10 == 0);
+            });
+        }
+        long tiempoInicial = System.nanoTime();
+        for (Thread hilo : t)
+            hilo.start();
+        for (Thread hilo : t)
+            hilo.join();
+        return (System.nanoTime() - tiempoInicial) / 1000000000.0;
+    }
+
+    /* Compara el diccionario concurrente con un diccionario protegido por un
+     * único candado, de uno hasta el número de procesadores en hilos. */
+    private static void comparaConcurrencia(int[] arreglo, NumberFormat nf)
+        throws InterruptedException {
+        Diccionario<Integer, Integer> dicc = new Diccionario<Integer, Integer>();
+        DiccionarioConcurrente<Integer, Integer> concurrente =
+            new DiccionarioConcurrente<Integer, Integer>();
+        for (int i = 0; i < arreglo.length; i += 2) {
+            dicc.agrega(arreglo[i], arreglo[i]);
+            concurrente.agrega(arreglo[i], arreglo[i]);
+        }
+        int procesadores = Math.max(2, Runtime.getRuntime().availableProcessors());
+        for (int hilos = 1; hilos <= procesadores; hilos <<= 1) {
+            double candado = cronometraHilos(hilos, arreglo, (llave, escribe) -> {
+                    synchronized (dicc) {
+                        if (escribe)
+                            dicc.agrega(llave, llave);
+                        else
+                            dicc.contiene(llave);
+                    }
+                });
+            double segmentos = cronometraHilos(hilos, arreglo, (llave, escribe) -> {
+                    if (escribe)
+                        concurrente.agrega(llave, llave);
+                    else
+                        concurrente.contiene(llave);
+                });
+            System.out.printf("%2.9f segundos (un candado) y %2.9f segundos " +
+                              "(segmentos) en %s operaciones con %d hilos.\n",
+                              candado, segmentos, nf.format(arreglo.length),
+                              hilos);
+        }
+    }
+
+    /* Compara los algoritmos de picadillos: cuánto tardan en procesar N
+     * cadenas aleatorias, y cuántas colisiones dejan en un diccionario con N
+     * cadenas de números consecutivos, que tienen poca variación. */
+    private static void comparaPicadillos(int N, Random random, NumberFormat nf) {
+        String[] aleatorias = new String[N];
+        String[] consecutivas = new String[N];
+        long bytes = 0;
+        for (int i = 0; i < N; i++) {
+            char[] c = new char[4 + random.nextInt(61)];
+            for (int j = 0; j < c.length; j++)
+                c[j] = (char)('!' + random.nextInt(94));
+            aleatorias[i] = new String(c);
+            consecutivas[i] = String.valueOf(i);
+            bytes += c.length;
+        }
+        for (AlgoritmoPicadillo algoritmo : AlgoritmoPicadillo.values()) {
+            Picadillo<String> picadillo = FabricaPicadillos.getInstancia(algoritmo);
+            int suma = 0;
+            long tiempoInicial = System.nanoTime();
+            for (int i = 0; i < N; i++)
+                suma += picadillo.picadillo(aleatorias[i]);
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            Diccionario<String, String> dicc =
+                new Diccionario<String, String>(N, picadillo);
+            for (int i = 0; i < N; i++)
+                dicc.agrega(consecutivas[i], consecutivas[i]);
+            System.out.printf("%2.9f segundos (%.1f MB/s) en calcular %s " +
+                              "picadillos %s; %s colisiones, máxima %s (%x).\n",
+                              segundos, bytes / segundos / 1000000.0,
+                              nf.format(N), algoritmo, nf.format(dicc.colisiones()),
+                              nf.format(dicc.colisionMaxima()), suma);
+        }
+    }
+
+    /* Compara los picadillos de arreglos de bytes con entradas de 16 B,
+     * 256 B, 4 KB y 1 MB; cada algoritmo procesa 32 MB por tamaño, después
+     * de una vuelta de calentamiento. Con entradas de 16 B también medimos el
+     * cálculo en lote. */
+    private static void comparaPicadillosBytes(Random random) {
+        final int TOTAL = 32 << 20;
+        for (int tam : new int[] { 16, 256, 4 << 10, 1 << 20 }) {
+            byte[][] llaves = new byte[Math.min(TOTAL / tam, 1 << 12)][tam];
+            for (byte[] llave : llaves)
+                random.nextBytes(llave);
+            int vueltas = TOTAL / tam;
+            for (AlgoritmoPicadillo algoritmo : AlgoritmoPicadillo.values()) {
+                Picadillo<byte[]> picadillo =
+                    FabricaPicadillos.getInstanciaBytes(algoritmo);
+                int suma = 0;
+                double segundos = 0;
+                for (int calentamiento = 0; calentamiento < 2; calentamiento++) {
+                    long tiempoInicial = System.nanoTime();
+                    for (int i = 0; i < vueltas; i++)
+                        suma += picadillo.picadillo(llaves[i % llaves.length]);
+                    segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+                }
+                System.out.printf("%2.9f segundos (%.1f MB/s) en calcular " +
+                                  "picadillos %s de 32 MB en llaves de %d " +
+                                  "bytes (%x).\n", segundos,
+                                  TOTAL / segundos / 1000000.0, algoritmo, tam,
+                                  suma);
+                if (tam != 16)
+                    continue;
+                int[] picadillos = new int[llaves.length];
+                for (int calentamiento = 0; calentamiento < 2; calentamiento++) {
+                    long tiempoInicial = System.nanoTime();
+                    for (int i = 0; i < vueltas; i += llaves.length)
+                        picadillo.picadillos(llaves, picadillos);
+                    segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+                }
+                System.out.printf("%2.9f segundos (%.1f MB/s) en calcular " +
+                                  "picadillos %s de 32 MB en lotes de %d " +
+                                  "llaves de %d bytes.\n", segundos,
+                                  TOTAL / segundos / 1000000.0, algoritmo,
+                                  llaves.length, tam);
+            }
+        }
+    }
+
+    /* Analiza la calidad de los algoritmos de picadillos con N cadenas de
+     * números consecutivos, en la tabla del tamaño que usaría un diccionario
+     * con N elementos, y con su matriz de avalancha para llaves de 16
+     * bytes. */
+    private static void analizaPicadillos(int N, NumberFormat nf) {
+        int b = 6;
+        while (b < 20 && N >= (1 << b) * Diccionario.MAXIMA_CARGA)
+            b++;
+        for (AlgoritmoPicadillo algoritmo : AlgoritmoPicadillo.values()) {
+            AnalizadorPicadillos<String> analizador =
+                new AnalizadorPicadillos<String>(FabricaPicadillos.getInstancia(algoritmo));
+            long tiempoInicial = System.nanoTime();
+            AnalizadorPicadillos.Resultado r =
+                analizador.analiza(N, (i) -> String.valueOf(i));
+            double[][] avalancha = AnalizadorPicadillos.avalancha(
+                FabricaPicadillos.getInstanciaBytes(algoritmo), 16, 1000);
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en analizar %s con %s llaves: " +
+                              "desviación %.2f, %s colisiones, máxima %s " +
+                              "en %s cubetas; peor avalancha %.3f.\n",
+                              segundos, algoritmo, nf.format(N), r.desviacion(b),
+                              nf.format(r.colisiones(b)),
+                              nf.format(r.colisionMaxima(b)), nf.format(1 << b),
+                              AnalizadorPicadillos.peorAvalancha(avalancha));
+        }
+    }
+
+    /* Compara la tasa de aciertos de los cachés LRU y TinyLFU con capacidad
+     * para el 1% de N llaves, en N accesos sesgados hacia las llaves chicas,
+     * con un recorrido de llaves nuevas cada diez accesos. */
+    private static void comparaCaches(int N, Random random, NumberFormat nf) {
+        int[] accesos = new int[N];
+        for (int i = 0; i < N; i++) {
+            double x = random.nextDouble();
+            accesos[i] = i % 10 == 0 ? N + i : (int)(N * x * x * x);
+        }
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<Integer, Integer> cache =
+                new Cache<Integer, Integer>(Math.max(1, N / 100), politica);
+            long tiempoInicial = System.nanoTime();
+            for (int i = 0; i < N; i++)
+                cache.calcula(accesos[i], (k) -> k);
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en hacer %s accesos a un caché " +
+                              "%s con %s entradas; %.1f%% de aciertos.\n",
+                              segundos, nf.format(N), politica,
+                              nf.format(cache.getPesoMaximo()),
+                              cache.tasaAciertos() * 100);
+        }
+    }
+
+    /* Mide las operaciones entre dos conjuntos de N enteros aleatorios; con
+     * muchos elementos se reparten entre varios hilos. */
+    private static void operaConjuntos(int N, Random random, NumberFormat nf) {
+        Conjunto<Integer> a = new Conjunto<Integer>();
+        Conjunto<Integer> b = new Conjunto<Integer>();
+        for (int i = 0; i < N; i++) {
+            a.agrega(random.nextInt(2 * N));
+            b.agrega(random.nextInt(2 * N));
+        }
+        long tiempoInicial = System.nanoTime();
+        int n = a.union(b).getElementos();
+        double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en unir dos conjuntos de %s " +
+                          "elementos (%s).\n", segundos, nf.format(N),
+                          nf.format(n));
+        tiempoInicial = System.nanoTime();
+        n = a.interseccion(b).getElementos();
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en intersectar dos conjuntos de %s " +
+                          "elementos (%s).\n", segundos, nf.format(N),
+                          nf.format(n));
+        tiempoInicial = System.nanoTime();
+        n = a.diferenciaSimetrica(b).getElementos();
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en la diferencia simétrica de dos " +
+                          "conjuntos de %s elementos (%s).\n", segundos,
+                          nf.format(N), nf.format(n));
+    }
+
+    /* Compara llenar y recorrer una Lista y una ListaArreglo con N
+     * elementos, y mide N accesos por índice a la ListaArreglo. */
+    private static void comparaListas(int N, Random random, NumberFormat nf) {
+        long tiempoInicial = System.nanoTime();
+        Lista<Integer> lista = new Lista<Integer>();
+        for (int i = 0; i < N; i++)
+            lista.agregaFinal(i);
+        long suma = 0;
+        for (int e : lista)
+            suma += e;
+        double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en llenar y recorrer una lista con " +
+                          "%s elementos (%d).\n", segundos, nf.format(N), suma);
+        tiempoInicial = System.nanoTime();
+        ListaArreglo<Integer> arreglo = new ListaArreglo<Integer>();
+        for (int i = 0; i < N; i++)
+            arreglo.agregaFinal(i);
+        suma = 0;
+        for (int e : arreglo)
+            suma += e;
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en llenar y recorrer una lista de " +
+                          "arreglo con %s elementos (%d).\n", segundos,
+                          nf.format(N), suma);
+        tiempoInicial = System.nanoTime();
+        suma = 0;
+        for (int i = 0; i < N; i++)
+            suma += arreglo.get(random.nextInt(N));
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en hacer %s accesos por índice a una " +
+                          "lista de arreglo (%d).\n", segundos, nf.format(N),
+                          suma);
+    }
+
+    /* Copia de los recorridos recursivos que tenía Lista antes de hacerlos
+     * iterativos, para compararlos en recorreLista. Cada uno hace una
+     * llamada por nodo, así que sólo la usamos con listas de a lo más
+     * MAXIMO_RECURSIVO elementos. */
+    private static class ListaRecursiva<T> {
+
+        /* Nodos de la lista. */
+        private class Nodo {
+            public T elemento;
+            public Nodo siguiente;
+            public Nodo(T elemento) {
+                this.elemento = elemento;
+            }
+        }
+
+        /* Primer y último nodo de la lista. */
+        private Nodo cabeza, rabo;
+        /* Número de elementos de la lista. */
+        private int longitud;
+
+        public void agregaFinal(T elemento) {
+            Nodo nodo = new Nodo(elemento);
+            if (rabo == null)
+                cabeza = rabo = nodo;
+            else
+                rabo = rabo.siguiente = nodo;
+            longitud++;
+        }
+
+        public void agregaInicio(T elemento) {
+            Nodo nodo = new Nodo(elemento);
+            nodo.siguiente = cabeza;
+            cabeza = nodo;
+            if (rabo == null)
+                rabo = nodo;
+            longitud++;
+        }
+
+        public int getLongitud() {
+            return longitud;
+        }
+
+        public boolean contiene(T elemento) {
+            return buscaNodo(cabeza, elemento) != null;
+        }
+
+        private Nodo buscaNodo(Nodo a, T elemento) {
+            if (a == null)
+                return null;
+            if (a.elemento.equals(elemento))
+                return a;
+            return buscaNodo(a.siguiente, elemento);
+        }
+
+        public ListaRecursiva<T> reversa() {
+            return reversa(new ListaRecursiva<T>(), cabeza);
+        }
+
+        private ListaRecursiva<T> reversa(ListaRecursiva<T> lista, Nodo nodo) {
+            if (nodo == null)
+                return lista;
+            lista.agregaInicio(nodo.elemento);
+            return reversa(lista, nodo.siguiente);
+        }
+
+        public ListaRecursiva<T> copia() {
+            return copia(new ListaRecursiva<T>(), cabeza);
+        }
+
+        private ListaRecursiva<T> copia(ListaRecursiva<T> lista, Nodo nodo) {
+            if (nodo == null)
+                return lista;
+            lista.agregaFinal(nodo.elemento);
+            return copia(lista, nodo.siguiente);
+        }
+
+        public T get(int i) {
+            return get(i, cabeza, 0);
+        }
+
+        private T get(int i, Nodo nodo, int j) {
+            if (i == j)
+                return nodo.elemento;
+            return get(i, nodo.siguiente, j + 1);
+        }
+
+        public int indiceDe(T elemento) {
+            return indiceDe(0, cabeza, elemento);
+        }
+
+        private int indiceDe(int i, Nodo nodo, T elemento) {
+            if (nodo == null)
+                return -1;
+            if (nodo.elemento.equals(elemento))
+                return i;
+            return indiceDe(i + 1, nodo.siguiente, elemento);
+        }
+    }
+
+    /* Con más elementos, los recorridos recursivos pueden desbordar la pila
+     * de un hilo con el tamaño por omisión. */
+    private static final int MAXIMO_RECURSIVO = 2000;
+    /* Cuántas veces repetimos las búsquedas en la comparación con la versión
+     * recursiva. */
+    private static final int BUSQUEDAS = 20;
+
+    /* Mide los recorridos de una lista de N elementos: copia, reversa, y
+     * búsquedas que llegan hasta el último elemento. Luego compara las
+     * búsquedas con la versión recursiva, con a lo más MAXIMO_RECURSIVO
+     * elementos. */
+    private static void recorreLista(int N, NumberFormat nf) {
+        Lista<Integer> lista = new Lista<Integer>();
+        for (int i = 0; i < N; i++)
+            lista.agregaFinal(i);
+        long tiempoInicial = System.nanoTime();
+        int n = lista.copia().getLongitud() + lista.reversa().getLongitud();
+        double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en copiar e invertir una lista con " +
+                          "%s elementos (%d).\n", segundos, nf.format(N), n);
+        tiempoInicial = System.nanoTime();
+        n = lista.indiceDe(N - 1) + lista.get(N - 1 - N / 4);
+        if (!lista.contiene(N))
+            n++;
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en buscar al final de una lista con " +
+                          "%s elementos (%d).\n", segundos, nf.format(N), n);
+
+        int M = Math.min(N, MAXIMO_RECURSIVO);
+        if (M < N)
+            System.out.printf("La versión recursiva desborda la pila con %s " +
+                              "elementos; comparamos con %s.\n",
+                              nf.format(N), nf.format(M));
+        lista = new Lista<Integer>();
+        ListaRecursiva<Integer> recursiva = new ListaRecursiva<Integer>();
+        for (int i = 0; i < M; i++) {
+            lista.agregaFinal(i);
+            recursiva.agregaFinal(i);
+        }
+        tiempoInicial = System.nanoTime();
+        n = lista.copia().getLongitud() + lista.reversa().getLongitud();
+        for (int k = 0; k < BUSQUEDAS; k++) {
+            n += lista.indiceDe(M - 1) + lista.get(M - 1 - M / 4);
+            if (!lista.contiene(M))
+                n++;
+        }
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en recorrer %d veces una lista " +
+                          "iterativa con %s elementos (%d).\n", segundos,
+                          BUSQUEDAS, nf.format(M), n);
+        tiempoInicial = System.nanoTime();
+        n = recursiva.copia().getLongitud() + recursiva.reversa().getLongitud();
+        for (int k = 0; k < BUSQUEDAS; k++) {
+            n += recursiva.indiceDe(M - 1) + recursiva.get(M - 1 - M / 4);
+            if (!recursiva.contiene(M))
+                n++;
+        }
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en recorrer %d veces una lista " +
+                          "recursiva con %s elementos (%d).\n", segundos,
+                          BUSQUEDAS, nf.format(M), n);
+    }
+
+    /* Mide el ordenamiento en su lugar de una lista de N elementos
+     * aleatorios, y de la misma lista ya ordenada. */
+    private static void ordenaLista(int N, Random random, NumberFormat nf) {
+        Lista<Integer> lista = new Lista<Integer>();
+        for (int i = 0; i < N; i++)
+            lista.agregaFinal(random.nextInt());
+        long tiempoInicial = System.nanoTime();
+        lista.ordena();
+        double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en ordenar una lista con %s " +
+                          "elementos.\n", segundos, nf.format(N));
+        tiempoInicial = System.nanoTime();
+        lista.ordena();
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en ordenar una lista ordenada con " +
+                          "%s elementos.\n", segundos, nf.format(N));
+    }
+
+    /* Mide el ordenamiento en paralelo de una lista y un arreglo de N
+     * elementos aleatorios con 1, 2, 4, ... hilos, hasta el número de
+     * procesadores. */
+    private static void ordenaParalelo(int N, Random random, NumberFormat nf) {
+        Integer[] arreglo = new Integer[N];
+        Lista<Integer> lista = new Lista<Integer>();
+        for (int i = 0; i < N; i++) {
+            arreglo[i] = random.nextInt();
+            lista.agregaFinal(arreglo[i]);
+        }
+        int procesadores = Runtime.getRuntime().availableProcessors();
+        for (int hilos = 1; ; hilos = Math.min(2 * hilos, procesadores)) {
+            ForkJoinPool pool = new ForkJoinPool(hilos);
+            Lista<Integer> l = lista.copia();
+            long tiempoInicial = System.nanoTime();
+            pool.submit(() -> l.ordenaParalelo()).join();
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en ordenar una lista con %s " +
+                              "elementos con %d hilos.\n", segundos,
+                              nf.format(N), hilos);
+            Integer[] a = arreglo.clone();
+            tiempoInicial = System.nanoTime();
+            pool.submit(() -> Arreglos.quickSortParalelo(a)).join();
+            segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en ordenar un arreglo con %s " +
+                              "elementos con %d hilos.\n", segundos,
+                              nf.format(N), hilos);
+            pool.shutdown();
+            if (hilos == procesadores)
+                break;
+        }
+    }
+
+    /* Mide un flujo paralelo sobre un conjunto y un árbol rojinegro de N
+     * elementos, con su divisor y con uno construido sólo a partir de su
+     * iterador, sin tamaño. */
+    private static void recorreFlujos(int N, Random random, NumberFormat nf) {
+        Conjunto<Integer> conjunto = new Conjunto<Integer>();
+        ArbolRojinegro<Integer> arbol = new ArbolRojinegro<Integer>();
+        for (int i = 0; i < N; i++) {
+            int e = random.nextInt();
+            conjunto.agrega(e);
+            arbol.agrega(e);
+        }
+        Lista<Coleccion<Integer>> colecciones = new Lista<Coleccion<Integer>>();
+        colecciones.agrega(conjunto);
+        colecciones.agrega(arbol);
+        for (Coleccion<Integer> c : colecciones) {
+            String nombre = c.getClass().getSimpleName();
+            long tiempoInicial = System.nanoTime();
+            long suma = StreamSupport.stream(
+                Spliterators.spliteratorUnknownSize(c.iterator(), 0), true)
+                .mapToLong(e -> e).sum();
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en sumar en paralelo un %s con " +
+                              "%s elementos usando su iterador (%d).\n",
+                              segundos, nombre, nf.format(N), suma);
+            tiempoInicial = System.nanoTime();
+            suma = c.parallelStream().mapToLong(e -> e).sum();
+            segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en sumar en paralelo un %s con " +
+                              "%s elementos usando su divisor (%d).\n",
+                              segundos, nombre, nf.format(N), suma);
+        }
+    }
+
+    /* Regresa los bytes en uso del montículo de Java, después de pedir una
+     * recolección de basura. */
+    private static long memoriaUsada() {
+        Runtime r = Runtime.getRuntime();
+        System.gc();
+        return r.totalMemory() - r.freeMemory();
+    }
+
+    /* Compara la memoria, la unión y la intersección de conjuntos de N
+     * identificadores agrupados en un Conjunto y en un ConjuntoEnteros. */
+    private static void comparaConjuntosEnteros(int N, Random random,
+                                                NumberFormat nf) {
+        int[] a = new int[N], b = new int[N];
+        for (int i = 0; i < N; i++) {
+            a[i] = random.nextInt(4 * N);
+            b[i] = random.nextInt(4 * N);
+        }
+        long antes = memoriaUsada();
+        Conjunto<Integer> ca = new Conjunto<Integer>();
+        Conjunto<Integer> cb = new Conjunto<Integer>();
+        for (int i = 0; i < N; i++) {
+            ca.agrega(a[i]);
+            cb.agrega(b[i]);
+        }
+        long bytes = (memoriaUsada() - antes) / 2;
+        long tiempoInicial = System.nanoTime();
+        int n = ca.union(cb).getElementos() + ca.interseccion(cb).getElementos();
+        double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en unir e intersectar dos Conjunto " +
+                          "de %s enteros (%s); %s bytes cada uno.\n", segundos,
+                          nf.format(N), nf.format(n), nf.format(bytes));
+        ConjuntoEnteros ea = new ConjuntoEnteros();
+        ConjuntoEnteros eb = new ConjuntoEnteros();
+        for (int i = 0; i < N; i++) {
+            ea.agrega(a[i]);
+            eb.agrega(b[i]);
+        }
+        tiempoInicial = System.nanoTime();
+        n = ea.union(eb).getElementos() + ea.interseccion(eb).getElementos();
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en unir e intersectar dos " +
+                          "ConjuntoEnteros de %s enteros (%s); %s bytes cada " +
+                          "uno.\n", segundos, nf.format(N), nf.format(n),
+                          nf.format(ea.getBytes()));
+    }
+
+    /* Compara búsquedas fallidas en un conjunto de N cadenas aleatorias sin
+     * filtro y con cada tipo de filtro. Las cadenas guardan su hashCode, así
+     * que lo calculamos antes de medir. */
+    private static void comparaFiltros(int N, Random random, NumberFormat nf) {
+        String[] ausentes = new String[N];
+        Conjunto<String> conjunto = new Conjunto<String>();
+        for (int i = 0; i < N; i++) {
+            conjunto.agrega(Long.toHexString(random.nextLong()));
+            ausentes[i] = "-" + Long.toHexString(random.nextLong());
+            ausentes[i].hashCode();
+        }
+        for (int t = -1; t < TipoFiltro.values().length; t++) {
+            String nombre = "sin filtro";
+            if (t >= 0) {
+                conjunto.usaFiltro(TipoFiltro.values()[t], 0.01);
+                nombre = "con filtro " + TipoFiltro.values()[t];
+            }
+            long tiempoInicial = System.nanoTime();
+            for (int i = 0; i < N; i++)
+                conjunto.contiene(ausentes[i]);
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en buscar %s elementos ausentes " +
+                              "en un conjunto %s.\n",
+                              segundos, nf.format(N), nombre);
+        }
+        conjunto.quitaFiltro();
+    }
+
+    /* Compara las estructuras de expiración haciendo N escrituras con un
+     * reloj simulado que avanza un microsegundo por escritura; cada entrada
+     * vive entre 1 y 1000 milisegundos. */
+    private static void comparaExpiracion(int N, Random random, NumberFormat nf) {
+        int[] llaves = new int[N];
+        long[] ttl = new long[N];
+        for (int i = 0; i < N; i++) {
+            llaves[i] = random.nextInt(N);
+            ttl[i] = 1 + random.nextInt(1000);
+        }
+        for (EstructuraExpiracion estructura : EstructuraExpiracion.values()) {
+            long[] reloj = { 0 };
+            DiccionarioExpirable<Integer, Integer> d =
+                new DiccionarioExpirable<Integer, Integer>(
+                    1, TimeUnit.SECONDS, estructura, () -> reloj[0]);
+            long tiempoInicial = System.nanoTime();
+            for (int i = 0; i < N; i++) {
+                reloj[0] += 1000;
+                d.agrega(llaves[i], i, ttl[i], TimeUnit.MILLISECONDS);
+            }
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en hacer %s escrituras a un " +
+                              "diccionario expirable con %s; %s expiradas.\n",
+                              segundos, nf.format(N), estructura,
+                              nf.format(d.getExpiradas()));
+        }
+    }
+
+    /* Compara cuánto tarda usar un diccionario de N cadenas guardado en
+     * disco: mapear la instantánea y buscar cien llaves, contra leer las
+     * entradas y reconstruir el diccionario. */
+    private static void comparaInstantanea(int N, NumberFormat nf)
+        throws IOException {
+        Diccionario<String, Integer> dicc = new Diccionario<String, Integer>(N);
+        for (int i = 0; i < N; i++)
+            dicc.agrega(String.valueOf(i), i);
+        Path archivo = Files.createTempFile("practica10", ".edd");
+        try {
+            long tiempoInicial = System.nanoTime();
+            DiccionarioMapeado.guarda(dicc, archivo, Codificador.cadenas(),
+                                      Codificador.enteros());
+            double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en guardar una instantánea " +
+                              "de %s entradas (%s bytes).\n", segundos,
+                              nf.format(N), nf.format(Files.size(archivo)));
+
+            tiempoInicial = System.nanoTime();
+            DiccionarioMapeado<String, Integer> mapeado =
+                DiccionarioMapeado.abre(archivo, Codificador.cadenas(),
+                                        Codificador.enteros());
+            int suma = 0;
+            for (int i = 0; i < 100; i++)
+                suma += mapeado.get(String.valueOf(i * (N / 100)));
+            segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en mapear la instantánea y " +
+                              "buscar 100 llaves (%d).\n", segundos, suma);
+
+            tiempoInicial = System.nanoTime();
+            Diccionario<String, Integer> copia = mapeado.aDiccionario();
+            segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+            System.out.printf("%2.9f segundos en reconstruir el diccionario " +
+                              "con %s entradas.\n", segundos,
+                              nf.format(copia.getElementos()));
+        } finally {
+            Files.delete(archivo);
+        }
+    }
+
+    /* Llena un índice fuera del montón con N llaves de bytes y las busca
+     * todas. */
+    private static void llenaIndiceDirecto(int N, NumberFormat nf) {
+        IndiceDirecto indice = new IndiceDirecto();
+        byte[] valor = new byte[8];
+        long tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            indice.agrega(String.valueOf(i).getBytes(StandardCharsets.UTF_8), valor);
+        double segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en llenar un índice directo con %s " +
+                          "elementos (%s bytes fuera del montón); %s " +
+                          "colisiones, máxima %s.\n", segundos, nf.format(N),
+                          nf.format(indice.getBytesDirectos()),
+                          nf.format(indice.colisiones()),
+                          nf.format(indice.colisionMaxima()));
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            indice.get(String.valueOf(i).getBytes(StandardCharsets.UTF_8));
+        segundos = (System.nanoTime() - tiempoInicial) / 1000000000.0;
+        System.out.printf("%2.9f segundos en buscar %s llaves en el índice " +
+                          "directo.\n", segundos, nf.format(N));
+    }
+
+    public static void main(String[] args)
+        throws InterruptedException, IOException {
         if (args.length != 1)
             uso();
 
@@ -69,6 +744,25 @@ public class Practica10 {
                           "con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
 
+        DiccionarioAbierto<Integer, Integer> abierto =
+            new DiccionarioAbierto<Integer, Integer>();
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            abierto.agrega(arreglo[i], arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "abierto con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
+        DiccionarioInt diccInt = new DiccionarioInt();
+        tiempoInicial = System.nanoTime();
+        for (int i = 0; i < N; i++)
+            diccInt.agrega(arreglo[i], arreglo[i]);
+        tiempoTotal = System.nanoTime() - tiempoInicial;
+        System.out.printf("%2.9f segundos en llenar un diccionario " +
+                          "de enteros con %s elementos.\n",
+                          (tiempoTotal/1000000000.0), nf.format(N));
+
         Conjunto<Integer> conjunto = new Conjunto<Integer>();
         tiempoInicial = System.nanoTime();
         for (int i = 0; i < N; i++)
@@ -77,5 +771,25 @@ public class Practica10 {
         System.out.printf("%2.9f segundos en llenar un conjunto " +
                           "con %s elementos.\n",
                           (tiempoTotal/1000000000.0), nf.format(N));
+
+        llenaIndiceDirecto(N, nf);
+
+        comparaConcurrencia(arreglo, nf);
+
+        comparaPicadillos(N, random, nf);
+        comparaPicadillosBytes(random);
+        analizaPicadillos(N, nf);
+        comparaFiltros(N, random, nf);
+        operaConjuntos(N, random, nf);
+        comparaConjuntosEnteros(N, random, nf);
+        comparaListas(N, random, nf);
+        recorreLista(N, nf);
+        ordenaLista(N, random, nf);
+        ordenaParalelo(N, random, nf);
+        recorreFlujos(N, random, nf);
+        comparaCaches(N, random, nf);
+        comparaExpiracion(N, random, nf);
+        if (N >= 100)
+            comparaInstantanea(N, nf);
     }
 }
@@ -0,0 +1,13 @@
+package mx.unam.ciencias.edd;
+
+/**
+ * Enumeración para los filtros de membresía que puede usar un {@link
+ * Diccionario} para responder rápido las búsquedas fallidas.
+ */
+public enum TipoFiltro {
+    /** Filtro de Bloom por bloques; no permite eliminar, así que se
+     *  reconstruye después de muchas eliminaciones. */
+    BLOOM,
+    /** Filtro cuckoo; permite eliminar. */
+    CUCKOO;
+}
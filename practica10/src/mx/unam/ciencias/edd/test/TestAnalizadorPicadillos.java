@@ -0,0 +1,205 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoPicadillo;
+import mx.unam.ciencias.edd.AnalizadorPicadillos;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.FabricaPicadillos;
+import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.Picadillo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link AnalizadorPicadillos}.
+ */
+public class TestAnalizadorPicadillos {
+
+    private int total;
+    private Random random;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestAnalizadorPicadillos() {
+        random = new Random();
+        total = 1 + random.nextInt(16);
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorPicadillos#AnalizadorPicadillos}.
+     */
+    @Test public void testConstructor() {
+        try {
+            new AnalizadorPicadillos<Integer>((i) -> i, 0, 8);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new AnalizadorPicadillos<Integer>((i) -> i, 8, 4);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new AnalizadorPicadillos<Integer>((i) -> i, 4, 25);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorPicadillos#analiza(int,java.util.function.IntFunction)}
+     * con un picadillo que reparte las llaves de forma perfecta.
+     */
+    @Test public void testAnalizaUniforme() {
+        AnalizadorPicadillos<Integer> analizador =
+            new AnalizadorPicadillos<Integer>((i) -> i, 4, 8);
+        int n = total << 8;
+        AnalizadorPicadillos.Resultado r = analizador.analiza(n, (i) -> i);
+        Assert.assertTrue(r.getElementos() == n);
+        for (int b = 4; b <= 8; b++) {
+            Assert.assertTrue(r.chiCuadrada(b) == 0.0);
+            Assert.assertTrue(r.colisiones(b) == n - (1 << b));
+            Assert.assertTrue(r.colisionMaxima(b) == (n >> b) - 1);
+        }
+        Assert.assertTrue(r.sesgo(0) == 0.5);
+        Assert.assertTrue(r.sesgo(31) == 0.0);
+        try {
+            r.chiCuadrada(9);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            r.sesgo(32);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorPicadillos#analiza(int,java.util.function.IntFunction)}
+     * con un picadillo constante.
+     */
+    @Test public void testAnalizaConstante() {
+        AnalizadorPicadillos<Integer> analizador =
+            new AnalizadorPicadillos<Integer>((i) -> 0);
+        int n = total * 100;
+        AnalizadorPicadillos.Resultado r = analizador.analiza(n, (i) -> i);
+        Assert.assertTrue(r.colisiones(6) == n - 1);
+        Assert.assertTrue(r.colisionMaxima(20) == n - 1);
+        Assert.assertTrue(r.desviacion(10) > 3);
+        for (int bit = 0; bit < 32; bit++)
+            Assert.assertTrue(r.sesgo(bit) == 0.0);
+        Picadillo<Integer> error = (i) -> { throw new IllegalStateException(); };
+        try {
+            new AnalizadorPicadillos<Integer>(error).analiza(n, (i) -> i);
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorPicadillos#analiza(java.util.Iterator)}.
+     */
+    @Test public void testAnalizaIterador() {
+        Picadillo<String> xor =
+            FabricaPicadillos.getInstancia(AlgoritmoPicadillo.XOR_STRING);
+        AnalizadorPicadillos<String> analizador =
+            new AnalizadorPicadillos<String>(xor, 6, 12);
+        int n = total * 1000;
+        Lista<String> lista = new Lista<String>();
+        for (int i = 0; i < n; i++)
+            lista.agregaFinal(String.valueOf(i));
+        AnalizadorPicadillos.Resultado r1 = analizador.analiza(lista.iterator());
+        AnalizadorPicadillos.Resultado r2 =
+            analizador.analiza(n, (i) -> String.valueOf(i));
+        Assert.assertTrue(r1.getElementos() == n);
+        for (int b = 6; b <= 12; b++) {
+            Assert.assertTrue(r1.chiCuadrada(b) == r2.chiCuadrada(b));
+            Assert.assertTrue(r1.colisiones(b) == r2.colisiones(b));
+            Assert.assertTrue(r1.colisionMaxima(b) == r2.colisionMaxima(b));
+        }
+        for (int bit = 0; bit < 32; bit++)
+            Assert.assertTrue(r1.sesgo(bit) == r2.sesgo(bit));
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorPicadillos#analiza(java.util.Iterator)}
+     * con un iterador que falla a la mitad del corpus.
+     */
+    @Test public void testAnalizaIteradorFalla() {
+        Picadillo<String> xor =
+            FabricaPicadillos.getInstancia(AlgoritmoPicadillo.XOR_STRING);
+        AnalizadorPicadillos<String> analizador =
+            new AnalizadorPicadillos<String>(xor, 6, 12);
+        int n = total * 100000;
+        Iterator<String> corpus = new Iterator<String>() {
+            private int i = 0;
+            @Override public boolean hasNext() {
+                return true;
+            }
+            @Override public String next() {
+                if (i == n)
+                    throw new NoSuchElementException();
+                return String.valueOf(i++);
+            }
+        };
+        int vivos = Thread.activeCount();
+        try {
+            analizador.analiza(corpus);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(Thread.activeCount() <= vivos);
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorPicadillos.Resultado#colisiones}
+     * y {@link AnalizadorPicadillos.Resultado#colisionMaxima} contra los
+     * valores de un {@link Diccionario}.
+     */
+    @Test public void testColisionesDiccionario() {
+        Picadillo<String> glib =
+            FabricaPicadillos.getInstancia(AlgoritmoPicadillo.GLIB_STRING);
+        int n = total * 100;
+        Diccionario<String, String> diccionario =
+            new Diccionario<String, String>(n, glib);
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < n; i++) {
+            String s = String.valueOf(ini + i);
+            diccionario.agrega(s, s);
+        }
+        int m = (int)Math.round(n / diccionario.carga());
+        int b = Integer.numberOfTrailingZeros(m);
+        AnalizadorPicadillos<String> analizador =
+            new AnalizadorPicadillos<String>(glib, 6, 16);
+        AnalizadorPicadillos.Resultado r =
+            analizador.analiza(n, (i) -> String.valueOf(ini + i));
+        Assert.assertTrue(r.colisiones(b) == diccionario.colisiones());
+        Assert.assertTrue(r.colisionMaxima(b) == diccionario.colisionMaxima());
+    }
+
+    /**
+     * Prueba unitaria para {@link AnalizadorPicadillos#avalancha}.
+     */
+    @Test public void testAvalancha() {
+        Picadillo<byte[]> xx =
+            FabricaPicadillos.getInstanciaBytes(AlgoritmoPicadillo.XXHASH64_STRING);
+        double[][] matriz = AnalizadorPicadillos.avalancha(xx, 8, 4000);
+        Assert.assertTrue(matriz.length == 64);
+        Assert.assertTrue(matriz[0].length == 32);
+        Assert.assertTrue(AnalizadorPicadillos.peorAvalancha(matriz) < 0.1);
+        Picadillo<byte[]> glib =
+            FabricaPicadillos.getInstanciaBytes(AlgoritmoPicadillo.GLIB_STRING);
+        matriz = AnalizadorPicadillos.avalancha(glib, 8, 100);
+        Assert.assertTrue(AnalizadorPicadillos.peorAvalancha(matriz) == 0.5);
+        try {
+            AnalizadorPicadillos.avalancha(glib, 0, 100);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Picadillo<byte[]> error = (b) -> {
+            if (b[0] == 0)
+                throw new IllegalStateException();
+            return glib.picadillo(b);
+        };
+        try {
+            AnalizadorPicadillos.avalancha(error, 1, 10000);
+            Assert.fail();
+        } catch (IllegalStateException ise) {}
+    }
+}
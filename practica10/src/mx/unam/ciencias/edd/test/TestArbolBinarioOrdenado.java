@@ -1,8 +1,13 @@
 package mx.unam.ciencias.edd.test;
 
+import java.util.ArrayList;
+import java.util.Collections;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import mx.unam.ciencias.edd.ArbolBinario;
 import mx.unam.ciencias.edd.ArbolBinarioOrdenado;
 import mx.unam.ciencias.edd.Cola;
@@ -671,4 +676,40 @@ public class TestArbolBinarioOrdenado {
             vertice = vertice.getPadre();
         }
     }
+
+    /**
+     * Prueba unitaria para {@link ArbolBinarioOrdenado#spliterator}.
+     */
+    @Test public void testSpliterator() {
+        int n = 1000 + random.nextInt(1000);
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            int e = random.nextInt(n);
+            arbol.agrega(e);
+            l.add(e);
+        }
+        Collections.sort(l);
+        Spliterator<Integer> divisor = arbol.spliterator();
+        Assert.assertTrue(divisor.hasCharacteristics(Spliterator.SORTED));
+        Assert.assertTrue(divisor.getComparator() == null);
+        Assert.assertTrue(divisor.getExactSizeIfKnown() == n);
+        /* Partimos todo lo que se pueda; los pedazos, en orden, tienen que
+         * ser el recorrido en orden del árbol. */
+        List<Integer> partes = new ArrayList<Integer>();
+        divide(divisor, partes);
+        Assert.assertTrue(partes.equals(l));
+        Assert.assertTrue(arbol.parallelStream()
+                          .collect(Collectors.toList()).equals(l));
+    }
+
+    /* Parte el divisor recursivamente, y agrega sus elementos a la lista. */
+    private static void divide(Spliterator<Integer> divisor,
+                               List<Integer> l) {
+        Spliterator<Integer> prefijo = divisor.trySplit();
+        if (prefijo != null)
+            divide(prefijo, l);
+        else if (divisor.tryAdvance(l::add))
+            Assert.assertTrue(divisor.trySplit() == null);
+        divisor.forEachRemaining(l::add);
+    }
 }
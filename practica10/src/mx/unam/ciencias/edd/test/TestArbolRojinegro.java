@@ -1,7 +1,10 @@
 package mx.unam.ciencias.edd.test;
 
+import java.util.ArrayList;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Random;
+import java.util.stream.Collectors;
 import mx.unam.ciencias.edd.ArbolBinario;
 import mx.unam.ciencias.edd.ArbolRojinegro;
 import mx.unam.ciencias.edd.Cola;
@@ -495,4 +498,24 @@ public class TestArbolRojinegro {
             arbol.agrega(i);
         Assert.assertTrue(arbol.toString().equals(cadena));
     }
+
+    /**
+     * Prueba unitaria para {@link ArbolRojinegro#parallelStream}.
+     */
+    @Test public void testParallelStream() {
+        int n = 10000 + random.nextInt(10000);
+        for (int i = 0; i < n; i++)
+            arbol.agrega(random.nextInt(n));
+        for (int i = 0; i < n / 4; i++)
+            arbol.elimina(random.nextInt(n));
+        List<Integer> l = new ArrayList<Integer>();
+        for (int e : arbol)
+            l.add(e);
+        Assert.assertTrue(arbol.spliterator().getExactSizeIfKnown() ==
+                          arbol.getElementos());
+        Assert.assertTrue(arbol.parallelStream()
+                          .collect(Collectors.toList()).equals(l));
+        Assert.assertTrue(arbol.parallelStream().mapToLong(e -> e).sum() ==
+                          arbol.stream().mapToLong(e -> e).sum());
+    }
 }
@@ -1,6 +1,7 @@
 package mx.unam.ciencias.edd.test;
 
 import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
 import mx.unam.ciencias.edd.Arreglos;
 import org.junit.Assert;
 import org.junit.Test;
@@ -46,6 +47,59 @@ public class TestArreglos {
         Assert.assertTrue(estaOrdenado(arreglo));
     }
 
+    /**
+     * Prueba unitaria para {@link Arreglos#quickSortParalelo}.
+     */
+    @Test public void testQuickSortParalelo() throws Exception {
+        arreglo[0] = 1;
+        arreglo[1] = 0;
+        for (int i = 2; i < total; i++)
+            arreglo[i] = random.nextInt(total);
+        Arreglos.quickSortParalelo(arreglo);
+        Assert.assertTrue(estaOrdenado(arreglo));
+        /* Los elementos iguales son objetos distintos; tienen que quedar en
+         * las mismas posiciones que con la versión secuencial. */
+        int n = 100000 + random.nextInt(100000);
+        Integer[] paralelo = new Integer[n];
+        for (int i = 0; i < n; i++)
+            paralelo[i] = Integer.valueOf(1000 + random.nextInt(n / 10));
+        Integer[] secuencial = paralelo.clone();
+        Arreglos.quickSort(secuencial);
+        ForkJoinPool hilos = new ForkJoinPool(4);
+        hilos.submit(() -> Arreglos.quickSortParalelo(paralelo)).get();
+        hilos.shutdown();
+        Assert.assertTrue(estaOrdenado(paralelo));
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(paralelo[i] == secuencial[i]);
+    }
+
+    /**
+     * Prueba unitaria para {@link Arreglos#quickSort} y {@link
+     * Arreglos#quickSortParalelo} con arreglos grandes que ya están
+     * ordenados, o al revés.
+     */
+    @Test public void testQuickSortOrdenados() throws Exception {
+        int n = 100000 + random.nextInt(100000);
+        Integer[] ordenado = new Integer[n];
+        Integer[] reves = new Integer[n];
+        for (int i = 0; i < n; i++) {
+            ordenado[i] = i;
+            reves[i] = n - i;
+        }
+        ForkJoinPool hilos = new ForkJoinPool(4);
+        for (Integer[] a : new Integer[][] { ordenado, reves }) {
+            Integer[] secuencial = a.clone();
+            Arreglos.quickSort(secuencial);
+            Assert.assertTrue(estaOrdenado(secuencial));
+            Integer[] paralelo = a.clone();
+            hilos.submit(() -> Arreglos.quickSortParalelo(paralelo)).get();
+            Assert.assertTrue(estaOrdenado(paralelo));
+            Arreglos.quickSortParalelo(a);
+            Assert.assertTrue(estaOrdenado(a));
+        }
+        hilos.shutdown();
+    }
+
     /**
      * Prueba unitaria para {@link Arreglos#selectionSort}.
      */
@@ -0,0 +1,206 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.Cache;
+import mx.unam.ciencias.edd.PoliticaCache;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link Cache}.
+ */
+public class TestCache {
+
+    private int total;
+    private Random random;
+
+    /**
+     * Crea un generador de números aleatorios para cada prueba.
+     */
+    public TestCache() {
+        random = new Random();
+        total = 16 + random.nextInt(64);
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#Cache}.
+     */
+    @Test public void testConstructor() {
+        Cache<Integer, Integer> cache = new Cache<Integer, Integer>(total);
+        Assert.assertTrue(cache.esVacio());
+        Assert.assertTrue(cache.getElementos() == 0);
+        Assert.assertTrue(cache.getPesoMaximo() == total);
+        Assert.assertTrue(cache.tasaAciertos() == 0.0);
+        try {
+            new Cache<Integer, Integer>(0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new Cache<Integer, Integer>(total, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new Cache<Integer, Integer>(total, PoliticaCache.LRU, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#agrega} y {@link Cache#get} con la
+     * política {@link PoliticaCache#LRU}.
+     */
+    @Test public void testLRU() {
+        Cache<Integer, Integer> cache = new Cache<Integer, Integer>(total);
+        for (int i = 0; i < total; i++)
+            cache.agrega(i, i);
+        Assert.assertTrue(cache.getElementos() == total);
+        Assert.assertTrue(cache.getDesalojos() == 0);
+        /* Usamos la primera llave, así que la desalojada es la segunda. */
+        Assert.assertTrue(cache.get(0) == 0);
+        cache.agrega(total, total);
+        Assert.assertTrue(cache.getElementos() == total);
+        Assert.assertTrue(cache.getDesalojos() == 1);
+        Assert.assertTrue(cache.contiene(0));
+        Assert.assertFalse(cache.contiene(1));
+        for (int i = 2; i <= total; i++)
+            Assert.assertTrue(cache.contiene(i));
+        try {
+            cache.get(1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        Assert.assertTrue(cache.getAciertos() == 1);
+        Assert.assertTrue(cache.getFallos() == 1);
+        Assert.assertTrue(cache.tasaAciertos() == 0.5);
+        /* Reemplazar un valor no desaloja nada. */
+        cache.agrega(2, -2);
+        Assert.assertTrue(cache.get(2) == -2);
+        Assert.assertTrue(cache.getElementos() == total);
+        Assert.assertTrue(cache.getDesalojos() == 1);
+        try {
+            cache.agrega(null, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            cache.agrega(0, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#agrega} con entradas de distintos
+     * pesos.
+     */
+    @Test public void testPeso() {
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<Integer, String> cache =
+                new Cache<Integer, String>(total * 10, politica,
+                                           (i, s) -> s.length());
+            for (int i = 0; i < total * 10; i++) {
+                cache.agrega(i, "x".repeat(1 + random.nextInt(20)));
+                Assert.assertTrue(cache.getPeso() <= total * 10);
+            }
+            long peso = 0;
+            for (int i = 0; i < total * 10; i++)
+                if (cache.contiene(i))
+                    peso += cache.get(i).length();
+            Assert.assertTrue(peso == cache.getPeso());
+            long desalojos = cache.getDesalojos();
+            cache.agrega(-1, "x".repeat(total * 10 + 1));
+            Assert.assertFalse(cache.contiene(-1));
+            Assert.assertTrue(cache.getDesalojos() == desalojos + 1);
+            try {
+                cache.agrega(-1, "");
+                new Cache<Integer, String>(10, politica, (i, s) -> -1).agrega(0, "");
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#calcula}.
+     */
+    @Test public void testCalcula() {
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<Integer, Integer> cache =
+                new Cache<Integer, Integer>(total, politica);
+            int[] llamadas = new int[1];
+            for (int i = 0; i < total; i++) {
+                int v = cache.calcula(i % (total / 2), (k) -> {
+                        llamadas[0]++;
+                        return k * k;
+                    });
+                Assert.assertTrue(v == (i % (total / 2)) * (i % (total / 2)));
+            }
+            Assert.assertTrue(llamadas[0] == total / 2);
+            Assert.assertTrue(cache.getFallos() == total / 2);
+            Assert.assertTrue(cache.getAciertos() == total - total / 2);
+            try {
+                cache.calcula(total, (k) -> null);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Cache#elimina} y {@link Cache#limpia}.
+     */
+    @Test public void testElimina() {
+        for (PoliticaCache politica : PoliticaCache.values()) {
+            Cache<Integer, Integer> cache =
+                new Cache<Integer, Integer>(total, politica);
+            for (int i = 0; i < total; i++)
+                cache.agrega(i, i);
+            for (int i = 0; i < total; i += 2) {
+                cache.elimina(i);
+                Assert.assertFalse(cache.contiene(i));
+            }
+            Assert.assertTrue(cache.getElementos() == total / 2);
+            Assert.assertTrue(cache.getPeso() == total / 2);
+            Assert.assertTrue(cache.getDesalojos() == 0);
+            try {
+                cache.elimina(0);
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+            cache.limpia();
+            Assert.assertTrue(cache.esVacio());
+            Assert.assertTrue(cache.getPeso() == 0);
+            for (int i = 0; i < total * 3; i++)
+                cache.agrega(i, i);
+            Assert.assertTrue(cache.getElementos() == total);
+        }
+    }
+
+    /**
+     * Prueba unitaria para la política {@link PoliticaCache#TINY_LFU}: un
+     * recorrido de llaves que se usan una sola vez no desaloja a las llaves
+     * que se usan seguido, como sí pasa con {@link PoliticaCache#LRU}. Sólo
+     * pueden salir las pocas llaves que seguían en la ventana al empezar el
+     * recorrido, que nunca pasaron a la región protegida.
+     */
+    @Test public void testTinyLFU() {
+        int n = total * 10;
+        Cache<Integer, Integer> lru = new Cache<Integer, Integer>(n);
+        Cache<Integer, Integer> lfu =
+            new Cache<Integer, Integer>(n, PoliticaCache.TINY_LFU);
+        for (int vuelta = 0; vuelta < 10; vuelta++) {
+            for (int i = 0; i < n / 2; i++) {
+                lru.calcula(i, (k) -> k);
+                lfu.calcula(i, (k) -> k);
+            }
+        }
+        for (int i = n; i < n * 20; i++) {
+            lru.calcula(i, (k) -> k);
+            lfu.calcula(i, (k) -> k);
+        }
+        Assert.assertTrue(lru.getElementos() == n);
+        Assert.assertTrue(lfu.getElementos() == n);
+        int enLRU = 0, enLFU = 0;
+        for (int i = 0; i < n / 2; i++) {
+            enLRU += lru.contiene(i) ? 1 : 0;
+            enLFU += lfu.contiene(i) ? 1 : 0;
+        }
+        Assert.assertTrue(enLRU == 0);
+        Assert.assertTrue(enLFU >= n / 2 - Math.max(1, n / 100));
+    }
+}
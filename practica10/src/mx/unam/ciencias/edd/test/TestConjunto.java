@@ -2,8 +2,10 @@ package mx.unam.ciencias.edd.test;
 
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
 import mx.unam.ciencias.edd.Conjunto;
 import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.TipoFiltro;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -176,6 +178,8 @@ public class TestConjunto {
             c2.agrega(ini + i);
         Conjunto<Integer> union = conjunto.union(c2);
         Assert.assertTrue(union.getElementos() == total*2);
+        Assert.assertTrue(conjunto.getElementos() == total);
+        Assert.assertTrue(c2.getElementos() == total);
         for (Integer n : union) {
             Assert.assertTrue(conjunto.contiene(n) || c2.contiene(n));
         }
@@ -185,6 +189,96 @@ public class TestConjunto {
             Assert.assertTrue(union.contiene(n));
     }
 
+    /**
+     * Prueba unitaria para {@link Conjunto#diferencia}.
+     */
+    @Test public void testDiferencia() {
+        int ini = random.nextInt(total);
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(ini + i);
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        for (int i = total / 2; i < total * 2; i++)
+            c2.agrega(ini + i);
+        Conjunto<Integer> diferencia = conjunto.diferencia(c2);
+        Assert.assertTrue(diferencia.getElementos() == total / 2);
+        for (int i = 0; i < total * 2; i++)
+            Assert.assertTrue(diferencia.contiene(ini + i) == (i < total / 2));
+        Assert.assertTrue(conjunto.getElementos() == total);
+        Assert.assertTrue(c2.diferencia(c2).esVacio());
+        Assert.assertTrue(conjunto.diferencia(new Conjunto<Integer>())
+                          .equals(conjunto));
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#diferenciaSimetrica}.
+     */
+    @Test public void testDiferenciaSimetrica() {
+        int ini = random.nextInt(total);
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(ini + i);
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        for (int i = total / 2; i < total * 2; i++)
+            c2.agrega(ini + i);
+        Conjunto<Integer> simetrica = conjunto.diferenciaSimetrica(c2);
+        Assert.assertTrue(simetrica.equals(c2.diferenciaSimetrica(conjunto)));
+        for (int i = 0; i < total * 2; i++)
+            Assert.assertTrue(simetrica.contiene(ini + i) ==
+                              (i < total / 2 || i >= total));
+        Assert.assertTrue(simetrica.equals(conjunto.union(c2).diferencia(
+                                               conjunto.interseccion(c2))));
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#esSubconjunto}.
+     */
+    @Test public void testEsSubconjunto() {
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        Assert.assertTrue(c2.esSubconjunto(conjunto));
+        for (int i = 0; i < total; i++) {
+            conjunto.agrega(i);
+            if (i % 3 == 0)
+                c2.agrega(i);
+        }
+        Assert.assertTrue(c2.esSubconjunto(conjunto));
+        Assert.assertTrue(conjunto.esSubconjunto(conjunto));
+        Assert.assertFalse(conjunto.esSubconjunto(c2));
+        c2.agrega(-1);
+        Assert.assertFalse(c2.esSubconjunto(conjunto));
+    }
+
+    /**
+     * Prueba unitaria para las operaciones entre conjuntos grandes, que se
+     * reparten entre varios hilos.
+     */
+    @Test public void testOperacionesParalelas() {
+        int n = 100000 + random.nextInt(100000);
+        Conjunto<Integer> c2 = new Conjunto<Integer>();
+        for (int i = 0; i < n; i++) {
+            conjunto.agrega(i);
+            c2.agrega(n / 2 + i);
+        }
+        Conjunto<Integer> union = conjunto.union(c2);
+        Conjunto<Integer> interseccion = conjunto.interseccion(c2);
+        Conjunto<Integer> diferencia = conjunto.diferencia(c2);
+        Conjunto<Integer> simetrica = conjunto.diferenciaSimetrica(c2);
+        Assert.assertTrue(union.getElementos() == n + n / 2);
+        Assert.assertTrue(interseccion.getElementos() == n - n / 2);
+        Assert.assertTrue(diferencia.getElementos() == n / 2);
+        Assert.assertTrue(simetrica.getElementos() == 2 * (n / 2));
+        for (int i = 0; i < n + n / 2; i++) {
+            boolean a = i < n, b = i >= n / 2;
+            Assert.assertTrue(union.contiene(i));
+            Assert.assertTrue(interseccion.contiene(i) == (a && b));
+            Assert.assertTrue(diferencia.contiene(i) == (a && !b));
+            Assert.assertTrue(simetrica.contiene(i) == (a != b));
+        }
+        Assert.assertTrue(interseccion.esSubconjunto(union));
+        Assert.assertTrue(diferencia.esSubconjunto(conjunto));
+        Assert.assertFalse(conjunto.esSubconjunto(union.diferencia(diferencia)));
+        Assert.assertTrue(conjunto.getElementos() == n);
+        Assert.assertTrue(c2.getElementos() == n);
+    }
+
     /**
      * Prueba unitaria para {@link Conjunto#iterator}.
      */
@@ -207,4 +301,52 @@ public class TestConjunto {
             conjunto.elimina(ini + i);
         for (Integer s : conjunto);
     }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#usaFiltro} y {@link
+     * Conjunto#quitaFiltro}.
+     */
+    @Test public void testUsaFiltro() {
+        for (int i = 0; i < total; i++)
+            conjunto.agrega(2 * i);
+        conjunto.usaFiltro(TipoFiltro.CUCKOO, 0.001);
+        for (int i = total; i < 2 * total; i++)
+            conjunto.agrega(2 * i);
+        for (int i = 0; i < 2 * total; i += 2)
+            conjunto.elimina(2 * i);
+        for (int i = 0; i < 4 * total; i++)
+            Assert.assertTrue(conjunto.contiene(i) == (i % 4 == 2));
+        conjunto.usaFiltro(TipoFiltro.BLOOM, 0.001);
+        for (int i = 0; i < 4 * total; i++)
+            Assert.assertTrue(conjunto.contiene(i) == (i % 4 == 2));
+        conjunto.quitaFiltro();
+        Assert.assertTrue(conjunto.getElementos() == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link Conjunto#spliterator} y {@link
+     * Conjunto#parallelStream}.
+     */
+    @Test public void testStream() {
+        int n = 10000 + random.nextInt(10000);
+        long suma = 0;
+        for (int i = 0; i < n; i++) {
+            conjunto.agrega(i);
+            suma += i;
+        }
+        Spliterator<Integer> divisor = conjunto.spliterator();
+        Assert.assertTrue(divisor.hasCharacteristics(Spliterator.DISTINCT));
+        Assert.assertTrue(divisor.getExactSizeIfKnown() == n);
+        Spliterator<Integer> prefijo = divisor.trySplit();
+        Assert.assertTrue(prefijo != null);
+        Assert.assertTrue(divisor.getExactSizeIfKnown() == -1);
+        long[] cuenta = new long[1];
+        prefijo.forEachRemaining(e -> cuenta[0]++);
+        divisor.forEachRemaining(e -> cuenta[0]++);
+        Assert.assertTrue(cuenta[0] == n);
+        Assert.assertTrue(conjunto.parallelStream().count() == n);
+        Assert.assertTrue(conjunto.parallelStream().distinct().count() == n);
+        Assert.assertTrue(conjunto.parallelStream()
+                          .mapToLong(e -> e).sum() == suma);
+    }
 }
@@ -0,0 +1,202 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Arrays;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Random;
+import mx.unam.ciencias.edd.Conjunto;
+import mx.unam.ciencias.edd.ConjuntoEnteros;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link ConjuntoEnteros}.
+ */
+public class TestConjuntoEnteros {
+
+    private int total;
+    private Random random;
+    private ConjuntoEnteros conjunto;
+
+    /**
+     * Crea un conjunto para cada prueba.
+     */
+    public TestConjuntoEnteros() {
+        random = new Random();
+        total = 10000 + random.nextInt(10000);
+        conjunto = new ConjuntoEnteros();
+    }
+
+    /* Regresa un entero aleatorio; unos caen en un grupo denso, otros en
+     * grupos ralos y otros en cualquier lugar. */
+    private int entero() {
+        switch (random.nextInt(3)) {
+        case 0:
+            return 1 << 20 | random.nextInt(1 << 14);
+        case 1:
+            return random.nextInt(1 << 24) - (1 << 23);
+        default:
+            return random.nextInt();
+        }
+    }
+
+    /* Llena el conjunto y una referencia con enteros aleatorios. */
+    private Conjunto<Integer> llena(ConjuntoEnteros c, int n) {
+        Conjunto<Integer> referencia = new Conjunto<Integer>();
+        for (int i = 0; i < n; i++) {
+            int x = entero();
+            c.agrega(x);
+            referencia.agrega(x);
+        }
+        return referencia;
+    }
+
+    /* Verifica que el conjunto tenga los elementos de la referencia, en
+     * orden. */
+    private static void verifica(ConjuntoEnteros c, Conjunto<Integer> referencia) {
+        Assert.assertTrue(c.getElementos() == referencia.getElementos());
+        int[] a = new int[referencia.getElementos()];
+        int i = 0;
+        for (Integer x : referencia) {
+            Assert.assertTrue(c.contiene(x));
+            a[i++] = x;
+        }
+        Arrays.sort(a);
+        i = 0;
+        for (Integer x : c)
+            Assert.assertTrue(x == a[i++]);
+        Assert.assertTrue(i == a.length);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEnteros#ConjuntoEnteros}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(conjunto.esVacio());
+        Assert.assertTrue(conjunto.getElementos() == 0);
+        Assert.assertTrue(conjunto.getCardinalidad() == 0);
+        Assert.assertTrue(conjunto.getBytes() == 0);
+        Assert.assertFalse(conjunto.iterator().hasNext());
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEnteros#agrega}.
+     */
+    @Test public void testAgrega() {
+        Conjunto<Integer> referencia = llena(conjunto, total);
+        verifica(conjunto, referencia);
+        for (Integer x : referencia)
+            conjunto.agrega(x);
+        Assert.assertTrue(conjunto.getElementos() == referencia.getElementos());
+        try {
+            conjunto.agrega((Integer)null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEnteros#elimina}.
+     */
+    @Test public void testElimina() {
+        Conjunto<Integer> referencia = llena(conjunto, total);
+        for (int k = 0; k < total * 4; k++) {
+            int x = random.nextInt(4) == 0 ? entero() :
+                1 << 20 | random.nextInt(1 << 14);
+            if (random.nextBoolean()) {
+                Assert.assertTrue(conjunto.contiene(x) == referencia.contiene(x));
+                if (referencia.contiene(x))
+                    referencia.elimina(x);
+                conjunto.elimina(x);
+                Assert.assertFalse(conjunto.contiene(x));
+            } else {
+                referencia.agrega(x);
+                conjunto.agrega(x);
+            }
+        }
+        verifica(conjunto, referencia);
+        for (Integer x : referencia)
+            conjunto.elimina(x);
+        Assert.assertTrue(conjunto.esVacio());
+        Assert.assertTrue(conjunto.getBytes() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEnteros#optimiza}: rangos densos
+     * ocupan muy poco y siguen pudiéndose modificar.
+     */
+    @Test public void testOptimiza() {
+        Conjunto<Integer> referencia = new Conjunto<Integer>();
+        int ini = random.nextInt(1 << 20) - (1 << 19);
+        for (int i = 0; i < total * 10; i++) {
+            conjunto.agrega(ini + i);
+            referencia.agrega(ini + i);
+        }
+        conjunto.agrega(Integer.MIN_VALUE);
+        conjunto.agrega(Integer.MAX_VALUE);
+        referencia.agrega(Integer.MIN_VALUE);
+        referencia.agrega(Integer.MAX_VALUE);
+        long bytes = conjunto.getBytes();
+        conjunto.optimiza();
+        Assert.assertTrue(conjunto.getBytes() < bytes);
+        Assert.assertTrue(conjunto.getBytes() < 100);
+        verifica(conjunto, referencia);
+        for (int i = 0; i < total; i++) {
+            int x = ini + random.nextInt(total * 10);
+            if (referencia.contiene(x)) {
+                conjunto.elimina(x);
+                referencia.elimina(x);
+            }
+        }
+        verifica(conjunto, referencia);
+        conjunto.optimiza();
+        verifica(conjunto, referencia);
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEnteros#union}, {@link
+     * ConjuntoEnteros#interseccion} y {@link ConjuntoEnteros#diferencia},
+     * comparando con {@link Conjunto}.
+     */
+    @Test public void testOperaciones() {
+        ConjuntoEnteros otro = new ConjuntoEnteros();
+        Conjunto<Integer> a = llena(conjunto, total);
+        Conjunto<Integer> b = llena(otro, total);
+        for (int i = 0; i < 5000; i++) {
+            conjunto.agrega(1 << 20 | i);
+            a.agrega(1 << 20 | i);
+        }
+        if (random.nextBoolean())
+            conjunto.optimiza();
+        verifica(conjunto.union(otro), a.union(b));
+        verifica(conjunto.interseccion(otro), a.interseccion(b));
+        verifica(otro.interseccion(conjunto), b.interseccion(a));
+        verifica(conjunto.diferencia(otro), a.diferencia(b));
+        verifica(otro.diferencia(conjunto), b.diferencia(a));
+        verifica(conjunto, a);
+        verifica(otro, b);
+        Assert.assertTrue(conjunto.union(conjunto).equals(conjunto));
+        Assert.assertTrue(conjunto.interseccion(conjunto).equals(conjunto));
+        Assert.assertTrue(conjunto.diferencia(conjunto).esVacio());
+        Assert.assertFalse(conjunto.equals(otro));
+    }
+
+    /**
+     * Prueba unitaria para {@link ConjuntoEnteros#iteradorEnteros}.
+     */
+    @Test public void testIteradorEnteros() {
+        Conjunto<Integer> referencia = llena(conjunto, total);
+        PrimitiveIterator.OfInt it = conjunto.iteradorEnteros();
+        int n = 0, anterior = 0;
+        while (it.hasNext()) {
+            int x = it.nextInt();
+            Assert.assertTrue(n == 0 || anterior < x);
+            anterior = x;
+            n++;
+        }
+        Assert.assertTrue(n == referencia.getElementos());
+        try {
+            it.nextInt();
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+}
@@ -1,13 +1,18 @@
 package mx.unam.ciencias.edd.test;
 
+import java.util.Arrays;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.StreamSupport;
 import mx.unam.ciencias.edd.AlgoritmoPicadillo;
 import mx.unam.ciencias.edd.Arreglos;
+import mx.unam.ciencias.edd.Coleccion;
 import mx.unam.ciencias.edd.Diccionario;
 import mx.unam.ciencias.edd.Picadillo;
 import mx.unam.ciencias.edd.FabricaPicadillos;
 import mx.unam.ciencias.edd.Lista;
+import mx.unam.ciencias.edd.TipoFiltro;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -21,6 +26,7 @@ public class TestDiccionario {
     private Diccionario<String, String> diccionario;
 
     private static final int N = 64;
+    private static final int MAXIMO_MIGRADAS = 8;
 
     /**
      * Crea un diccionario para cada prueba.
@@ -76,6 +82,65 @@ public class TestDiccionario {
         } catch (IllegalArgumentException iae) {}
     }
 
+    /**
+     * Prueba unitaria para {@link Diccionario#agrega} cuando el diccionario
+     * crece de forma incremental.
+     */
+    @Test public void testAgregaIncremental() {
+        diccionario = new Diccionario<String, String>(total, (s) -> s.hashCode(),
+                                                      true);
+        String[] arreglo = new String[total * 8];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+            for (int j = 0; j <= i; j += 1 + i / 8)
+                Assert.assertTrue(diccionario.get(arreglo[j]).equals(arreglo[j]));
+        }
+        for (int i = 0; i < arreglo.length; i++)
+            Assert.assertTrue(diccionario.contiene(arreglo[i]));
+        Assert.assertTrue(diccionario.llaves().getLongitud() == arreglo.length);
+        for (int i = 0; i < arreglo.length; i++) {
+            diccionario.elimina(arreglo[i]);
+            Assert.assertFalse(diccionario.contiene(arreglo[i]));
+        }
+        Assert.assertTrue(diccionario.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#elimina} cuando el diccionario
+     * se reduce de forma incremental: cada operación mueve un número acotado
+     * de cubetas.
+     */
+    @Test public void testEliminaIncremental() {
+        diccionario = new Diccionario<String, String>(total, (s) -> s.hashCode(),
+                                                      true);
+        String[] arreglo = new String[total * 64];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+        }
+        while (diccionario.cubetasPorMigrar() > 0)
+            diccionario.contiene(arreglo[0]);
+        int reducciones = 0;
+        for (int i = 0; i < arreglo.length; i++) {
+            int pendientes = diccionario.cubetasPorMigrar();
+            diccionario.elimina(arreglo[i]);
+            int p = diccionario.cubetasPorMigrar();
+            if (p > pendientes)
+                reducciones++;
+            else
+                Assert.assertTrue(pendientes - p <= MAXIMO_MIGRADAS);
+            for (int j = i + 1; j < arreglo.length; j += 1 + i / 8)
+                Assert.assertTrue(diccionario.get(arreglo[j]).equals(arreglo[j]));
+        }
+        Assert.assertTrue(reducciones > 0);
+        Assert.assertTrue(diccionario.esVacio());
+    }
+
     /**
      * Prueba unitaria para {@link Diccionario#get}.
      */
@@ -166,6 +231,65 @@ public class TestDiccionario {
             Assert.assertTrue(k.equals(arreglo[i++]));
     }
 
+    /**
+     * Prueba unitaria para {@link Diccionario#vistaLlaves}.
+     */
+    @Test public void testVistaLlaves() {
+        Coleccion<String> llaves = diccionario.vistaLlaves();
+        Assert.assertTrue(llaves.esVacio());
+        String[] arreglo = new String[total];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i] + "v");
+        }
+        Assert.assertTrue(llaves.getElementos() == total);
+        Lista<String> lista = new Lista<String>();
+        for (String k : llaves)
+            lista.agrega(k);
+        Assert.assertTrue(lista.getLongitud() == total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(lista.contiene(arreglo[i]));
+            Assert.assertTrue(llaves.contiene(arreglo[i]));
+        }
+        llaves.elimina(arreglo[0]);
+        Assert.assertFalse(diccionario.contiene(arreglo[0]));
+        Assert.assertTrue(llaves.getElementos() == total - 1);
+        for (String k : llaves)
+            diccionario.elimina(k);
+        Assert.assertTrue(diccionario.esVacio());
+        try {
+            llaves.agrega("X");
+            Assert.fail();
+        } catch (UnsupportedOperationException uoe) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#vistaValores}.
+     */
+    @Test public void testVistaValores() {
+        Coleccion<String> valores = diccionario.vistaValores();
+        String[] arreglo = new String[total];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i] + "v");
+        }
+        Assert.assertTrue(valores.getElementos() == total);
+        int c = 0;
+        for (String v : valores) {
+            Assert.assertTrue(v.endsWith("v"));
+            c++;
+        }
+        Assert.assertTrue(c == total);
+        Assert.assertTrue(valores.contiene(arreglo[0] + "v"));
+        Assert.assertFalse(valores.contiene(arreglo[0]));
+        try {
+            valores.elimina(arreglo[0] + "v");
+            Assert.fail();
+        } catch (UnsupportedOperationException uoe) {}
+    }
+
     /**
      * Prueba unitaria para {@link Diccionario#colisiones}.
      */
@@ -222,6 +346,318 @@ public class TestDiccionario {
         }
     }
 
+    /**
+     * Prueba unitaria para {@link Diccionario#carga} con una carga máxima
+     * definida por el usuario, y un tamaño inicial que no desperdicia
+     * listas.
+     */
+    @Test public void testCargaMaxima() {
+        double maxima = 0.5 + random.nextDouble() * 2.0;
+        diccionario = new Diccionario<String, String>(total, (s) -> s.hashCode(),
+                                                      maxima, false);
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.carga() < maxima);
+        }
+        if (total >= 64 * maxima)
+            Assert.assertTrue(diccionario.carga() >= maxima / 2);
+        try {
+            new Diccionario<String, String>(total, (s) -> 0, 0.0, false);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#compacta}.
+     */
+    @Test public void testCompacta() {
+        String[] arreglo = new String[total * 8];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < arreglo.length; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+        }
+        for (int i = total; i < arreglo.length; i++)
+            diccionario.elimina(arreglo[i]);
+        diccionario.compacta();
+        Assert.assertTrue(diccionario.getElementos() == total);
+        Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+        Assert.assertTrue(diccionario.carga() >= Diccionario.MAXIMA_CARGA / 2);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(diccionario.get(arreglo[i]).equals(arreglo[i]));
+        for (int i = 0; i < total; i++)
+            diccionario.elimina(arreglo[i]);
+        Assert.assertTrue(diccionario.esVacio());
+        diccionario.compacta();
+        Assert.assertTrue(diccionario.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#agrega} que verifica que al
+     * crecer el arreglo no se vuelve a calcular el picadillo de las llaves.
+     */
+    @Test public void testPicadilloGuardado() {
+        int[] llamadas = { 0 };
+        diccionario = new Diccionario<String, String>((s) -> {
+                llamadas[0]++;
+                return s.hashCode();
+            });
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total * 8; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+        }
+        Assert.assertTrue(llamadas[0] == total * 8);
+        diccionario.compacta();
+        Assert.assertTrue(llamadas[0] == total * 8);
+        for (int i = 0; i < total * 8; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            Assert.assertTrue(diccionario.get(s).equals(s));
+        }
+        Assert.assertTrue(llamadas[0] == total * 16);
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario} con un picadillo que manda
+     * todas las llaves a la misma cubeta, que se vuelve árbol y regresa a
+     * ser lista.
+     */
+    @Test public void testCubetaArbol() {
+        for (boolean incremental : new boolean[] { false, true }) {
+            diccionario = new Diccionario<String, String>(N, (s) -> 0,
+                                                          incremental);
+            String[] arreglo = new String[total];
+            int ini = random.nextInt(10000);
+            for (int i = 0; i < total; i++) {
+                arreglo[i] = String.format("%x", ini + i * 1000);
+                diccionario.agrega(arreglo[i], arreglo[i]);
+            }
+            Assert.assertTrue(diccionario.colisionMaxima() == total - 1);
+            diccionario.agrega(arreglo[0], "X");
+            Assert.assertTrue(diccionario.get(arreglo[0]).equals("X"));
+            Assert.assertFalse(diccionario.contiene("X"));
+            int c = 0;
+            for (String s : diccionario.vistaLlaves()) {
+                Assert.assertTrue(diccionario.contiene(s));
+                c++;
+            }
+            Assert.assertTrue(c == total);
+            for (int i = 0; i < total - Diccionario.UMBRAL_LISTA; i++)
+                diccionario.elimina(arreglo[i]);
+            Assert.assertTrue(diccionario.getElementos() == Diccionario.UMBRAL_LISTA);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(diccionario.contiene(arreglo[i]) ==
+                                  (i >= total - Diccionario.UMBRAL_LISTA));
+            for (int i = total - Diccionario.UMBRAL_LISTA; i < total; i++)
+                diccionario.elimina(arreglo[i]);
+            Assert.assertTrue(diccionario.esVacio());
+        }
+    }
+
+    /* Llave con picadillo constante cuyo compareTo empata con llaves
+     * distintas: dos llaves empatan si sus identificadores divididos entre
+     * el divisor coinciden. */
+    private static class LlaveEmpatada implements Comparable<LlaveEmpatada> {
+        private int id;
+        private int divisor;
+        public LlaveEmpatada(int id, int divisor) {
+            this.id = id;
+            this.divisor = divisor;
+        }
+        @Override public int hashCode() {
+            return 0;
+        }
+        @Override public boolean equals(Object o) {
+            return o instanceof LlaveEmpatada && ((LlaveEmpatada)o).id == id;
+        }
+        @Override public int compareTo(LlaveEmpatada l) {
+            return Integer.compare(id / divisor, l.id / divisor);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario} con llaves que chocan en la
+     * misma cubeta y cuyo compareTo empata sin que sean iguales.
+     */
+    @Test public void testCubetaEmpates() {
+        for (int divisor : new int[] { Integer.MAX_VALUE, 2, 1 }) {
+            for (boolean incremental : new boolean[] { false, true }) {
+                Diccionario<LlaveEmpatada, Integer> d =
+                    new Diccionario<LlaveEmpatada, Integer>(N, (l) -> 0,
+                                                            incremental);
+                int n = 20;
+                for (int i = 0; i < n; i++)
+                    d.agrega(new LlaveEmpatada(i, divisor), i);
+                Assert.assertTrue(d.getElementos() == n);
+                for (int i = 0; i < n; i++) {
+                    LlaveEmpatada l = new LlaveEmpatada(i, divisor);
+                    Assert.assertTrue(d.contiene(l));
+                    Assert.assertTrue(d.get(l) == i);
+                }
+                Assert.assertFalse(d.contiene(new LlaveEmpatada(n, divisor)));
+                for (int i = 0; i < n; i++)
+                    d.agrega(new LlaveEmpatada(i, divisor), -i);
+                Assert.assertTrue(d.getElementos() == n);
+                for (int i = 0; i < n; i += 2)
+                    d.elimina(new LlaveEmpatada(i, divisor));
+                Assert.assertTrue(d.getElementos() == n / 2);
+                for (int i = 0; i < n; i++)
+                    Assert.assertTrue(d.contiene(new LlaveEmpatada(i, divisor)) ==
+                                      (i % 2 == 1));
+                for (int i = 1; i < n; i += 2)
+                    Assert.assertTrue(d.get(new LlaveEmpatada(i, divisor)) == -i);
+            }
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#desde}.
+     */
+    @Test public void testDesde() {
+        Lista<String> llaves = new Lista<String>();
+        Lista<String> valores = new Lista<String>();
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total * 8; i++) {
+            llaves.agregaFinal(String.format("%x", ini + i * 1000));
+            valores.agregaFinal(String.valueOf(i));
+        }
+        llaves.agregaFinal(String.format("%x", ini));
+        valores.agregaFinal("X");
+        diccionario = Diccionario.desde(llaves, valores);
+        Assert.assertTrue(diccionario.getElementos() == total * 8);
+        Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+        Assert.assertTrue(diccionario.get(String.format("%x", ini)).equals("X"));
+        for (int i = 1; i < total * 8; i++)
+            Assert.assertTrue(diccionario.get(String.format("%x", ini + i * 1000))
+                              .equals(String.valueOf(i)));
+        diccionario = Diccionario.desde(new Lista<String>(), new Lista<String>(),
+                                        (s) -> 0);
+        Assert.assertTrue(diccionario.esVacio());
+        valores.eliminaUltimo();
+        try {
+            Diccionario.desde(llaves, valores);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#agregaTodos}.
+     */
+    @Test public void testAgregaTodos() {
+        int n = total * 1000;
+        Lista<String> llaves = new Lista<String>();
+        Lista<String> valores = new Lista<String>();
+        for (int i = 0; i < n; i++) {
+            String s = String.valueOf(i);
+            if (i % 2 == 0)
+                diccionario.agrega(s, "X");
+            llaves.agregaFinal(s);
+            valores.agregaFinal(s);
+        }
+        diccionario.agregaTodos(llaves, valores);
+        Assert.assertTrue(diccionario.getElementos() == n);
+        Assert.assertTrue(diccionario.carga() < Diccionario.MAXIMA_CARGA);
+        for (int i = 0; i < n; i++)
+            Assert.assertTrue(diccionario.get(String.valueOf(i))
+                              .equals(String.valueOf(i)));
+        Diccionario<String, String> uno = new Diccionario<String, String>();
+        for (int i = 0; i < n; i++)
+            uno.agrega(String.valueOf(i), String.valueOf(i));
+        Assert.assertTrue(diccionario.equals(uno));
+        try {
+            diccionario.agregaTodos(Arrays.asList("Y", null),
+                                    Arrays.asList("Y", "Z"));
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Assert.assertTrue(diccionario.getElementos() == n);
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#usaFiltro}: con cualquier
+     * filtro, y con un picadillo que produce muchas colisiones, el
+     * diccionario responde lo mismo que sin filtro.
+     */
+    @Test public void testUsaFiltro() {
+        Picadillo<String> xor =
+            FabricaPicadillos.getInstancia(AlgoritmoPicadillo.XOR_STRING);
+        for (TipoFiltro tipo : TipoFiltro.values()) {
+            for (Picadillo<String> picadillo :
+                     Arrays.asList(xor, (String s) -> s.hashCode())) {
+                Diccionario<String, String> sin =
+                    new Diccionario<String, String>(picadillo);
+                Diccionario<String, String> con =
+                    new Diccionario<String, String>(picadillo);
+                con.agrega("a", "a");
+                con.usaFiltro(tipo, 0.01);
+                sin.agrega("a", "a");
+                for (int k = 0; k < total * 100; k++) {
+                    String llave = String.valueOf(random.nextInt(total * 10));
+                    Assert.assertTrue(sin.contiene(llave) == con.contiene(llave));
+                    if (sin.contiene(llave) && random.nextInt(3) == 0) {
+                        sin.elimina(llave);
+                        con.elimina(llave);
+                    } else {
+                        sin.agrega(llave, llave);
+                        con.agrega(llave, llave);
+                    }
+                }
+                Assert.assertTrue(sin.equals(con));
+                for (int i = 0; i < total * 10; i++) {
+                    String llave = String.valueOf(i);
+                    Assert.assertTrue(sin.contiene(llave) == con.contiene(llave));
+                }
+                Lista<String> llaves = new Lista<String>();
+                for (int i = 0; i < total * 20; i++)
+                    llaves.agregaFinal("z" + i);
+                con.agregaTodos(llaves, llaves);
+                for (String llave : llaves)
+                    Assert.assertTrue(con.get(llave).equals(llave));
+                try {
+                    con.get("no está");
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+                con.quitaFiltro();
+                Assert.assertTrue(con.contiene("z0"));
+            }
+        }
+        try {
+            diccionario.usaFiltro(null, 0.01);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            diccionario.usaFiltro(TipoFiltro.BLOOM, 0.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#usaFiltro} cuando el
+     * diccionario crece de forma incremental: reconstruir el filtro no
+     * termina la migración en curso.
+     */
+    @Test public void testUsaFiltroIncremental() {
+        for (TipoFiltro tipo : TipoFiltro.values()) {
+            diccionario = new Diccionario<String, String>(N, (s) -> s.hashCode(),
+                                                          true);
+            diccionario.usaFiltro(tipo, 0.01);
+            String[] arreglo = new String[total * 64];
+            int ini = random.nextInt(10000);
+            for (int i = 0; i < arreglo.length; i++) {
+                arreglo[i] = String.format("%x", ini + i * 1000);
+                int pendientes = diccionario.cubetasPorMigrar();
+                diccionario.agrega(arreglo[i], arreglo[i]);
+                int p = diccionario.cubetasPorMigrar();
+                Assert.assertTrue(p > pendientes ||
+                                  pendientes - p <= MAXIMO_MIGRADAS);
+            }
+            for (int i = 0; i < arreglo.length; i++)
+                Assert.assertTrue(diccionario.contiene(arreglo[i]));
+            Assert.assertFalse(diccionario.contiene("no está"));
+        }
+    }
+
     /**
      * Prueba unitaria para {@link Diccionario#getElementos}.
      */
@@ -304,4 +740,27 @@ public class TestDiccionario {
             diccionario.elimina(llave);
         for (String s : diccionario);
     }
+
+    /**
+     * Prueba unitaria para {@link Diccionario#spliterator}.
+     */
+    @Test public void testSpliterator() {
+        int n = 10000 + random.nextInt(10000);
+        for (int i = 0; i < n; i++)
+            diccionario.agrega("l" + i, "v" + i);
+        Spliterator<String> divisor = diccionario.spliterator();
+        Assert.assertTrue(divisor.getExactSizeIfKnown() == n);
+        Assert.assertFalse(divisor.hasCharacteristics(Spliterator.DISTINCT));
+        Assert.assertTrue(StreamSupport.stream(diccionario.spliterator(), true)
+                          .filter(v -> v.startsWith("v")).count() == n);
+        Coleccion<String> llaves = diccionario.vistaLlaves();
+        Assert.assertTrue(llaves.spliterator()
+                          .hasCharacteristics(Spliterator.DISTINCT));
+        Assert.assertTrue(llaves.parallelStream()
+                          .allMatch(l -> diccionario.contiene(l)));
+        Assert.assertTrue(llaves.parallelStream().distinct().count() == n);
+        Assert.assertTrue(diccionario.vistaValores().parallelStream()
+                          .mapToInt(v -> Integer.parseInt(v.substring(1)))
+                          .sum() == n * (n - 1) / 2);
+    }
 }
@@ -0,0 +1,167 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.DiccionarioConcurrente;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioConcurrente}.
+ */
+public class TestDiccionarioConcurrente {
+
+    private int total;
+    private Random random;
+    private DiccionarioConcurrente<String, String> diccionario;
+
+    private static final int N = 64;
+    private static final int HILOS = 4;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioConcurrente() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioConcurrente<String, String>();
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#DiccionarioConcurrente}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.llaves().getLongitud() == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        try {
+            new DiccionarioConcurrente<String, String>(N, (s) -> 0, 0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#DiccionarioConcurrente}
+     * con un tamaño enorme: el constructor tiene que terminar, aunque sea
+     * porque no alcanza la memoria.
+     */
+    @Test public void testConstructorGrande() {
+        try {
+            diccionario =
+                new DiccionarioConcurrente<String, String>(1200000000,
+                                                           (s) -> s.hashCode(),
+                                                           16);
+            Assert.assertTrue(diccionario.esVacio());
+        } catch (OutOfMemoryError oome) {}
+        diccionario = null;
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#agrega}.
+     */
+    @Test public void testAgrega() {
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total * 8; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            Assert.assertFalse(diccionario.contiene(s));
+            diccionario.agrega(s, s);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.get(s).equals(s));
+            Assert.assertTrue(diccionario.carga() < DiccionarioConcurrente.MAXIMA_CARGA);
+        }
+        String k = String.format("%x", ini);
+        diccionario.agrega(k, "X");
+        Assert.assertTrue(diccionario.getElementos() == total*8);
+        Assert.assertTrue(diccionario.get(k).equals("X"));
+        try {
+            diccionario.agrega(null, "X");
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            diccionario.agrega("X", null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#elimina}.
+     */
+    @Test public void testElimina() {
+        diccionario = new DiccionarioConcurrente<String, String>(N, (s) -> 0, 1);
+        String[] arreglo = new String[total];
+        int ini = random.nextInt(10000);
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = String.format("%x", ini + i * 1000);
+            diccionario.agrega(arreglo[i], arreglo[i]);
+        }
+        for (int i = 0; i < total; i += 2)
+            diccionario.elimina(arreglo[i]);
+        for (int i = 0; i < total; i++) {
+            if (i % 2 == 0)
+                Assert.assertFalse(diccionario.contiene(arreglo[i]));
+            else
+                Assert.assertTrue(diccionario.get(arreglo[i]).equals(arreglo[i]));
+        }
+        Assert.assertTrue(diccionario.getElementos() == total - (total+1)/2);
+        try {
+            diccionario.elimina(arreglo[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            diccionario.get(arreglo[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente#iterator}.
+     */
+    @Test public void testIterator() {
+        int ini = random.nextInt(10000);
+        Lista<String> lista = new Lista<String>();
+        for (int i = 0; i < total; i++) {
+            String s = String.format("%x", ini + i * 1000);
+            diccionario.agrega(s, s);
+            lista.agregaFinal(s);
+        }
+        int c = 0;
+        for (String s : diccionario) {
+            Assert.assertTrue(lista.contiene(s));
+            lista.elimina(s);
+            c++;
+        }
+        Assert.assertTrue(c == total);
+        Assert.assertTrue(diccionario.valores().getLongitud() == total);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioConcurrente} con varios hilos
+     * agregando, buscando y eliminando al mismo tiempo.
+     */
+    @Test public void testHilos() throws InterruptedException {
+        int n = total * 100;
+        Thread[] hilos = new Thread[HILOS];
+        for (int h = 0; h < HILOS; h++) {
+            int hilo = h;
+            hilos[h] = new Thread(() -> {
+                for (int i = 0; i < n; i++) {
+                    String s = hilo + ":" + i;
+                    diccionario.agrega(s, s);
+                    if (!diccionario.get(s).equals(s))
+                        throw new AssertionError();
+                }
+                for (int i = 0; i < n; i += 2)
+                    diccionario.elimina(hilo + ":" + i);
+            });
+            hilos[h].start();
+        }
+        for (Thread hilo : hilos)
+            hilo.join();
+        Assert.assertTrue(diccionario.getElementos() == HILOS * (n / 2));
+        for (int h = 0; h < HILOS; h++)
+            for (int i = 0; i < n; i++)
+                Assert.assertTrue(diccionario.contiene(h + ":" + i) == (i % 2 == 1));
+    }
+}
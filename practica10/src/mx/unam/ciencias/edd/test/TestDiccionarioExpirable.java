@@ -0,0 +1,159 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import mx.unam.ciencias.edd.DiccionarioExpirable;
+import mx.unam.ciencias.edd.EstructuraExpiracion;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioExpirable}.
+ */
+public class TestDiccionarioExpirable {
+
+    private int total;
+    private Random random;
+    /* El reloj de las pruebas, que sólo avanza cuando lo movemos. */
+    private long[] ahora;
+
+    /**
+     * Crea un generador de números aleatorios y un reloj para cada prueba.
+     */
+    public TestDiccionarioExpirable() {
+        random = new Random();
+        total = 64 + random.nextInt(64);
+        ahora = new long[] { random.nextLong() };
+    }
+
+    /* Crea un diccionario con el reloj de las pruebas. */
+    private DiccionarioExpirable<Integer, Integer>
+    nuevo(long ttl, EstructuraExpiracion estructura) {
+        return new DiccionarioExpirable<Integer, Integer>(
+            ttl, TimeUnit.NANOSECONDS, estructura, () -> ahora[0]);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioExpirable#DiccionarioExpirable}.
+     */
+    @Test public void testConstructor() {
+        for (EstructuraExpiracion estructura : EstructuraExpiracion.values()) {
+            DiccionarioExpirable<Integer, Integer> d = nuevo(1, estructura);
+            Assert.assertTrue(d.esVacio());
+            Assert.assertTrue(d.getElementos() == 0);
+            Assert.assertTrue(d.getExpiradas() == 0);
+        }
+        try {
+            new DiccionarioExpirable<Integer, Integer>(0, TimeUnit.SECONDS);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new DiccionarioExpirable<Integer, Integer>(1, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new DiccionarioExpirable<Integer, Integer>(1, TimeUnit.SECONDS, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioExpirable#agrega} y {@link
+     * DiccionarioExpirable#get}.
+     */
+    @Test public void testAgrega() {
+        for (EstructuraExpiracion estructura : EstructuraExpiracion.values()) {
+            long ttl = TimeUnit.SECONDS.toNanos(1 + random.nextInt(100));
+            DiccionarioExpirable<Integer, Integer> d = nuevo(ttl, estructura);
+            for (int i = 0; i < total; i++) {
+                d.agrega(i, i);
+                Assert.assertTrue(d.get(i) == i);
+                Assert.assertTrue(d.getTiempoRestante(i, TimeUnit.NANOSECONDS) == ttl);
+            }
+            ahora[0] += ttl - 1;
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(d.get(i) == i);
+            /* Reemplazar un valor reinicia su tiempo de vida. */
+            d.agrega(0, -1);
+            ahora[0]++;
+            Assert.assertTrue(d.get(0) == -1);
+            for (int i = 1; i < total; i++) {
+                Assert.assertFalse(d.contiene(i));
+                try {
+                    d.get(i);
+                    Assert.fail();
+                } catch (NoSuchElementException nsee) {}
+            }
+            Assert.assertTrue(d.getElementos() == 1);
+            Assert.assertTrue(d.getExpiradas() == total - 1);
+            try {
+                d.agrega(null, 0);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+            try {
+                d.agrega(0, 0, -1, TimeUnit.SECONDS);
+                Assert.fail();
+            } catch (IllegalArgumentException iae) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioExpirable#elimina}.
+     */
+    @Test public void testElimina() {
+        for (EstructuraExpiracion estructura : EstructuraExpiracion.values()) {
+            DiccionarioExpirable<Integer, Integer> d = nuevo(1000, estructura);
+            for (int i = 0; i < total; i++)
+                d.agrega(i, i, 1 + i % 2, TimeUnit.MILLISECONDS);
+            for (int i = 0; i < total; i += 3)
+                d.elimina(i);
+            ahora[0] += TimeUnit.MILLISECONDS.toNanos(1);
+            for (int i = 0; i < total; i++) {
+                if (i % 3 == 0 || i % 2 == 0) {
+                    try {
+                        d.elimina(i);
+                        Assert.fail();
+                    } catch (NoSuchElementException nsee) {}
+                } else {
+                    d.elimina(i);
+                }
+            }
+            Assert.assertTrue(d.esVacio());
+            d.expira();
+            Assert.assertTrue(d.esVacio());
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioExpirable#expira}, con tiempos
+     * de vida desde microsegundos hasta meses, que ocupan todos los niveles
+     * de la rueda.
+     */
+    @Test public void testExpira() {
+        for (EstructuraExpiracion estructura : EstructuraExpiracion.values()) {
+            DiccionarioExpirable<Integer, Integer> d = nuevo(1, estructura);
+            long[] vence = new long[total * 10];
+            for (int i = 0; i < vence.length; i++) {
+                long ttl = 1 + (random.nextLong() >>> (10 + random.nextInt(50)));
+                vence[i] = ahora[0] + ttl;
+                d.agrega(i, i, ttl, TimeUnit.NANOSECONDS);
+            }
+            int vigentes = vence.length;
+            while (vigentes > 0) {
+                ahora[0] += random.nextLong() >>> (10 + random.nextInt(45));
+                if (random.nextBoolean()) {
+                    d.agrega(-1, -1);
+                    d.elimina(-1);
+                }
+                d.expira();
+                vigentes = 0;
+                for (int i = 0; i < vence.length; i++)
+                    if (vence[i] - ahora[0] > 0)
+                        vigentes++;
+                Assert.assertTrue(d.getElementos() == vigentes);
+                Assert.assertTrue(d.getExpiradas() == vence.length - vigentes);
+            }
+        }
+    }
+}
@@ -0,0 +1,190 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.DiccionarioLong;
+import mx.unam.ciencias.edd.DiccionarioLongObjeto;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de las clases {@link DiccionarioLong} y {@link
+ * DiccionarioLongObjeto}.
+ */
+public class TestDiccionarioLong {
+
+    private int total;
+    private Random random;
+    private DiccionarioLong diccionario;
+
+    private static final int N = 64;
+
+    /**
+     * Crea un diccionario para cada prueba.
+     */
+    public TestDiccionarioLong() {
+        random = new Random();
+        total = N + random.nextInt(N);
+        diccionario = new DiccionarioLong(total);
+    }
+
+    /* Regresa un arreglo de llaves distintas. */
+    private long[] llaves(int n) {
+        long[] a = new long[n];
+        long ini = random.nextLong() >> 16;
+        for (int i = 0; i < n; i++)
+            a[i] = ini + i * 1000;
+        return a;
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLong#DiccionarioLong}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(diccionario.esVacio());
+        Assert.assertTrue(diccionario.getElementos() == 0);
+        Assert.assertTrue(diccionario.llaves().length == 0);
+        Assert.assertTrue(diccionario.valores().length == 0);
+        Assert.assertTrue(diccionario.carga() == 0.0);
+        Assert.assertTrue(diccionario.colisiones() == 0);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLong#agrega}.
+     */
+    @Test public void testAgrega() {
+        long[] a = llaves(total * 4);
+        for (int i = 0; i < a.length; i++) {
+            Assert.assertFalse(diccionario.contiene(a[i]));
+            diccionario.agrega(a[i], -a[i]);
+            Assert.assertTrue(diccionario.getElementos() == i+1);
+            Assert.assertTrue(diccionario.get(a[i]) == -a[i]);
+            Assert.assertTrue(diccionario.carga() < DiccionarioLong.MAXIMA_CARGA);
+        }
+        diccionario.agrega(a[0], a[0]);
+        Assert.assertTrue(diccionario.getElementos() == a.length);
+        Assert.assertTrue(diccionario.get(a[0]) == a[0]);
+        for (int i = 1; i < a.length; i++)
+            Assert.assertTrue(diccionario.get(a[i]) == -a[i]);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLong#get}.
+     */
+    @Test public void testGet() {
+        long[] a = llaves(total);
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(a[i], i);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(diccionario.get(a[i]) == i);
+        try {
+            diccionario.get(a[0] - 1);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLong#elimina}.
+     */
+    @Test public void testElimina() {
+        diccionario = new DiccionarioLong(total, (long n) -> 0);
+        long[] a = llaves(total);
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(a[i], a[i]);
+        Assert.assertTrue(diccionario.colisionMaxima() == total - 1);
+        for (int i = 0; i < total; i += 2) {
+            diccionario.elimina(a[i]);
+            Assert.assertFalse(diccionario.contiene(a[i]));
+        }
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(diccionario.get(a[i]) == a[i]);
+        Assert.assertTrue(diccionario.getElementos() == total / 2);
+        try {
+            diccionario.elimina(a[0]);
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLong#llaves} y {@link
+     * DiccionarioLong#valores}.
+     */
+    @Test public void testLlavesValores() {
+        long[] a = llaves(total);
+        for (int i = 0; i < total; i++)
+            diccionario.agrega(a[i], a[i] * 2);
+        long[] ll = diccionario.llaves();
+        long[] lv = diccionario.valores();
+        Assert.assertTrue(ll.length == total);
+        Assert.assertTrue(lv.length == total);
+        for (int i = 0; i < total; i++) {
+            Assert.assertTrue(diccionario.contiene(ll[i]));
+            Assert.assertTrue(lv[i] == ll[i] * 2);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLong#equals}.
+     */
+    @Test public void testEquals() {
+        DiccionarioLong d2 = new DiccionarioLong();
+        Assert.assertTrue(diccionario.equals(d2));
+        long[] a = llaves(total);
+        for (int i = 0; i < total; i++) {
+            diccionario.agrega(a[i], a[i]);
+            d2.agrega(a[total - i - 1], a[total - i - 1]);
+        }
+        Assert.assertTrue(diccionario.equals(d2));
+        d2.agrega(a[0], a[0] + 1);
+        Assert.assertFalse(diccionario.equals(d2));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLong#colisionMaxima} con llaves empacadas <code>(x &lt;&lt; 32) | y</code> con <code>x ^ y</code>
+     * fijo, que no deben formar un solo racimo.
+     */
+    @Test public void testLlavesEmpacadas() {
+        int n = total * 100;
+        int m = random.nextInt(1 << 16);
+        DiccionarioLong d = new DiccionarioLong();
+        DiccionarioLongObjeto<String> o = new DiccionarioLongObjeto<String>();
+        for (int x = 0; x < n; x++) {
+            long llave = ((long)x << 32) | (x ^ m);
+            d.agrega(llave, x);
+            o.agrega(llave, String.valueOf(x));
+        }
+        Assert.assertTrue(d.getElementos() == n);
+        Assert.assertTrue(o.getElementos() == n);
+        Assert.assertTrue(d.colisionMaxima() < n / 10);
+        Assert.assertTrue(o.colisionMaxima() < n / 10);
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioLongObjeto}.
+     */
+    @Test public void testDiccionarioObjeto() {
+        DiccionarioLongObjeto<String> d = new DiccionarioLongObjeto<String>(total);
+        long[] a = llaves(total);
+        for (int i = 0; i < total; i++) {
+            d.agrega(a[i], String.valueOf(a[i]));
+            Assert.assertTrue(d.get(a[i]).equals(String.valueOf(a[i])));
+        }
+        Assert.assertTrue(d.getElementos() == total);
+        try {
+            d.agrega(a[0], null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        Lista<String> lista = new Lista<String>();
+        for (String s : d)
+            lista.agrega(s);
+        Assert.assertTrue(lista.getLongitud() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(lista.contiene(String.valueOf(a[i])));
+        for (int i = 0; i < total; i++) {
+            d.elimina(a[i]);
+            Assert.assertFalse(d.contiene(a[i]));
+        }
+        Assert.assertTrue(d.esVacio());
+    }
+}
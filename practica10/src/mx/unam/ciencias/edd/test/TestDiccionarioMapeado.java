@@ -0,0 +1,170 @@
+package mx.unam.ciencias.edd.test;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoPicadillo;
+import mx.unam.ciencias.edd.Codificador;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.DiccionarioMapeado;
+import mx.unam.ciencias.edd.Lista;
+import org.junit.After;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link DiccionarioMapeado}.
+ */
+public class TestDiccionarioMapeado {
+
+    private int total;
+    private Random random;
+    private Path archivo;
+
+    /**
+     * Crea un archivo temporal para cada prueba.
+     * @throws IOException si no se puede crear el archivo.
+     */
+    public TestDiccionarioMapeado() throws IOException {
+        random = new Random();
+        total = 100 + random.nextInt(1000);
+        archivo = Files.createTempFile("diccionario", ".edd");
+    }
+
+    /**
+     * Borra el archivo temporal.
+     * @throws IOException si no se puede borrar el archivo.
+     */
+    @After public void borraArchivo() throws IOException {
+        Files.deleteIfExists(archivo);
+    }
+
+    /* Crea un diccionario con cadenas aleatorias como llaves. */
+    private Diccionario<String, Integer> diccionario() {
+        Diccionario<String, Integer> d = new Diccionario<String, Integer>();
+        while (d.getElementos() < total) {
+            char[] c = new char[1 + random.nextInt(20)];
+            for (int i = 0; i < c.length; i++)
+                c[i] = (char)('a' + random.nextInt(26));
+            d.agrega(new String(c), random.nextInt());
+        }
+        return d;
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioMapeado#guarda} y {@link
+     * DiccionarioMapeado#abre}.
+     * @throws IOException si ocurre un error con el archivo.
+     */
+    @Test public void testGuardaAbre() throws IOException {
+        for (AlgoritmoPicadillo algoritmo : AlgoritmoPicadillo.values()) {
+            Diccionario<String, Integer> d = diccionario();
+            DiccionarioMapeado.guarda(d, archivo, Codificador.cadenas(),
+                                      Codificador.enteros(), algoritmo);
+            DiccionarioMapeado<String, Integer> m =
+                DiccionarioMapeado.abre(archivo, Codificador.cadenas(),
+                                        Codificador.enteros());
+            Assert.assertTrue(m.getAlgoritmo() == algoritmo);
+            Assert.assertTrue(m.getElementos() == total);
+            Assert.assertFalse(m.esVacio());
+            for (String llave : d.llaves()) {
+                Assert.assertTrue(m.contiene(llave));
+                Assert.assertTrue(m.get(llave).equals(d.get(llave)));
+            }
+            Assert.assertFalse(m.contiene("0"));
+            Assert.assertFalse(m.contiene(""));
+            try {
+                m.get("0");
+                Assert.fail();
+            } catch (NoSuchElementException nsee) {}
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioMapeado#llaves}, {@link
+     * DiccionarioMapeado#valores} y {@link DiccionarioMapeado#aDiccionario}.
+     * @throws IOException si ocurre un error con el archivo.
+     */
+    @Test public void testLlavesValores() throws IOException {
+        Diccionario<String, Integer> d = diccionario();
+        DiccionarioMapeado.guarda(d, archivo, Codificador.cadenas(),
+                                  Codificador.enteros());
+        DiccionarioMapeado<String, Integer> m =
+            DiccionarioMapeado.abre(archivo, Codificador.cadenas(),
+                                    Codificador.enteros());
+        Lista<String> llaves = m.llaves();
+        Lista<Integer> valores = m.valores();
+        Assert.assertTrue(llaves.getLongitud() == total);
+        Assert.assertTrue(valores.getLongitud() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(d.get(llaves.get(i)).equals(valores.get(i)));
+        int n = 0;
+        for (Integer valor : m)
+            Assert.assertTrue(valor.equals(valores.get(n++)));
+        Assert.assertTrue(n == total);
+        Assert.assertTrue(m.aDiccionario().equals(d));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioMapeado#guarda} con un
+     * diccionario vacío y con valores grandes.
+     * @throws IOException si ocurre un error con el archivo.
+     */
+    @Test public void testGuardaExtremos() throws IOException {
+        Diccionario<Long, byte[]> d = new Diccionario<Long, byte[]>();
+        DiccionarioMapeado.guarda(d, archivo, Codificador.largos(),
+                                  Codificador.bytes());
+        DiccionarioMapeado<Long, byte[]> m =
+            DiccionarioMapeado.abre(archivo, Codificador.largos(),
+                                    Codificador.bytes());
+        Assert.assertTrue(m.esVacio());
+        Assert.assertFalse(m.contiene(0L));
+        Assert.assertFalse(m.iterator().hasNext());
+        for (long i = 0; i < 4; i++) {
+            byte[] b = new byte[100000 + random.nextInt(100000)];
+            random.nextBytes(b);
+            d.agrega(i, b);
+        }
+        DiccionarioMapeado.guarda(d, archivo, Codificador.largos(),
+                                  Codificador.bytes());
+        m = DiccionarioMapeado.abre(archivo, Codificador.largos(),
+                                    Codificador.bytes());
+        for (long i = 0; i < 4; i++)
+            Assert.assertArrayEquals(d.get(i), m.get(i));
+    }
+
+    /**
+     * Prueba unitaria para {@link DiccionarioMapeado#abre} con archivos
+     * inválidos.
+     * @throws IOException si ocurre un error con el archivo.
+     */
+    @Test public void testAbreInvalido() throws IOException {
+        Files.write(archivo, new byte[] { 1, 2, 3 });
+        try {
+            DiccionarioMapeado.abre(archivo, Codificador.cadenas(),
+                                    Codificador.enteros());
+            Assert.fail();
+        } catch (IOException ioe) {}
+        byte[] basura = new byte[1000];
+        random.nextBytes(basura);
+        Files.write(archivo, basura);
+        try {
+            DiccionarioMapeado.abre(archivo, Codificador.cadenas(),
+                                    Codificador.enteros());
+            Assert.fail();
+        } catch (IOException ioe) {}
+        DiccionarioMapeado.guarda(diccionario(), archivo, Codificador.cadenas(),
+                                  Codificador.enteros());
+        byte[] bytes = Files.readAllBytes(archivo);
+        byte[] truncado = new byte[bytes.length - 1];
+        System.arraycopy(bytes, 0, truncado, 0, truncado.length);
+        Files.write(archivo, truncado);
+        try {
+            DiccionarioMapeado.abre(archivo, Codificador.cadenas(),
+                                    Codificador.enteros());
+            Assert.fail();
+        } catch (IOException ioe) {}
+    }
+}
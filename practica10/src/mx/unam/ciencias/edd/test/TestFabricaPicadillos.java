@@ -1,9 +1,13 @@
 package mx.unam.ciencias.edd.test;
 
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.charset.StandardCharsets;
 import java.util.Random;
 import mx.unam.ciencias.edd.AlgoritmoPicadillo;
 import mx.unam.ciencias.edd.FabricaPicadillos;
 import mx.unam.ciencias.edd.Picadillo;
+import mx.unam.ciencias.edd.Picadillo64;
 import org.junit.Assert;
 import org.junit.Test;
 
@@ -13,6 +17,17 @@ import org.junit.Test;
 public class TestFabricaPicadillos {
 
     private Picadillo<String> picadillo;
+    private Random random = new Random();
+    private String[] noAscii = {
+        "ñ",
+        "canción",
+        "añoñoñoñoñoñoñoñoñoñoñoño",
+        "€uro",
+        "\uD83D\uDE00 cara",
+        "sustituto \uD800 solo",
+        "\uDC00",
+        "árbol rojinegro con acentos: áéíóú"
+    };
     private String[] mensajes = {
         "a",
         "ab",
@@ -42,6 +57,11 @@ public class TestFabricaPicadillos {
         "abcdefghijklmnopqrstuvwxyz"
     };
 
+    private static final String ZORRO =
+        "The quick brown fox jumps over the lazy dog";
+    private static final String NADIE =
+        "Nobody inspects the spammish repetition";
+
    private int[] picadillosBJ = {
         0x3c3b12c7, 0x87d283ec, 0xa4e034c3, 0x90cc7c5f, 0x88934524,
         0xe765b9c0, 0xebd77ecb, 0x76e1f9f5, 0x4943f137, 0xb4ac0622,
@@ -104,4 +124,229 @@ public class TestFabricaPicadillos {
         for (String mensaje : mensajes)
             Assert.assertTrue(bj.picadillo(mensaje) == picadillosXOR[i++]);
     }
+
+    /* Copia el mensaje a un arreglo más grande, en una posición aleatoria. */
+    private byte[] enArreglo(byte[] bytes, int inicio) {
+        byte[] k = new byte[inicio + bytes.length + random.nextInt(8)];
+        random.nextBytes(k);
+        System.arraycopy(bytes, 0, k, inicio, bytes.length);
+        return k;
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#picadilloBJ(byte[],int,int)},
+     * {@link FabricaPicadillos#picadilloGLib(byte[],int,int)} y {@link
+     * FabricaPicadillos#picadilloXOR(byte[],int,int)}.
+     */
+    @Test public void testPicadilloPedazo() {
+        int i = 0;
+        for (String mensaje : mensajes) {
+            byte[] bytes = mensaje.getBytes(StandardCharsets.UTF_8);
+            int inicio = random.nextInt(8);
+            byte[] k = enArreglo(bytes, inicio);
+            Assert.assertTrue(FabricaPicadillos.picadilloBJ(k, inicio, bytes.length) ==
+                              picadillosBJ[i]);
+            Assert.assertTrue(FabricaPicadillos.picadilloGLib(k, inicio, bytes.length) ==
+                              picadillosGLib[i]);
+            Assert.assertTrue(FabricaPicadillos.picadilloXOR(k, inicio, bytes.length) ==
+                              picadillosXOR[i]);
+            i++;
+        }
+        try {
+            FabricaPicadillos.picadilloBJ(new byte[4], 2, 3);
+            Assert.fail();
+        } catch (IndexOutOfBoundsException ioobe) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#picadilloBJ(String)},
+     * {@link FabricaPicadillos#picadilloGLib(String)} y {@link
+     * FabricaPicadillos#picadilloXOR(String)} con cadenas que no son ASCII.
+     */
+    @Test public void testPicadilloNoAscii() {
+        for (String mensaje : noAscii) {
+            byte[] k = mensaje.getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(FabricaPicadillos.picadilloBJ(mensaje) ==
+                              FabricaPicadillos.picadilloBJ(k, 0, k.length));
+            Assert.assertTrue(FabricaPicadillos.picadilloGLib(mensaje) ==
+                              FabricaPicadillos.picadilloGLib(k, 0, k.length));
+            Assert.assertTrue(FabricaPicadillos.picadilloXOR(mensaje) ==
+                              FabricaPicadillos.picadilloXOR(k, 0, k.length));
+        }
+        Assert.assertTrue(FabricaPicadillos.picadilloBJ("") ==
+                          FabricaPicadillos.picadilloBJ(new byte[0], 0, 0));
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#picadilloMurmur3} con
+     * vectores de prueba conocidos.
+     */
+    @Test public void testMurmur3() {
+        Assert.assertTrue(FabricaPicadillos.picadilloMurmur3("", 0) == 0);
+        Assert.assertTrue(FabricaPicadillos.picadilloMurmur3("", 1) == 0x514e28b7);
+        Assert.assertTrue(FabricaPicadillos.picadilloMurmur3("", -1) == 0x81f16f39);
+        Assert.assertTrue(FabricaPicadillos.picadilloMurmur3(new byte[4], 0, 4, 0) ==
+                          0x2362f9de);
+        Assert.assertTrue(FabricaPicadillos.picadilloMurmur3("hello", 0) == 0x248bfa47);
+        Assert.assertTrue(FabricaPicadillos.picadilloMurmur3("Hello, world!", 1234) ==
+                          0xfaf6cdb3);
+        Assert.assertTrue(FabricaPicadillos.picadilloMurmur3(ZORRO, 0x9747b28c) ==
+                          0x2fa826cd);
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#picadilloXXHash32} con
+     * vectores de prueba conocidos.
+     */
+    @Test public void testXXHash32() {
+        Assert.assertTrue(FabricaPicadillos.picadilloXXHash32("", 0) == 0x02cc5d05);
+        Assert.assertTrue(FabricaPicadillos.picadilloXXHash32("abc", 0) == 0x32d153ff);
+        Assert.assertTrue(FabricaPicadillos.picadilloXXHash32(NADIE, 0) == 0xe2293b2f);
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#picadilloXXHash64} con
+     * vectores de prueba conocidos.
+     */
+    @Test public void testXXHash64() {
+        Assert.assertTrue(FabricaPicadillos.picadilloXXHash64("", 0) ==
+                          0xef46db3751d8e999L);
+        Assert.assertTrue(FabricaPicadillos.picadilloXXHash64("abc", 0) ==
+                          0x44bc2cf5ad770999L);
+        Assert.assertTrue(FabricaPicadillos.picadilloXXHash64(NADIE, 0) ==
+                          0xfbcea83c8a378bf1L);
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#picadilloSipHash} con el
+     * vector de prueba de la llave 00 01 ... 0f.
+     */
+    @Test public void testSipHash() {
+        byte[] k = new byte[16];
+        for (int i = 0; i < k.length; i++)
+            k[i] = (byte)i;
+        Assert.assertTrue(FabricaPicadillos.picadilloSipHash(k, 0, 0,
+                                                             0x0706050403020100L,
+                                                             0x0f0e0d0c0b0a0908L) ==
+                          0xabac0158050fc4dcL);
+        for (String mensaje : mensajes) {
+            byte[] bytes = mensaje.getBytes(StandardCharsets.UTF_8);
+            Assert.assertTrue(FabricaPicadillos.picadilloSipHash(mensaje, 1, 2) ==
+                              FabricaPicadillos.picadilloSipHash(bytes, 0, bytes.length,
+                                                                 1, 2));
+            Assert.assertTrue(FabricaPicadillos.picadilloSipHash(mensaje, 1, 2) !=
+                              FabricaPicadillos.picadilloSipHash(mensaje, 2, 1));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#getInstancia(AlgoritmoPicadillo,long)},
+     * {@link FabricaPicadillos#getInstanciaAleatoria} y {@link
+     * FabricaPicadillos#getInstancia64}.
+     */
+    @Test public void testGetInstanciaSemilla() {
+        AlgoritmoPicadillo[] algoritmos = {
+            AlgoritmoPicadillo.MURMUR3_STRING, AlgoritmoPicadillo.XXHASH32_STRING,
+            AlgoritmoPicadillo.XXHASH64_STRING, AlgoritmoPicadillo.SIPHASH_STRING
+        };
+        long semilla = random.nextLong();
+        for (AlgoritmoPicadillo algoritmo : algoritmos) {
+            Picadillo<String> p1 = FabricaPicadillos.getInstancia(algoritmo, semilla);
+            Picadillo<String> p2 = FabricaPicadillos.getInstancia(algoritmo, semilla);
+            Picadillo<String> p3 = FabricaPicadillos.getInstancia(algoritmo, ~semilla);
+            Picadillo<String> pa = FabricaPicadillos.getInstanciaAleatoria(algoritmo);
+            Picadillo<String> pb = FabricaPicadillos.getInstanciaAleatoria(algoritmo);
+            int distintos = 0, aleatorios = 0;
+            for (String mensaje : mensajes) {
+                Assert.assertTrue(p1.picadillo(mensaje) == p2.picadillo(mensaje));
+                if (p1.picadillo(mensaje) != p3.picadillo(mensaje))
+                    distintos++;
+                if (pa.picadillo(mensaje) != pb.picadillo(mensaje))
+                    aleatorios++;
+            }
+            Assert.assertTrue(distintos > mensajes.length / 2);
+            Assert.assertTrue(aleatorios > mensajes.length / 2);
+        }
+        Picadillo64<String> xx =
+            FabricaPicadillos.getInstancia64(AlgoritmoPicadillo.XXHASH64_STRING, 0);
+        Assert.assertTrue(xx.picadillo("abc") == 0x44bc2cf5ad770999L);
+        Picadillo64<String> sip =
+            FabricaPicadillos.getInstancia64(AlgoritmoPicadillo.SIPHASH_STRING, semilla);
+        Assert.assertTrue(sip.picadillo("abc") == sip.picadillo("abc"));
+        try {
+            FabricaPicadillos.getInstancia(AlgoritmoPicadillo.BJ_STRING, semilla);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            FabricaPicadillos.getInstancia64(AlgoritmoPicadillo.MURMUR3_STRING, semilla);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#getInstanciaBytes}.
+     */
+    @Test public void testGetInstanciaBytes() {
+        for (AlgoritmoPicadillo algoritmo : AlgoritmoPicadillo.values()) {
+            Picadillo<String> ps = FabricaPicadillos.getInstancia(algoritmo);
+            Picadillo<byte[]> pb = FabricaPicadillos.getInstanciaBytes(algoritmo);
+            for (String mensaje : mensajes)
+                Assert.assertTrue(ps.picadillo(mensaje) ==
+                                  pb.picadillo(mensaje.getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FabricaPicadillos#getInstanciaBuffer} con
+     * buffers en el montón y directos, de los dos órdenes de bytes.
+     */
+    @Test public void testGetInstanciaBuffer() {
+        byte[] k = new byte[100 + random.nextInt(1000)];
+        random.nextBytes(k);
+        int inicio = random.nextInt(50);
+        int longitud = random.nextInt(k.length - inicio);
+        byte[] pedazo = new byte[longitud];
+        System.arraycopy(k, inicio, pedazo, 0, longitud);
+        ByteBuffer directo = ByteBuffer.allocateDirect(k.length);
+        directo.put(k);
+        ByteBuffer[] buffers = {
+            ByteBuffer.wrap(k),
+            ByteBuffer.wrap(k).asReadOnlyBuffer(),
+            directo,
+            directo.duplicate().order(ByteOrder.LITTLE_ENDIAN)
+        };
+        for (AlgoritmoPicadillo algoritmo : AlgoritmoPicadillo.values()) {
+            Picadillo<byte[]> pb = FabricaPicadillos.getInstanciaBytes(algoritmo);
+            Picadillo<ByteBuffer> pbb = FabricaPicadillos.getInstanciaBuffer(algoritmo);
+            for (ByteBuffer b : buffers) {
+                b.limit(inicio + longitud);
+                b.position(inicio);
+                Assert.assertTrue(pbb.picadillo(b) == pb.picadillo(pedazo));
+                Assert.assertTrue(b.position() == inicio);
+                Assert.assertTrue(b.limit() == inicio + longitud);
+            }
+        }
+        long semilla = random.nextLong();
+        for (ByteBuffer b : buffers)
+            Assert.assertTrue(FabricaPicadillos.picadilloXXHash64(b, inicio, longitud,
+                                                                  semilla) ==
+                              FabricaPicadillos.picadilloXXHash64(k, inicio, longitud,
+                                                                  semilla));
+    }
+
+    /**
+     * Prueba unitaria para {@link Picadillo#picadillos}.
+     */
+    @Test public void testPicadillos() {
+        Picadillo<String> xx =
+            FabricaPicadillos.getInstancia(AlgoritmoPicadillo.XXHASH64_STRING);
+        int[] picadillos = new int[mensajes.length];
+        xx.picadillos(mensajes, picadillos);
+        for (int i = 0; i < mensajes.length; i++)
+            Assert.assertTrue(picadillos[i] == xx.picadillo(mensajes[i]));
+        try {
+            xx.picadillos(mensajes, new int[mensajes.length - 1]);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
 }
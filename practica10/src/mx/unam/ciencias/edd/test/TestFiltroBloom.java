@@ -0,0 +1,82 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.FiltroBloom;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroBloom}.
+ */
+public class TestFiltroBloom {
+
+    private int total;
+    private Random random;
+    private FiltroBloom<String> filtro;
+
+    /**
+     * Crea un filtro para cada prueba.
+     */
+    public TestFiltroBloom() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+        filtro = new FiltroBloom<String>(total, 0.01);
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#FiltroBloom}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(filtro.getElementos() == 0);
+        Assert.assertFalse(filtro.esEliminable());
+        Assert.assertTrue(filtro.probabilidadFalsoPositivo() == 0.0);
+        Assert.assertTrue(filtro.getK() == 7);
+        Assert.assertTrue(filtro.getBits() >= total * 9);
+        try {
+            new FiltroBloom<String>(0, 0.01);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<String>(total, 1.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroBloom<String>(total, 0.01, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#agrega} y {@link
+     * FiltroBloom#puedeContener}: no hay falsos negativos y los falsos
+     * positivos están cerca de la probabilidad pedida.
+     */
+    @Test public void testPuedeContener() {
+        for (double p : new double[] { 0.1, 0.01, 0.001 }) {
+            filtro = new FiltroBloom<String>(total, p);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(filtro.agrega("llave" + i));
+            Assert.assertTrue(filtro.getElementos() == total);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(filtro.puedeContener("llave" + i));
+            int n = 100000, falsos = 0;
+            for (int i = 0; i < n; i++)
+                if (filtro.puedeContener("otra" + i))
+                    falsos++;
+            Assert.assertTrue((double)falsos / n < 2 * p);
+            Assert.assertTrue(filtro.probabilidadFalsoPositivo() < 2 * p);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroBloom#elimina}.
+     */
+    @Test public void testElimina() {
+        filtro.agrega("a");
+        try {
+            filtro.elimina("a");
+            Assert.fail();
+        } catch (UnsupportedOperationException uoe) {}
+        Assert.assertTrue(filtro.puedeContener("a"));
+    }
+}
@@ -0,0 +1,117 @@
+package mx.unam.ciencias.edd.test;
+
+import java.util.Random;
+import mx.unam.ciencias.edd.FiltroCuckoo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link FiltroCuckoo}.
+ */
+public class TestFiltroCuckoo {
+
+    private int total;
+    private Random random;
+    private FiltroCuckoo<String> filtro;
+
+    /**
+     * Crea un filtro para cada prueba.
+     */
+    public TestFiltroCuckoo() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+        filtro = new FiltroCuckoo<String>(total, 0.01);
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroCuckoo#FiltroCuckoo}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(filtro.getElementos() == 0);
+        Assert.assertTrue(filtro.esEliminable());
+        Assert.assertTrue(filtro.probabilidadFalsoPositivo() == 0.0);
+        Assert.assertTrue(filtro.getBitsHuella() == 10);
+        try {
+            new FiltroCuckoo<String>(-1, 0.01);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroCuckoo<String>(total, 0.0);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            new FiltroCuckoo<String>(total, 0.01, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroCuckoo#agrega} y {@link
+     * FiltroCuckoo#puedeContener}: no hay falsos negativos y los falsos
+     * positivos están cerca de la probabilidad pedida.
+     */
+    @Test public void testPuedeContener() {
+        for (double p : new double[] { 0.1, 0.01, 0.001 }) {
+            filtro = new FiltroCuckoo<String>(total, p);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(filtro.agrega("llave" + i));
+            Assert.assertTrue(filtro.getElementos() == total);
+            for (int i = 0; i < total; i++)
+                Assert.assertTrue(filtro.puedeContener("llave" + i));
+            int n = 100000, falsos = 0;
+            for (int i = 0; i < n; i++)
+                if (filtro.puedeContener("otra" + i))
+                    falsos++;
+            Assert.assertTrue((double)falsos / n < 2 * p);
+            Assert.assertTrue(filtro.probabilidadFalsoPositivo() < 2 * p);
+        }
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroCuckoo#agrega} cuando el filtro se
+     * llena: deja de aceptar elementos sin olvidar los que ya tenía.
+     */
+    @Test public void testLleno() {
+        filtro = new FiltroCuckoo<String>(100, 0.01);
+        int agregados = 0;
+        while (filtro.agrega("llave" + agregados))
+            agregados++;
+        Assert.assertTrue(agregados >= 100);
+        Assert.assertTrue(filtro.getElementos() == agregados);
+        for (int i = 0; i < agregados; i++)
+            Assert.assertTrue(filtro.puedeContener("llave" + i));
+        for (int i = 0; i < agregados; i += 2)
+            Assert.assertTrue(filtro.elimina("llave" + i));
+        for (int i = 1; i < agregados; i += 2)
+            Assert.assertTrue(filtro.puedeContener("llave" + i));
+        Assert.assertTrue(filtro.agrega("otra"));
+    }
+
+    /**
+     * Prueba unitaria para {@link FiltroCuckoo#elimina}.
+     */
+    @Test public void testElimina() {
+        for (int i = 0; i < total; i++)
+            filtro.agrega("llave" + i);
+        for (int i = 0; i < total; i += 2)
+            Assert.assertTrue(filtro.elimina("llave" + i));
+        Assert.assertTrue(filtro.getElementos() == total - (total + 1) / 2);
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(filtro.puedeContener("llave" + i));
+        int quedan = 0;
+        for (int i = 0; i < total; i += 2)
+            if (filtro.puedeContener("llave" + i))
+                quedan++;
+        Assert.assertTrue(quedan < total / 20);
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(filtro.elimina("llave" + i));
+        Assert.assertTrue(filtro.getElementos() == 0);
+        Assert.assertFalse(filtro.elimina("llave1"));
+        /* Copias de un mismo elemento se agregan y eliminan una por una. */
+        filtro.agrega("x");
+        filtro.agrega("x");
+        Assert.assertTrue(filtro.elimina("x"));
+        Assert.assertTrue(filtro.puedeContener("x"));
+        Assert.assertTrue(filtro.elimina("x"));
+    }
+}
@@ -2,6 +2,7 @@ package mx.unam.ciencias.edd.test;
 
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
 import mx.unam.ciencias.edd.AccionVerticeGrafica;
 import mx.unam.ciencias.edd.Color;
 import mx.unam.ciencias.edd.Grafica;
@@ -526,4 +527,19 @@ public class TestGrafica {
         for (VerticeGrafica<Integer> v : dijkstra)
             Assert.assertTrue(v.getElemento() == c++);
     }
+
+    /**
+     * Prueba unitaria para {@link Grafica#spliterator} y {@link
+     * Grafica#parallelStream}.
+     */
+    @Test public void testStream() {
+        for (int i = 0; i < total; i++)
+            grafica.agrega(i);
+        Spliterator<Integer> divisor = grafica.spliterator();
+        Assert.assertTrue(divisor.getExactSizeIfKnown() == total);
+        Assert.assertTrue(divisor.hasCharacteristics(Spliterator.DISTINCT));
+        Assert.assertTrue(grafica.parallelStream().count() == total);
+        Assert.assertTrue(grafica.parallelStream().mapToInt(e -> e).sum() ==
+                          total * (total - 1) / 2);
+    }
 }
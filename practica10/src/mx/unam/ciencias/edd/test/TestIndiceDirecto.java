@@ -0,0 +1,181 @@
+package mx.unam.ciencias.edd.test;
+
+import java.nio.charset.StandardCharsets;
+import java.util.NoSuchElementException;
+import java.util.Random;
+import mx.unam.ciencias.edd.AlgoritmoPicadillo;
+import mx.unam.ciencias.edd.Diccionario;
+import mx.unam.ciencias.edd.FabricaPicadillos;
+import mx.unam.ciencias.edd.IndiceDirecto;
+import mx.unam.ciencias.edd.Picadillo;
+import org.junit.Assert;
+import org.junit.Test;
+
+/**
+ * Clase para pruebas unitarias de la clase {@link IndiceDirecto}.
+ */
+public class TestIndiceDirecto {
+
+    private int total;
+    private Random random;
+    private IndiceDirecto indice;
+
+    /**
+     * Crea un índice para cada prueba.
+     */
+    public TestIndiceDirecto() {
+        random = new Random();
+        total = 1000 + random.nextInt(1000);
+        indice = new IndiceDirecto();
+    }
+
+    /* Regresa los bytes de una cadena. */
+    private static byte[] b(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    /* Regresa la cadena de unos bytes. */
+    private static String s(byte[] b) {
+        return new String(b, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Prueba unitaria para {@link IndiceDirecto#IndiceDirecto}.
+     */
+    @Test public void testConstructor() {
+        Assert.assertTrue(indice.esVacio());
+        Assert.assertTrue(indice.getElementos() == 0);
+        Assert.assertTrue(indice.carga() == 0.0);
+        Assert.assertTrue(indice.colisiones() == 0);
+        Assert.assertTrue(indice.colisionMaxima() == 0);
+        Assert.assertTrue(indice.getAlgoritmo() == AlgoritmoPicadillo.XXHASH64_STRING);
+        try {
+            new IndiceDirecto(10, null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link IndiceDirecto#agrega} y {@link
+     * IndiceDirecto#get}.
+     */
+    @Test public void testAgrega() {
+        for (int i = 0; i < total; i++) {
+            indice.agrega(b("llave" + i), b("valor" + i));
+            Assert.assertTrue(indice.getElementos() == i + 1);
+            Assert.assertTrue(indice.carga() < IndiceDirecto.MAXIMA_CARGA);
+        }
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(s(indice.get(b("llave" + i))).equals("valor" + i));
+        /* Reemplazamos valores con la misma longitud y con otra. */
+        for (int i = 0; i < total; i++)
+            indice.agrega(b("llave" + i), b(i % 2 == 0 ? "VALOR" + i : "v" + i));
+        Assert.assertTrue(indice.getElementos() == total);
+        for (int i = 0; i < total; i++)
+            Assert.assertTrue(s(indice.get(b("llave" + i)))
+                              .equals(i % 2 == 0 ? "VALOR" + i : "v" + i));
+        indice.agrega(new byte[0], new byte[0]);
+        Assert.assertTrue(indice.get(new byte[0]).length == 0);
+        try {
+            indice.get(b("llave" + total));
+            Assert.fail();
+        } catch (NoSuchElementException nsee) {}
+        try {
+            indice.agrega(null, new byte[1]);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        try {
+            indice.agrega(new byte[1], null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+    }
+
+    /**
+     * Prueba unitaria para {@link IndiceDirecto#elimina}, comparando con un
+     * {@link Diccionario} después de operaciones aleatorias con un picadillo
+     * que produce muchas colisiones.
+     */
+    @Test public void testElimina() {
+        indice = new IndiceDirecto(0, AlgoritmoPicadillo.XOR_STRING);
+        Diccionario<String, String> diccionario = new Diccionario<String, String>();
+        for (int k = 0; k < total * 10; k++) {
+            String llave = String.valueOf(random.nextInt(total));
+            if (random.nextInt(3) == 0) {
+                Assert.assertTrue(diccionario.contiene(llave) ==
+                                  indice.contiene(b(llave)));
+                if (diccionario.contiene(llave)) {
+                    diccionario.elimina(llave);
+                    indice.elimina(b(llave));
+                } else {
+                    try {
+                        indice.elimina(b(llave));
+                        Assert.fail();
+                    } catch (NoSuchElementException nsee) {}
+                }
+            } else {
+                String valor = "x".repeat(random.nextInt(10));
+                diccionario.agrega(llave, valor);
+                indice.agrega(b(llave), b(valor));
+            }
+            Assert.assertTrue(diccionario.getElementos() == indice.getElementos());
+        }
+        for (int i = 0; i < total; i++) {
+            String llave = String.valueOf(i);
+            Assert.assertTrue(diccionario.contiene(llave) == indice.contiene(b(llave)));
+            if (diccionario.contiene(llave))
+                Assert.assertTrue(diccionario.get(llave).equals(s(indice.get(b(llave)))));
+        }
+        for (String llave : diccionario.llaves())
+            indice.elimina(b(llave));
+        Assert.assertTrue(indice.esVacio());
+    }
+
+    /**
+     * Prueba unitaria para {@link IndiceDirecto#compacta} y {@link
+     * IndiceDirecto#limpia}.
+     */
+    @Test public void testCompacta() {
+        for (int i = 0; i < total; i++)
+            indice.agrega(b("llave" + i), new byte[1000]);
+        long bytes = indice.getBytesDirectos();
+        for (int i = 0; i < total; i++)
+            indice.agrega(b("llave" + i), b("valor" + i));
+        for (int i = 0; i < total; i += 2)
+            indice.elimina(b("llave" + i));
+        indice.compacta();
+        Assert.assertTrue(indice.getBytesDirectos() <= bytes);
+        for (int i = 1; i < total; i += 2)
+            Assert.assertTrue(s(indice.get(b("llave" + i))).equals("valor" + i));
+        Assert.assertTrue(indice.getElementos() == total / 2);
+        indice.limpia();
+        Assert.assertTrue(indice.esVacio());
+        Assert.assertFalse(indice.contiene(b("llave1")));
+        indice.agrega(b("llave1"), b("valor"));
+        Assert.assertTrue(s(indice.get(b("llave1"))).equals("valor"));
+    }
+
+    /**
+     * Prueba unitaria para {@link IndiceDirecto#colisiones} y {@link
+     * IndiceDirecto#colisionMaxima}, comparando con un conteo directo de las
+     * cubetas de las llaves.
+     */
+    @Test public void testColisiones() {
+        for (AlgoritmoPicadillo algoritmo : AlgoritmoPicadillo.values()) {
+            indice = new IndiceDirecto(0, algoritmo);
+            Picadillo<byte[]> picadillo = FabricaPicadillos.getInstanciaBytes(algoritmo);
+            for (int i = 0; i < total; i++)
+                indice.agrega(b(String.valueOf(i)), new byte[0]);
+            int n = (int)Math.round(total / indice.carga());
+            int[] cubetas = new int[n];
+            for (int i = 0; i < total; i++)
+                cubetas[picadillo.picadillo(b(String.valueOf(i))) & (n - 1)]++;
+            int colisiones = 0, maxima = 0;
+            for (int c : cubetas) {
+                colisiones += Math.max(0, c - 1);
+                maxima = Math.max(maxima, c - 1);
+            }
+            Assert.assertTrue(indice.colisiones() == colisiones);
+            Assert.assertTrue(indice.colisionMaxima() == maxima);
+        }
+    }
+}
@@ -1,8 +1,15 @@
 package mx.unam.ciencias.edd.test;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.Iterator;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
 import mx.unam.ciencias.edd.Coleccion;
 import mx.unam.ciencias.edd.ExcepcionIndiceInvalido;
 import mx.unam.ciencias.edd.IteradorLista;
@@ -589,6 +596,115 @@ public class TestLista {
         }
     }
 
+    /**
+     * Prueba unitaria para {@link Lista#ordena()}.
+     */
+    @Test public void testOrdena() {
+        lista.ordena();
+        Assert.assertTrue(lista.esVacio());
+        int[] arreglo = new int[total];
+        for (int i = 0; i < total; i++) {
+            arreglo[i] = random.nextInt(total);
+            lista.agrega(arreglo[i]);
+        }
+        lista.ordena();
+        Arrays.sort(arreglo);
+        Assert.assertTrue(lista.getLongitud() == total);
+        int i = 0;
+        for (int e : lista)
+            Assert.assertTrue(e == arreglo[i++]);
+        IteradorLista<Integer> iterador = lista.iteradorLista();
+        iterador.end();
+        while (iterador.hasPrevious())
+            Assert.assertTrue(iterador.previous() == arreglo[--i]);
+        Assert.assertTrue(lista.getPrimero() == arreglo[0]);
+        Assert.assertTrue(lista.getUltimo() == arreglo[total - 1]);
+        lista.ordena();
+        i = 0;
+        for (int e : lista)
+            Assert.assertTrue(e == arreglo[i++]);
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#ordena(Comparator)}.
+     */
+    @Test public void testOrdenaComparador() {
+        try {
+            lista.ordena(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        /* Cada elemento es su llave por total, más su posición original; si
+         * el ordenamiento por llave es estable, la lista queda ordenada. */
+        int llaves = 1 + random.nextInt(5);
+        for (int i = 0; i < total; i++)
+            lista.agrega(random.nextInt(llaves) * total + i);
+        lista.ordena((x, y) -> x / total - y / total);
+        int a = -1;
+        for (int e : lista) {
+            Assert.assertTrue(a < e);
+            a = e;
+        }
+        lista.ordena((x, y) -> y / total - x / total);
+        a = Integer.MAX_VALUE;
+        int anterior = -1;
+        for (int e : lista) {
+            Assert.assertTrue(a >= e / total);
+            if (a == e / total)
+                Assert.assertTrue(anterior < e);
+            a = e / total;
+            anterior = e;
+        }
+        lista.limpia();
+        for (int i = total - 1; i >= 0; i--)
+            lista.agrega(i);
+        lista.ordena(Comparator.naturalOrder());
+        int i = 0;
+        for (int e : lista)
+            Assert.assertTrue(e == i++);
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#ordenaParalelo()} y {@link
+     * Lista#ordenaParalelo(Comparator)}.
+     */
+    @Test public void testOrdenaParalelo() throws Exception {
+        ForkJoinPool hilos = new ForkJoinPool(4);
+        try {
+            lista.ordenaParalelo(null);
+            Assert.fail();
+        } catch (IllegalArgumentException iae) {}
+        int n = 100000 + random.nextInt(100000);
+        for (int i = 0; i < n; i++)
+            lista.agrega(random.nextInt());
+        Lista<Integer> secuencial = lista.copia();
+        secuencial.ordena();
+        hilos.submit(() -> lista.ordenaParalelo()).get();
+        Assert.assertTrue(lista.equals(secuencial));
+        Assert.assertTrue(lista.getUltimo().equals(secuencial.getUltimo()));
+        IteradorLista<Integer> a = lista.iteradorLista();
+        IteradorLista<Integer> b = secuencial.iteradorLista();
+        a.end();
+        b.end();
+        while (a.hasPrevious())
+            Assert.assertTrue(a.previous().equals(b.previous()));
+        /* Con llaves repetidas, el orden de los elementos iguales tiene que
+         * ser el mismo que el secuencial. */
+        lista.limpia();
+        int llaves = 1 + random.nextInt(100);
+        for (int i = 0; i < n; i++)
+            lista.agrega(random.nextInt(llaves) * n + i);
+        secuencial = lista.copia();
+        secuencial.ordena((x, y) -> x / n - y / n);
+        hilos.submit(() -> lista.ordenaParalelo((x, y) -> x / n - y / n)).get();
+        Assert.assertTrue(lista.equals(secuencial));
+        int anterior = -1;
+        for (int e : lista) {
+            Assert.assertTrue(anterior < e);
+            anterior = e;
+        }
+        hilos.shutdown();
+    }
+
     /**
      * Prueba unitaria para {@link Lista#busquedaLineal}.
      */
@@ -601,4 +717,58 @@ public class TestLista {
         int o = lista.getPrimero() - 10;
         Assert.assertFalse(Lista.busquedaLineal(lista, o));
     }
+
+    /**
+     * Prueba unitaria para {@link Lista#get}, {@link Lista#indiceDe}, {@link
+     * Lista#contiene}, {@link Lista#elimina}, {@link Lista#copia} y {@link
+     * Lista#reversa} con listas de diez millones de elementos, que desbordan
+     * la pila si se recorren recursivamente.
+     */
+    @Test public void testListaGrande() {
+        int n = 10000000;
+        for (int i = 0; i < n; i++)
+            lista.agregaFinal(i);
+        int m = random.nextInt(n);
+        Assert.assertTrue(lista.get(m) == m);
+        Assert.assertTrue(lista.get(n - 1) == n - 1);
+        Assert.assertTrue(lista.indiceDe(n - 1) == n - 1);
+        Assert.assertTrue(lista.indiceDe(-1) == -1);
+        Assert.assertTrue(lista.contiene(n - 1));
+        Assert.assertFalse(lista.contiene(n));
+        Lista<Integer> copia = lista.copia();
+        Assert.assertTrue(copia.equals(lista));
+        copia = null;
+        Lista<Integer> reversa = lista.reversa();
+        Assert.assertTrue(reversa.getLongitud() == n);
+        Assert.assertTrue(reversa.getPrimero() == n - 1);
+        Assert.assertTrue(reversa.get(m) == n - 1 - m);
+        reversa = null;
+        lista.elimina(n - 2);
+        Assert.assertTrue(lista.getLongitud() == n - 1);
+        Assert.assertFalse(lista.contiene(n - 2));
+        Assert.assertTrue(lista.getUltimo() == n - 1);
+    }
+
+    /**
+     * Prueba unitaria para {@link Lista#spliterator}, {@link Lista#stream} y
+     * {@link Lista#parallelStream}.
+     */
+    @Test public void testStream() {
+        int n = 10000 + random.nextInt(10000);
+        List<Integer> l = new ArrayList<Integer>();
+        for (int i = 0; i < n; i++) {
+            int e = random.nextInt(total);
+            lista.agrega(e);
+            l.add(e);
+        }
+        Spliterator<Integer> divisor = lista.spliterator();
+        Assert.assertTrue(divisor.hasCharacteristics(Spliterator.ORDERED));
+        Assert.assertTrue(divisor.getExactSizeIfKnown() == n);
+        Assert.assertTrue(lista.stream().collect(Collectors.toList()).equals(l));
+        Assert.assertTrue(lista.parallelStream()
+                          .collect(Collectors.toList()).equals(l));
+        Assert.assertTrue(lista.parallelStream().filter(e -> e < total / 2)
+                          .count() ==
+                          l.stream().filter(e -> e < total / 2).count());
+    }
 }
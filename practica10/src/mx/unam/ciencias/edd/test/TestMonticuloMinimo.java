@@ -1,8 +1,12 @@
 package mx.unam.ciencias.edd.test;
 
+import java.util.ArrayList;
+import java.util.List;
 import java.util.NoSuchElementException;
 import java.util.Iterator;
 import java.util.Random;
+import java.util.Spliterator;
+import java.util.stream.Collectors;
 import mx.unam.ciencias.edd.ComparableIndexable;
 import mx.unam.ciencias.edd.Indexable;
 import mx.unam.ciencias.edd.Lista;
@@ -269,4 +273,21 @@ public class TestMonticuloMinimo {
             } catch (UnsupportedOperationException nsee) {}
         }
     }
+
+    /**
+     * Prueba unitaria para {@link MonticuloMinimo#spliterator} y {@link
+     * MonticuloMinimo#parallelStream}.
+     */
+    @Test public void testStream() {
+        List<Indexable<String>> l = new ArrayList<Indexable<String>>();
+        for (Indexable<String> e : monticulo)
+            l.add(e);
+        Spliterator<Indexable<String>> divisor = monticulo.spliterator();
+        Assert.assertTrue(divisor.getExactSizeIfKnown() == total);
+        Assert.assertTrue(divisor.hasCharacteristics(Spliterator.SUBSIZED));
+        Assert.assertTrue(monticulo.parallelStream()
+                          .collect(Collectors.toList()).equals(l));
+        monticulo.elimina();
+        Assert.assertTrue(monticulo.stream().count() == total - 1);
+    }
 }
@@ -1,5 +1,6 @@
 package mx.unam.ciencias.edd;
 
+import java.util.Comparator;
 import java.util.Iterator;
 import java.util.NoSuchElementException;
 
@@ -178,7 +179,7 @@ public class Lista<T> implements Coleccion<T> {
      * @param elemento el elemento a eliminar.
      */
     public void elimina(T elemento) {
-        Nodo nodo = buscaNodo(cabeza, elemento);
+        Nodo nodo = buscaNodo(elemento);
         if (nodo == null) {
             return;
         } else if (cabeza == rabo) {
@@ -196,10 +197,12 @@ public class Lista<T> implements Coleccion<T> {
         longitud--;
     }
 
-    private Nodo buscaNodo(Nodo a, T elemento) {
-        if (a == null) return null;
-        if (a.elemento.equals(elemento)) return a;
-        return buscaNodo(a.siguiente, elemento);
+    /* Regresa el primer nodo con el elemento, o null si no está. */
+    private Nodo buscaNodo(T elemento) {
+        Nodo nodo = cabeza;
+        while (nodo != null && !nodo.elemento.equals(elemento))
+            nodo = nodo.siguiente;
+        return nodo;
     }
 
     /**
@@ -250,7 +253,7 @@ public class Lista<T> implements Coleccion<T> {
      *         <tt>false</tt> en otro caso.
      */
     public boolean contiene(T elemento) {
-        return buscaNodo(cabeza, elemento) != null;
+        return buscaNodo(elemento) != null;
     }
 
     /**
@@ -258,14 +261,10 @@ public class Lista<T> implements Coleccion<T> {
      * @return una nueva lista que es la reversa la que manda llamar el método.
      */
     public Lista<T> reversa() {
-        Lista<T> listAux = new Lista<>();
-        return reversa(listAux, cabeza);
-    }
-
-    private Lista<T> reversa(Lista<T> list, Nodo nodo) {
-        if (nodo == null) return list;
-        list.agregaInicio(nodo.elemento);
-        return reversa(list, nodo.siguiente);
+        Lista<T> reversa = new Lista<>();
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente)
+            reversa.agregaInicio(nodo.elemento);
+        return reversa;
     }
 
     /**
@@ -274,15 +273,10 @@ public class Lista<T> implements Coleccion<T> {
      * @return una copiad de la lista.
      */
     public Lista<T> copia() {
-        Lista<T> listAux = new Lista<>();
-        return copia(listAux, cabeza);
-    }
-
-    /* Método auxiliar recursivo para copia. */
-    private Lista<T> copia(Lista<T> list, Nodo nodo) {
-        if (nodo == null) return list;
-        list.agregaFinal(nodo.elemento);
-        return copia(list, nodo.siguiente);
+        Lista<T> copia = new Lista<>();
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente)
+            copia.agregaFinal(nodo.elemento);
+        return copia;
     }
 
     /**
@@ -323,12 +317,18 @@ public class Lista<T> implements Coleccion<T> {
      */
     public T get(int i) {
         if (i < 0 || i >= getLongitud()) throw new ExcepcionIndiceInvalido();
-        return get(i, cabeza, 0);
-    }
-
-    private T get(int i, Nodo nodo, int j) {
-        if (i == j) return nodo.elemento;
-        return get(i, nodo.siguiente, j + 1);
+        /* Caminamos desde el extremo más cercano al índice. */
+        Nodo nodo;
+        if (i < longitud / 2) {
+            nodo = cabeza;
+            for (int j = 0; j < i; j++)
+                nodo = nodo.siguiente;
+        } else {
+            nodo = rabo;
+            for (int j = longitud - 1; j > i; j--)
+                nodo = nodo.anterior;
+        }
+        return nodo.elemento;
     }
 
     /**
@@ -338,13 +338,121 @@ public class Lista<T> implements Coleccion<T> {
      *         el elemento no está contenido en la lista.
      */
     public int indiceDe(T elemento) {
-        return indiceDe(0, cabeza, elemento);
+        int i = 0;
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente, i++)
+            if (nodo.elemento.equals(elemento)) return i;
+        return -1;
     }
 
-    private int indiceDe(int i, Nodo nodo, T elemento) {
-        if (nodo == null) return -1;
-        if (nodo.elemento.equals(elemento)) return i;
-        return indiceDe(i + 1, nodo.siguiente, elemento);
+    /**
+     * Ordena la lista en su lugar, de acuerdo al orden natural de sus
+     * elementos, que tienen que implementar la interfaz {@link Comparable}.
+     * Ver {@link #ordena(Comparator)}.
+     * @throws ClassCastException si los elementos no se pueden comparar
+     *         entre sí.
+     */
+    public void ordena() {
+        ordena((a, b) -> {
+                @SuppressWarnings("unchecked") Comparable<? super T> c =
+                    (Comparable<? super T>)a;
+                return c.compareTo(b);
+            });
+    }
+
+    /**
+     * Ordena la lista en su lugar con un comparador. El ordenamiento es
+     * estable, tiene complejidad en tiempo <em>O</em>(<em>n</em> log
+     * <em>r</em>), donde <em>r</em> es el número de rachas ya ordenadas en la
+     * lista, y no crea nodos: sólo vuelve a ligar los que ya tiene la lista.
+     * Si el comparador lanza una excepción, el estado de la lista queda
+     * indefinido.
+     * @param comparador el comparador para ordenar los elementos.
+     * @throws IllegalArgumentException si el comparador es <code>null</code>.
+     */
+    public void ordena(Comparator<? super T> comparador) {
+        if (comparador == null)
+            throw new IllegalArgumentException();
+        if (longitud < 2)
+            return;
+        /* En pendientes[i] hay 2^i rachas mezcladas, o null; las de índice
+         * mayor vienen antes en la lista. */
+        @SuppressWarnings("unchecked") Nodo[] pendientes =
+            (Nodo[])new Lista.Nodo[Integer.SIZE];
+        Nodo resto = cabeza;
+        while (resto != null) {
+            Nodo racha = resto;
+            resto = resto.siguiente;
+            racha.siguiente = null;
+            if (resto != null &&
+                comparador.compare(racha.elemento, resto.elemento) > 0) {
+                /* Una racha estrictamente decreciente se voltea conforme se
+                 * separa. */
+                do {
+                    Nodo siguiente = resto.siguiente;
+                    resto.siguiente = racha;
+                    racha = resto;
+                    resto = siguiente;
+                } while (resto != null &&
+                         comparador.compare(racha.elemento,
+                                            resto.elemento) > 0);
+            } else {
+                Nodo ultimo = racha;
+                while (resto != null &&
+                       comparador.compare(ultimo.elemento,
+                                          resto.elemento) <= 0) {
+                    ultimo.siguiente = resto;
+                    ultimo = resto;
+                    resto = resto.siguiente;
+                }
+                ultimo.siguiente = null;
+            }
+            int i = 0;
+            while (pendientes[i] != null) {
+                racha = mezclaRachas(pendientes[i], racha, comparador);
+                pendientes[i++] = null;
+            }
+            pendientes[i] = racha;
+        }
+        Nodo ordenada = null;
+        for (Nodo racha : pendientes)
+            if (racha != null)
+                ordenada = ordenada == null ? racha :
+                    mezclaRachas(racha, ordenada, comparador);
+        cabeza = ordenada;
+        Nodo anterior = null;
+        for (Nodo nodo = cabeza; nodo != null; nodo = nodo.siguiente) {
+            nodo.anterior = anterior;
+            anterior = nodo;
+        }
+        rabo = anterior;
+    }
+
+    /* Mezcla dos rachas ordenadas ligadas sólo por su nodo siguiente, y
+     * regresa el primer nodo de la mezcla. Con elementos iguales, los de la
+     * primera racha quedan antes. */
+    private Nodo mezclaRachas(Nodo a, Nodo b,
+                              Comparator<? super T> comparador) {
+        Nodo inicio;
+        if (comparador.compare(b.elemento, a.elemento) < 0) {
+            inicio = b;
+            b = b.siguiente;
+        } else {
+            inicio = a;
+            a = a.siguiente;
+        }
+        Nodo ultimo = inicio;
+        while (a != null && b != null) {
+            if (comparador.compare(b.elemento, a.elemento) < 0) {
+                ultimo.siguiente = b;
+                b = b.siguiente;
+            } else {
+                ultimo.siguiente = a;
+                a = a.siguiente;
+            }
+            ultimo = ultimo.siguiente;
+        }
+        ultimo.siguiente = a != null ? a : b;
+        return inicio;
     }
 
     /**
@@ -356,40 +464,9 @@ public class Lista<T> implements Coleccion<T> {
      * @return una copia de la lista recibida, pero ordenada.
      */
     public static <T extends Comparable<T>> Lista<T> mergeSort(Lista<T> l) {
-        if (l.cabeza == l.rabo) return l.copia();
-        Lista<T> li = new Lista<>();
-        Lista<T> ld = new Lista<>();
-        int c = 0;
-        for (T el : l) {
-            //Se hace una REFERENCIA a la lista deseada para agregar elementos.
-            Lista<T> ll = (c++ < l.getLongitud() / 2) ? li : ld;
-            ll.agrega(el);
-        }
-        return merge(mergeSort(li), mergeSort(ld));
-    }
-
-
-    private static <T extends Comparable<T>> Lista<T> merge(Lista<T> ld, Lista<T> li) {
-        Lista<T>.Nodo ni = li.cabeza;
-        Lista<T>.Nodo nd = ld.cabeza;
-        Lista<T> l = new Lista<>();
-
-        while (ni != null && nd != null)
-            if (ni.elemento.compareTo(nd.elemento) < 0) {
-                l.agrega(ni.elemento);
-                ni = ni.siguiente;
-            } else {
-                l.agrega(nd.elemento);
-                nd = nd.siguiente;
-            }
-        //En el caso de que en una lista ya no haya elementos, se agregan los
-        //restantes de la otra lista la lista principal.
-        Lista<T>.Nodo n = ni != null ? ni : nd;
-        while (n != null) {
-            l.agrega(n.elemento);
-            n = n.siguiente;
-        }
-        return l;
+        Lista<T> copia = l.copia();
+        copia.ordena((a, b) -> a.compareTo(b));
+        return copia;
     }
 
     /**
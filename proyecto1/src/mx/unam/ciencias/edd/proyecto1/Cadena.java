@@ -14,6 +14,12 @@ import java.text.Collator;
  */
 public class Cadena implements Comparable<Cadena> {
 
+	/** El comparador de cadenas, que ignora mayusculas y acentos. */
+	static final Collator COLLATOR = Collator.getInstance();
+	static {
+		COLLATOR.setStrength(Collator.PRIMARY);
+	}
+
 	String cadena;
 
 	public Cadena(String cadena) {
@@ -25,9 +31,7 @@ public class Cadena implements Comparable<Cadena> {
 	}
 
 	@Override public int compareTo(Cadena cad) {
-		Collator collator = Collator.getInstance();
-		collator.setStrength(Collator.PRIMARY);
-		return collator.compare(cadena.replaceAll("\\P{L}+", ""),
+		return COLLATOR.compare(cadena.replaceAll("\\P{L}+", ""),
 		                        cad.toString().replaceAll("\\P{L}+", ""));
 	}
 
@@ -53,8 +53,8 @@ public class Proyecto1 {
 					System.exit(-1);
 				}
 
-		for (Cadena cad : esReversa ?
-		        Lista.mergeSort(parrafoLista).reversa() : Lista.mergeSort(parrafoLista))
+		parrafoLista.ordena();
+		for (Cadena cad : esReversa ? parrafoLista.reversa() : parrafoLista)
 			System.out.println(cad);
 	}
 